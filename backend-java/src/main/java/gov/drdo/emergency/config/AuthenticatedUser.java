@@ -0,0 +1,44 @@
+package gov.drdo.emergency.config;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.Authentication;
+
+/**
+ * The caller named by a verified bearer token
+ */
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+
+    private final String username;
+
+    // responders.id of the caller's own unit; null for users who are not field responders
+    private final Long responderId;
+
+    public AuthenticatedUser(String username, Long responderId) {
+        this.username = username;
+        this.responderId = responderId;
+    }
+
+    /**
+     * The responder a caller may report positions for, or null when the authentication carries none
+     */
+    public static Long responderIdOf(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.responderId;
+        }
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public Long getResponderId() {
+        return responderId;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
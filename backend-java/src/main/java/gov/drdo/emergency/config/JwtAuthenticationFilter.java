@@ -0,0 +1,57 @@
+package gov.drdo.emergency.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates HTTP requests carrying an {@code Authorization: Bearer} token.
+ *
+ * Only requests the given matcher selects are looked at; everything else
+ * passes through untouched, so endpoints outside it keep their existing
+ * authentication. Requests without the header continue anonymously; a header
+ * with an invalid token is answered with 401 straight away.
+ * Added to the security filter chain only (not a bean), so the servlet
+ * container does not run it a second time.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final JwtTokenVerifier verifier;
+    private final RequestMatcher requests;
+
+    public JwtAuthenticationFilter(JwtTokenVerifier verifier, RequestMatcher requests) {
+        this.verifier = verifier;
+        this.requests = requests;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !requests.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(JwtTokenVerifier.BEARER_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            SecurityContextHolder.getContext().setAuthentication(verifier.authenticate(header));
+        } catch (AuthenticationException e) {
+            SecurityContextHolder.clearContext();
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, e.getMessage());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,99 @@
+package gov.drdo.emergency.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Verifies the HS256 bearer tokens signed with {@code app.jwt.secret}, for
+ * HTTP requests and STOMP CONNECT frames alike.
+ *
+ * The subject is the username, {@code roles} lists the user's roles (ADMIN,
+ * OPERATOR, RESPONDER, VIEWER) and {@code responder_id} is the responders.id
+ * of a field unit's own record, required for it to report positions. A
+ * secret shorter than 256 bits is not usable for HS256; every token is then
+ * rejected until JWT_SECRET is set.
+ */
+@Component
+public class JwtTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenVerifier.class);
+
+    public static final String BEARER_PREFIX = "Bearer ";
+
+    @Value("${app.jwt.secret}")
+    private String secret;
+
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < 32) {
+            logger.warn("app.jwt.secret is {} bytes, HS256 needs at least 32; responder and STOMP bearer tokens are "
+                + "rejected until JWT_SECRET is set to a longer secret", key.length);
+            return;
+        }
+        parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(key)).build();
+    }
+
+    /**
+     * The authentication a token carries, from the raw token or an Authorization header value
+     *
+     * @throws BadCredentialsException when the token is malformed, expired or not signed with our secret
+     */
+    public Authentication authenticate(String token) {
+        if (token == null || token.isBlank()) {
+            throw new BadCredentialsException("Missing bearer token");
+        }
+        if (parser == null) {
+            throw new BadCredentialsException("Bearer tokens are not accepted: JWT_SECRET is shorter than 32 bytes");
+        }
+        String compact = token.startsWith(BEARER_PREFIX) ? token.substring(BEARER_PREFIX.length()).trim() : token.trim();
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(compact).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid bearer token: " + e.getMessage(), e);
+        }
+        if (claims.getSubject() == null || claims.getSubject().isBlank()) {
+            throw new BadCredentialsException("Bearer token has no subject");
+        }
+        Number responderId = claims.get("responder_id", Number.class);
+        AuthenticatedUser user = new AuthenticatedUser(claims.getSubject(),
+            responderId != null ? responderId.longValue() : null);
+        return new UsernamePasswordAuthenticationToken(user, null, authorities(claims.get("roles")));
+    }
+
+    // Private helper methods
+
+    private static List<GrantedAuthority> authorities(Object roles) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        if (roles instanceof Collection<?> values) {
+            for (Object role : values) {
+                if (role != null) {
+                    String name = role.toString();
+                    authorities.add(new SimpleGrantedAuthority(name.startsWith("ROLE_") ? name : "ROLE_" + name));
+                }
+            }
+        }
+        return authorities;
+    }
+}
@@ -0,0 +1,34 @@
+package gov.drdo.emergency.config;
+
+import gov.drdo.emergency.service.MediaStorageService;
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Multipart configuration that spools large parts into the media staging directory.
+ *
+ * A relative spring.servlet.multipart.location is resolved by Tomcat against
+ * its own temp directory, usually on another filesystem, so the location is
+ * set here to the absolute staging directory of {@link MediaStorageService}.
+ * Spooled parts can then be renamed into the object store instead of copied.
+ */
+@Configuration
+public class MultipartConfig {
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties properties,
+                                                         @Value("${file.upload-dir:./uploads}") String uploadDir)
+            throws IOException {
+        Path staging = Files.createDirectories(MediaStorageService.stagingDirectory(uploadDir));
+        MultipartConfigElement configured = properties.createMultipartConfig();
+        return new MultipartConfigElement(staging.toString(), configured.getMaxFileSize(),
+            configured.getMaxRequestSize(), configured.getFileSizeThreshold());
+    }
+}
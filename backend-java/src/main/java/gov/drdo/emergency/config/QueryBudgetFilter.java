@@ -0,0 +1,75 @@
+package gov.drdo.emergency.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tracks the number of SQL statements each HTTP request issues and reports
+ * requests that go over {@code emergency.query-budget.max-statements}.
+ *
+ * Only statements run on the request thread are counted; work handed to the
+ * pipeline or analysis executors has its own budget. Endpoints whose statement
+ * count grows with the payload by design (bulk intake) are listed in
+ * {@code emergency.query-budget.excluded-paths}.
+ */
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    @Value("${emergency.query-budget.enabled:true}")
+    private boolean enabled;
+
+    @Value("${emergency.query-budget.excluded-paths:}")
+    private List<String> excludedPaths;
+
+    private final QueryBudgetInspector inspector;
+    private final DistributionSummary statementsPerRequest;
+    private final Counter overBudget;
+
+    public QueryBudgetFilter(QueryBudgetInspector inspector, MeterRegistry meterRegistry) {
+        this.inspector = inspector;
+        this.statementsPerRequest = DistributionSummary.builder("emergency.request.statements")
+            .description("SQL statements issued per HTTP request")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.overBudget = Counter.builder("emergency.request.statements.over-budget")
+            .description("HTTP requests that issued more statements than the query budget")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || excludedPaths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        inspector.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = inspector.end();
+            statementsPerRequest.record(statements);
+            if (statements > inspector.getMaxStatements()) {
+                overBudget.increment();
+                logger.warn("{} {} issued {} SQL statements (budget {})", request.getMethod(),
+                    request.getRequestURI(), statements, inspector.getMaxStatements());
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package gov.drdo.emergency.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a
+ * request is being tracked by {@link QueryBudgetFilter}.
+ *
+ * With {@code emergency.query-budget.fail-on-exceed=true} (test and CI
+ * profiles) the statement that crosses the budget fails, so a new N+1 shows up
+ * as a failing request instead of a slow one.
+ */
+@Component
+public class QueryBudgetInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<int[]> COUNTER = new ThreadLocal<>();
+
+    @Value("${emergency.query-budget.max-statements:20}")
+    private int maxStatements;
+
+    @Value("${emergency.query-budget.fail-on-exceed:false}")
+    private boolean failOnExceed;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNTER.get();
+        if (count != null && ++count[0] > maxStatements && failOnExceed) {
+            throw new IllegalStateException("Query budget of " + maxStatements
+                + " statements per request exceeded by: " + sql);
+        }
+        return sql;
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    /**
+     * Start counting statements on the current thread
+     */
+    void begin() {
+        COUNTER.set(new int[1]);
+    }
+
+    /**
+     * Stop counting on the current thread and return the number of statements seen
+     */
+    int end() {
+        int[] count = COUNTER.get();
+        COUNTER.remove();
+        return count != null ? count[0] : 0;
+    }
+}
@@ -0,0 +1,88 @@
+package gov.drdo.emergency.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-replica routing, enabled with {@code emergency.datasource.replicas.enabled=true}.
+ *
+ * The primary pool is built from {@code spring.datasource.*} as before; each
+ * URL in {@code emergency.datasource.replicas.urls} gets its own read-only
+ * pool. {@code @Transactional(readOnly = true)} work goes to a replica through
+ * {@link ReplicaRoutingDataSource}, everything else to the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "emergency.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Value("${emergency.datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${emergency.datasource.replicas.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${emergency.datasource.replicas.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${emergency.datasource.replicas.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${emergency.datasource.replicas.max-lag-ms:5000}")
+    private long maxLagMillis;
+
+    @Value("${emergency.datasource.replicas.lag-check-interval-ms:1000}")
+    private long lagCheckIntervalMillis;
+
+    @Value("${emergency.datasource.replicas.read-your-writes-ms:10000}")
+    private long readYourWritesMillis;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMillis, lagCheckIntervalMillis,
+            readYourWritesMillis, meterRegistry);
+    }
+
+    /**
+     * The DataSource JPA and JdbcTemplate use; defers the physical connection until
+     * the transaction's read-only flag is known
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
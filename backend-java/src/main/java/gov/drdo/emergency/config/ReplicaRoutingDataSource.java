@@ -0,0 +1,215 @@
+package gov.drdo.emergency.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a streaming replica and everything else to the primary.
+ *
+ * A replica is used only while its last measured replay lag is under
+ * {@code emergency.datasource.replicas.max-lag-ms} and the measurement is
+ * fresh. A replica counts as caught up only once it has replayed the primary's
+ * current WAL position; one whose WAL receiver is not running is never used.
+ * A caller (authenticated user, else HTTP session) that ran a read-write
+ * transaction keeps reading from the primary for
+ * {@code read-your-writes-ms}, so it sees its own writes. Anonymous callers
+ * without a session are not tracked: keying on the client address would pin
+ * everyone behind the same proxy to the primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the read-only flag is only known after the transaction manager asks for a
+ * connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+
+    private static final String PRIMARY_LSN_SQL = "SELECT pg_current_wal_lsn()::text";
+
+    // Zero once the replica has replayed up to the primary's position, read just before (an idle primary is
+    // not lag); null, i.e. unusable, while no WAL receiver runs, since a replica cut off from the primary has
+    // replayed everything it received too. Without the primary's position, falls back to what was received
+    private static final String LAG_SQL =
+        "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+        "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE pid IS NOT NULL) THEN NULL " +
+        "WHEN pg_last_wal_replay_lsn() >= COALESCE(CAST(? AS pg_lsn), pg_last_wal_receive_lsn()) THEN 0 " +
+        "ELSE (EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000)::bigint END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final long staleAfterMillis;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources, long maxLagMillis,
+                                    long lagCheckIntervalMillis, long readYourWritesMillis,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagMillis = maxLagMillis;
+        this.staleAfterMillis = lagCheckIntervalMillis * 3;
+        this.recentWriters = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(readYourWritesMillis))
+            .maximumSize(100_000)
+            .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicas.add(replica);
+            targets.put(replica.key, replica.dataSource);
+            Gauge.builder("emergency.datasource.replica.lag", replica, r -> r.lagMillis)
+                .tag("replica", replica.key)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        primaryReads = Counter.builder("emergency.datasource.reads").tag("target", PRIMARY).register(meterRegistry);
+        replicaReads = Counter.builder("emergency.datasource.reads").tag("target", "replica").register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                String caller = callerKey();
+                if (caller != null) {
+                    recentWriters.put(caller, Boolean.TRUE);
+                }
+            }
+            return PRIMARY;
+        }
+
+        String caller = callerKey();
+        if (caller != null && recentWriters.getIfPresent(caller) != null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+
+        long now = System.currentTimeMillis();
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isUsable(now, maxLagMillis, staleAfterMillis)) {
+                replicaReads.increment();
+                return replica.key;
+            }
+        }
+        primaryReads.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Measure replay lag on every replica; a replica that cannot be reached is skipped until it answers again
+     */
+    @Scheduled(fixedDelayString = "${emergency.datasource.replicas.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        String primaryLsn = primaryLsn();
+        for (Replica replica : replicas) {
+            long lag;
+            try (Connection connection = replica.dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LAG_SQL)) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    long value = rs.getLong(1);
+                    lag = rs.wasNull() ? Long.MAX_VALUE : value;
+                }
+            } catch (Exception e) {
+                logger.warn("Replica {} lag check failed: {}", replica.key, e.getMessage());
+                lag = Long.MAX_VALUE;
+            }
+            if ((lag > maxLagMillis) != (replica.lagMillis > maxLagMillis)) {
+                logger.info("Replica {} {} (lag {} ms)", replica.key,
+                    lag > maxLagMillis ? "bypassed" : "back in rotation", lag == Long.MAX_VALUE ? "unknown" : lag);
+            }
+            replica.lagMillis = lag;
+            replica.checkedAt = System.currentTimeMillis();
+        }
+    }
+
+    // Private helper methods
+
+    private String primaryLsn() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(PRIMARY_LSN_SQL)) {
+            rs.next();
+            return rs.getString(1);
+        } catch (Exception e) {
+            logger.warn("Primary WAL position unavailable, checking replicas against received WAL: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String callerKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpSession session = servletAttributes.getRequest().getSession(false);
+            if (session != null) {
+                return "session:" + session.getId();
+            }
+        }
+        return null;
+    }
+
+    private static class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        // Unknown until the first check
+        private volatile long lagMillis = Long.MAX_VALUE;
+        private volatile long checkedAt;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+
+        boolean isUsable(long now, long maxLagMillis, long staleAfterMillis) {
+            return lagMillis <= maxLagMillis && now - checkedAt <= staleAfterMillis;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package gov.drdo.emergency.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -11,6 +13,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -32,6 +35,9 @@ public class SecurityConfig {
     @Value("${app.command-center-url:http://localhost:3001}")
     private String commandCenterUrl;
     
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+    
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -44,7 +50,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/health", "/api/health/**").permitAll()
                 .requestMatchers("/api/auth/login", "/api/auth/refresh").permitAll()
                 
-                // WebSocket endpoints
+                // WebSocket endpoints; STOMP sessions authenticate on CONNECT (StompAuthenticationInterceptor)
                 .requestMatchers("/ws/**").permitAll()
                 
                 // Swagger/OpenAPI documentation
@@ -53,16 +59,24 @@ public class SecurityConfig {
                 // Static resources
                 .requestMatchers("/uploads/**", "/static/**").permitAll()
                 
+                // Local Gemini stub (only mapped with the gemini-stub profile)
+                .requestMatchers("/stub/gemini/**").permitAll()
+                
                 // Admin-only endpoints
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                // Field units report their own positions (checked per ping in ResponderLocationController)
+                .requestMatchers(HttpMethod.POST, "/api/responders/locations")
+                    .hasAnyRole("ADMIN", "OPERATOR", "RESPONDER")
                 .requestMatchers("/api/responders/**", "/api/incidents/dispatch", "/api/incidents/*/verify").hasAnyRole("ADMIN", "OPERATOR")
                 
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
             );
         
-        // Add JWT authentication filter
-        // http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        // Bearer tokens are only read on the responder endpoints; STOMP checks them on CONNECT instead
+        JwtAuthenticationFilter jwtFilter =
+            new JwtAuthenticationFilter(jwtTokenVerifier, new AntPathRequestMatcher("/api/responders/**"));
+        http.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
     }
@@ -0,0 +1,58 @@
+package gov.drdo.emergency.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Authenticates STOMP sessions with the same bearer tokens as HTTP.
+ *
+ * A CONNECT frame may carry the token in an {@code Authorization} native
+ * header ({@code Bearer ...}); a bad token refuses the connection. Sessions
+ * without one may still subscribe to broadcast topics as before, but every
+ * SEND to an application destination (/app/...) needs an authenticated
+ * session. The handshake itself stays open (/ws/** is permitAll) because
+ * SockJS clients cannot set headers on it.
+ */
+@Component
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final String APPLICATION_PREFIX = "/app/";
+
+    private final JwtTokenVerifier verifier;
+
+    public StompAuthenticationInterceptor(JwtTokenVerifier verifier) {
+        this.verifier = verifier;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String token = accessor.getFirstNativeHeader("Authorization");
+            if (token != null) {
+                // The user set on the CONNECT accessor becomes the session's user for later frames
+                accessor.setUser(verifier.authenticate(token));
+            }
+        } else if (StompCommand.SEND.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            Principal user = accessor.getUser();
+            if (destination != null && destination.startsWith(APPLICATION_PREFIX)
+                    && !(user instanceof Authentication authentication && authentication.isAuthenticated())) {
+                throw new AccessDeniedException("Sending to " + destination + " requires an authenticated session");
+            }
+        }
+        return message;
+    }
+}
@@ -1,7 +1,9 @@
 package gov.drdo.emergency.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -15,6 +17,9 @@ import org.springframework.web.socket.server.standard.ServletServerContainerFact
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    @Autowired
+    private StompAuthenticationInterceptor stompAuthenticationInterceptor;
+    
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable simple broker for destinations starting with "/topic" and "/queue"
@@ -39,12 +44,18 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("http://localhost:3001", "https://command.drdo.gov.in")
                 .withSockJS();
         
-        // Register endpoint for field responders
+        // Register endpoint for field responders; native device clients send no Origin header and are not affected
         registry.addEndpoint("/ws/responders")
-                .setAllowedOriginPatterns("*")
+                .setAllowedOriginPatterns("http://localhost:*", "https://*.drdo.gov.in")
                 .withSockJS();
     }
     
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Bearer token on CONNECT; application destinations need an authenticated session
+        registration.interceptors(stompAuthenticationInterceptor);
+    }
+    
     @Bean
     public ServletServerContainerFactoryBean createWebSocketContainer() {
         ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
@@ -0,0 +1,90 @@
+package gov.drdo.emergency.controller;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for the Gemini generateContent API used for offline load tests.
+ *
+ * Only active with the {@code gemini-stub} profile. Point the client at it with
+ * {@code gemini.api.base-url=http://localhost:8080/stub/gemini/v1beta}. Each
+ * call is answered with a canned analysis after {@code gemini.stub.latency-ms}
+ * plus up to {@code gemini.stub.jitter-ms}, without holding a request thread.
+ */
+@RestController
+@RequestMapping("/stub/gemini/v1beta/models")
+@Profile("gemini-stub")
+public class GeminiStubController {
+
+    private static final String CANNED_ANALYSIS = "{\n"
+        + "  \"confidence_score\": 0.42,\n"
+        + "  \"threat_level\": \"MEDIUM\",\n"
+        + "  \"bomb_indicators\": [\"unattended package\"],\n"
+        + "  \"analysis_summary\": \"Stubbed analysis for load testing\",\n"
+        + "  \"safety_recommendations\": [\"Cordon off the area\", \"Await bomb disposal squad\"],\n"
+        + "  \"response_protocols\": [\"Standard suspicious object protocol\"],\n"
+        + "  \"evacuation_radius\": 100,\n"
+        + "  \"specialized_units\": [\"BDDS\"],\n"
+        + "  \"immediate_actions\": [\"Keep the public away\"]\n"
+        + "}";
+
+    @Value("${gemini.stub.latency-ms:1500}")
+    private long latencyMs;
+
+    @Value("${gemini.stub.jitter-ms:500}")
+    private long jitterMs;
+
+    private ScheduledExecutorService timer;
+
+    @PostConstruct
+    public void init() {
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gemini-stub-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Answer a generateContent call after the configured latency
+     */
+    @PostMapping("/{model}:generateContent")
+    public DeferredResult<ResponseEntity<Map<String, Object>>> generateContent(
+            @PathVariable String model, @RequestBody(required = false) Map<String, Object> request) {
+
+        DeferredResult<ResponseEntity<Map<String, Object>>> result = new DeferredResult<>();
+        long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        timer.schedule(() -> result.setResult(ResponseEntity.ok(cannedResponse(model))), delay, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    // Private helper methods
+
+    private Map<String, Object> cannedResponse(String model) {
+        Map<String, Object> part = Map.of("text", CANNED_ANALYSIS);
+        Map<String, Object> content = Map.of("role", "model", "parts", List.of(part));
+        Map<String, Object> candidate = Map.of("content", content, "finishReason", "STOP", "index", 0);
+        return Map.of("candidates", List.of(candidate), "modelVersion", model);
+    }
+}
@@ -1,20 +1,48 @@
 package gov.drdo.emergency.controller;
 
+import gov.drdo.emergency.dto.BulkIncidentCreateRequest;
+import gov.drdo.emergency.dto.BulkIncidentCreateResponse;
+import gov.drdo.emergency.dto.DispatchBoardEntry;
+import gov.drdo.emergency.dto.DispatchRecommendation;
 import gov.drdo.emergency.dto.IncidentCreateRequest;
 import gov.drdo.emergency.dto.IncidentResponse;
+import gov.drdo.emergency.dto.IncidentRollupPoint;
+import gov.drdo.emergency.dto.IncidentSliceResponse;
+import gov.drdo.emergency.dto.IncidentSummary;
 import gov.drdo.emergency.dto.IncidentStatusUpdateRequest;
+import gov.drdo.emergency.dto.LiveMapResponse;
+import gov.drdo.emergency.dto.ResponderLocation;
+import gov.drdo.emergency.dto.TimelineEntry;
 import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.entity.IncidentUpdate;
+import gov.drdo.emergency.entity.Responder;
+import gov.drdo.emergency.repository.IncidentFilter;
+import gov.drdo.emergency.repository.IncidentKeyset;
+import gov.drdo.emergency.service.IncidentCache;
+import gov.drdo.emergency.service.IncidentRollupService;
 import gov.drdo.emergency.service.IncidentService;
+import gov.drdo.emergency.service.LiveLocationIndex;
 import gov.drdo.emergency.service.AIAnalysisService;
+import gov.drdo.emergency.service.AnalysisResultCache;
+import gov.drdo.emergency.service.DispatchRecommendationService;
+import gov.drdo.emergency.service.ResilientGeminiClient;
 import gov.drdo.emergency.service.ResponderService;
+import gov.drdo.emergency.service.SpatialGrid;
+import gov.drdo.emergency.service.ThreatPrescreenService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -24,8 +52,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST Controller for incident management operations
@@ -36,6 +68,11 @@ import java.util.Optional;
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"}, allowCredentials = "true")
 public class IncidentController {
     
+    // WGS84, matching the SRID of incidents.location_point
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+    
+    private static final double MAX_SEARCH_RADIUS_METERS = 100_000;
+    
     @Autowired
     private IncidentService incidentService;
     
@@ -45,6 +82,30 @@ public class IncidentController {
     @Autowired
     private AIAnalysisService aiAnalysisService;
     
+    @Autowired
+    private AnalysisResultCache analysisResultCache;
+    
+    @Autowired
+    private IncidentRollupService incidentRollupService;
+    
+    @Autowired
+    private IncidentCache incidentCache;
+    
+    @Autowired
+    private LiveLocationIndex liveLocationIndex;
+    
+    @Autowired
+    private DispatchRecommendationService dispatchRecommendationService;
+    
+    @Autowired
+    private ResilientGeminiClient resilientGeminiClient;
+    
+    @Autowired
+    private ThreatPrescreenService threatPrescreenService;
+    
+    @Autowired
+    private Validator validator;
+    
     /**
      * Create a new incident
      */
@@ -71,17 +132,75 @@ public class IncidentController {
         }
     }
     
+    /**
+     * Create incidents in bulk
+     */
+    @PostMapping("/bulk")
+    @Operation(summary = "Create incidents in bulk", description = "Batched intake for partner call centres and kiosks with per-item validation results")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<BulkIncidentCreateResponse> createIncidentsBulk(
+            @Valid @RequestBody BulkIncidentCreateRequest request) {
+        
+        List<IncidentCreateRequest> items = request.getIncidents();
+        List<List<String>> itemErrors = new ArrayList<>(items.size());
+        List<Incident> validIncidents = new ArrayList<>(items.size());
+        
+        // Validate each item independently so one bad report does not reject the batch
+        for (IncidentCreateRequest item : items) {
+            List<String> errors = new ArrayList<>();
+            if (item == null) {
+                errors.add("Incident payload is required");
+            } else {
+                Set<ConstraintViolation<IncidentCreateRequest>> violations = validator.validate(item);
+                for (ConstraintViolation<IncidentCreateRequest> violation : violations) {
+                    errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+                }
+            }
+            itemErrors.add(errors);
+            if (errors.isEmpty()) {
+                validIncidents.add(convertToEntity(item));
+            }
+        }
+        
+        // Chunks commit separately; a null entry is a valid item whose chunk hit a database error
+        List<Incident> created = incidentService.createIncidentsBulk(validIncidents, request.getSource());
+        
+        BulkIncidentCreateResponse response = new BulkIncidentCreateResponse();
+        int createdIndex = 0;
+        for (int i = 0; i < items.size(); i++) {
+            if (!itemErrors.get(i).isEmpty()) {
+                response.addRejected(i, itemErrors.get(i));
+                continue;
+            }
+            Incident incident = created.get(createdIndex++);
+            if (incident != null) {
+                response.addAccepted(i, incident.getId(), incident.getIncidentId());
+            } else {
+                response.addFailed(i, List.of("Not stored because of a database error; resubmit this item"));
+            }
+        }
+        
+        HttpStatus status;
+        if (response.getAccepted() > 0) {
+            status = HttpStatus.CREATED;
+        } else if (response.getFailed() > 0) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+        } else {
+            status = HttpStatus.UNPROCESSABLE_ENTITY;
+        }
+        return ResponseEntity.status(status).body(response);
+    }
+    
     /**
      * Get incident by ID
      */
     @GetMapping("/{id}")
     @Operation(summary = "Get incident by ID")
     public ResponseEntity<IncidentResponse> getIncidentById(@PathVariable Long id) {
-        Optional<Incident> incident = incidentService.getIncidentById(id);
+        Optional<IncidentResponse> response = incidentCache.getById(id, this::loadResponse);
         
-        if (incident.isPresent()) {
-            IncidentResponse response = convertToResponse(incident.get());
-            return ResponseEntity.ok(response);
+        if (response.isPresent()) {
+            return ResponseEntity.ok(response.get());
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -93,41 +212,111 @@ public class IncidentController {
     @GetMapping("/incident-id/{incidentId}")
     @Operation(summary = "Get incident by incident ID")
     public ResponseEntity<IncidentResponse> getIncidentByIncidentId(@PathVariable String incidentId) {
-        Optional<Incident> incident = incidentService.getIncidentByIncidentId(incidentId);
+        Optional<IncidentResponse> response = incidentCache.getByIncidentId(incidentId,
+            key -> incidentService.getIncidentByIncidentId(key).map(this::convertToResponse), this::loadResponse);
         
-        if (incident.isPresent()) {
-            IncidentResponse response = convertToResponse(incident.get());
-            return ResponseEntity.ok(response);
+        if (response.isPresent()) {
+            return ResponseEntity.ok(response.get());
         } else {
             return ResponseEntity.notFound().build();
         }
     }
     
+    /**
+     * Get an incident's update timeline
+     */
+    @GetMapping("/{id}/timeline")
+    @Operation(summary = "Get incident timeline", description = "Status changes and updates, oldest first; loaded with the incident in one query")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<List<TimelineEntry>> getIncidentTimeline(@PathVariable Long id) {
+        return incidentService.getIncidentTimeline(id)
+            .map(incident -> ResponseEntity.ok(toTimeline(incident)))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
     /**
      * Get all incidents with filters and pagination
      */
     @GetMapping
     @Operation(summary = "Get incidents with filters", description = "Get incidents with optional filters and pagination")
-    public ResponseEntity<Page<IncidentResponse>> getIncidents(
-            @Parameter(description = "Incident type filter") @RequestParam(required = false) Incident.IncidentType type,
-            @Parameter(description = "Severity level filter") @RequestParam(required = false) Incident.SeverityLevel severity,
-            @Parameter(description = "Status filter") @RequestParam(required = false) Incident.IncidentStatus status,
+    public ResponseEntity<Page<IncidentSummary>> getIncidents(
+            @Parameter(description = "Incident type filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Incident.IncidentType> type,
+            @Parameter(description = "Severity level filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Incident.SeverityLevel> severity,
+            @Parameter(description = "Status filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Incident.IncidentStatus> status,
+            @Parameter(description = "Active incidents only") @RequestParam(defaultValue = "false") boolean activeOnly,
             @Parameter(description = "Critical incidents only") @RequestParam(required = false) Boolean isCritical,
-            @Parameter(description = "Created after date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @Parameter(description = "Verified filter") @RequestParam(required = false) Boolean isVerified,
+            @Parameter(description = "Created at or after date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @Parameter(description = "Created before date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @Parameter(description = "Bounding box south edge") @RequestParam(required = false) Double minLat,
+            @Parameter(description = "Bounding box west edge") @RequestParam(required = false) Double minLon,
+            @Parameter(description = "Bounding box north edge") @RequestParam(required = false) Double maxLat,
+            @Parameter(description = "Bounding box east edge") @RequestParam(required = false) Double maxLon,
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "createdAt") String sortBy,
             @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir) {
         
-        Sort sort = Sort.by(sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, sortBy);
-        Pageable pageable = PageRequest.of(page, size, sort);
+        // Only indexed sort keys; ties broken by id so pages are stable
+        IncidentKeyset.SortKey sortKey;
+        try {
+            sortKey = IncidentKeyset.SortKey.fromProperty(sortBy);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = sortKey == IncidentKeyset.SortKey.ID
+            ? Sort.by(direction, "id")
+            : Sort.by(direction, sortKey.getProperty()).and(Sort.by(direction, "id"));
+        Pageable pageable = PageRequest.of(page, Math.min(size, IncidentKeyset.MAX_PAGE_SIZE), sort);
+        
+        IncidentFilter filter = buildFilter(type, severity, status, activeOnly, isCritical, isVerified,
+            createdAfter, createdBefore, minLat, minLon, maxLat, maxLon);
+        
+        Page<IncidentSummary> incidents = incidentService.getIncidentsByFilters(filter, pageable);
+        
+        return ResponseEntity.ok(incidents);
+    }
+    
+    /**
+     * Get incidents with filters using cursor (keyset) pagination
+     */
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll incidents with filters", description = "Cursor-based pagination without a count query; constant cost per page at any depth")
+    public ResponseEntity<IncidentSliceResponse> scrollIncidents(
+            @Parameter(description = "Incident type filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Incident.IncidentType> type,
+            @Parameter(description = "Severity level filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Incident.SeverityLevel> severity,
+            @Parameter(description = "Status filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Incident.IncidentStatus> status,
+            @Parameter(description = "Active incidents only") @RequestParam(defaultValue = "false") boolean activeOnly,
+            @Parameter(description = "Critical incidents only") @RequestParam(required = false) Boolean isCritical,
+            @Parameter(description = "Verified filter") @RequestParam(required = false) Boolean isVerified,
+            @Parameter(description = "Created at or after date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @Parameter(description = "Created before date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @Parameter(description = "Bounding box south edge") @RequestParam(required = false) Double minLat,
+            @Parameter(description = "Bounding box west edge") @RequestParam(required = false) Double minLon,
+            @Parameter(description = "Bounding box north edge") @RequestParam(required = false) Double maxLat,
+            @Parameter(description = "Bounding box east edge") @RequestParam(required = false) Double maxLon,
+            @Parameter(description = "Cursor from the previous page (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Sort by field (createdAt, updatedAt, id); ignored when a cursor is given") @RequestParam(defaultValue = "createdAt") String sortBy,
+            @Parameter(description = "Sort direction; ignored when a cursor is given") @RequestParam(defaultValue = "desc") String sortDir) {
+        
+        IncidentKeyset keyset;
+        try {
+            keyset = cursor != null && !cursor.isBlank()
+                ? IncidentKeyset.decode(cursor, size)
+                : IncidentKeyset.first(IncidentKeyset.SortKey.fromProperty(sortBy),
+                    sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         
-        Page<Incident> incidents = incidentService.getIncidentsByFilters(
-            type, severity, status, isCritical, createdAfter, pageable);
+        IncidentFilter filter = buildFilter(type, severity, status, activeOnly, isCritical, isVerified,
+            createdAfter, createdBefore, minLat, minLon, maxLat, maxLon);
         
-        Page<IncidentResponse> response = incidents.map(this::convertToResponse);
+        Slice<IncidentSummary> incidents = incidentService.getIncidentSlice(filter, keyset);
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(toSliceResponse(incidents, keyset));
     }
     
     /**
@@ -136,13 +325,23 @@ public class IncidentController {
     @GetMapping("/active")
     @Operation(summary = "Get active incidents")
     @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<List<IncidentResponse>> getActiveIncidents() {
-        List<Incident> incidents = incidentService.getActiveIncidents();
-        List<IncidentResponse> response = incidents.stream()
-            .map(this::convertToResponse)
-            .toList();
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<List<IncidentSummary>> getActiveIncidents() {
+        return ResponseEntity.ok(incidentService.getActiveIncidents());
+    }
+    
+    /**
+     * Get the dispatch board
+     */
+    @GetMapping("/dispatch-board")
+    @Operation(summary = "Get dispatch board", description = "Active incidents with their responder assignments, newest first")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<List<DispatchBoardEntry>> getDispatchBoard() {
+        List<Incident> incidents = incidentService.getDispatchBoard();
+        List<DispatchBoardEntry> board = new ArrayList<>(incidents.size());
+        for (Incident incident : incidents) {
+            board.add(DispatchBoardEntry.of(incident));
+        }
+        return ResponseEntity.ok(board);
     }
     
     /**
@@ -151,13 +350,102 @@ public class IncidentController {
     @GetMapping("/critical")
     @Operation(summary = "Get critical incidents")
     @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<List<IncidentResponse>> getCriticalIncidents() {
-        List<Incident> incidents = incidentService.getCriticalIncidents();
-        List<IncidentResponse> response = incidents.stream()
-            .map(this::convertToResponse)
-            .toList();
+    public ResponseEntity<List<IncidentSummary>> getCriticalIncidents() {
+        return ResponseEntity.ok(incidentService.getCriticalIncidents());
+    }
+    
+    /**
+     * Get active incidents and on-duty responders inside a map viewport
+     */
+    @GetMapping("/live-map")
+    @Operation(summary = "Get live map layers", description = "Served from the in-memory location index, not the database")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<LiveMapResponse> getLiveMap(
+            @Parameter(description = "Bounding box south edge") @RequestParam double minLat,
+            @Parameter(description = "Bounding box west edge") @RequestParam double minLon,
+            @Parameter(description = "Bounding box north edge") @RequestParam double maxLat,
+            @Parameter(description = "Bounding box east edge") @RequestParam double maxLon) {
         
-        return ResponseEntity.ok(response);
+        if (minLat > maxLat || minLon > maxLon) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new LiveMapResponse(
+            liveLocationIndex.findIncidentsInBox(minLat, minLon, maxLat, maxLon),
+            liveLocationIndex.findRespondersInBox(minLat, minLon, maxLat, maxLon)));
+    }
+    
+    /**
+     * Get active incidents near a position
+     */
+    @GetMapping("/nearby")
+    @Operation(summary = "Get active incidents near a position", description = "Nearest first; radius in meters")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<List<IncidentSummary>> getNearbyIncidents(
+            @Parameter(description = "Latitude") @RequestParam double latitude,
+            @Parameter(description = "Longitude") @RequestParam double longitude,
+            @Parameter(description = "Search radius in meters") @RequestParam(defaultValue = "5000") double radiusMeters) {
+        
+        if (radiusMeters <= 0 || radiusMeters > MAX_SEARCH_RADIUS_METERS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(liveLocationIndex.findIncidentsWithin(latitude, longitude, radiusMeters));
+    }
+    
+    /**
+     * Get available responders near an incident
+     */
+    @GetMapping("/{id}/nearby-responders")
+    @Operation(summary = "Get available responders near an incident", description = "Nearest first; radius in meters")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<List<ResponderLocation>> getNearbyResponders(
+            @PathVariable Long id,
+            @Parameter(description = "Search radius in meters") @RequestParam(defaultValue = "10000") double radiusMeters,
+            @Parameter(description = "Responder type filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Responder.ResponderType> type) {
+        
+        if (radiusMeters <= 0 || radiusMeters > MAX_SEARCH_RADIUS_METERS) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<IncidentSummary> incident = dispatchRecommendationService.locateIncident(id);
+        if (incident.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (incident.get().getLatitude() == null || incident.get().getLongitude() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        List<ResponderLocation> responders = new ArrayList<>();
+        for (SpatialGrid.Hit<ResponderLocation> hit : liveLocationIndex.findDispatchableRespondersWithin(
+                incident.get().getLatitude(), incident.get().getLongitude(), radiusMeters, type)) {
+            responders.add(hit.getValue());
+        }
+        return ResponseEntity.ok(responders);
+    }
+    
+    /**
+     * Get recommended responders for an incident
+     */
+    @GetMapping("/{id}/dispatch-recommendations")
+    @Operation(summary = "Get recommended responders for an incident", description = "The k dispatchable responders with the shortest estimated time to arrive that match all given filters")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<List<DispatchRecommendation>> getDispatchRecommendations(
+            @PathVariable Long id,
+            @Parameter(description = "Number of responders to recommend") @RequestParam(defaultValue = "5") int k,
+            @Parameter(description = "Responder type filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Responder.ResponderType> type,
+            @Parameter(description = "Required specializations (all must match)") @RequestParam(required = false) Set<String> specialization,
+            @Parameter(description = "Required equipment (all must match)") @RequestParam(required = false) Set<String> equipment,
+            @Parameter(description = "Vehicle type filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Responder.VehicleType> vehicleType,
+            @Parameter(description = "Search radius in meters") @RequestParam(required = false) Double maxRadiusMeters) {
+        
+        if (k <= 0 || (maxRadiusMeters != null && maxRadiusMeters <= 0)) {
+            return ResponseEntity.badRequest().build();
+        }
+        DispatchRecommendationService.DispatchCriteria criteria = new DispatchRecommendationService.DispatchCriteria(
+            type, specialization, equipment, vehicleType, maxRadiusMeters);
+        try {
+            return ResponseEntity.ok(dispatchRecommendationService.recommendForIncident(id, criteria, k));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     /**
@@ -255,19 +543,33 @@ public class IncidentController {
         return ResponseEntity.ok(stats);
     }
     
+    /**
+     * Get incident analytics time series from the rollup tables
+     */
+    @GetMapping("/analytics")
+    @Operation(summary = "Get incident counts over time", description = "Served from continuously maintained rollups; per-minute resolution for recent data, hourly and then daily for older data")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<List<IncidentRollupPoint>> getIncidentAnalytics(
+            @Parameter(description = "Bucket size (MINUTE, HOUR, DAY)") @RequestParam(defaultValue = "HOUR") IncidentRollupService.Granularity granularity,
+            @Parameter(description = "Created at or after date") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Created before date") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Dimensions to group by (TYPE, SEVERITY, STATUS, REGION); others are summed") @RequestParam(required = false) Set<IncidentRollupService.Dimension> groupBy) {
+        
+        try {
+            return ResponseEntity.ok(incidentRollupService.getSeries(granularity, from, to, groupBy));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     /**
      * Get incidents requiring escalation
      */
     @GetMapping("/requiring-escalation")
     @Operation(summary = "Get incidents requiring escalation")
     @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<List<IncidentResponse>> getIncidentsRequiringEscalation() {
-        List<Incident> incidents = incidentService.getIncidentsRequiringEscalation();
-        List<IncidentResponse> response = incidents.stream()
-            .map(this::convertToResponse)
-            .toList();
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<List<IncidentSummary>> getIncidentsRequiringEscalation() {
+        return ResponseEntity.ok(incidentService.getIncidentsRequiringEscalation());
     }
     
     /**
@@ -276,13 +578,8 @@ public class IncidentController {
     @GetMapping("/overdue")
     @Operation(summary = "Get overdue incidents")
     @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<List<IncidentResponse>> getOverdueIncidents() {
-        List<Incident> incidents = incidentService.getOverdueIncidents();
-        List<IncidentResponse> response = incidents.stream()
-            .map(this::convertToResponse)
-            .toList();
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<List<IncidentSummary>> getOverdueIncidents() {
+        return ResponseEntity.ok(incidentService.getOverdueIncidents());
     }
     
     /**
@@ -290,7 +587,7 @@ public class IncidentController {
      */
     @PostMapping("/analyze-image")
     @Operation(summary = "Analyze image for bomb threats")
-    public ResponseEntity<AIAnalysisService.AIAnalysisResult> analyzeImage(
+    public CompletableFuture<ResponseEntity<AIAnalysisService.AIAnalysisResult>> analyzeImage(
             @RequestParam("image") MultipartFile image,
             @RequestParam(required = false) String description) {
         
@@ -298,13 +595,13 @@ public class IncidentController {
             // Convert image to base64
             String imageBase64 = java.util.Base64.getEncoder().encodeToString(image.getBytes());
             
-            // Perform AI analysis
-            AIAnalysisService.AIAnalysisResult result = aiAnalysisService.analyzeImage(imageBase64, description);
-            
-            return ResponseEntity.ok(result);
+            // Perform AI analysis; the request thread is released while the model call is in flight
+            return aiAnalysisService.analyzeImageAsync(imageBase64, description)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
             
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
         }
     }
     
@@ -313,11 +610,41 @@ public class IncidentController {
      */
     @PostMapping("/analyze-text")
     @Operation(summary = "Analyze text for threat indicators")
-    public ResponseEntity<AIAnalysisService.AIAnalysisResult> analyzeText(@RequestBody String description) {
+    public CompletableFuture<ResponseEntity<AIAnalysisService.AIAnalysisResult>> analyzeText(@RequestBody String description) {
+        return aiAnalysisService.analyzeTextDescriptionAsync(description)
+            .thenApply(ResponseEntity::ok)
+            .exceptionally(e -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+    }
+    
+    /**
+     * Get AI analysis cache statistics
+     */
+    @GetMapping("/analysis-cache/statistics")
+    @Operation(summary = "Get AI analysis cache hit/miss/coalesced counters")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<AnalysisResultCache.CacheStatistics> getAnalysisCacheStatistics() {
+        return ResponseEntity.ok(analysisResultCache.getStatistics());
+    }
+    
+    /**
+     * Get AI call resilience state (circuit breaker, hedging, retries)
+     */
+    @GetMapping("/analysis-resilience/statistics")
+    @Operation(summary = "Get Gemini circuit breaker state and retry/hedge counters")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<ResilientGeminiClient.ResilienceStatistics> getAnalysisResilienceStatistics() {
+        return ResponseEntity.ok(resilientGeminiClient.getStatistics());
+    }
+    
+    /**
+     * Reload the threat pre-screen lexicon
+     */
+    @PostMapping("/threat-lexicon/reload")
+    @Operation(summary = "Reload the threat pre-screen keyword lexicon")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> reloadThreatLexicon() {
         try {
-            AIAnalysisService.AIAnalysisResult result = aiAnalysisService.analyzeTextDescription(description);
-            return ResponseEntity.ok(result);
-            
+            return ResponseEntity.ok(threatPrescreenService.reload());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -339,13 +666,65 @@ public class IncidentController {
         
         // Set location point from coordinates
         if (request.getLatitude() != null && request.getLongitude() != null) {
-            // Create Point geometry (implementation depends on your geometry library)
-            // incident.setLocationPoint(createPoint(request.getLatitude(), request.getLongitude()));
+            incident.setLocationPoint(GEOMETRY_FACTORY.createPoint(
+                new Coordinate(request.getLongitude(), request.getLatitude())));
         }
         
         return incident;
     }
     
+    private IncidentFilter buildFilter(Set<Incident.IncidentType> types, Set<Incident.SeverityLevel> severities,
+                                       Set<Incident.IncidentStatus> statuses, boolean activeOnly,
+                                       Boolean isCritical, Boolean isVerified,
+                                       LocalDateTime createdFrom, LocalDateTime createdTo,
+                                       Double minLat, Double minLon, Double maxLat, Double maxLon) {
+        IncidentFilter filter = new IncidentFilter();
+        filter.setTypes(types);
+        filter.setSeverities(severities);
+        filter.setStatuses(statuses);
+        filter.setActiveOnly(activeOnly);
+        filter.setIsCritical(isCritical);
+        filter.setIsVerified(isVerified);
+        filter.setCreatedFrom(createdFrom);
+        filter.setCreatedTo(createdTo);
+        filter.setMinLatitude(minLat);
+        filter.setMinLongitude(minLon);
+        filter.setMaxLatitude(maxLat);
+        filter.setMaxLongitude(maxLon);
+        return filter;
+    }
+    
+    private IncidentSliceResponse toSliceResponse(Slice<IncidentSummary> incidents, IncidentKeyset keyset) {
+        List<IncidentSummary> content = incidents.getContent();
+        
+        String nextCursor = null;
+        if (incidents.hasNext()) {
+            IncidentSummary last = incidents.getContent().get(incidents.getContent().size() - 1);
+            LocalDateTime lastValue = switch (keyset.getSortKey()) {
+                case CREATED_AT -> last.getCreatedAt();
+                case UPDATED_AT -> last.getUpdatedAt();
+                case ID -> null;
+            };
+            nextCursor = keyset.after(lastValue, last.getId()).encode();
+        }
+        return new IncidentSliceResponse(content, incidents.hasNext(), nextCursor);
+    }
+    
+    private Optional<IncidentResponse> loadResponse(Long id) {
+        return incidentService.getIncidentById(id).map(this::convertToResponse);
+    }
+    
+    private static List<TimelineEntry> toTimeline(Incident incident) {
+        List<IncidentUpdate> updates = new ArrayList<>(incident.getUpdates());
+        updates.sort(Comparator.comparing(IncidentUpdate::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(IncidentUpdate::getId));
+        List<TimelineEntry> timeline = new ArrayList<>(updates.size());
+        for (IncidentUpdate update : updates) {
+            timeline.add(TimelineEntry.of(update));
+        }
+        return timeline;
+    }
+    
     private IncidentResponse convertToResponse(Incident incident) {
         IncidentResponse response = new IncidentResponse();
         response.setId(incident.getId());
@@ -363,12 +742,15 @@ public class IncidentController {
         response.setAiConfidenceScore(incident.getAiConfidenceScore());
         response.setAiAnalysis(incident.getAiAnalysis());
         response.setAiRecommendations(incident.getAiRecommendations());
+        response.setAiReviewRequired(incident.getAiReviewRequired());
         response.setMediaFiles(incident.getMediaFiles());
         response.setResponseTimeTarget(incident.getResponseTimeTarget());
         response.setActualResponseTime(incident.getActualResponseTime());
         response.setIsCritical(incident.getIsCritical());
         response.setIsVerified(incident.getIsVerified());
         response.setEscalationLevel(incident.getEscalationLevel());
+        response.setMasterIncidentId(incident.getMasterIncidentId());
+        response.setDuplicateCount(incident.getDuplicateCount());
         response.setCreatedAt(incident.getCreatedAt());
         response.setUpdatedAt(incident.getUpdatedAt());
         response.setResolvedAt(incident.getResolvedAt());
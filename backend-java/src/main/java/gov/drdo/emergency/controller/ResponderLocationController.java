@@ -0,0 +1,228 @@
+package gov.drdo.emergency.controller;
+
+import gov.drdo.emergency.config.AuthenticatedUser;
+import gov.drdo.emergency.dto.LocationIngestResponse;
+import gov.drdo.emergency.dto.LocationPing;
+import gov.drdo.emergency.dto.LocationPingBatchRequest;
+import gov.drdo.emergency.dto.ResponderAssignmentEntry;
+import gov.drdo.emergency.dto.ResponderLocation;
+import gov.drdo.emergency.dto.TrackPoint;
+import gov.drdo.emergency.entity.Responder;
+import gov.drdo.emergency.repository.ResponderRepository;
+import gov.drdo.emergency.service.DispatchRecommendationService;
+import gov.drdo.emergency.service.ResponderTrackStore;
+import gov.drdo.emergency.service.ResponderTrackingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Location reports from field units, over HTTP batches and the /ws/responders STOMP endpoint, their history,
+ * capability search over responders and their assignments
+ */
+@RestController
+@RequestMapping("/api/responders")
+@Tag(name = "Responder Tracking", description = "APIs for field unit GPS reports and track history")
+public class ResponderLocationController {
+
+    private static final int MAX_TRACK_POINTS = 50_000;
+
+    @Autowired
+    private ResponderTrackingService responderTrackingService;
+
+    @Autowired
+    private ResponderTrackStore responderTrackStore;
+
+    @Autowired
+    private DispatchRecommendationService dispatchRecommendationService;
+
+    @Autowired
+    private ResponderRepository responderRepository;
+
+    /**
+     * Report a batch of positions
+     */
+    @PostMapping("/locations")
+    @Operation(summary = "Report responder positions",
+               description = "Queues GPS fixes for the live map and a batched database write; returns per-outcome counts. Responders may only report their own position, operators and admins any")
+    @PreAuthorize("hasRole('RESPONDER') or hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<LocationIngestResponse> reportLocations(@Valid @RequestBody LocationPingBatchRequest request,
+                                                                  Authentication caller) {
+        LocationIngestResponse response = responderTrackingService.ingest(request.getPings(), ownResponderId(caller));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Find responders by type, vehicle and capabilities
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Find responders with given capabilities", description = "E.g. available BOMB_DISPOSAL with robot and bomb suit; DISPATCHABLE and ON_DUTY scopes are matched in memory (case-insensitive), ALL in the database (exact)")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<List<ResponderLocation>> searchResponders(
+            @Parameter(description = "Responder type filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Responder.ResponderType> type,
+            @Parameter(description = "Required specializations (all must match)") @RequestParam(required = false) Set<String> specialization,
+            @Parameter(description = "Required equipment (all must match)") @RequestParam(required = false) Set<String> equipment,
+            @Parameter(description = "Vehicle type filter (repeat or comma-separate for several)") @RequestParam(required = false) Set<Responder.VehicleType> vehicleType,
+            @Parameter(description = "Responders covered (DISPATCHABLE, ON_DUTY, ALL)") @RequestParam(defaultValue = "DISPATCHABLE") DispatchRecommendationService.SearchScope scope,
+            @Parameter(description = "Maximum responders returned") @RequestParam(defaultValue = "100") int limit) {
+
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        DispatchRecommendationService.DispatchCriteria criteria = new DispatchRecommendationService.DispatchCriteria(
+            type, specialization, equipment, vehicleType, null);
+        return ResponseEntity.ok(dispatchRecommendationService.findCapableResponders(criteria, scope, limit));
+    }
+
+    /**
+     * Get a responder's assignments with the incidents they are for
+     */
+    @GetMapping("/{id}/assignments")
+    @Operation(summary = "Get a responder's assignments", description = "Newest first, each with its incident; loaded with the responder in one query")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<List<ResponderAssignmentEntry>> getAssignments(@PathVariable Long id) {
+        return responderRepository.findDetailById(id)
+            .map(responder -> {
+                List<ResponderAssignmentEntry> assignments = new ArrayList<>(responder.getAssignments().size());
+                responder.getAssignments().forEach(assignment -> assignments.add(ResponderAssignmentEntry.of(assignment)));
+                assignments.sort(Comparator.comparing(ResponderAssignmentEntry::getAssignedAt,
+                    Comparator.nullsLast(Comparator.reverseOrder())));
+                return ResponseEntity.ok(assignments);
+            })
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Replay a responder's recorded positions
+     */
+    @GetMapping("/{id}/track")
+    @Operation(summary = "Get a responder's track", description = "Recorded positions in time order, for after-action review; at most maxPoints from the start of the range. History is kept per node, so behind a load balancer this returns only the pings this node received")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<List<TrackPoint>> getTrack(
+            @PathVariable Long id,
+            @Parameter(description = "Recorded at or after") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Recorded before") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Maximum points returned") @RequestParam(defaultValue = "10000") int maxPoints) {
+
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        int limit = Math.max(1, Math.min(maxPoints, MAX_TRACK_POINTS));
+        List<TrackPoint> points = new ArrayList<>();
+        responderTrackStore.replay(id, toEpochMillis(from), toEpochMillis(to), (responderId, time, latitude, longitude, speed) -> {
+            if (points.size() < limit) {
+                points.add(new TrackPoint(toLocalDateTime(time), latitude, longitude, Double.isNaN(speed) ? null : speed));
+            }
+        });
+        return ResponseEntity.ok(points);
+    }
+
+    /**
+     * Export all recorded positions in a time range as CSV
+     */
+    @GetMapping(value = "/tracks/export", produces = "text/csv")
+    @Operation(summary = "Export responder tracks", description = "Streams responder_id,recorded_at_ms,latitude,longitude,speed rows for model training; each responder's rows are in time order. History is kept per node, so behind a load balancer this covers only the pings this node received")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportTracks(
+            @Parameter(description = "Recorded at or after") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Recorded before") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = output -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16);
+            writer.write("responder_id,recorded_at_ms,latitude,longitude,speed\n");
+            try {
+                responderTrackStore.scan(toEpochMillis(from), toEpochMillis(to), (responderId, time, latitude, longitude, speed) -> {
+                    try {
+                        writer.write(responderId + "," + time + "," + latitude + "," + longitude + ","
+                            + (Double.isNaN(speed) ? "" : speed) + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"responder-tracks.csv\"")
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .body(body);
+    }
+
+    /**
+     * Report one position over STOMP (destination /app/responders/location)
+     */
+    @MessageMapping("/responders/location")
+    public void receiveLocation(@Payload LocationPing ping, Authentication caller) {
+        responderTrackingService.ingest(ping, ownResponderId(caller));
+    }
+
+    /**
+     * Report several positions over STOMP (destination /app/responders/locations), e.g. after reconnecting
+     */
+    @MessageMapping("/responders/locations")
+    public void receiveLocations(@Payload List<LocationPing> pings, Authentication caller) {
+        responderTrackingService.ingest(pings, ownResponderId(caller));
+    }
+
+    // Private helper methods
+
+    /**
+     * The only responder the caller may report for, or null when operators and admins report for any unit.
+     * Checked here rather than with @PreAuthorize because STOMP messages do not populate the security context.
+     */
+    private static Long ownResponderId(Authentication caller) {
+        if (caller == null || !caller.isAuthenticated()) {
+            throw new AccessDeniedException("Reporting positions requires authentication");
+        }
+        Set<String> roles = AuthorityUtils.authorityListToSet(caller.getAuthorities());
+        if (roles.contains("ROLE_OPERATOR") || roles.contains("ROLE_ADMIN")) {
+            return null;
+        }
+        Long responderId = AuthenticatedUser.responderIdOf(caller);
+        if (!roles.contains("ROLE_RESPONDER") || responderId == null) {
+            throw new AccessDeniedException("Account " + caller.getName() + " is not linked to a responder");
+        }
+        return responderId;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
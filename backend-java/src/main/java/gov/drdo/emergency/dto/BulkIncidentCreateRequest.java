@@ -0,0 +1,40 @@
+package gov.drdo.emergency.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for bulk incident intake from partner call centres and kiosks
+ */
+public class BulkIncidentCreateRequest {
+    
+    @NotEmpty(message = "At least one incident is required")
+    @Size(max = 1000, message = "A bulk request may contain at most 1000 incidents")
+    private List<IncidentCreateRequest> incidents;
+    
+    // Submitting partner, recorded as the author of each incident's first update
+    @Size(max = 100, message = "Source must not exceed 100 characters")
+    private String source;
+    
+    // Constructors
+    public BulkIncidentCreateRequest() {}
+    
+    // Getters and Setters
+    public List<IncidentCreateRequest> getIncidents() {
+        return incidents;
+    }
+    
+    public void setIncidents(List<IncidentCreateRequest> incidents) {
+        this.incidents = incidents;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+}
@@ -0,0 +1,107 @@
+package gov.drdo.emergency.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for bulk incident intake results, one entry per submitted item
+ */
+public class BulkIncidentCreateResponse {
+    
+    private int accepted;
+    private int rejected;
+    private int failed;
+    private List<ItemResult> results = new ArrayList<>();
+    
+    // Constructors
+    public BulkIncidentCreateResponse() {}
+    
+    public void addAccepted(int index, Long id, String incidentId) {
+        results.add(new ItemResult(index, ItemStatus.ACCEPTED, id, incidentId, null));
+        accepted++;
+    }
+    
+    public void addRejected(int index, List<String> errors) {
+        results.add(new ItemResult(index, ItemStatus.REJECTED, null, null, errors));
+        rejected++;
+    }
+    
+    public void addFailed(int index, List<String> errors) {
+        results.add(new ItemResult(index, ItemStatus.FAILED, null, null, errors));
+        failed++;
+    }
+    
+    // Getters and Setters
+    public int getAccepted() {
+        return accepted;
+    }
+    
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+    
+    public int getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public List<ItemResult> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<ItemResult> results) {
+        this.results = results;
+    }
+    
+    public enum ItemStatus {
+        ACCEPTED,
+        REJECTED,
+        // Valid, but its chunk could not be stored; safe to resubmit
+        FAILED
+    }
+    
+    // Inner class for per-item results
+    public static class ItemResult {
+        private int index;
+        private ItemStatus status;
+        private Long id;
+        private String incidentId;
+        private List<String> errors;
+        
+        public ItemResult() {}
+        
+        public ItemResult(int index, ItemStatus status, Long id, String incidentId, List<String> errors) {
+            this.index = index;
+            this.status = status;
+            this.id = id;
+            this.incidentId = incidentId;
+            this.errors = errors;
+        }
+        
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+        
+        public ItemStatus getStatus() { return status; }
+        public void setStatus(ItemStatus status) { this.status = status; }
+        
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        
+        public String getIncidentId() { return incidentId; }
+        public void setIncidentId(String incidentId) { this.incidentId = incidentId; }
+        
+        public List<String> getErrors() { return errors; }
+        public void setErrors(List<String> errors) { this.errors = errors; }
+    }
+}
@@ -0,0 +1,98 @@
+package gov.drdo.emergency.dto;
+
+import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.entity.Responder;
+import gov.drdo.emergency.entity.ResponderAssignment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An active incident on the dispatch board with the responders assigned to it
+ */
+public class DispatchBoardEntry {
+
+    private final Long id;
+    private final String incidentId;
+    private final String title;
+    private final Incident.IncidentType type;
+    private final Incident.SeverityLevel severity;
+    private final Incident.IncidentStatus status;
+    private final Boolean isCritical;
+    private final LocalDateTime createdAt;
+    private final List<Assignment> assignments;
+
+    public DispatchBoardEntry(Long id, String incidentId, String title, Incident.IncidentType type,
+                              Incident.SeverityLevel severity, Incident.IncidentStatus status, Boolean isCritical,
+                              LocalDateTime createdAt, List<Assignment> assignments) {
+        this.id = id;
+        this.incidentId = incidentId;
+        this.title = title;
+        this.type = type;
+        this.severity = severity;
+        this.status = status;
+        this.isCritical = isCritical;
+        this.createdAt = createdAt;
+        this.assignments = assignments;
+    }
+
+    /**
+     * Entry for an incident loaded with its assignments and their responders
+     */
+    public static DispatchBoardEntry of(Incident incident) {
+        List<Assignment> assignments = new ArrayList<>(incident.getAssignments().size());
+        for (ResponderAssignment assignment : incident.getAssignments()) {
+            Responder responder = assignment.getResponder();
+            assignments.add(new Assignment(responder.getId(), responder.getName(), responder.getType(),
+                assignment.getStatus(), assignment.getPriority(), assignment.getAssignedAt(),
+                assignment.getEstimatedArrivalTime()));
+        }
+        return new DispatchBoardEntry(incident.getId(), incident.getIncidentId(), incident.getTitle(),
+            incident.getType(), incident.getSeverity(), incident.getStatus(), incident.getIsCritical(),
+            incident.getCreatedAt(), assignments);
+    }
+
+    public Long getId() { return id; }
+    public String getIncidentId() { return incidentId; }
+    public String getTitle() { return title; }
+    public Incident.IncidentType getType() { return type; }
+    public Incident.SeverityLevel getSeverity() { return severity; }
+    public Incident.IncidentStatus getStatus() { return status; }
+    public Boolean getIsCritical() { return isCritical; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public List<Assignment> getAssignments() { return assignments; }
+
+    /**
+     * A responder's assignment to the incident
+     */
+    public static class Assignment {
+        private final Long responderId;
+        private final String responderName;
+        private final Responder.ResponderType responderType;
+        private final ResponderAssignment.AssignmentStatus status;
+        private final ResponderAssignment.Priority priority;
+        private final LocalDateTime assignedAt;
+        private final LocalDateTime estimatedArrivalTime;
+
+        public Assignment(Long responderId, String responderName, Responder.ResponderType responderType,
+                          ResponderAssignment.AssignmentStatus status, ResponderAssignment.Priority priority,
+                          LocalDateTime assignedAt, LocalDateTime estimatedArrivalTime) {
+            this.responderId = responderId;
+            this.responderName = responderName;
+            this.responderType = responderType;
+            this.status = status;
+            this.priority = priority;
+            this.assignedAt = assignedAt;
+            this.estimatedArrivalTime = estimatedArrivalTime;
+        }
+
+        public Long getResponderId() { return responderId; }
+        public String getResponderName() { return responderName; }
+        public Responder.ResponderType getResponderType() { return responderType; }
+        public ResponderAssignment.AssignmentStatus getStatus() { return status; }
+        public ResponderAssignment.Priority getPriority() { return priority; }
+        public LocalDateTime getAssignedAt() { return assignedAt; }
+        public LocalDateTime getEstimatedArrivalTime() { return estimatedArrivalTime; }
+    }
+}
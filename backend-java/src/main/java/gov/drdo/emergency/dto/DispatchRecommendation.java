@@ -0,0 +1,21 @@
+package gov.drdo.emergency.dto;
+
+/**
+ * A responder suggested for an incident, with the estimate it was ranked by
+ */
+public class DispatchRecommendation {
+
+    private final ResponderLocation responder;
+    private final double distanceMeters;
+    private final long etaSeconds;
+
+    public DispatchRecommendation(ResponderLocation responder, double distanceMeters, long etaSeconds) {
+        this.responder = responder;
+        this.distanceMeters = distanceMeters;
+        this.etaSeconds = etaSeconds;
+    }
+
+    public ResponderLocation getResponder() { return responder; }
+    public double getDistanceMeters() { return distanceMeters; }
+    public long getEtaSeconds() { return etaSeconds; }
+}
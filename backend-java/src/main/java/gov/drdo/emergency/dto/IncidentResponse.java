@@ -30,6 +30,8 @@ public class IncidentResponse {
     private String aiAnalysis;
     private String aiRecommendations;
     
+    private Boolean aiReviewRequired;
+    
     private String[] mediaFiles;
     
     private Integer responseTimeTarget;
@@ -38,6 +40,8 @@ public class IncidentResponse {
     private Boolean isCritical;
     private Boolean isVerified;
     private Integer escalationLevel;
+    private Long masterIncidentId;
+    private Integer duplicateCount;
     
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -183,6 +187,14 @@ public class IncidentResponse {
         this.aiRecommendations = aiRecommendations;
     }
     
+    public Boolean getAiReviewRequired() {
+        return aiReviewRequired;
+    }
+    
+    public void setAiReviewRequired(Boolean aiReviewRequired) {
+        this.aiReviewRequired = aiReviewRequired;
+    }
+    
     public String[] getMediaFiles() {
         return mediaFiles;
     }
@@ -231,6 +243,22 @@ public class IncidentResponse {
         this.escalationLevel = escalationLevel;
     }
     
+    public Long getMasterIncidentId() {
+        return masterIncidentId;
+    }
+    
+    public void setMasterIncidentId(Long masterIncidentId) {
+        this.masterIncidentId = masterIncidentId;
+    }
+    
+    public Integer getDuplicateCount() {
+        return duplicateCount;
+    }
+    
+    public void setDuplicateCount(Integer duplicateCount) {
+        this.duplicateCount = duplicateCount;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
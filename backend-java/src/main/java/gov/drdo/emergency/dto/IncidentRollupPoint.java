@@ -0,0 +1,44 @@
+package gov.drdo.emergency.dto;
+
+import gov.drdo.emergency.entity.Incident;
+
+import java.time.LocalDateTime;
+
+/**
+ * One rollup bucket for dashboards: incidents created in the bucket, grouped by
+ * the requested dimensions (dimensions not grouped on are null)
+ */
+public class IncidentRollupPoint {
+
+    private final LocalDateTime bucketStart;
+    private final Incident.IncidentType type;
+    private final Incident.SeverityLevel severity;
+    private final Incident.IncidentStatus status;
+    private final String region;
+    private final long incidentCount;
+    private final long criticalCount;
+    private final Double averageResponseTime;
+
+    public IncidentRollupPoint(LocalDateTime bucketStart, Incident.IncidentType type, Incident.SeverityLevel severity,
+                               Incident.IncidentStatus status, String region, long incidentCount, long criticalCount,
+                               Double averageResponseTime) {
+        this.bucketStart = bucketStart;
+        this.type = type;
+        this.severity = severity;
+        this.status = status;
+        this.region = region;
+        this.incidentCount = incidentCount;
+        this.criticalCount = criticalCount;
+        this.averageResponseTime = averageResponseTime;
+    }
+
+    // Getters
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public Incident.IncidentType getType() { return type; }
+    public Incident.SeverityLevel getSeverity() { return severity; }
+    public Incident.IncidentStatus getStatus() { return status; }
+    public String getRegion() { return region; }
+    public long getIncidentCount() { return incidentCount; }
+    public long getCriticalCount() { return criticalCount; }
+    public Double getAverageResponseTime() { return averageResponseTime; }
+}
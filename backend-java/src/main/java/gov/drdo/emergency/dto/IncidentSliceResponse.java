@@ -0,0 +1,58 @@
+package gov.drdo.emergency.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for one keyset page of incident summaries; pass nextCursor back to get the following page
+ */
+public class IncidentSliceResponse {
+
+    private List<IncidentSummary> content = new ArrayList<>();
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    // Constructors
+    public IncidentSliceResponse() {}
+
+    public IncidentSliceResponse(List<IncidentSummary> content, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = content.size();
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<IncidentSummary> getContent() {
+        return content;
+    }
+
+    public void setContent(List<IncidentSummary> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,104 @@
+package gov.drdo.emergency.dto;
+
+import gov.drdo.emergency.entity.Incident;
+import org.locationtech.jts.geom.Point;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an incident for list and dashboard views.
+ *
+ * Selected with a constructor expression over the incidents table only, so
+ * list queries never read the description, AI analysis or media columns;
+ * fetch the incident by ID for those.
+ */
+public class IncidentSummary {
+
+    /**
+     * JPQL constructor expression matching the constructor below, for use in @Query
+     */
+    public static final String SELECT = "SELECT new gov.drdo.emergency.dto.IncidentSummary("
+        + "i.id, i.incidentId, i.title, i.type, i.severity, i.status, i.locationPoint, i.locationAddress, "
+        + "i.locationLandmark, i.aiConfidenceScore, i.responseTimeTarget, i.isCritical, i.isVerified, "
+        + "i.escalationLevel, i.masterIncidentId, i.duplicateCount, i.createdAt, i.updatedAt) ";
+
+    private final Long id;
+    private final String incidentId;
+    private final String title;
+    private final Incident.IncidentType type;
+    private final Incident.SeverityLevel severity;
+    private final Incident.IncidentStatus status;
+    private final Double latitude;
+    private final Double longitude;
+    private final String locationAddress;
+    private final String locationLandmark;
+    private final Double aiConfidenceScore;
+    private final Integer responseTimeTarget;
+    private final Boolean isCritical;
+    private final Boolean isVerified;
+    private final Integer escalationLevel;
+    private final Long masterIncidentId;
+    private final Integer duplicateCount;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public IncidentSummary(Long id, String incidentId, String title, Incident.IncidentType type,
+                           Incident.SeverityLevel severity, Incident.IncidentStatus status, Point locationPoint,
+                           String locationAddress, String locationLandmark, Double aiConfidenceScore,
+                           Integer responseTimeTarget, Boolean isCritical, Boolean isVerified,
+                           Integer escalationLevel, Long masterIncidentId, Integer duplicateCount,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.incidentId = incidentId;
+        this.title = title;
+        this.type = type;
+        this.severity = severity;
+        this.status = status;
+        this.latitude = locationPoint != null ? locationPoint.getY() : null;
+        this.longitude = locationPoint != null ? locationPoint.getX() : null;
+        this.locationAddress = locationAddress;
+        this.locationLandmark = locationLandmark;
+        this.aiConfidenceScore = aiConfidenceScore;
+        this.responseTimeTarget = responseTimeTarget;
+        this.isCritical = isCritical;
+        this.isVerified = isVerified;
+        this.escalationLevel = escalationLevel;
+        this.masterIncidentId = masterIncidentId;
+        this.duplicateCount = duplicateCount;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Summary of a loaded incident, for callers that already hold the entity
+     */
+    public static IncidentSummary of(Incident incident) {
+        return new IncidentSummary(incident.getId(), incident.getIncidentId(), incident.getTitle(), incident.getType(),
+            incident.getSeverity(), incident.getStatus(), incident.getLocationPoint(), incident.getLocationAddress(),
+            incident.getLocationLandmark(), incident.getAiConfidenceScore(), incident.getResponseTimeTarget(),
+            incident.getIsCritical(), incident.getIsVerified(), incident.getEscalationLevel(),
+            incident.getMasterIncidentId(), incident.getDuplicateCount(), incident.getCreatedAt(),
+            incident.getUpdatedAt());
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getIncidentId() { return incidentId; }
+    public String getTitle() { return title; }
+    public Incident.IncidentType getType() { return type; }
+    public Incident.SeverityLevel getSeverity() { return severity; }
+    public Incident.IncidentStatus getStatus() { return status; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public String getLocationAddress() { return locationAddress; }
+    public String getLocationLandmark() { return locationLandmark; }
+    public Double getAiConfidenceScore() { return aiConfidenceScore; }
+    public Integer getResponseTimeTarget() { return responseTimeTarget; }
+    public Boolean getIsCritical() { return isCritical; }
+    public Boolean getIsVerified() { return isVerified; }
+    public Integer getEscalationLevel() { return escalationLevel; }
+    public Long getMasterIncidentId() { return masterIncidentId; }
+    public Integer getDuplicateCount() { return duplicateCount; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,20 @@
+package gov.drdo.emergency.dto;
+
+import java.util.List;
+
+/**
+ * Active incidents and on-duty responders inside a map viewport
+ */
+public class LiveMapResponse {
+
+    private final List<IncidentSummary> incidents;
+    private final List<ResponderLocation> responders;
+
+    public LiveMapResponse(List<IncidentSummary> incidents, List<ResponderLocation> responders) {
+        this.incidents = incidents;
+        this.responders = responders;
+    }
+
+    public List<IncidentSummary> getIncidents() { return incidents; }
+    public List<ResponderLocation> getResponders() { return responders; }
+}
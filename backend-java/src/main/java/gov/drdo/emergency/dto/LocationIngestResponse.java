@@ -0,0 +1,56 @@
+package gov.drdo.emergency.dto;
+
+/**
+ * Outcome counts for a batch of location pings
+ */
+public class LocationIngestResponse {
+
+    // Queued for the live index and the next database flush
+    private int accepted;
+
+    // Missing responder id, coordinates out of range or another unit's responder id
+    private int rejected;
+
+    // Ingestion buffer full; only the unit's next ping matters, so clients need not resend these
+    private int dropped;
+
+    // Constructors
+    public LocationIngestResponse() {}
+
+    public void addAccepted() {
+        accepted++;
+    }
+
+    public void addRejected() {
+        rejected++;
+    }
+
+    public void addDropped() {
+        dropped++;
+    }
+
+    // Getters and Setters
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public int getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(int dropped) {
+        this.dropped = dropped;
+    }
+}
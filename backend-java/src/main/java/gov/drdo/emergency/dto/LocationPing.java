@@ -0,0 +1,69 @@
+package gov.drdo.emergency.dto;
+
+/**
+ * One GPS fix reported by a field unit
+ */
+public class LocationPing {
+
+    // Database id of the responder (responders.id)
+    private Long responderId;
+    private Double latitude;
+    private Double longitude;
+
+    // Ground speed in meters per second; optional, derived from the previous fix when absent
+    private Double speed;
+
+    // Device time of the fix in epoch milliseconds; optional, the server receive time is used when absent
+    private Long recordedAt;
+
+    // Constructors
+    public LocationPing() {}
+
+    public LocationPing(Long responderId, Double latitude, Double longitude, Long recordedAt) {
+        this.responderId = responderId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.recordedAt = recordedAt;
+    }
+
+    // Getters and Setters
+    public Long getResponderId() {
+        return responderId;
+    }
+
+    public void setResponderId(Long responderId) {
+        this.responderId = responderId;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Double getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(Double speed) {
+        this.speed = speed;
+    }
+
+    public Long getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(Long recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+}
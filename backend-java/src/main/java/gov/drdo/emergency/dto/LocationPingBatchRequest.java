@@ -0,0 +1,28 @@
+package gov.drdo.emergency.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for a batch of GPS fixes from field units or a vehicle tracking gateway
+ */
+public class LocationPingBatchRequest {
+
+    @NotEmpty(message = "At least one location is required")
+    @Size(max = 5000, message = "A batch may contain at most 5000 locations")
+    private List<LocationPing> pings;
+
+    // Constructors
+    public LocationPingBatchRequest() {}
+
+    // Getters and Setters
+    public List<LocationPing> getPings() {
+        return pings;
+    }
+
+    public void setPings(List<LocationPing> pings) {
+        this.pings = pings;
+    }
+}
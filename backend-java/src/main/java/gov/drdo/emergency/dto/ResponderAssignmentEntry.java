@@ -0,0 +1,69 @@
+package gov.drdo.emergency.dto;
+
+import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.entity.ResponderAssignment;
+
+import java.time.LocalDateTime;
+
+/**
+ * One of a responder's assignments with the incident it is for (responder detail view)
+ */
+public class ResponderAssignmentEntry {
+
+    private final Long id;
+    private final ResponderAssignment.AssignmentStatus status;
+    private final ResponderAssignment.Priority priority;
+    private final LocalDateTime assignedAt;
+    private final LocalDateTime estimatedArrivalTime;
+    private final LocalDateTime actualArrivalTime;
+    private final LocalDateTime completionTime;
+    private final Long incidentId;
+    private final String incidentReference;
+    private final String incidentTitle;
+    private final Incident.SeverityLevel incidentSeverity;
+    private final Incident.IncidentStatus incidentStatus;
+
+    public ResponderAssignmentEntry(Long id, ResponderAssignment.AssignmentStatus status,
+                                    ResponderAssignment.Priority priority, LocalDateTime assignedAt,
+                                    LocalDateTime estimatedArrivalTime, LocalDateTime actualArrivalTime,
+                                    LocalDateTime completionTime, Long incidentId, String incidentReference,
+                                    String incidentTitle, Incident.SeverityLevel incidentSeverity,
+                                    Incident.IncidentStatus incidentStatus) {
+        this.id = id;
+        this.status = status;
+        this.priority = priority;
+        this.assignedAt = assignedAt;
+        this.estimatedArrivalTime = estimatedArrivalTime;
+        this.actualArrivalTime = actualArrivalTime;
+        this.completionTime = completionTime;
+        this.incidentId = incidentId;
+        this.incidentReference = incidentReference;
+        this.incidentTitle = incidentTitle;
+        this.incidentSeverity = incidentSeverity;
+        this.incidentStatus = incidentStatus;
+    }
+
+    /**
+     * Entry for an assignment loaded with its incident
+     */
+    public static ResponderAssignmentEntry of(ResponderAssignment assignment) {
+        Incident incident = assignment.getIncident();
+        return new ResponderAssignmentEntry(assignment.getId(), assignment.getStatus(), assignment.getPriority(),
+            assignment.getAssignedAt(), assignment.getEstimatedArrivalTime(), assignment.getActualArrivalTime(),
+            assignment.getCompletionTime(), incident.getId(), incident.getIncidentId(), incident.getTitle(),
+            incident.getSeverity(), incident.getStatus());
+    }
+
+    public Long getId() { return id; }
+    public ResponderAssignment.AssignmentStatus getStatus() { return status; }
+    public ResponderAssignment.Priority getPriority() { return priority; }
+    public LocalDateTime getAssignedAt() { return assignedAt; }
+    public LocalDateTime getEstimatedArrivalTime() { return estimatedArrivalTime; }
+    public LocalDateTime getActualArrivalTime() { return actualArrivalTime; }
+    public LocalDateTime getCompletionTime() { return completionTime; }
+    public Long getIncidentId() { return incidentId; }
+    public String getIncidentReference() { return incidentReference; }
+    public String getIncidentTitle() { return incidentTitle; }
+    public Incident.SeverityLevel getIncidentSeverity() { return incidentSeverity; }
+    public Incident.IncidentStatus getIncidentStatus() { return incidentStatus; }
+}
@@ -0,0 +1,122 @@
+package gov.drdo.emergency.dto;
+
+import gov.drdo.emergency.entity.Responder;
+import org.locationtech.jts.geom.Point;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an on-duty responder's position for map and dispatch views.
+ *
+ * Selected with a constructor expression, so live-location queries never
+ * load the responder's assignments or contact details.
+ */
+public class ResponderLocation {
+
+    /**
+     * JPQL constructor expression matching the constructor below, for use in @Query
+     */
+    public static final String SELECT = "SELECT new gov.drdo.emergency.dto.ResponderLocation("
+        + "r.id, r.responderId, r.name, r.type, r.rank, r.status, r.vehicleType, r.currentLocation, "
+        + "r.specializations, r.equipment, r.isOnDuty, r.isAvailable, r.lastLocationUpdate, r.updatedAt) ";
+
+    private final Long id;
+    private final String responderId;
+    private final String name;
+    private final Responder.ResponderType type;
+    private final Responder.ResponderRank rank;
+    private final Responder.ResponderStatus status;
+    private final Responder.VehicleType vehicleType;
+    private final Double latitude;
+    private final Double longitude;
+    private final String[] specializations;
+    private final String[] equipment;
+    private final Boolean isOnDuty;
+    private final Boolean isAvailable;
+    private final LocalDateTime lastLocationUpdate;
+    private final LocalDateTime updatedAt;
+
+    public ResponderLocation(Long id, String responderId, String name, Responder.ResponderType type,
+                             Responder.ResponderRank rank, Responder.ResponderStatus status,
+                             Responder.VehicleType vehicleType, Point currentLocation, String[] specializations,
+                             String[] equipment, Boolean isOnDuty, Boolean isAvailable,
+                             LocalDateTime lastLocationUpdate, LocalDateTime updatedAt) {
+        this.id = id;
+        this.responderId = responderId;
+        this.name = name;
+        this.type = type;
+        this.rank = rank;
+        this.status = status;
+        this.vehicleType = vehicleType;
+        this.latitude = currentLocation != null ? currentLocation.getY() : null;
+        this.longitude = currentLocation != null ? currentLocation.getX() : null;
+        this.specializations = specializations;
+        this.equipment = equipment;
+        this.isOnDuty = isOnDuty;
+        this.isAvailable = isAvailable;
+        this.lastLocationUpdate = lastLocationUpdate;
+        this.updatedAt = updatedAt;
+    }
+
+    private ResponderLocation(ResponderLocation source, double latitude, double longitude,
+                              LocalDateTime lastLocationUpdate) {
+        this.id = source.id;
+        this.responderId = source.responderId;
+        this.name = source.name;
+        this.type = source.type;
+        this.rank = source.rank;
+        this.status = source.status;
+        this.vehicleType = source.vehicleType;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.specializations = source.specializations;
+        this.equipment = source.equipment;
+        this.isOnDuty = source.isOnDuty;
+        this.isAvailable = source.isAvailable;
+        this.lastLocationUpdate = lastLocationUpdate;
+        this.updatedAt = source.updatedAt;
+    }
+
+    /**
+     * Location of a loaded responder, for callers that already hold the entity
+     */
+    public static ResponderLocation of(Responder responder) {
+        return new ResponderLocation(responder.getId(), responder.getResponderId(), responder.getName(),
+            responder.getType(), responder.getRank(), responder.getStatus(), responder.getVehicleType(),
+            responder.getCurrentLocation(), responder.getSpecializations(), responder.getEquipment(),
+            responder.getIsOnDuty(), responder.getIsAvailable(),
+            responder.getLastLocationUpdate(), responder.getUpdatedAt());
+    }
+
+    /**
+     * The same responder at a new position
+     */
+    public ResponderLocation withPosition(double latitude, double longitude, LocalDateTime lastLocationUpdate) {
+        return new ResponderLocation(this, latitude, longitude, lastLocationUpdate);
+    }
+
+    /**
+     * On duty, marked available and not tied up with another incident
+     */
+    public boolean isDispatchable() {
+        return Boolean.TRUE.equals(isOnDuty) && Boolean.TRUE.equals(isAvailable)
+            && status == Responder.ResponderStatus.AVAILABLE;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getResponderId() { return responderId; }
+    public String getName() { return name; }
+    public Responder.ResponderType getType() { return type; }
+    public Responder.ResponderRank getRank() { return rank; }
+    public Responder.ResponderStatus getStatus() { return status; }
+    public Responder.VehicleType getVehicleType() { return vehicleType; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public String[] getSpecializations() { return specializations; }
+    public String[] getEquipment() { return equipment; }
+    public Boolean getIsOnDuty() { return isOnDuty; }
+    public Boolean getIsAvailable() { return isAvailable; }
+    public LocalDateTime getLastLocationUpdate() { return lastLocationUpdate; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,46 @@
+package gov.drdo.emergency.dto;
+
+import gov.drdo.emergency.entity.IncidentUpdate;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of an incident's update timeline
+ */
+public class TimelineEntry {
+
+    private final Long id;
+    private final String title;
+    private final String updateText;
+    private final IncidentUpdate.UpdateType type;
+    private final String updatedBy;
+    private final Boolean isPublic;
+    private final LocalDateTime createdAt;
+
+    public TimelineEntry(Long id, String title, String updateText, IncidentUpdate.UpdateType type,
+                         String updatedBy, Boolean isPublic, LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.updateText = updateText;
+        this.type = type;
+        this.updatedBy = updatedBy;
+        this.isPublic = isPublic;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Entry for a loaded update
+     */
+    public static TimelineEntry of(IncidentUpdate update) {
+        return new TimelineEntry(update.getId(), update.getTitle(), update.getUpdateText(), update.getType(),
+            update.getUpdatedBy(), update.getIsPublic(), update.getCreatedAt());
+    }
+
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public String getUpdateText() { return updateText; }
+    public IncidentUpdate.UpdateType getType() { return type; }
+    public String getUpdatedBy() { return updatedBy; }
+    public Boolean getIsPublic() { return isPublic; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,28 @@
+package gov.drdo.emergency.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One recorded position of a responder, for track replay
+ */
+public class TrackPoint {
+
+    private final LocalDateTime recordedAt;
+    private final double latitude;
+    private final double longitude;
+
+    // Meters per second, reported by the unit or derived from the previous fix; null when unknown
+    private final Double speed;
+
+    public TrackPoint(LocalDateTime recordedAt, double latitude, double longitude, Double speed) {
+        this.recordedAt = recordedAt;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.speed = speed;
+    }
+
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public Double getSpeed() { return speed; }
+}
@@ -1,6 +1,7 @@
 package gov.drdo.emergency.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.locationtech.jts.geom.Point;
@@ -13,19 +14,33 @@ import java.util.List;
  */
 @Entity
 @Table(name = "incidents")
+// Large, rarely listed columns live in incident_details so list scans over incidents stay narrow
+@SecondaryTable(name = "incident_details", pkJoinColumns = @PrimaryKeyJoinColumn(name = "id"),
+    foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+// Fetch plans per view; each graph joins at most one collection so the row count stays one per child
+@NamedEntityGraph(name = Incident.TIMELINE_GRAPH, attributeNodes = @NamedAttributeNode("updates"))
+@NamedEntityGraph(name = Incident.DISPATCH_GRAPH,
+    attributeNodes = @NamedAttributeNode(value = "assignments", subgraph = "assignment-responder"),
+    subgraphs = @NamedSubgraph(name = "assignment-responder", attributeNodes = @NamedAttributeNode("responder")))
 public class Incident {
+
+    public static final String TIMELINE_GRAPH = "Incident.timeline";
+    public static final String DISPATCH_GRAPH = "Incident.dispatch";
+
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "incidents_seq")
+    @SequenceGenerator(name = "incidents_seq", sequenceName = "incidents_id_seq", allocationSize = 50)
     private Long id;
     
-    @Column(nullable = false, unique = true)
+    // Unique across all partitions through incident_keys (see IncidentKey)
+    @Column(nullable = false)
     private String incidentId;
     
     @Column(nullable = false)
     private String title;
     
-    @Column(columnDefinition = "TEXT")
+    @Column(table = "incident_details", columnDefinition = "TEXT")
     private String description;
     
     @Enumerated(EnumType.STRING)
@@ -61,13 +76,17 @@ public class Incident {
     @Column(name = "ai_confidence_score")
     private Double aiConfidenceScore;
     
-    @Column(name = "ai_analysis", columnDefinition = "TEXT")
+    @Column(name = "ai_analysis", table = "incident_details", columnDefinition = "TEXT")
     private String aiAnalysis;
     
-    @Column(name = "ai_recommendations", columnDefinition = "TEXT")
+    @Column(name = "ai_recommendations", table = "incident_details", columnDefinition = "TEXT")
     private String aiRecommendations;
     
-    @Column(name = "media_files", columnDefinition = "TEXT[]")
+    // Set when the last analysis came from the local fallback or failed, so an operator has to assess it
+    @Column(name = "ai_review_required")
+    private Boolean aiReviewRequired = false;
+    
+    @Column(name = "media_files", table = "incident_details", columnDefinition = "TEXT[]")
     private String[] mediaFiles;
     
     @Column(name = "response_time_target")
@@ -85,6 +104,17 @@ public class Incident {
     @Column(name = "escalation_level")
     private Integer escalationLevel = 0;
     
+    // Set when this report was linked to an earlier report of the same event
+    @Column(name = "master_incident_id")
+    private Long masterIncidentId;
+    
+    @Column(name = "duplicate_count")
+    private Integer duplicateCount = 0;
+    
+    // Storage tier; moved to true only by the archival job in the database
+    @Column(name = "archived", nullable = false, updatable = false)
+    private Boolean archived = false;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -98,12 +128,15 @@ public class Incident {
     
     // Relationships
     @OneToMany(mappedBy = "incident", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private List<IncidentResponse> responses;
     
     @OneToMany(mappedBy = "incident", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private List<IncidentUpdate> updates;
     
     @OneToMany(mappedBy = "incident", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private List<ResponderAssignment> assignments;
     
     // Enums
@@ -276,6 +309,14 @@ public class Incident {
         this.aiRecommendations = aiRecommendations;
     }
     
+    public Boolean getAiReviewRequired() {
+        return aiReviewRequired;
+    }
+    
+    public void setAiReviewRequired(Boolean aiReviewRequired) {
+        this.aiReviewRequired = aiReviewRequired;
+    }
+    
     public String[] getMediaFiles() {
         return mediaFiles;
     }
@@ -324,6 +365,30 @@ public class Incident {
         this.escalationLevel = escalationLevel;
     }
     
+    public Long getMasterIncidentId() {
+        return masterIncidentId;
+    }
+    
+    public void setMasterIncidentId(Long masterIncidentId) {
+        this.masterIncidentId = masterIncidentId;
+    }
+    
+    public Integer getDuplicateCount() {
+        return duplicateCount;
+    }
+    
+    public void setDuplicateCount(Integer duplicateCount) {
+        this.duplicateCount = duplicateCount;
+    }
+    
+    public Boolean getArchived() {
+        return archived;
+    }
+    
+    public void setArchived(Boolean archived) {
+        this.archived = archived;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,63 @@
+package gov.drdo.emergency.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only entity over incident_keys: one row per incident with its global
+ * unique IDs and the partition key (archived, created_at) of its row.
+ *
+ * The database maintains the table from triggers on incidents. Queries use it
+ * to pin an incident lookup to one partition: with the partition key known
+ * only at execution time, PostgreSQL still prunes every other partition, where
+ * a lookup by id or incident_id alone probes the index of each of them.
+ */
+@Entity
+@Immutable
+@Table(name = "incident_keys")
+public class IncidentKey {
+
+    /**
+     * JPQL condition restricting {@code Incident i} to the partition of the incident with ID {@code :id}
+     */
+    public static final String PARTITION_OF_ID =
+        "i.archived = (SELECT k.archived FROM IncidentKey k WHERE k.id = :id) "
+        + "AND i.createdAt = (SELECT k.createdAt FROM IncidentKey k WHERE k.id = :id) ";
+
+    /**
+     * JPQL condition restricting {@code Incident i} to the partition of the incident with public ID {@code :incidentId}
+     */
+    public static final String PARTITION_OF_INCIDENT_ID =
+        "i.archived = (SELECT k.archived FROM IncidentKey k WHERE k.incidentId = :incidentId) "
+        + "AND i.createdAt = (SELECT k.createdAt FROM IncidentKey k WHERE k.incidentId = :incidentId) ";
+
+    @Id
+    private Long id;
+
+    @Column(name = "incident_id", nullable = false, unique = true)
+    private String incidentId;
+
+    @Column(name = "archived", nullable = false)
+    private Boolean archived;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getIncidentId() {
+        return incidentId;
+    }
+
+    public Boolean getArchived() {
+        return archived;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
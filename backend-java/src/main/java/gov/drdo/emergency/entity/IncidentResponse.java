@@ -17,7 +17,7 @@ public class IncidentResponse {
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "incident_id", nullable = false)
+    @JoinColumn(name = "incident_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Incident incident;
     
     @Column(nullable = false)
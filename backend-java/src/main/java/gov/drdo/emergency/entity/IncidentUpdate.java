@@ -13,11 +13,12 @@ import java.time.LocalDateTime;
 public class IncidentUpdate {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "incident_updates_seq")
+    @SequenceGenerator(name = "incident_updates_seq", sequenceName = "incident_updates_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "incident_id", nullable = false)
+    @JoinColumn(name = "incident_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Incident incident;
     
     @Column(nullable = false)
@@ -1,6 +1,7 @@
 package gov.drdo.emergency.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.locationtech.jts.geom.Point;
@@ -13,7 +14,13 @@ import java.util.List;
  */
 @Entity
 @Table(name = "responders")
+@NamedEntityGraph(name = Responder.DETAIL_GRAPH,
+    attributeNodes = @NamedAttributeNode(value = "assignments", subgraph = "assignment-incident"),
+    subgraphs = @NamedSubgraph(name = "assignment-incident", attributeNodes = @NamedAttributeNode("incident")))
 public class Responder {
+
+    public static final String DETAIL_GRAPH = "Responder.detail";
+
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -96,6 +103,7 @@ public class Responder {
     
     // Relationships
     @OneToMany(mappedBy = "responder", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private List<ResponderAssignment> assignments;
     
     // Enums
@@ -17,7 +17,7 @@ public class ResponderAssignment {
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "incident_id", nullable = false)
+    @JoinColumn(name = "incident_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Incident incident;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,155 @@
+package gov.drdo.emergency.repository;
+
+import gov.drdo.emergency.entity.Incident;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Incident listing filter; unset fields add no predicate.
+ *
+ * Multi-valued fields match any of the given values (SQL IN). The bounding
+ * box is in WGS84 degrees and needs all four corners to apply.
+ */
+public class IncidentFilter {
+
+    /**
+     * Statuses counted as active; must match the partial index predicates in database/schema.sql
+     */
+    public static final Set<Incident.IncidentStatus> ACTIVE_STATUSES = EnumSet.of(
+        Incident.IncidentStatus.REPORTED,
+        Incident.IncidentStatus.VERIFIED,
+        Incident.IncidentStatus.ASSIGNED,
+        Incident.IncidentStatus.IN_PROGRESS);
+
+    /**
+     * JPQL form of ACTIVE_STATUSES for incident alias {@code i}; the statuses are literals rather than bound
+     * parameters so generic plans can still prove the partial index predicates
+     */
+    public static final String ACTIVE_CONDITION = "i.status IN ('REPORTED', 'VERIFIED', 'ASSIGNED', 'IN_PROGRESS')";
+
+    /**
+     * Statuses the archival job moves out of the hot partitions; must match archive_closed_incidents() in database/schema.sql
+     */
+    public static final Set<Incident.IncidentStatus> ARCHIVABLE_STATUSES = EnumSet.of(
+        Incident.IncidentStatus.RESOLVED,
+        Incident.IncidentStatus.CLOSED);
+
+    private Set<Incident.IncidentType> types;
+    private Set<Incident.SeverityLevel> severities;
+    private Set<Incident.IncidentStatus> statuses;
+    private boolean activeOnly;
+    private Boolean isCritical;
+    private Boolean isVerified;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private Double minLatitude;
+    private Double minLongitude;
+    private Double maxLatitude;
+    private Double maxLongitude;
+
+    // Constructors
+    public IncidentFilter() {}
+
+    public boolean hasBoundingBox() {
+        return minLatitude != null && minLongitude != null && maxLatitude != null && maxLongitude != null;
+    }
+
+    // Getters and Setters
+    public Set<Incident.IncidentType> getTypes() {
+        return types;
+    }
+
+    public void setTypes(Set<Incident.IncidentType> types) {
+        this.types = types;
+    }
+
+    public Set<Incident.SeverityLevel> getSeverities() {
+        return severities;
+    }
+
+    public void setSeverities(Set<Incident.SeverityLevel> severities) {
+        this.severities = severities;
+    }
+
+    public Set<Incident.IncidentStatus> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Set<Incident.IncidentStatus> statuses) {
+        this.statuses = statuses;
+    }
+
+    public boolean isActiveOnly() {
+        return activeOnly;
+    }
+
+    public void setActiveOnly(boolean activeOnly) {
+        this.activeOnly = activeOnly;
+    }
+
+    public Boolean getIsCritical() {
+        return isCritical;
+    }
+
+    public void setIsCritical(Boolean isCritical) {
+        this.isCritical = isCritical;
+    }
+
+    public Boolean getIsVerified() {
+        return isVerified;
+    }
+
+    public void setIsVerified(Boolean isVerified) {
+        this.isVerified = isVerified;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+
+    public Double getMinLatitude() {
+        return minLatitude;
+    }
+
+    public void setMinLatitude(Double minLatitude) {
+        this.minLatitude = minLatitude;
+    }
+
+    public Double getMinLongitude() {
+        return minLongitude;
+    }
+
+    public void setMinLongitude(Double minLongitude) {
+        this.minLongitude = minLongitude;
+    }
+
+    public Double getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    public void setMaxLatitude(Double maxLatitude) {
+        this.maxLatitude = maxLatitude;
+    }
+
+    public Double getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    public void setMaxLongitude(Double maxLongitude) {
+        this.maxLongitude = maxLongitude;
+    }
+}
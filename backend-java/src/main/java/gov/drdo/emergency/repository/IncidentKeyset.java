@@ -0,0 +1,111 @@
+package gov.drdo.emergency.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset (seek) position for incident listings.
+ *
+ * Pages are ordered by one whitelisted sort key with the primary key as the
+ * tie-breaker, and the next page starts strictly after the last row returned,
+ * so each fetch is an index range scan no matter how deep the client pages.
+ * Cursors are opaque to clients: they carry the sort key and direction as well
+ * as the last row's values, so follow-up requests only need the cursor.
+ */
+public final class IncidentKeyset {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Sort keys backed by a composite (key, id) index in database/schema.sql
+     */
+    public enum SortKey {
+        CREATED_AT("createdAt"),
+        UPDATED_AT("updatedAt"),
+        ID("id");
+
+        private final String property;
+
+        SortKey(String property) {
+            this.property = property;
+        }
+
+        public String getProperty() { return property; }
+
+        public static SortKey fromProperty(String property) {
+            for (SortKey key : values()) {
+                if (key.property.equals(property)) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort key: " + property);
+        }
+    }
+
+    private final SortKey sortKey;
+    private final Sort.Direction direction;
+    private final LocalDateTime lastValue;
+    private final Long lastId;
+    private final int size;
+
+    private IncidentKeyset(SortKey sortKey, Sort.Direction direction, LocalDateTime lastValue, Long lastId, int size) {
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.lastValue = lastValue;
+        this.lastId = lastId;
+        this.size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Position before the first row
+     */
+    public static IncidentKeyset first(SortKey sortKey, Sort.Direction direction, int size) {
+        return new IncidentKeyset(sortKey, direction, null, null, size);
+    }
+
+    /**
+     * Decode a cursor previously returned by {@link #encode()}
+     */
+    public static IncidentKeyset decode(String cursor, int size) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            LocalDateTime lastValue = parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]);
+            if (sortKey == SortKey.ID && lastValue != null) {
+                // encode() never writes a value for the id order
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new IncidentKeyset(sortKey, direction, lastValue, Long.parseLong(parts[3]), size);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Position just after the given row, in the same order
+     */
+    public IncidentKeyset after(LocalDateTime value, Long id) {
+        return new IncidentKeyset(sortKey, direction, value, id, size);
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + "|" + direction.name() + "|"
+            + (lastValue != null ? lastValue.toString() : "") + "|" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() { return lastId == null; }
+    public SortKey getSortKey() { return sortKey; }
+    public Sort.Direction getDirection() { return direction; }
+    public LocalDateTime getLastValue() { return lastValue; }
+    public Long getLastId() { return lastId; }
+    public int getSize() { return size; }
+}
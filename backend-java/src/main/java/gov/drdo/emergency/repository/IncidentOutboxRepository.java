@@ -0,0 +1,84 @@
+package gov.drdo.emergency.repository;
+
+import gov.drdo.emergency.entity.IncidentOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for incident outbox events
+ */
+@Repository
+public interface IncidentOutboxRepository extends JpaRepository<IncidentOutboxEvent, Long> {
+
+    /**
+     * Find pending events that were not picked up by a stage worker in time and whose retry backoff has elapsed
+     */
+    @Query("SELECT e FROM IncidentOutboxEvent e WHERE e.status = 'PENDING' AND e.createdAt < :threshold " +
+           "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) ORDER BY e.id ASC")
+    List<IncidentOutboxEvent> findRelayable(@Param("threshold") LocalDateTime threshold,
+                                            @Param("now") LocalDateTime now,
+                                            Pageable pageable);
+
+    /**
+     * Claim a pending event for processing; returns 0 if another worker already owns it or its backoff has not elapsed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IncidentOutboxEvent e SET e.status = 'IN_PROGRESS', e.claimedAt = :now, " +
+           "e.attempts = e.attempts + 1 WHERE e.id = :id AND e.status = 'PENDING' " +
+           "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now)")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Mark an event as completed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IncidentOutboxEvent e SET e.status = 'COMPLETED', e.processedAt = :now, " +
+           "e.lastError = NULL WHERE e.id = :id")
+    int markCompleted(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Return a failed event to the queue not before nextAttemptAt, or park it once it ran out of attempts
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IncidentOutboxEvent e SET e.status = :status, e.lastError = :error, " +
+           "e.processedAt = :now, e.nextAttemptAt = :nextAttemptAt WHERE e.id = :id")
+    int markFailed(@Param("id") Long id,
+                   @Param("status") IncidentOutboxEvent.OutboxStatus status,
+                   @Param("error") String error,
+                   @Param("now") LocalDateTime now,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * Extend the claims this node still holds (queued in the AI scheduler or running)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IncidentOutboxEvent e SET e.claimedAt = :now WHERE e.id IN :ids AND e.status = 'IN_PROGRESS'")
+    int renewClaims(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Release events whose worker died mid-flight
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IncidentOutboxEvent e SET e.status = 'PENDING' " +
+           "WHERE e.status = 'IN_PROGRESS' AND e.claimedAt < :threshold")
+    int releaseStaleClaims(@Param("threshold") LocalDateTime threshold);
+
+    /**
+     * Count events by status
+     */
+    long countByStatus(IncidentOutboxEvent.OutboxStatus status);
+}
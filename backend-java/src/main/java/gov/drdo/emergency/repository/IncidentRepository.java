@@ -1,12 +1,17 @@
 package gov.drdo.emergency.repository;
 
+import gov.drdo.emergency.dto.IncidentSummary;
 import gov.drdo.emergency.entity.Incident;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import gov.drdo.emergency.entity.IncidentKey;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,12 +21,46 @@ import java.util.Optional;
  * Repository interface for Incident entities
  */
 @Repository
-public interface IncidentRepository extends JpaRepository<Incident, Long> {
+public interface IncidentRepository extends JpaRepository<Incident, Long>, JpaSpecificationExecutor<Incident>,
+        IncidentRepositoryCustom {
     
     /**
-     * Find incident by incident ID
+     * Find incident by ID, reading only the partition that holds it
      */
-    Optional<Incident> findByIncidentId(String incidentId);
+    @Override
+    @Query("SELECT i FROM Incident i WHERE i.id = :id AND " + IncidentKey.PARTITION_OF_ID)
+    Optional<Incident> findById(@Param("id") Long id);
+    
+    /**
+     * Find incident by incident ID, reading only the partition that holds it
+     */
+    @Query("SELECT i FROM Incident i WHERE i.incidentId = :incidentId AND " + IncidentKey.PARTITION_OF_INCIDENT_ID)
+    Optional<Incident> findByIncidentId(@Param("incidentId") String incidentId);
+    
+    /**
+     * Lock an incident row until the caller's transaction ends; load the entity afterwards to see its current state
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT id FROM incidents WHERE id = :id " +
+                   "AND archived = (SELECT k.archived FROM incident_keys k WHERE k.id = :id) " +
+                   "AND created_at = (SELECT k.created_at FROM incident_keys k WHERE k.id = :id) FOR UPDATE",
+           nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+    
+    /**
+     * Find incident with its updates loaded in the same query (timeline view)
+     */
+    @EntityGraph(Incident.TIMELINE_GRAPH)
+    @Query("SELECT i FROM Incident i WHERE i.id = :id AND " + IncidentKey.PARTITION_OF_ID)
+    Optional<Incident> findTimelineById(@Param("id") Long id);
+    
+    /**
+     * Find active incidents with their assignments and assigned responders (dispatch board)
+     */
+    @EntityGraph(Incident.DISPATCH_GRAPH)
+    @Query("SELECT i FROM Incident i WHERE " + IncidentFilter.ACTIVE_CONDITION + " AND i.archived = false " +
+           "ORDER BY i.createdAt DESC")
+    List<Incident> findDispatchBoard();
     
     /**
      * Find incidents by status
@@ -39,9 +78,10 @@ public interface IncidentRepository extends JpaRepository<Incident, Long> {
     List<Incident> findBySeverity(Incident.SeverityLevel severity);
     
     /**
-     * Find critical incidents
+     * Find critical incidents (summary columns only)
      */
-    List<Incident> findByIsCriticalTrue();
+    @Query(IncidentSummary.SELECT + "FROM Incident i WHERE i.isCritical = true ORDER BY i.createdAt DESC")
+    List<IncidentSummary> findCriticalSummaries();
     
     /**
      * Find unverified incidents
@@ -49,10 +89,26 @@ public interface IncidentRepository extends JpaRepository<Incident, Long> {
     List<Incident> findByIsVerifiedFalse();
     
     /**
-     * Find active incidents (not resolved or closed)
+     * Find active incidents (summary columns only, hot partitions only)
+     */
+    @Query(IncidentSummary.SELECT + "FROM Incident i WHERE " + IncidentFilter.ACTIVE_CONDITION + " AND i.archived = false " +
+           "ORDER BY i.createdAt DESC")
+    List<IncidentSummary> findActiveSummaries();
+    
+    /**
+     * Find active incidents reported since a point in time (duplicate detection window)
+     */
+    @Query("SELECT i FROM Incident i WHERE i.createdAt >= :since AND " + IncidentFilter.ACTIVE_CONDITION + " " +
+           "AND i.archived = false ORDER BY i.createdAt ASC")
+    List<Incident> findActiveIncidentsSince(@Param("since") LocalDateTime since);
+    
+    /**
+     * Add linked duplicate reports to a master incident
      */
-    @Query("SELECT i FROM Incident i WHERE i.status NOT IN ('RESOLVED', 'CLOSED')")
-    List<Incident> findActiveIncidents();
+    @Modifying
+    @Query("UPDATE Incident i SET i.duplicateCount = COALESCE(i.duplicateCount, 0) + :count " +
+           "WHERE i.id = :id AND " + IncidentKey.PARTITION_OF_ID)
+    int addDuplicates(@Param("id") Long id, @Param("count") int count);
     
     /**
      * Find incidents within a time range
@@ -65,22 +121,42 @@ public interface IncidentRepository extends JpaRepository<Incident, Long> {
     List<Incident> findByReporterPhone(String phone);
     
     /**
-     * Find incidents by location within radius
+     * Find incidents by location within radius. The degree-based ST_DWithin only narrows the
+     * search through the GiST index; the geography test applies the radius in meters.
+     * Live map and dispatch lookups are served by LiveLocationIndex instead.
      */
-    @Query(value = "SELECT * FROM incidents i WHERE ST_DWithin(i.location_point, ST_GeomFromText(:point, 4326), :radiusMeters)", 
+    @Query(value = "SELECT i.*, d.description, d.ai_analysis, d.ai_recommendations, d.media_files " +
+                   "FROM incidents i LEFT JOIN incident_details d ON d.id = i.id " +
+                   "WHERE ST_DWithin(i.location_point, ST_GeomFromText(:point, 4326), " +
+                   "      :radiusMeters / 111320.0 / GREATEST(cos(radians(ST_Y(ST_GeomFromText(:point, 4326)))), 0.01)) " +
+                   "AND ST_DWithin(CAST(i.location_point AS geography), CAST(ST_GeomFromText(:point, 4326) AS geography), :radiusMeters)", 
            nativeQuery = true)
     List<Incident> findByLocationWithinRadius(@Param("point") String point, @Param("radiusMeters") double radiusMeters);
     
     /**
-     * Find incidents requiring escalation
+     * Summaries of active located incidents, for loading the live location index
+     */
+    @Query(IncidentSummary.SELECT + "FROM Incident i WHERE " + IncidentFilter.ACTIVE_CONDITION + " AND i.archived = false " +
+           "AND i.locationPoint IS NOT NULL")
+    List<IncidentSummary> findActiveLocatedSummaries();
+    
+    /**
+     * Summaries of incidents changed after the given time, for keeping the live location index current
      */
-    @Query("SELECT i FROM Incident i WHERE i.createdAt < :timeThreshold AND i.status IN ('REPORTED', 'VERIFIED') AND i.escalationLevel < 3")
-    List<Incident> findIncidentsRequiringEscalation(@Param("timeThreshold") LocalDateTime timeThreshold);
+    @Query(IncidentSummary.SELECT + "FROM Incident i WHERE i.updatedAt > :since")
+    List<IncidentSummary> findSummariesUpdatedSince(@Param("since") LocalDateTime since);
     
     /**
-     * Find incidents with high AI confidence score
+     * Find incidents requiring escalation (summary columns only)
      */
-    @Query("SELECT i FROM Incident i WHERE i.aiConfidenceScore >= :threshold")
+    @Query(IncidentSummary.SELECT + "FROM Incident i WHERE i.createdAt < :timeThreshold AND i.status IN ('REPORTED', 'VERIFIED') " +
+           "AND i.escalationLevel < 3 AND i.archived = false")
+    List<IncidentSummary> findSummariesRequiringEscalation(@Param("timeThreshold") LocalDateTime timeThreshold);
+    
+    /**
+     * Find incidents with high AI confidence score (model results only, not fallback scores awaiting review)
+     */
+    @Query("SELECT i FROM Incident i WHERE i.aiConfidenceScore >= :threshold AND i.aiReviewRequired = false")
     List<Incident> findHighConfidenceIncidents(@Param("threshold") double threshold);
     
     /**
@@ -95,30 +171,6 @@ public interface IncidentRepository extends JpaRepository<Incident, Long> {
     @Query("SELECT i.type, COUNT(i) FROM Incident i GROUP BY i.type")
     List<Object[]> getIncidentStatsByType();
     
-    /**
-     * Find recent incidents for dashboard
-     */
-    @Query("SELECT i FROM Incident i ORDER BY i.createdAt DESC")
-    Page<Incident> findRecentIncidents(Pageable pageable);
-    
-    /**
-     * Find incidents by multiple filters
-     */
-    @Query("SELECT i FROM Incident i WHERE " +
-           "(:type IS NULL OR i.type = :type) AND " +
-           "(:severity IS NULL OR i.severity = :severity) AND " +
-           "(:status IS NULL OR i.status = :status) AND " +
-           "(:isCritical IS NULL OR i.isCritical = :isCritical) AND " +
-           "(:createdAfter IS NULL OR i.createdAt >= :createdAfter)")
-    Page<Incident> findIncidentsByFilters(
-        @Param("type") Incident.IncidentType type,
-        @Param("severity") Incident.SeverityLevel severity,
-        @Param("status") Incident.IncidentStatus status,
-        @Param("isCritical") Boolean isCritical,
-        @Param("createdAfter") LocalDateTime createdAfter,
-        Pageable pageable
-    );
-    
     /**
      * Count incidents by status
      */
@@ -130,10 +182,10 @@ public interface IncidentRepository extends JpaRepository<Incident, Long> {
     long countByIsCriticalTrue();
     
     /**
-     * Count incidents created today
+     * Count incidents created since a point in time (range predicate, so it can use idx_incidents_created_at_id)
      */
-    @Query("SELECT COUNT(i) FROM Incident i WHERE DATE(i.createdAt) = CURRENT_DATE")
-    long countIncidentsCreatedToday();
+    @Query("SELECT COUNT(i) FROM Incident i WHERE i.createdAt >= :since")
+    long countIncidentsCreatedSince(@Param("since") LocalDateTime since);
     
     /**
      * Average response time for resolved incidents
@@ -142,10 +194,16 @@ public interface IncidentRepository extends JpaRepository<Incident, Long> {
     Double getAverageResponseTime();
     
     /**
-     * Find overdue incidents
+     * Sum and count of response times, for incrementally maintained averages
+     */
+    @Query("SELECT COALESCE(SUM(i.actualResponseTime), 0), COUNT(i.actualResponseTime) FROM Incident i")
+    List<Object[]> getResponseTimeTotals();
+    
+    /**
+     * Find overdue incidents (summary columns only)
      */
-    @Query("SELECT i FROM Incident i WHERE i.responseTimeTarget IS NOT NULL " +
+    @Query(IncidentSummary.SELECT + "FROM Incident i WHERE i.responseTimeTarget IS NOT NULL " +
            "AND EXTRACT(EPOCH FROM (CURRENT_TIMESTAMP - i.createdAt)) > i.responseTimeTarget " +
-           "AND i.status NOT IN ('RESOLVED', 'CLOSED')")
-    List<Incident> findOverdueIncidents();
+           "AND " + IncidentFilter.ACTIVE_CONDITION + " AND i.archived = false")
+    List<IncidentSummary> findOverdueSummaries();
 }
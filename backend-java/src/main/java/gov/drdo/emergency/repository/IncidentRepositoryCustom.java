@@ -0,0 +1,22 @@
+package gov.drdo.emergency.repository;
+
+import gov.drdo.emergency.dto.IncidentSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Incident queries that need hand-built criteria
+ */
+public interface IncidentRepositoryCustom {
+
+    /**
+     * Fetch one keyset page of summaries matching the filter; no count query is run
+     */
+    Slice<IncidentSummary> findSummarySlice(IncidentFilter filter, IncidentKeyset keyset);
+
+    /**
+     * Fetch one offset page of summaries matching the filter
+     */
+    Page<IncidentSummary> findSummaryPage(IncidentFilter filter, Pageable pageable);
+}
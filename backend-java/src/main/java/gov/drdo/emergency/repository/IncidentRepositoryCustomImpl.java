@@ -0,0 +1,127 @@
+package gov.drdo.emergency.repository;
+
+import gov.drdo.emergency.dto.IncidentSummary;
+import gov.drdo.emergency.entity.Incident;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Criteria-based implementation of {@link IncidentRepositoryCustom}
+ */
+public class IncidentRepositoryCustomImpl implements IncidentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<IncidentSummary> findSummarySlice(IncidentFilter filter, IncidentKeyset keyset) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<IncidentSummary> query = cb.createQuery(IncidentSummary.class);
+        Root<Incident> incident = query.from(Incident.class);
+
+        List<Predicate> predicates = IncidentSpecifications.toPredicates(filter, incident, cb);
+        if (!keyset.isFirst()) {
+            predicates.add(seekPredicate(cb, incident, keyset));
+        }
+
+        Path<Long> id = incident.get("id");
+        boolean descending = keyset.getDirection() == Sort.Direction.DESC;
+        if (keyset.getSortKey() == IncidentKeyset.SortKey.ID) {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            Path<LocalDateTime> key = incident.get(keyset.getSortKey().getProperty());
+            query.orderBy(descending ? cb.desc(key) : cb.asc(key), descending ? cb.desc(id) : cb.asc(id));
+        }
+        query.select(summary(cb, incident)).where(predicates.toArray(new Predicate[0]));
+
+        // Fetch one extra row to learn whether there is a next page
+        List<IncidentSummary> rows = entityManager.createQuery(query)
+            .setMaxResults(keyset.getSize() + 1)
+            .getResultList();
+        boolean hasNext = rows.size() > keyset.getSize();
+        List<IncidentSummary> content = hasNext ? rows.subList(0, keyset.getSize()) : rows;
+        return new SliceImpl<>(content, PageRequest.of(0, keyset.getSize()), hasNext);
+    }
+
+    @Override
+    public Page<IncidentSummary> findSummaryPage(IncidentFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<IncidentSummary> query = cb.createQuery(IncidentSummary.class);
+        Root<Incident> incident = query.from(Incident.class);
+        query.select(summary(cb, incident))
+            .where(IncidentSpecifications.toPredicates(filter, incident, cb).toArray(new Predicate[0]))
+            .orderBy(QueryUtils.toOrders(pageable.getSort(), incident, cb));
+
+        List<IncidentSummary> content = entityManager.createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList();
+
+        // The count query only runs when the page does not already tell the total
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(filter));
+    }
+
+    // Private helper methods
+
+    private long count(IncidentFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Incident> incident = query.from(Incident.class);
+        query.select(cb.count(incident))
+            .where(IncidentSpecifications.toPredicates(filter, incident, cb).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Same columns, in the same order, as {@link IncidentSummary#SELECT}
+     */
+    private static CompoundSelection<IncidentSummary> summary(CriteriaBuilder cb, Root<Incident> incident) {
+        return cb.construct(IncidentSummary.class,
+            incident.get("id"), incident.get("incidentId"), incident.get("title"), incident.get("type"),
+            incident.get("severity"), incident.get("status"), incident.get("locationPoint"),
+            incident.get("locationAddress"), incident.get("locationLandmark"), incident.get("aiConfidenceScore"),
+            incident.get("responseTimeTarget"), incident.get("isCritical"), incident.get("isVerified"),
+            incident.get("escalationLevel"), incident.get("masterIncidentId"), incident.get("duplicateCount"),
+            incident.get("createdAt"), incident.get("updatedAt"));
+    }
+
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<Incident> incident, IncidentKeyset keyset) {
+        Path<Long> id = incident.get("id");
+        boolean descending = keyset.getDirection() == Sort.Direction.DESC;
+        if (keyset.getSortKey() == IncidentKeyset.SortKey.ID) {
+            return descending ? cb.lessThan(id, keyset.getLastId()) : cb.greaterThan(id, keyset.getLastId());
+        }
+
+        // (key, id) past the cursor; the redundant bound on key alone gives the index a range start
+        Path<LocalDateTime> key = incident.get(keyset.getSortKey().getProperty());
+        LocalDateTime value = keyset.getLastValue();
+        if (value == null) {
+            return descending ? cb.lessThan(id, keyset.getLastId()) : cb.greaterThan(id, keyset.getLastId());
+        }
+        if (descending) {
+            return cb.and(
+                cb.lessThanOrEqualTo(key, value),
+                cb.or(cb.lessThan(key, value), cb.lessThan(id, keyset.getLastId())));
+        }
+        return cb.and(
+            cb.greaterThanOrEqualTo(key, value),
+            cb.or(cb.greaterThan(key, value), cb.greaterThan(id, keyset.getLastId())));
+    }
+}
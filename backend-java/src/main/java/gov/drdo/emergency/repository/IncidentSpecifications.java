@@ -0,0 +1,129 @@
+package gov.drdo.emergency.repository;
+
+import gov.drdo.emergency.entity.Incident;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.locationtech.jts.geom.Geometry;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Builds incident filter predicates.
+ *
+ * Only the filters actually supplied become predicates, each in a plain
+ * sargable form ({@code =}, {@code IN}, ranges, {@code ST_Intersects} on an
+ * envelope), so PostgreSQL plans every filter shape separately and can pick
+ * the matching composite or partial index instead of one generic plan full
+ * of {@code :x IS NULL OR ...} branches. Statuses are inlined as literals,
+ * not bound, so even a generic plan can prove a partial index predicate such
+ * as the active-status list. Status filters that cannot match an
+ * archived incident also pin {@code archived = false} so only the hot
+ * partitions are scanned.
+ */
+public final class IncidentSpecifications {
+
+    private static final int WGS84_SRID = 4326;
+
+    private IncidentSpecifications() {
+    }
+
+    public static Specification<Incident> matching(IncidentFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = toPredicates(filter, root, cb);
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    static List<Predicate> toPredicates(IncidentFilter filter, Root<Incident> incident, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        Set<Incident.IncidentStatus> statuses = effectiveStatuses(filter);
+        if (statuses != null) {
+            predicates.add(inlined(cb, incident.get("status"), statuses));
+            if (Collections.disjoint(statuses, IncidentFilter.ARCHIVABLE_STATUSES)) {
+                predicates.add(cb.isFalse(incident.get("archived")));
+            }
+        }
+        if (notEmpty(filter.getTypes())) {
+            predicates.add(in(cb, incident.get("type"), filter.getTypes()));
+        }
+        if (notEmpty(filter.getSeverities())) {
+            predicates.add(in(cb, incident.get("severity"), filter.getSeverities()));
+        }
+        if (filter.getIsCritical() != null) {
+            predicates.add(cb.equal(incident.get("isCritical"), filter.getIsCritical()));
+        }
+        if (filter.getIsVerified() != null) {
+            predicates.add(cb.equal(incident.get("isVerified"), filter.getIsVerified()));
+        }
+        if (filter.getCreatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(incident.get("createdAt"), filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            predicates.add(cb.lessThan(incident.get("createdAt"), filter.getCreatedTo()));
+        }
+        if (filter.hasBoundingBox()) {
+            // ST_Intersects carries an implicit && so the GiST index on location_point applies
+            predicates.add(cb.isTrue(cb.function("ST_Intersects", Boolean.class,
+                incident.get("locationPoint"),
+                cb.function("ST_MakeEnvelope", Geometry.class,
+                    cb.literal(filter.getMinLongitude()), cb.literal(filter.getMinLatitude()),
+                    cb.literal(filter.getMaxLongitude()), cb.literal(filter.getMaxLatitude()),
+                    cb.literal(WGS84_SRID)))));
+        }
+        return predicates;
+    }
+
+    // Private helper methods
+
+    /**
+     * Status set to filter on, or null for no status predicate; active-only narrows any explicit statuses
+     */
+    private static Set<Incident.IncidentStatus> effectiveStatuses(IncidentFilter filter) {
+        if (!filter.isActiveOnly()) {
+            return notEmpty(filter.getStatuses()) ? filter.getStatuses() : null;
+        }
+        Set<Incident.IncidentStatus> statuses = EnumSet.copyOf(IncidentFilter.ACTIVE_STATUSES);
+        if (notEmpty(filter.getStatuses())) {
+            statuses.retainAll(filter.getStatuses());
+        }
+        return statuses;
+    }
+
+    private static <T> Predicate in(CriteriaBuilder cb, Path<T> path, Set<T> values) {
+        if (values.isEmpty()) {
+            return cb.disjunction();
+        }
+        if (values.size() == 1) {
+            return cb.equal(path, values.iterator().next());
+        }
+        CriteriaBuilder.In<T> in = cb.in(path);
+        values.forEach(in::value);
+        return in;
+    }
+
+    // Enum constants only, so writing them into the SQL is safe
+    private static <E extends Enum<E>> Predicate inlined(CriteriaBuilder cb, Path<E> path, Set<E> values) {
+        if (values.isEmpty() || !(cb instanceof HibernateCriteriaBuilder)) {
+            return in(cb, path, values);
+        }
+        StringJoiner literals = new StringJoiner(", ", "? IN (", ")");
+        for (E value : values) {
+            literals.add("'" + value.name() + "'");
+        }
+        return cb.isTrue(((HibernateCriteriaBuilder) cb).sql(literals.toString(), Boolean.class, path));
+    }
+
+    private static boolean notEmpty(Set<?> values) {
+        return values != null && !values.isEmpty();
+    }
+}
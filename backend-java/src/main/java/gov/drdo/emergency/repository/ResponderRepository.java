@@ -1,6 +1,8 @@
 package gov.drdo.emergency.repository;
 
+import gov.drdo.emergency.dto.ResponderLocation;
 import gov.drdo.emergency.entity.Responder;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,6 +23,12 @@ public interface ResponderRepository extends JpaRepository<Responder, Long> {
      */
     Optional<Responder> findByResponderId(String responderId);
     
+    /**
+     * Find responder with its assignments and their incidents loaded in the same query (responder detail view)
+     */
+    @EntityGraph(Responder.DETAIL_GRAPH)
+    Optional<Responder> findDetailById(Long id);
+    
     /**
      * Find responders by type
      */
@@ -67,19 +75,24 @@ public interface ResponderRepository extends JpaRepository<Responder, Long> {
     Optional<Responder> findByBadgeNumber(String badgeNumber);
     
     /**
-     * Find responders within location radius
+     * Find responders within location radius (meters; the degree-based test only narrows the
+     * search through the GiST index)
      */
     @Query(value = "SELECT * FROM responders r WHERE r.is_available = true AND r.is_on_duty = true " +
-           "AND ST_DWithin(r.current_location, ST_GeomFromText(:point, 4326), :radiusMeters)", 
+           "AND ST_DWithin(r.current_location, ST_GeomFromText(:point, 4326), " +
+           "    :radiusMeters / 111320.0 / GREATEST(cos(radians(ST_Y(ST_GeomFromText(:point, 4326)))), 0.01)) " +
+           "AND ST_DWithin(CAST(r.current_location AS geography), CAST(ST_GeomFromText(:point, 4326) AS geography), :radiusMeters)", 
            nativeQuery = true)
     List<Responder> findAvailableRespondersNearLocation(@Param("point") String point, @Param("radiusMeters") double radiusMeters);
     
     /**
-     * Find responders by type within location radius
+     * Find responders by type within location radius (meters), nearest first
      */
     @Query(value = "SELECT * FROM responders r WHERE r.type = :type AND r.is_available = true AND r.is_on_duty = true " +
-           "AND ST_DWithin(r.current_location, ST_GeomFromText(:point, 4326), :radiusMeters) " +
-           "ORDER BY ST_Distance(r.current_location, ST_GeomFromText(:point, 4326))", 
+           "AND ST_DWithin(r.current_location, ST_GeomFromText(:point, 4326), " +
+           "    :radiusMeters / 111320.0 / GREATEST(cos(radians(ST_Y(ST_GeomFromText(:point, 4326)))), 0.01)) " +
+           "AND ST_DWithin(CAST(r.current_location AS geography), CAST(ST_GeomFromText(:point, 4326) AS geography), :radiusMeters) " +
+           "ORDER BY ST_Distance(CAST(r.current_location AS geography), CAST(ST_GeomFromText(:point, 4326) AS geography))", 
            nativeQuery = true)
     List<Responder> findRespondersByTypeNearLocation(
         @Param("type") String type, 
@@ -88,17 +101,52 @@ public interface ResponderRepository extends JpaRepository<Responder, Long> {
     );
     
     /**
-     * Find responders with specific specialization
+     * Positions of on-duty responders, for loading the live location index
+     */
+    @Query(ResponderLocation.SELECT + "FROM Responder r WHERE r.isOnDuty = true AND r.currentLocation IS NOT NULL")
+    List<ResponderLocation> findOnDutyLocations();
+    
+    /**
+     * Positions of responders changed or reported after the given time, for keeping the live location
+     * index current (position reports do not move updated_at)
+     */
+    @Query(ResponderLocation.SELECT + "FROM Responder r WHERE r.updatedAt > :since OR r.lastLocationUpdate > :since")
+    List<ResponderLocation> findLocationsUpdatedSince(@Param("since") LocalDateTime since);
+    
+    /**
+     * Find responders with specific specialization (exact match; array containment so the GIN index applies)
      */
-    @Query("SELECT r FROM Responder r WHERE :specialization = ANY(r.specializations)")
+    @Query(value = "SELECT * FROM responders r WHERE r.specializations @> ARRAY[CAST(:specialization AS text)]",
+           nativeQuery = true)
     List<Responder> findBySpecialization(@Param("specialization") String specialization);
     
     /**
-     * Find responders with specific equipment
+     * Find responders with specific equipment (exact match; array containment so the GIN index applies)
      */
-    @Query("SELECT r FROM Responder r WHERE :equipment = ANY(r.equipment)")
+    @Query(value = "SELECT * FROM responders r WHERE r.equipment @> ARRAY[CAST(:equipment AS text)]",
+           nativeQuery = true)
     List<Responder> findByEquipment(@Param("equipment") String equipment);
     
+    /**
+     * Find responders of any listed type and vehicle type that hold every listed specialization and piece
+     * of equipment (exact match), including off-duty ones; empty arrays mean no restriction. Used where the
+     * in-memory capability index does not reach.
+     */
+    @Query(value = "SELECT * FROM responders r " +
+           "WHERE (cardinality(CAST(:types AS text[])) = 0 OR r.type = ANY(CAST(:types AS text[]))) " +
+           "AND (cardinality(CAST(:vehicleTypes AS text[])) = 0 OR r.vehicle_type = ANY(CAST(:vehicleTypes AS text[]))) " +
+           "AND (cardinality(CAST(:specializations AS text[])) = 0 OR r.specializations @> CAST(:specializations AS text[])) " +
+           "AND (cardinality(CAST(:equipment AS text[])) = 0 OR r.equipment @> CAST(:equipment AS text[])) " +
+           "ORDER BY r.id LIMIT :limit",
+           nativeQuery = true)
+    List<Responder> findByCapabilities(
+        @Param("types") String[] types,
+        @Param("vehicleTypes") String[] vehicleTypes,
+        @Param("specializations") String[] specializations,
+        @Param("equipment") String[] equipment,
+        @Param("limit") int limit
+    );
+    
     /**
      * Find responders whose location was updated recently
      */
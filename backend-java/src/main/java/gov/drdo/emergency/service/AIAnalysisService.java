@@ -2,15 +2,20 @@ package gov.drdo.emergency.service;
 
 import gov.drdo.emergency.entity.Incident;
 import gov.drdo.emergency.repository.IncidentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service for AI-powered bomb detection and threat analysis using Google Gemini API
@@ -18,8 +23,7 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class AIAnalysisService {
     
-    @Value("${gemini.api.key}")
-    private String geminiApiKey;
+    private static final Logger logger = LoggerFactory.getLogger(AIAnalysisService.class);
     
     @Value("${gemini.api.model:gemini-1.5-flash}")
     private String geminiModel;
@@ -37,86 +41,138 @@ public class AIAnalysisService {
     private WebSocketService webSocketService;
     
     @Autowired
-    private RestTemplate restTemplate;
+    private ResilientGeminiClient resilientGeminiClient;
     
-    private static final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/%s:generateContent";
+    @Autowired
+    private GeminiResponseParser geminiResponseParser;
+    
+    @Autowired
+    private AnalysisResultCache analysisResultCache;
+    
+    @Autowired
+    private AnalysisScheduler analysisScheduler;
+    
+    @Autowired
+    private LocalThreatClassifier localThreatClassifier;
+    
+    @Autowired
+    private IncidentStatisticsService incidentStatisticsService;
+    
+    @Autowired
+    private IncidentRollupService incidentRollupService;
+    
+    @Autowired
+    private IncidentCache incidentCache;
+    
+    @Autowired
+    private LiveLocationIndex liveLocationIndex;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private static final String IMAGE_MODEL = "gemini-1.5-flash";
+    
+    // Part of the analysis cache key: bump whenever the prompt templates change
+    private static final String PROMPT_VERSION = "1";
     
     /**
-     * Analyze incident asynchronously using AI
+     * Analyze incident asynchronously using AI, ordered by incident priority
      */
-    @Async
     public CompletableFuture<Void> analyzeIncidentAsync(Incident incident) {
+        return analysisScheduler.schedule(incident, () -> analyzeIncident(incident));
+    }
+    
+    /**
+     * Analyze incident on the calling thread and persist the results
+     */
+    public void analyzeIncident(Incident incident) {
         try {
             AIAnalysisResult result = performThreatAnalysis(incident);
             updateIncidentWithAIResults(incident, result);
         } catch (Exception e) {
             handleAnalysisError(incident, e);
         }
-        return CompletableFuture.completedFuture(null);
     }
     
     /**
      * Perform threat analysis using Google Gemini API
      */
     public AIAnalysisResult performThreatAnalysis(Incident incident) {
-        try {
-            String prompt = buildAnalysisPrompt(incident);
-            Map<String, Object> requestBody = buildGeminiRequest(prompt);
-            
-            String apiUrl = String.format(GEMINI_API_URL, geminiModel) + "?key=" + geminiApiKey;
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.postForObject(apiUrl, requestBody, Map.class);
-            
-            return parseGeminiResponse(response);
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to perform AI analysis", e);
-        }
+        return await(performThreatAnalysisAsync(incident), "Failed to perform AI analysis");
+    }
+    
+    /**
+     * Perform threat analysis without blocking the calling thread
+     */
+    public CompletableFuture<AIAnalysisResult> performThreatAnalysisAsync(Incident incident) {
+        Map<String, Object> requestBody = buildGeminiRequest(buildAnalysisPrompt(incident));
+        return resilientGeminiClient.generateContentAsync(geminiModel, requestBody, incident.getSeverity())
+            .thenApply(geminiResponseParser::parse)
+            .exceptionally(error -> {
+                logger.warn("Gemini analysis failed for incident {}, using local classifier: {}",
+                    incident.getIncidentId(), error.getMessage());
+                return localThreatClassifier.classify(incident);
+            });
     }
     
     /**
      * Analyze image for bomb/explosive detection
      */
     public AIAnalysisResult analyzeImage(String imageBase64, String description) {
-        try {
-            String prompt = buildImageAnalysisPrompt(description);
-            Map<String, Object> requestBody = buildGeminiImageRequest(prompt, imageBase64);
-            
-            String apiUrl = String.format(GEMINI_API_URL, "gemini-1.5-flash") + "?key=" + geminiApiKey;
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.postForObject(apiUrl, requestBody, Map.class);
-            
-            return parseGeminiResponse(response);
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to analyze image", e);
-        }
+        return await(analyzeImageAsync(imageBase64, description), "Failed to analyze image");
+    }
+    
+    /**
+     * Analyze image without blocking the calling thread
+     */
+    public CompletableFuture<AIAnalysisResult> analyzeImageAsync(String imageBase64, String description) {
+        String fingerprint = AnalysisResultCache.fingerprint("image", IMAGE_MODEL, PROMPT_VERSION,
+            imageBase64, AnalysisResultCache.normalizeText(description));
+        return analysisResultCache.getOrComputeAsync(fingerprint, () -> {
+            Map<String, Object> requestBody = buildGeminiImageRequest(buildImageAnalysisPrompt(description), imageBase64);
+            return resilientGeminiClient.generateContentAsync(IMAGE_MODEL, requestBody, null)
+                .thenApply(geminiResponseParser::parse);
+        }).exceptionally(error -> {
+            // Fallback results are not cached so the next call retries the model
+            logger.warn("Gemini image analysis failed, using local classifier: {}", error.getMessage());
+            return localThreatClassifier.classify(description);
+        });
     }
     
     /**
      * Analyze text description for threat keywords and context
      */
     public AIAnalysisResult analyzeTextDescription(String description) {
-        try {
-            String prompt = buildTextAnalysisPrompt(description);
-            Map<String, Object> requestBody = buildGeminiRequest(prompt);
-            
-            String apiUrl = String.format(GEMINI_API_URL, geminiModel) + "?key=" + geminiApiKey;
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.postForObject(apiUrl, requestBody, Map.class);
-            
-            return parseGeminiResponse(response);
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to analyze text", e);
-        }
+        return await(analyzeTextDescriptionAsync(description), "Failed to analyze text");
+    }
+    
+    /**
+     * Analyze text description without blocking the calling thread
+     */
+    public CompletableFuture<AIAnalysisResult> analyzeTextDescriptionAsync(String description) {
+        String fingerprint = AnalysisResultCache.fingerprint("text", geminiModel, PROMPT_VERSION,
+            AnalysisResultCache.normalizeText(description));
+        return analysisResultCache.getOrComputeAsync(fingerprint, () -> {
+            Map<String, Object> requestBody = buildGeminiRequest(buildTextAnalysisPrompt(description));
+            return resilientGeminiClient.generateContentAsync(geminiModel, requestBody, null)
+                .thenApply(geminiResponseParser::parse);
+        }).exceptionally(error -> {
+            // Fallback results are not cached so the next call retries the model
+            logger.warn("Gemini text analysis failed, using local classifier: {}", error.getMessage());
+            return localThreatClassifier.classify(description);
+        });
     }
     
     // Private helper methods
     
+    private AIAnalysisResult await(CompletableFuture<AIAnalysisResult> future, String failureMessage) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException(failureMessage, e.getCause());
+        }
+    }
+    
     private String buildAnalysisPrompt(Incident incident) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("You are an AI expert in bomb detection and emergency threat analysis for DRDO (Defence Research and Development Organisation) of India.\n\n");
@@ -238,149 +294,37 @@ public class AIAnalysisService {
         return request;
     }
     
-    @SuppressWarnings("unchecked")
-    private AIAnalysisResult parseGeminiResponse(Map<String, Object> response) {
-        try {
-            if (response.containsKey("candidates")) {
-                Object[] candidates = (Object[]) response.get("candidates");
-                if (candidates.length > 0) {
-                    Map<String, Object> candidate = (Map<String, Object>) candidates[0];
-                    Map<String, Object> content = (Map<String, Object>) candidate.get("content");
-                    Object[] parts = (Object[]) content.get("parts");
-                    
-                    if (parts.length > 0) {
-                        Map<String, Object> part = (Map<String, Object>) parts[0];
-                        String text = (String) part.get("text");
-                        
-                        return parseAnalysisResult(text);
-                    }
-                }
-            }
-            
-            // Fallback if parsing fails
-            return createFallbackResult();
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse Gemini response", e);
-        }
-    }
-    
-    private AIAnalysisResult parseAnalysisResult(String analysisText) {
-        AIAnalysisResult result = new AIAnalysisResult();
-        
-        try {
-            // Try to extract JSON from the response
-            int jsonStart = analysisText.indexOf("{");
-            int jsonEnd = analysisText.lastIndexOf("}") + 1;
-            
-            if (jsonStart >= 0 && jsonEnd > jsonStart) {
-                String jsonString = analysisText.substring(jsonStart, jsonEnd);
-                // Parse JSON manually or use a JSON library
-                result = parseJsonAnalysis(jsonString);
-            } else {
-                // Parse as free text
-                result = parseFreeTextAnalysis(analysisText);
-            }
+    private void updateIncidentWithAIResults(Incident analyzed, AIAnalysisResult result) {
+        // Analysis can finish long after the incident was loaded; apply it to the current row so status and
+        // assignment changes made by operators in the meantime are kept
+        Incident incident = new TransactionTemplate(transactionManager).execute(status -> {
+            Incident current = lockIncident(analyzed.getId());
+            Boolean wasCritical = current.getIsCritical();
+            IncidentRollupService.Contribution rollupBefore = incidentRollupService.capture(current);
+            current.setAiConfidenceScore(result.getConfidenceScore());
+            current.setAiAnalysis(result.getAnalysisSummary());
+            current.setAiRecommendations(String.join("\n", result.getSafetyRecommendations()));
+            current.setAiReviewRequired(result.isFallback());
             
-        } catch (Exception e) {
-            result = createFallbackResult();
-            result.setAnalysisSummary("AI Analysis completed with parsing errors: " + e.getMessage());
-        }
-        
-        return result;
-    }
-    
-    private AIAnalysisResult parseJsonAnalysis(String jsonString) {
-        // Simple JSON parsing for demo - in production use proper JSON library
-        AIAnalysisResult result = new AIAnalysisResult();
-        
-        try {
-            if (jsonString.contains("confidence_score")) {
-                String score = extractJsonValue(jsonString, "confidence_score");
-                result.setConfidenceScore(Double.parseDouble(score.replaceAll("[^0-9.]", "")));
-            }
-            
-            if (jsonString.contains("threat_level")) {
-                result.setThreatLevel(extractJsonValue(jsonString, "threat_level"));
-            }
-            
-            if (jsonString.contains("analysis_summary")) {
-                result.setAnalysisSummary(extractJsonValue(jsonString, "analysis_summary"));
-            }
-            
-            if (jsonString.contains("safety_recommendations")) {
-                result.setSafetyRecommendations(extractJsonValue(jsonString, "safety_recommendations"));
+            // Auto-escalate if high confidence threat; a fallback score is only a hint for the reviewer
+            if (!result.isFallback() && result.getConfidenceScore() >= confidenceThreshold) {
+                current.setIsCritical(true);
+                if (current.getSeverity() != Incident.SeverityLevel.CRITICAL) {
+                    current.setSeverity(Incident.SeverityLevel.HIGH);
+                }
             }
             
-        } catch (Exception e) {
-            result = createFallbackResult();
-        }
-        
-        return result;
-    }
-    
-    private AIAnalysisResult parseFreeTextAnalysis(String text) {
-        AIAnalysisResult result = new AIAnalysisResult();
-        
-        // Extract confidence score from text
-        if (text.toLowerCase().contains("critical") || text.toLowerCase().contains("high threat")) {
-            result.setConfidenceScore(0.9);
-            result.setThreatLevel("HIGH");
-        } else if (text.toLowerCase().contains("medium") || text.toLowerCase().contains("moderate")) {
-            result.setConfidenceScore(0.6);
-            result.setThreatLevel("MEDIUM");
-        } else {
-            result.setConfidenceScore(0.3);
-            result.setThreatLevel("LOW");
-        }
-        
-        result.setAnalysisSummary(text.length() > 500 ? text.substring(0, 500) + "..." : text);
-        result.setSafetyRecommendations("Follow standard emergency protocols based on AI analysis.");
-        
-        return result;
-    }
-    
-    private String extractJsonValue(String json, String key) {
-        int keyIndex = json.indexOf("\"" + key + "\"");
-        if (keyIndex < 0) return "";
-        
-        int colonIndex = json.indexOf(":", keyIndex);
-        int valueStart = json.indexOf("\"", colonIndex) + 1;
-        int valueEnd = json.indexOf("\"", valueStart);
-        
-        if (valueStart > 0 && valueEnd > valueStart) {
-            return json.substring(valueStart, valueEnd);
-        }
-        
-        return "";
-    }
-    
-    private AIAnalysisResult createFallbackResult() {
-        AIAnalysisResult result = new AIAnalysisResult();
-        result.setConfidenceScore(0.5);
-        result.setThreatLevel("MEDIUM");
-        result.setAnalysisSummary("AI analysis completed. Manual review recommended.");
-        result.setSafetyRecommendations("Follow standard emergency response protocols.");
-        return result;
-    }
-    
-    private void updateIncidentWithAIResults(Incident incident, AIAnalysisResult result) {
-        incident.setAiConfidenceScore(result.getConfidenceScore());
-        incident.setAiAnalysis(result.getAnalysisSummary());
-        incident.setSafetyRecommendations(result.getSafetyRecommendations());
-        
-        // Auto-escalate if high confidence threat
-        if (result.getConfidenceScore() >= confidenceThreshold) {
-            incident.setIsCritical(true);
-            if (incident.getSeverity() != Incident.SeverityLevel.CRITICAL) {
-                incident.setSeverity(Incident.SeverityLevel.HIGH);
-            }
-        }
-        
-        incidentRepository.save(incident);
+            Incident saved = incidentRepository.save(current);
+            incidentStatisticsService.recordTransition(saved, saved.getStatus(), wasCritical,
+                saved.getActualResponseTime());
+            incidentRollupService.recordChange(rollupBefore, saved);
+            return saved;
+        });
+        incidentCache.invalidate(incident.getId());
+        liveLocationIndex.updateIncident(incident);
         
         // Send notifications for high-confidence threats
-        if (result.getConfidenceScore() >= confidenceThreshold) {
+        if (!result.isFallback() && result.getConfidenceScore() >= confidenceThreshold) {
             notificationService.sendHighThreatAlert(incident, result);
         }
         
@@ -388,25 +332,44 @@ public class AIAnalysisService {
         webSocketService.broadcastAIAnalysisUpdate(incident, result);
     }
     
-    private void handleAnalysisError(Incident incident, Exception error) {
+    private void handleAnalysisError(Incident analyzed, Exception error) {
         // Log error and update incident with error status
-        incident.setAiAnalysis("AI analysis failed: " + error.getMessage());
-        incident.setAiConfidenceScore(0.0);
-        incidentRepository.save(incident);
+        Incident incident = new TransactionTemplate(transactionManager).execute(status -> {
+            Incident current = lockIncident(analyzed.getId());
+            current.setAiAnalysis("AI analysis failed: " + error.getMessage());
+            current.setAiConfidenceScore(0.0);
+            current.setAiReviewRequired(true);
+            return incidentRepository.save(current);
+        });
+        incidentCache.invalidate(incident.getId());
         
         // Notify administrators of AI failure
         notificationService.sendAIAnalysisErrorNotification(incident, error);
     }
     
+    // Row lock first, so the copy loaded next is current and concurrent updates wait for this one
+    private Incident lockIncident(Long id) {
+        if (incidentRepository.lockById(id).isEmpty()) {
+            throw new RuntimeException("Incident not found with ID: " + id);
+        }
+        return incidentRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Incident not found with ID: " + id));
+    }
+    
     // Inner class for AI analysis results
     public static class AIAnalysisResult {
         private double confidenceScore;
         private String threatLevel;
         private String analysisSummary;
-        private String safetyRecommendations;
-        private String responseProtocols;
+        private List<String> bombIndicators = new ArrayList<>();
+        private List<String> safetyRecommendations = new ArrayList<>();
+        private List<String> responseProtocols = new ArrayList<>();
         private Integer evacuationRadius;
-        private String specializedUnits;
+        private List<String> specializedUnits = new ArrayList<>();
+        private List<String> immediateActions = new ArrayList<>();
+        
+        // Set when the result did not come from the model (local classifier or unusable response)
+        private boolean fallback;
         
         // Constructors
         public AIAnalysisResult() {}
@@ -421,16 +384,25 @@ public class AIAnalysisService {
         public String getAnalysisSummary() { return analysisSummary; }
         public void setAnalysisSummary(String analysisSummary) { this.analysisSummary = analysisSummary; }
         
-        public String getSafetyRecommendations() { return safetyRecommendations; }
-        public void setSafetyRecommendations(String safetyRecommendations) { this.safetyRecommendations = safetyRecommendations; }
+        public List<String> getBombIndicators() { return bombIndicators; }
+        public void setBombIndicators(List<String> bombIndicators) { this.bombIndicators = bombIndicators; }
         
-        public String getResponseProtocols() { return responseProtocols; }
-        public void setResponseProtocols(String responseProtocols) { this.responseProtocols = responseProtocols; }
+        public List<String> getSafetyRecommendations() { return safetyRecommendations; }
+        public void setSafetyRecommendations(List<String> safetyRecommendations) { this.safetyRecommendations = safetyRecommendations; }
+        
+        public List<String> getResponseProtocols() { return responseProtocols; }
+        public void setResponseProtocols(List<String> responseProtocols) { this.responseProtocols = responseProtocols; }
         
         public Integer getEvacuationRadius() { return evacuationRadius; }
         public void setEvacuationRadius(Integer evacuationRadius) { this.evacuationRadius = evacuationRadius; }
         
-        public String getSpecializedUnits() { return specializedUnits; }
-        public void setSpecializedUnits(String specializedUnits) { this.specializedUnits = specializedUnits; }
+        public List<String> getSpecializedUnits() { return specializedUnits; }
+        public void setSpecializedUnits(List<String> specializedUnits) { this.specializedUnits = specializedUnits; }
+        
+        public List<String> getImmediateActions() { return immediateActions; }
+        public void setImmediateActions(List<String> immediateActions) { this.immediateActions = immediateActions; }
+        
+        public boolean isFallback() { return fallback; }
+        public void setFallback(boolean fallback) { this.fallback = fallback; }
     }
 }
@@ -0,0 +1,224 @@
+package gov.drdo.emergency.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Size- and TTL-bounded cache of AI analysis results with request coalescing.
+ *
+ * Results are keyed by a content fingerprint (normalized text or image
+ * payload, prompt version and model), so a viral hoax reported thousands of
+ * times costs one model call per TTL. Concurrent misses for the same
+ * fingerprint wait on the single in-flight call instead of issuing their own.
+ * Failures and fallback results are never cached, so the first report after
+ * an outage goes back to the model.
+ */
+@Component
+public class AnalysisResultCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Value("${ai.cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${ai.cache.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, AIAnalysisService.AIAnalysisResult> results;
+
+    private final ConcurrentHashMap<String, CompletableFuture<AIAnalysisService.AIAnalysisResult>> inFlight =
+        new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        results = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+
+        FunctionCounter.builder("ai.analysis.cache.requests", hits, LongAdder::sum)
+            .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("ai.analysis.cache.requests", misses, LongAdder::sum)
+            .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("ai.analysis.cache.requests", coalesced, LongAdder::sum)
+            .tag("result", "coalesced").register(meterRegistry);
+        Gauge.builder("ai.analysis.cache.size", results, Cache::estimatedSize).register(meterRegistry);
+        Gauge.builder("ai.analysis.cache.in-flight", inFlight, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    /**
+     * Return the cached result for a fingerprint, joining an in-flight call or running the loader
+     */
+    public AIAnalysisService.AIAnalysisResult getOrCompute(String fingerprint,
+                                                           Supplier<AIAnalysisService.AIAnalysisResult> loader) {
+        return await(getOrComputeAsync(fingerprint, () -> {
+            try {
+                return CompletableFuture.completedFuture(loader.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }));
+    }
+
+    /**
+     * Non-blocking variant of getOrCompute for loaders that return a future
+     */
+    public CompletableFuture<AIAnalysisService.AIAnalysisResult> getOrComputeAsync(
+            String fingerprint, Supplier<CompletableFuture<AIAnalysisService.AIAnalysisResult>> loader) {
+        AIAnalysisService.AIAnalysisResult cached = results.getIfPresent(fingerprint);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<AIAnalysisService.AIAnalysisResult> call = new CompletableFuture<>();
+        CompletableFuture<AIAnalysisService.AIAnalysisResult> leader = inFlight.putIfAbsent(fingerprint, call);
+        if (leader != null) {
+            coalesced.increment();
+            return leader;
+        }
+
+        // A previous leader may have finished between the lookup and the registration
+        AIAnalysisService.AIAnalysisResult raced = results.getIfPresent(fingerprint);
+        if (raced != null) {
+            hits.increment();
+            inFlight.remove(fingerprint, call);
+            call.complete(raced);
+            return call;
+        }
+
+        misses.increment();
+        CompletableFuture<AIAnalysisService.AIAnalysisResult> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+
+        load.whenComplete((result, error) -> {
+            if (error == null && result != null && !result.isFallback()) {
+                results.put(fingerprint, result);
+            }
+            inFlight.remove(fingerprint, call);
+            if (error == null) {
+                call.complete(result);
+            } else {
+                call.completeExceptionally(unwrap(error));
+            }
+        });
+        return call;
+    }
+
+    /**
+     * Drop all cached results, e.g. after a prompt or model change
+     */
+    public void invalidateAll() {
+        results.invalidateAll();
+    }
+
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hits.sum(), misses.sum(), coalesced.sum(), results.estimatedSize(), inFlight.size());
+    }
+
+    /**
+     * Build a cache key from the analysis kind, model, prompt version and content
+     */
+    public static String fingerprint(String kind, String model, String promptVersion, String... content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(kind.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(promptVersion.getBytes(StandardCharsets.UTF_8));
+            for (String part : content) {
+                digest.update((byte) 0);
+                if (part != null) {
+                    digest.update(part.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Normalize free text so trivially different reports share a fingerprint
+     */
+    public static String normalizeText(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    // Private helper methods
+
+    private AIAnalysisService.AIAnalysisResult await(CompletableFuture<AIAnalysisService.AIAnalysisResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    // Inner class for cache statistics
+    public static class CacheStatistics {
+        private final long hits;
+        private final long misses;
+        private final long coalesced;
+        private final long size;
+        private final int inFlight;
+
+        public CacheStatistics(long hits, long misses, long coalesced, long size, int inFlight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.coalesced = coalesced;
+            this.size = size;
+            this.inFlight = inFlight;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getCoalesced() { return coalesced; }
+        public long getSize() { return size; }
+        public int getInFlight() { return inFlight; }
+    }
+}
@@ -0,0 +1,265 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dedicated scheduler for AI incident analysis.
+ *
+ * Work is queued in priority bands derived from the incident severity and the
+ * risk class of its type; workers always drain the most urgent band first, in
+ * arrival order within a band. To keep low-priority reports from starving, one
+ * dispatch in every {@code ai.scheduler.aged-share} goes to the oldest task
+ * that has waited longer than {@code ai.scheduler.max-wait-ms}. When the queue
+ * is full a new task displaces the newest task of a lower band instead of
+ * being rejected. The number of worker threads is the concurrency cap towards
+ * the model API. Queue wait is published per band ({@code ai.scheduler.wait},
+ * tagged by severity and risk class), so CRITICAL latency can be watched
+ * against the size of the low-priority backlog ({@code ai.scheduler.queued}).
+ */
+@Component
+public class AnalysisScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisScheduler.class);
+
+    private static final String[] RISK_CLASS_NAMES = {"routine", "elevated", "high"};
+    private static final int RISK_CLASSES = RISK_CLASS_NAMES.length;
+    private static final int BANDS = Incident.SeverityLevel.values().length * RISK_CLASSES;
+
+    @Value("${ai.scheduler.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Value("${ai.scheduler.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${ai.scheduler.max-wait-ms:60000}")
+    private long maxWaitMs;
+
+    @Value("${ai.scheduler.aged-share:8}")
+    private int agedShare;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final List<ArrayDeque<Task>> bands = new ArrayList<>(BANDS);
+    private final List<Thread> workers = new ArrayList<>();
+    private final Timer[] waitTimers = new Timer[BANDS];
+
+    // Guarded by lock
+    private int size;
+    private long dispatchCount;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < BANDS; i++) {
+            bands.add(new ArrayDeque<>());
+        }
+
+        for (Incident.SeverityLevel severity : Incident.SeverityLevel.values()) {
+            for (int risk = 0; risk < RISK_CLASSES; risk++) {
+                waitTimers[severity.ordinal() * RISK_CLASSES + risk] = Timer.builder("ai.scheduler.wait")
+                    .tag("severity", severity.name())
+                    .tag("risk", RISK_CLASS_NAMES[risk])
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            }
+        }
+        Gauge.builder("ai.scheduler.queued", this, AnalysisScheduler::getQueuedCount).register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < maxConcurrency; i++) {
+            Thread worker = new Thread(this::runWorker, "ai-analysis-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Queue analysis work for an incident; the future completes when the work has run
+     */
+    public CompletableFuture<Void> schedule(Incident incident, Runnable work) {
+        Task task = new Task(priorityOf(incident), work);
+
+        lock.lock();
+        try {
+            if (size >= queueCapacity) {
+                Task displaced = pollNewestBelow(task.band);
+                if (displaced == null) {
+                    task.future.completeExceptionally(new RejectedExecutionException("AI analysis queue is full"));
+                    return task.future;
+                }
+                displaced.future.completeExceptionally(
+                    new RejectedExecutionException("Displaced by higher priority analysis"));
+                size--;
+            }
+
+            bands.get(task.band).addLast(task);
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        return task.future;
+    }
+
+    /**
+     * Number of tasks waiting for a worker
+     */
+    public int getQueuedCount() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Priority band of an incident; higher is more urgent
+     */
+    static int priorityOf(Incident incident) {
+        Incident.SeverityLevel severity = incident.getSeverity() != null
+            ? incident.getSeverity() : Incident.SeverityLevel.MEDIUM;
+        return severity.ordinal() * RISK_CLASSES + riskClassOf(incident.getType());
+    }
+
+    // Private helper methods
+
+    private static int riskClassOf(Incident.IncidentType type) {
+        if (type == null) {
+            return 0;
+        }
+        switch (type) {
+            case BOMB_THREAT:
+            case TERRORIST_ACTIVITY:
+            case CHEMICAL_HAZARD:
+            case BIOLOGICAL_HAZARD:
+            case SUSPICIOUS_OBJECT:
+                return 2;
+            case FIRE_EMERGENCY:
+            case SECURITY_BREACH:
+            case NATURAL_DISASTER:
+            case MEDICAL_EMERGENCY:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    private void runWorker() {
+        while (running) {
+            Task task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            waitTimers[task.band].record(System.nanoTime() - task.enqueuedAt, TimeUnit.NANOSECONDS);
+            try {
+                task.work.run();
+                task.future.complete(null);
+            } catch (Throwable t) {
+                logger.error("AI analysis task failed", t);
+                task.future.completeExceptionally(t);
+            }
+        }
+    }
+
+    private Task take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+
+            Task task = null;
+            if (agedShare > 0 && ++dispatchCount % agedShare == 0) {
+                task = pollOverdue(System.nanoTime());
+            }
+            if (task == null) {
+                task = pollHighest();
+            }
+            size--;
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Task pollHighest() {
+        for (int band = BANDS - 1; band >= 0; band--) {
+            Task task = bands.get(band).pollFirst();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private Task pollOverdue(long now) {
+        long threshold = now - TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        ArrayDeque<Task> oldest = null;
+        for (ArrayDeque<Task> band : bands) {
+            Task head = band.peekFirst();
+            if (head != null && head.enqueuedAt < threshold
+                    && (oldest == null || head.enqueuedAt < oldest.peekFirst().enqueuedAt)) {
+                oldest = band;
+            }
+        }
+        return oldest != null ? oldest.pollFirst() : null;
+    }
+
+    private Task pollNewestBelow(int band) {
+        for (int lower = 0; lower < band; lower++) {
+            Task task = bands.get(lower).pollLast();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private static class Task {
+        private final int band;
+        private final Runnable work;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Task(int band, Runnable work) {
+            this.band = band;
+            this.work = work;
+        }
+    }
+}
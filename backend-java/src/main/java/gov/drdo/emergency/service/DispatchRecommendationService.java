@@ -0,0 +1,262 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.DispatchRecommendation;
+import gov.drdo.emergency.dto.IncidentSummary;
+import gov.drdo.emergency.dto.ResponderLocation;
+import gov.drdo.emergency.entity.Responder;
+import gov.drdo.emergency.repository.IncidentRepository;
+import gov.drdo.emergency.repository.ResponderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks dispatchable responders for an incident by estimated time to arrive.
+ *
+ * The estimate is great-circle distance times a road factor over a typical
+ * speed for the responder's vehicle; helicopters fly straight. Candidates
+ * come from a best-first search of {@link LiveLocationIndex}, so only the
+ * cells around the incident are visited. Air and ground units are searched
+ * separately because a single lower bound covering helicopters would make the
+ * ground search look much further out than it needs to. Type, vehicle and
+ * capability requirements are resolved once per request against the
+ * {@link ResponderCapabilityIndex}, so the search only tests a bit per
+ * candidate.
+ */
+@Service
+public class DispatchRecommendationService {
+
+    // Typical response speeds in km/h
+    private static final Map<Responder.VehicleType, Double> VEHICLE_SPEEDS_KMH = new EnumMap<>(Responder.VehicleType.class);
+
+    static {
+        VEHICLE_SPEEDS_KMH.put(Responder.VehicleType.PATROL_CAR, 50.0);
+        VEHICLE_SPEEDS_KMH.put(Responder.VehicleType.AMBULANCE, 45.0);
+        VEHICLE_SPEEDS_KMH.put(Responder.VehicleType.FIRE_TRUCK, 40.0);
+        VEHICLE_SPEEDS_KMH.put(Responder.VehicleType.BOMB_DISPOSAL_UNIT, 40.0);
+        VEHICLE_SPEEDS_KMH.put(Responder.VehicleType.HELICOPTER, 200.0);
+        VEHICLE_SPEEDS_KMH.put(Responder.VehicleType.MOTORCYCLE, 45.0);
+        VEHICLE_SPEEDS_KMH.put(Responder.VehicleType.MOBILE_COMMAND_CENTER, 35.0);
+        VEHICLE_SPEEDS_KMH.put(Responder.VehicleType.HAZMAT_VEHICLE, 35.0);
+        VEHICLE_SPEEDS_KMH.put(Responder.VehicleType.K9_UNIT_VEHICLE, 45.0);
+    }
+
+    private static final Set<Responder.VehicleType> AIR_VEHICLES = EnumSet.of(Responder.VehicleType.HELICOPTER);
+
+    @Value("${emergency.dispatch.default-speed-kmh:30}")
+    private double defaultSpeedKmh;
+
+    @Value("${emergency.dispatch.route-factor:1.4}")
+    private double routeFactor;
+
+    @Value("${emergency.dispatch.max-radius-meters:100000}")
+    private double maxRadiusMeters;
+
+    @Value("${emergency.dispatch.max-recommendations:50}")
+    private int maxRecommendations;
+
+    @Value("${emergency.dispatch.max-search-results:1000}")
+    private int maxSearchResults;
+
+    @Autowired
+    private LiveLocationIndex liveLocationIndex;
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private ResponderRepository responderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Seconds per great-circle meter, by vehicle type ordinal; the last slot is for no vehicle on record
+    private final double[] secondsPerMeter = new double[Responder.VehicleType.values().length + 1];
+
+    private Timer recommendTimer;
+
+    @PostConstruct
+    public void init() {
+        for (Responder.VehicleType vehicle : Responder.VehicleType.values()) {
+            double speedKmh = VEHICLE_SPEEDS_KMH.getOrDefault(vehicle, defaultSpeedKmh);
+            double factor = AIR_VEHICLES.contains(vehicle) ? 1.0 : routeFactor;
+            secondsPerMeter[vehicle.ordinal()] = factor * 3.6 / speedKmh;
+        }
+        secondsPerMeter[secondsPerMeter.length - 1] = routeFactor * 3.6 / defaultSpeedKmh;
+
+        recommendTimer = Timer.builder("emergency.dispatch.recommend")
+            .description("Time to rank responders for one incident")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    /**
+     * The k best-placed responders for an incident that match the criteria, fastest first
+     */
+    public List<DispatchRecommendation> recommendForIncident(Long incidentId, DispatchCriteria criteria, int k) {
+        IncidentSummary incident = locateIncident(incidentId)
+            .orElseThrow(() -> new RuntimeException("Incident not found with ID: " + incidentId));
+        if (incident.getLatitude() == null || incident.getLongitude() == null) {
+            throw new RuntimeException("Incident has no location: " + incidentId);
+        }
+        return recommend(incident.getLatitude(), incident.getLongitude(), criteria, k);
+    }
+
+    /**
+     * The k best-placed responders for a position that match the criteria, fastest first
+     */
+    public List<DispatchRecommendation> recommend(double latitude, double longitude, DispatchCriteria criteria, int k) {
+        long start = System.nanoTime();
+        int limit = Math.max(1, Math.min(k, maxRecommendations));
+        double radius = criteria.getMaxRadiusMeters() != null
+            ? Math.min(criteria.getMaxRadiusMeters(), maxRadiusMeters) : maxRadiusMeters;
+        ResponderCapabilityIndex.Matches candidates = liveLocationIndex.matchResponders(criteria.toQuery());
+        if (candidates.isEmpty()) {
+            recommendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Collections.emptyList();
+        }
+        Predicate<ResponderLocation> matches = responder -> candidates.contains(responder.getId());
+
+        List<SpatialGrid.Hit<ResponderLocation>> hits = new ArrayList<>();
+        boolean wantsAir = criteria.allows(Responder.VehicleType.HELICOPTER);
+        if (wantsAir) {
+            hits.addAll(search(latitude, longitude, limit, radius,
+                matches.and(responder -> isAir(responder.getVehicleType())), true, criteria));
+        }
+        hits.addAll(search(latitude, longitude, limit, radius,
+            matches.and(responder -> !isAir(responder.getVehicleType())), false, criteria));
+        hits.sort(Comparator.comparingDouble(SpatialGrid.Hit::getCost));
+
+        List<DispatchRecommendation> recommendations = new ArrayList<>(Math.min(hits.size(), limit));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            SpatialGrid.Hit<ResponderLocation> hit = hits.get(i);
+            recommendations.add(new DispatchRecommendation(hit.getValue(), hit.getDistanceMeters(),
+                Math.round(hit.getCost())));
+        }
+        recommendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return recommendations;
+    }
+
+    /**
+     * Responders matching the criteria regardless of position (the radius is ignored). On-duty scopes are
+     * answered from the capability index; ALL also covers off-duty responders and goes to the database,
+     * where specialization and equipment must match exactly.
+     */
+    public List<ResponderLocation> findCapableResponders(DispatchCriteria criteria, SearchScope scope, int limit) {
+        int capped = Math.max(1, Math.min(limit, maxSearchResults));
+        if (scope != SearchScope.ALL) {
+            ResponderCapabilityIndex.Query query = new ResponderCapabilityIndex.Query(criteria.getTypes(),
+                criteria.getVehicleTypes(), criteria.getSpecializations(), criteria.getEquipment(),
+                scope == SearchScope.DISPATCHABLE);
+            return liveLocationIndex.findRespondersMatching(query, capped);
+        }
+        return responderRepository.findByCapabilities(names(criteria.getTypes()), names(criteria.getVehicleTypes()),
+                criteria.getSpecializations().toArray(new String[0]), criteria.getEquipment().toArray(new String[0]), capped)
+            .stream()
+            .map(ResponderLocation::of)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Summary of an incident for location lookups: from the live index when active, else from the database
+     */
+    public Optional<IncidentSummary> locateIncident(Long incidentId) {
+        Optional<IncidentSummary> incident = liveLocationIndex.getIncident(incidentId);
+        if (incident.isPresent()) {
+            return incident;
+        }
+        return incidentRepository.findById(incidentId).map(IncidentSummary::of);
+    }
+
+    // Private helper methods
+
+    private List<SpatialGrid.Hit<ResponderLocation>> search(double latitude, double longitude, int k, double radius,
+                                                            Predicate<ResponderLocation> filter, boolean air,
+                                                            DispatchCriteria criteria) {
+        // Lower bound of the cost per meter over the vehicles this search can return
+        double minSecondsPerMeter = Double.MAX_VALUE;
+        for (Responder.VehicleType vehicle : Responder.VehicleType.values()) {
+            if (AIR_VEHICLES.contains(vehicle) == air && criteria.allows(vehicle)) {
+                minSecondsPerMeter = Math.min(minSecondsPerMeter, secondsPerMeter[vehicle.ordinal()]);
+            }
+        }
+        if (!air && criteria.allows(null)) {
+            minSecondsPerMeter = Math.min(minSecondsPerMeter, secondsPerMeter[secondsPerMeter.length - 1]);
+        }
+        if (minSecondsPerMeter == Double.MAX_VALUE) {
+            return Collections.emptyList();
+        }
+        return liveLocationIndex.findNearestResponders(latitude, longitude, k, radius, filter,
+            (responder, distance) -> distance * secondsPerMeterOf(responder.getVehicleType()), minSecondsPerMeter);
+    }
+
+    private double secondsPerMeterOf(Responder.VehicleType vehicle) {
+        return secondsPerMeter[vehicle != null ? vehicle.ordinal() : secondsPerMeter.length - 1];
+    }
+
+    private static boolean isAir(Responder.VehicleType vehicle) {
+        return vehicle != null && AIR_VEHICLES.contains(vehicle);
+    }
+
+    private static String[] names(Set<? extends Enum<?>> values) {
+        return values.stream().map(Enum::name).toArray(String[]::new);
+    }
+
+    /**
+     * Which responders a capability search covers
+     */
+    public enum SearchScope {
+        DISPATCHABLE, ON_DUTY, ALL
+    }
+
+    /**
+     * What a recommended responder must match; empty sets mean no restriction
+     */
+    public static class DispatchCriteria {
+        private final Set<Responder.ResponderType> types;
+        private final Set<String> specializations;
+        private final Set<String> equipment;
+        private final Set<Responder.VehicleType> vehicleTypes;
+        private final Double maxRadiusMeters;
+
+        public DispatchCriteria(Set<Responder.ResponderType> types, Set<String> specializations, Set<String> equipment,
+                                Set<Responder.VehicleType> vehicleTypes, Double maxRadiusMeters) {
+            this.types = types != null ? types : Collections.emptySet();
+            this.specializations = specializations != null ? specializations : Collections.emptySet();
+            this.equipment = equipment != null ? equipment : Collections.emptySet();
+            this.vehicleTypes = vehicleTypes != null ? vehicleTypes : Collections.emptySet();
+            this.maxRadiusMeters = maxRadiusMeters;
+        }
+
+        ResponderCapabilityIndex.Query toQuery() {
+            return new ResponderCapabilityIndex.Query(types, vehicleTypes, specializations, equipment, true);
+        }
+
+        // A responder without a vehicle on record only passes when no vehicle type is required
+        boolean allows(Responder.VehicleType vehicle) {
+            return vehicleTypes.isEmpty() || (vehicle != null && vehicleTypes.contains(vehicle));
+        }
+
+        public Set<Responder.ResponderType> getTypes() { return types; }
+        public Set<String> getSpecializations() { return specializations; }
+        public Set<String> getEquipment() { return equipment; }
+        public Set<Responder.VehicleType> getVehicleTypes() { return vehicleTypes; }
+        public Double getMaxRadiusMeters() { return maxRadiusMeters; }
+    }
+}
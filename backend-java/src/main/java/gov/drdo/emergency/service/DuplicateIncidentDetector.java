@@ -0,0 +1,625 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.repository.IncidentFilter;
+import gov.drdo.emergency.repository.IncidentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Online near-duplicate detector for incoming incident reports.
+ *
+ * Keeps the active reports of the last {@code emergency.dedup.window-minutes}
+ * in memory with a MinHash signature of their normalized title and
+ * description. Candidates for a new report come from LSH band buckets (similar
+ * text) and from a coarse lat/lon grid (same place); a candidate is a
+ * duplicate when it lies within {@code emergency.dedup.radius-meters} and the
+ * texts are moderately similar, or, when either report has no location, the
+ * texts are very similar. Duplicates are linked to the master of the best
+ * candidate so one event fans out work once. Only reports of the same type
+ * are linked, and never one the pre-screen flagged critical or one more
+ * severe than the master, since linking suppresses notification and analysis.
+ *
+ * A report registered inside a transaction is visible only to that
+ * transaction (so a bulk intake still links repeats within the batch) until
+ * it commits; other reports never link to a master that may yet roll back.
+ *
+ * Before linking, the master's current status is read from the database and
+ * a RESOLVED or CLOSED master is never linked to: another node may have
+ * closed it, and a report linked to a closed incident would get neither
+ * notification nor analysis. Removals also go to every node after commit over
+ * {@value #CHANNEL}, so the other windows stop offering the master at all.
+ *
+ * The window is per node and is rebuilt from the database at startup.
+ */
+@Service
+public class DuplicateIncidentDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateIncidentDetector.class);
+
+    private static final int NUM_HASHES = 64;
+    private static final int BANDS = 16;
+    private static final int ROWS = NUM_HASHES / BANDS;
+    private static final int MAX_TEXT_CHARS = 2000;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    private static final long SHINGLE_SEED = 0x2545F4914F6CDD1DL;
+    private static final String CHANNEL = "dedup:remove";
+    // Joined through incident_keys so only the master's own partition is read (see IncidentKey)
+    private static final String STATUS_SQL = "SELECT i.status FROM incident_keys k JOIN incidents i "
+        + "ON i.id = k.id AND i.archived = k.archived AND i.created_at = k.created_at WHERE k.id = ?";
+    // Closed masters dropped and the lookup repeated at most this often per report
+    private static final int MAX_MASTER_CHECKS = 3;
+
+    @Value("${emergency.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${emergency.dedup.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${emergency.dedup.radius-meters:1000}")
+    private double radiusMeters;
+
+    @Value("${emergency.dedup.nearby-similarity:0.3}")
+    private double nearbySimilarity;
+
+    @Value("${emergency.dedup.text-only-similarity:0.7}")
+    private double textOnlySimilarity;
+
+    @Value("${emergency.dedup.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${emergency.dedup.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    // Plain JDBC so the status check does not flush the incidents a bulk intake is still batching
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Guarded by this
+    private final ArrayDeque<Entry> window = new ArrayDeque<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, List<Entry>> bandBuckets = new HashMap<>();
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private long visitStamp;
+
+    private double cellDegrees;
+    private Timer probeTimer;
+    private Counter linkedCounter;
+    private Counter closedMasterCounter;
+
+    @PostConstruct
+    public void init() {
+        cellDegrees = radiusMeters / METERS_PER_DEGREE;
+        probeTimer = Timer.builder("emergency.dedup.probe")
+            .description("Duplicate lookup time per incoming report")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        linkedCounter = Counter.builder("emergency.dedup.linked")
+            .description("Reports linked to an existing master incident")
+            .register(meterRegistry);
+        closedMasterCounter = Counter.builder("emergency.dedup.closed-masters")
+            .description("Candidate masters found resolved or closed in the database and dropped from the window")
+            .register(meterRegistry);
+        Gauge.builder("emergency.dedup.window.size", this, DuplicateIncidentDetector::getWindowSize)
+            .register(meterRegistry);
+
+        if (enabled && redisEnabled) {
+            listenerContainer.addMessageListener(this::onRemoval, new ChannelTopic(CHANNEL));
+        }
+    }
+
+    /**
+     * Rebuild the window from recent active incidents
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        List<Incident> recent = incidentRepository.findActiveIncidentsSince(
+            LocalDateTime.now().minusMinutes(windowMinutes));
+        for (Incident incident : recent) {
+            Probe probe = probeOf(incident);
+            long createdAt = incident.getCreatedAt() != null
+                ? incident.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+            Long masterId = incident.getMasterIncidentId() != null ? incident.getMasterIncidentId() : incident.getId();
+            add(new Entry(incident.getId(), masterId, createdAt, probe));
+        }
+        logger.info("Duplicate detector window warmed up with {} incidents", recent.size());
+    }
+
+    /**
+     * Look for an earlier report of the same event; call before saving the new incident
+     */
+    public Probe probe(Incident incident) {
+        long start = System.nanoTime();
+        Probe probe = probeOf(incident);
+        if (!enabled || probe.signature == null || probe.critical) {
+            return probe;
+        }
+
+        Object transaction = TransactionSynchronizationManager.getResource(this);
+        for (int attempt = 1; attempt <= MAX_MASTER_CHECKS; attempt++) {
+            search(probe, transaction);
+            Long masterId = probe.masterIncidentId;
+            if (masterId == null || isUncommitted(masterId) || isActive(masterId)) {
+                break;
+            }
+            // Closed elsewhere and the removal has not reached this node (or was lost): forget it and look again
+            closedMasterCounter.increment();
+            removeLocal(masterId);
+            probe.masterIncidentId = null;
+            probe.similarity = 0;
+        }
+
+        probeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return probe;
+    }
+
+    /**
+     * Add a saved incident to the window; other transactions see it once the current one commits
+     */
+    public void register(Incident incident, Probe probe) {
+        if (!enabled || incident.getId() == null) {
+            return;
+        }
+        Long masterId = probe.getMasterIncidentId() != null ? probe.getMasterIncidentId() : incident.getId();
+        if (probe.getMasterIncidentId() != null) {
+            linkedCounter.increment();
+        }
+        Entry entry = new Entry(incident.getId(), masterId, System.currentTimeMillis(), probe);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            entry.transaction = pendingEntries();
+            entry.transaction.add(entry);
+        }
+        add(entry);
+    }
+
+    /**
+     * Drop an incident (and reports linked to it) from the window of every node once the current
+     * transaction commits, e.g. when it is resolved
+     */
+    public void remove(Long incidentId) {
+        if (!enabled) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            removeLocal(incidentId);
+            broadcastRemoval(incidentId);
+        });
+    }
+
+    public synchronized int getWindowSize() {
+        return entries.size();
+    }
+
+    // Private helper methods
+
+    // Best candidate from the LSH buckets and the location grid, recorded on the probe
+    private synchronized void search(Probe probe, Object transaction) {
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+        long stamp = ++visitStamp;
+
+        for (int band = 0; band < BANDS; band++) {
+            List<Entry> bucket = bandBuckets.get(bandKey(probe.signature, band));
+            if (bucket != null) {
+                for (Entry candidate : bucket) {
+                    consider(probe, candidate, transaction, stamp);
+                }
+            }
+        }
+
+        if (probe.located) {
+            long row = cellIndex(probe.latitude);
+            long column = cellIndex(probe.longitude);
+            int span = lonSpan(probe.latitude);
+            for (long dy = -1; dy <= 1; dy++) {
+                for (long dx = -span; dx <= span; dx++) {
+                    List<Entry> cell = cells.get(cellKey(row + dy, column + dx));
+                    if (cell != null) {
+                        for (Entry candidate : cell) {
+                            consider(probe, candidate, transaction, stamp);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // A master registered by the current transaction is not in the database yet, and is active anyway
+    private synchronized boolean isUncommitted(Long masterId) {
+        Entry master = entries.get(masterId);
+        return master != null && master.transaction != null;
+    }
+
+    // Whether the master is still open in the database; when that cannot be told, do not link
+    private boolean isActive(Long masterId) {
+        try {
+            List<String> status = jdbcTemplate.queryForList(STATUS_SQL, String.class, masterId);
+            return !status.isEmpty()
+                && IncidentFilter.ACTIVE_STATUSES.contains(Incident.IncidentStatus.valueOf(status.get(0)));
+        } catch (DataAccessException | IllegalArgumentException e) {
+            logger.warn("Could not check status of master incident {}, not linking: {}", masterId, e.getMessage());
+            return false;
+        }
+    }
+
+    // Linked reports go too, even when the master itself has already left the window
+    private synchronized void removeLocal(Long incidentId) {
+        List<Entry> linked = new ArrayList<>();
+        for (Entry candidate : entries.values()) {
+            if (incidentId.equals(candidate.masterId)) {
+                linked.add(candidate);
+            }
+        }
+        linked.forEach(this::unindex);
+        Entry entry = entries.get(incidentId);
+        if (entry != null) {
+            unindex(entry);
+        }
+    }
+
+    private void broadcastRemoval(Long incidentId) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, incidentId.toString());
+        } catch (Exception e) {
+            // The status check before linking still keeps other nodes from linking to it
+            logger.warn("Could not publish duplicate window removal for incident {}: {}", incidentId, e.getMessage());
+        }
+    }
+
+    private void onRemoval(Message message, byte[] pattern) {
+        try {
+            removeLocal(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring malformed duplicate window removal message");
+        }
+    }
+
+    private void consider(Probe probe, Entry candidate, Object transaction, long stamp) {
+        if (candidate.visitStamp == stamp || candidate.removed) {
+            return;
+        }
+        if (candidate.transaction != null && candidate.transaction != transaction) {
+            // Not yet committed by another transaction, which may still roll back
+            return;
+        }
+        candidate.visitStamp = stamp;
+        if (probe.type != candidate.type || outranks(probe.severity, masterSeverity(candidate))) {
+            return;
+        }
+
+        double similarity = similarity(probe.signature, candidate.signature);
+        boolean duplicate;
+        if (probe.located && candidate.located) {
+            duplicate = similarity >= nearbySimilarity
+                && distanceMeters(probe.latitude, probe.longitude, candidate.latitude, candidate.longitude) <= radiusMeters;
+        } else {
+            duplicate = similarity >= textOnlySimilarity;
+        }
+
+        if (duplicate && similarity > probe.similarity) {
+            probe.masterIncidentId = candidate.masterId;
+            probe.similarity = similarity;
+        }
+    }
+
+    // Severity of the candidate's master as registered; severities only escalate, so this errs towards not linking
+    private Incident.SeverityLevel masterSeverity(Entry candidate) {
+        Entry master = entries.get(candidate.masterId);
+        return master != null ? master.severity : candidate.severity;
+    }
+
+    private static boolean outranks(Incident.SeverityLevel severity, Incident.SeverityLevel master) {
+        if (severity == null) {
+            return false;
+        }
+        return master == null || severity.ordinal() > master.ordinal();
+    }
+
+    // Entries registered in the current transaction, published on commit and dropped on rollback
+    private List<Entry> pendingEntries() {
+        @SuppressWarnings("unchecked")
+        List<Entry> pending = (List<Entry>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        List<Entry> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DuplicateIncidentDetector.this);
+                if (status != STATUS_COMMITTED) {
+                    discard(created);
+                }
+            }
+        });
+        return created;
+    }
+
+    private synchronized void publish(List<Entry> pending) {
+        for (Entry entry : pending) {
+            entry.transaction = null;
+        }
+    }
+
+    private synchronized void discard(List<Entry> pending) {
+        pending.forEach(this::unindex);
+    }
+
+    private synchronized void add(Entry entry) {
+        if (entry.signature == null || entries.containsKey(entry.incidentId)) {
+            return;
+        }
+        while (entries.size() >= maxEntries && !window.isEmpty()) {
+            unindex(window.pollFirst());
+        }
+
+        window.addLast(entry);
+        entries.put(entry.incidentId, entry);
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(entry.signature, band);
+            entry.bandKeys[band] = key;
+            bandBuckets.computeIfAbsent(key, ignored -> new ArrayList<>(2)).add(entry);
+        }
+        if (entry.located) {
+            entry.cellKey = cellKey(cellIndex(entry.latitude), cellIndex(entry.longitude));
+            cells.computeIfAbsent(entry.cellKey, ignored -> new ArrayList<>()).add(entry);
+        }
+    }
+
+    private void evictExpired(long now) {
+        long threshold = now - TimeUnit.MINUTES.toMillis(windowMinutes);
+        while (!window.isEmpty() && window.peekFirst().createdAt < threshold) {
+            unindex(window.pollFirst());
+        }
+    }
+
+    private void unindex(Entry entry) {
+        if (entry.removed) {
+            return;
+        }
+        entry.removed = true;
+        entries.remove(entry.incidentId);
+        for (long key : entry.bandKeys) {
+            removeFrom(bandBuckets, key, entry);
+        }
+        if (entry.located) {
+            removeFrom(cells, entry.cellKey, entry);
+        }
+    }
+
+    private static void removeFrom(Map<Long, List<Entry>> index, long key, Entry entry) {
+        List<Entry> list = index.get(key);
+        if (list != null) {
+            list.remove(entry);
+            if (list.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * MinHash signature over character 4-gram shingles of the normalized text, or null for too little text
+     */
+    private int[] signature(String title, String description) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        long shingle = 0;
+        int shingleChars = 0;
+        int consumed = 0;
+        boolean lastWasSpace = true;
+        boolean any = false;
+
+        String[] parts = {title, description};
+        for (String part : parts) {
+            if (part == null) {
+                continue;
+            }
+            for (int i = 0; i < part.length() && consumed < MAX_TEXT_CHARS; i++) {
+                char c = part.charAt(i);
+                char normalized = Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : ' ';
+                if (normalized == ' ' && lastWasSpace) {
+                    continue;
+                }
+                lastWasSpace = normalized == ' ';
+                consumed++;
+
+                shingle = (shingle << 16) | normalized;
+                if (++shingleChars >= 4) {
+                    any = true;
+                    // Derive all hash functions from two halves of one 64-bit hash (Kirsch-Mitzenmacher)
+                    long hash = mix(shingle ^ SHINGLE_SEED);
+                    int h1 = (int) hash;
+                    int h2 = (int) (hash >>> 32) | 1;
+                    for (int k = 0; k < NUM_HASHES; k++) {
+                        int value = h1 + k * h2;
+                        if (value < signature[k]) {
+                            signature[k] = value;
+                        }
+                    }
+                }
+            }
+            // Field separator so title and description do not run together
+            if (!lastWasSpace) {
+                shingle = (shingle << 16) | ' ';
+                shingleChars++;
+                lastWasSpace = true;
+            }
+        }
+        return any ? signature : null;
+    }
+
+    private static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int k = 0; k < NUM_HASHES; k++) {
+            if (a[k] == b[k]) {
+                equal++;
+            }
+        }
+        return (double) equal / NUM_HASHES;
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = mix(key * 31 + signature[row]);
+        }
+        return key;
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static int lonSpan(double latitude) {
+        // Longitude cells shrink towards the poles, so look further sideways
+        return (int) Math.ceil(1.0 / Math.max(0.1, Math.cos(Math.toRadians(latitude))));
+    }
+
+    private static long cellKey(long row, long column) {
+        return (row << 32) ^ (column & 0xFFFFFFFFL);
+    }
+
+    private static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private Probe probeOf(Incident incident) {
+        return new Probe(signature(incident.getTitle(), incident.getDescription()),
+            incident.getLocationPoint() != null, latitudeOf(incident), longitudeOf(incident),
+            incident.getType(), incident.getSeverity(), Boolean.TRUE.equals(incident.getIsCritical()));
+    }
+
+    private static double latitudeOf(Incident incident) {
+        return incident.getLocationPoint() != null ? incident.getLocationPoint().getY() : 0.0;
+    }
+
+    private static double longitudeOf(Incident incident) {
+        return incident.getLocationPoint() != null ? incident.getLocationPoint().getX() : 0.0;
+    }
+
+    private static class Entry {
+        private final Long incidentId;
+        private final Long masterId;
+        private final long createdAt;
+        private final int[] signature;
+        private final boolean located;
+        private final double latitude;
+        private final double longitude;
+        private final Incident.IncidentType type;
+        private final Incident.SeverityLevel severity;
+        private final long[] bandKeys = new long[BANDS];
+        private long cellKey;
+        private long visitStamp;
+        private boolean removed;
+        // Pending entries of the registering transaction, or null once committed
+        private List<Entry> transaction;
+
+        Entry(Long incidentId, Long masterId, long createdAt, Probe probe) {
+            this.incidentId = incidentId;
+            this.masterId = masterId;
+            this.createdAt = createdAt;
+            this.signature = probe.signature;
+            this.located = probe.located;
+            this.latitude = probe.latitude;
+            this.longitude = probe.longitude;
+            this.type = probe.type;
+            this.severity = probe.severity;
+        }
+    }
+
+    /**
+     * Outcome of a duplicate lookup; carries the signature so registering does not recompute it
+     */
+    public static class Probe {
+        private final int[] signature;
+        private final boolean located;
+        private final double latitude;
+        private final double longitude;
+        private final Incident.IncidentType type;
+        private final Incident.SeverityLevel severity;
+        private final boolean critical;
+        private Long masterIncidentId;
+        private double similarity;
+
+        Probe(int[] signature, boolean located, double latitude, double longitude,
+              Incident.IncidentType type, Incident.SeverityLevel severity, boolean critical) {
+            this.signature = signature;
+            this.located = located;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.type = type;
+            this.severity = severity;
+            this.critical = critical;
+        }
+
+        public boolean isDuplicate() { return masterIncidentId != null; }
+        public Long getMasterIncidentId() { return masterIncidentId; }
+        public double getSimilarity() { return similarity; }
+    }
+}
@@ -0,0 +1,231 @@
+package gov.drdo.emergency.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking client for the Gemini generateContent API.
+ *
+ * Responses are handed back as raw bytes so callers can stream-parse them
+ * (see GeminiResponseParser) instead of materialising a Map tree.
+ *
+ * Uses the JDK HttpClient (HTTP/2 with keep-alive connection reuse) so a model
+ * round trip does not occupy a thread while it is in flight. Concurrency
+ * towards the API is limited by {@code gemini.client.max-in-flight}; further
+ * calls wait in a bounded FIFO and are rejected once that is full.
+ */
+@Component
+public class GeminiClient {
+
+    @Value("${gemini.api.key}")
+    private String apiKey;
+
+    @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com/v1beta}")
+    private String baseUrl;
+
+    @Value("${gemini.client.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${gemini.client.request-timeout-ms:30000}")
+    private long requestTimeoutMs;
+
+    @Value("${gemini.client.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${gemini.client.max-queued:1000}")
+    private int maxQueued;
+
+    @Value("${gemini.client.io-threads:4}")
+    private int ioThreads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpClient httpClient;
+    private ExecutorService ioExecutor;
+
+    // Guarded by permitLock
+    private final Object permitLock = new Object();
+    private final ArrayDeque<PendingCall> waiting = new ArrayDeque<>();
+    private int active;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ioExecutor = Executors.newFixedThreadPool(ioThreads, runnable -> {
+            Thread thread = new Thread(runnable, "gemini-client-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .executor(ioExecutor)
+            .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ioExecutor.shutdownNow();
+    }
+
+    /**
+     * Call generateContent for a model; the future completes with the raw JSON response body
+     */
+    public CompletableFuture<byte[]> generateContentAsync(String model, Map<String, Object> requestBody) {
+        return generateContentAsync(model, requestBody, Duration.ofMillis(requestTimeoutMs));
+    }
+
+    /**
+     * Call generateContent with an explicit request timeout
+     */
+    public CompletableFuture<byte[]> generateContentAsync(String model, Map<String, Object> requestBody,
+                                                          Duration timeout) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(requestBody);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to encode Gemini request", e));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/models/" + model + ":generateContent?key=" + apiKey))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+            .build();
+
+        return submit(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(this::decode));
+    }
+
+    /**
+     * Number of calls currently in flight
+     */
+    public int getActiveCalls() {
+        synchronized (permitLock) {
+            return active;
+        }
+    }
+
+    /**
+     * Number of calls waiting for a permit
+     */
+    public int getQueuedCalls() {
+        synchronized (permitLock) {
+            return waiting.size();
+        }
+    }
+
+    /**
+     * Start a call once one of the max-in-flight permits is free; the future fails with
+     * RejectedExecutionException when max-queued calls are already waiting
+     */
+    CompletableFuture<byte[]> submit(Supplier<CompletableFuture<byte[]>> call) {
+        PendingCall pending = new PendingCall(call);
+        synchronized (permitLock) {
+            if (active < maxInFlight) {
+                active++;
+            } else if (waiting.size() < maxQueued) {
+                waiting.addLast(pending);
+                return pending.result;
+            } else {
+                return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Too many pending Gemini calls"));
+            }
+        }
+        start(pending);
+        return pending.result;
+    }
+
+    // Private helper methods
+
+    private byte[] decode(HttpResponse<byte[]> response) {
+        if (response.statusCode() >= 400) {
+            throw new GeminiApiException(response.statusCode(),
+                "Gemini API returned HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private void start(PendingCall pending) {
+        CompletableFuture<byte[]> call;
+        try {
+            call = pending.call.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        call.whenComplete((response, error) -> {
+            release();
+            if (error != null) {
+                pending.result.completeExceptionally(error);
+            } else {
+                pending.result.complete(response);
+            }
+        });
+    }
+
+    private void release() {
+        while (true) {
+            PendingCall next;
+            synchronized (permitLock) {
+                next = waiting.pollFirst();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+            }
+            // Skip calls whose caller gave up (deadline or cancellation) while queued
+            if (!next.result.isDone()) {
+                // The permit passes straight to the next waiting call
+                start(next);
+                return;
+            }
+        }
+    }
+
+    private static class PendingCall {
+        private final Supplier<CompletableFuture<byte[]>> call;
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        PendingCall(Supplier<CompletableFuture<byte[]>> call) {
+            this.call = call;
+        }
+    }
+
+    /**
+     * Raised when the API answers with an HTTP error status
+     */
+    public static class GeminiApiException extends RuntimeException {
+        private final int statusCode;
+
+        public GeminiApiException(int statusCode, String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+}
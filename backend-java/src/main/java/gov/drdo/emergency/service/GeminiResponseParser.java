@@ -0,0 +1,306 @@
+package gov.drdo.emergency.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Single-pass parser for Gemini generateContent responses.
+ *
+ * The response envelope is walked with a streaming parser down to the first
+ * candidate's text part. The analysis object embedded in that text (possibly
+ * wrapped in a markdown fence or surrounded by prose) is then parsed in place
+ * from the parser's character buffer, so no Map trees or substrings are built.
+ * A truncated object keeps every field read before the cut; text without any
+ * JSON object falls back to keyword classification. Both are marked as
+ * fallback results, so their score is only a hint for manual review and never
+ * escalates the incident on its own.
+ */
+@Component
+public class GeminiResponseParser {
+
+    private static final int SUMMARY_LIMIT = 500;
+
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public GeminiResponseParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Parse a raw generateContent response body into an analysis result
+     */
+    public AIAnalysisService.AIAnalysisResult parse(byte[] response) {
+        try (JsonParser parser = jsonFactory.createParser(response)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return fallbackResult();
+            }
+            AIAnalysisService.AIAnalysisResult result = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (result == null && "candidates".equals(field)) {
+                    result = parseCandidates(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return result != null ? result : fallbackResult();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse Gemini response", e);
+        }
+    }
+
+    /**
+     * Parse analysis text as returned by the model (clean JSON, fenced JSON or free text)
+     */
+    public AIAnalysisService.AIAnalysisResult parseAnalysisText(String text) {
+        if (text == null) {
+            return fallbackResult();
+        }
+        return parseAnalysisText(text.toCharArray(), 0, text.length());
+    }
+
+    /**
+     * Default result used when the model returns nothing usable
+     */
+    public AIAnalysisService.AIAnalysisResult fallbackResult() {
+        AIAnalysisService.AIAnalysisResult result = new AIAnalysisService.AIAnalysisResult();
+        result.setFallback(true);
+        result.setConfidenceScore(0.5);
+        result.setThreatLevel("MEDIUM");
+        result.setAnalysisSummary("AI analysis completed. Manual review recommended.");
+        result.getSafetyRecommendations().add("Follow standard emergency response protocols.");
+        return result;
+    }
+
+    // Private helper methods
+
+    private AIAnalysisService.AIAnalysisResult parseCandidates(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        AIAnalysisService.AIAnalysisResult result = null;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (result == null && parser.currentToken() == JsonToken.START_OBJECT) {
+                result = parseObjectPath(parser, "content");
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private AIAnalysisService.AIAnalysisResult parseObjectPath(JsonParser parser, String wanted) throws IOException {
+        AIAnalysisService.AIAnalysisResult result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (result == null && wanted.equals(field) && value == JsonToken.START_OBJECT) {
+                result = parseObjectPath(parser, "parts");
+            } else if (result == null && wanted.equals(field) && value == JsonToken.START_ARRAY) {
+                result = parseParts(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private AIAnalysisService.AIAnalysisResult parseParts(JsonParser parser) throws IOException {
+        AIAnalysisService.AIAnalysisResult result = null;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (result == null && "text".equals(field) && value == JsonToken.VALUE_STRING) {
+                    // The buffer is only valid until the next token, so parse the analysis right here
+                    result = parseAnalysisText(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return result;
+    }
+
+    private AIAnalysisService.AIAnalysisResult parseAnalysisText(char[] text, int offset, int length) {
+        int end = offset + length;
+        int objectStart = -1;
+        for (int i = offset; i < end; i++) {
+            if (text[i] == '{') {
+                objectStart = i;
+                break;
+            }
+        }
+        if (objectStart < 0) {
+            return parseFreeText(new String(text, offset, length));
+        }
+
+        AIAnalysisService.AIAnalysisResult result = new AIAnalysisService.AIAnalysisResult();
+        int fieldsRead = 0;
+        try (JsonParser parser = jsonFactory.createParser(text, objectStart, end - objectStart)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (readField(parser, field, result)) {
+                    fieldsRead++;
+                }
+            }
+            // Anything after the closing brace (fence, prose) is ignored
+        } catch (JsonEOFException e) {
+            if (fieldsRead == 0) {
+                return parseFreeText(new String(text, offset, length));
+            }
+            result.setFallback(true);
+            if (result.getAnalysisSummary() == null) {
+                result.setAnalysisSummary("AI analysis response was truncated. Manual review recommended.");
+            }
+        } catch (IOException e) {
+            if (fieldsRead == 0) {
+                AIAnalysisService.AIAnalysisResult fallback = fallbackResult();
+                fallback.setAnalysisSummary("AI Analysis completed with parsing errors: " + e.getMessage());
+                return fallback;
+            }
+            result.setFallback(true);
+        }
+        return result;
+    }
+
+    private boolean readField(JsonParser parser, String field, AIAnalysisService.AIAnalysisResult result)
+            throws IOException {
+        switch (field) {
+            case "confidence_score":
+                result.setConfidenceScore(Math.max(0.0, Math.min(1.0, readDouble(parser))));
+                return true;
+            case "threat_level":
+                result.setThreatLevel(readString(parser));
+                if (result.getThreatLevel() != null) {
+                    result.setThreatLevel(result.getThreatLevel().trim().toUpperCase(Locale.ROOT));
+                }
+                return true;
+            case "analysis_summary":
+                result.setAnalysisSummary(readString(parser));
+                return true;
+            case "evacuation_radius":
+                result.setEvacuationRadius(readInteger(parser));
+                return true;
+            case "bomb_indicators":
+                readStrings(parser, result.getBombIndicators());
+                return true;
+            case "safety_recommendations":
+                readStrings(parser, result.getSafetyRecommendations());
+                return true;
+            case "response_protocols":
+                readStrings(parser, result.getResponseProtocols());
+                return true;
+            case "specialized_units":
+                readStrings(parser, result.getSpecializedUnits());
+                return true;
+            case "immediate_actions":
+                readStrings(parser, result.getImmediateActions());
+                return true;
+            default:
+                parser.skipChildren();
+                return false;
+        }
+    }
+
+    private double readDouble(JsonParser parser) throws IOException {
+        if (parser.currentToken().isNumeric()) {
+            return parser.getDoubleValue();
+        }
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            // Models sometimes quote numbers or add a percent sign
+            String digits = parser.getText().replaceAll("[^0-9.]", "");
+            if (!digits.isEmpty()) {
+                try {
+                    double value = Double.parseDouble(digits);
+                    return value > 1.0 ? value / 100.0 : value;
+                } catch (NumberFormatException e) {
+                    // "1.2.3" and the like count as missing
+                }
+            }
+        }
+        parser.skipChildren();
+        return 0.0;
+    }
+
+    private Integer readInteger(JsonParser parser) throws IOException {
+        if (parser.currentToken().isNumeric()) {
+            return (int) Math.round(parser.getDoubleValue());
+        }
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            String digits = parser.getText().replaceAll("[^0-9]", "");
+            try {
+                return digits.isEmpty() ? null : Integer.valueOf(digits);
+            } catch (NumberFormatException e) {
+                // More digits than an int holds counts as missing
+                return null;
+            }
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private String readString(JsonParser parser) throws IOException {
+        if (parser.currentToken().isScalarValue() && parser.currentToken() != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private void readStrings(JsonParser parser, List<String> target) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            String single = readString(parser);
+            if (single != null && !single.isBlank()) {
+                target.add(single);
+            }
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String value = readString(parser);
+            if (value != null && !value.isBlank()) {
+                target.add(value);
+            }
+        }
+    }
+
+    private AIAnalysisService.AIAnalysisResult parseFreeText(String text) {
+        AIAnalysisService.AIAnalysisResult result = new AIAnalysisService.AIAnalysisResult();
+        // Keyword guesses from unstructured prose must not trigger escalation
+        result.setFallback(true);
+        String lower = text.toLowerCase(Locale.ROOT);
+
+        if (lower.contains("critical") || lower.contains("high threat")) {
+            result.setConfidenceScore(0.9);
+            result.setThreatLevel("HIGH");
+        } else if (lower.contains("medium") || lower.contains("moderate")) {
+            result.setConfidenceScore(0.6);
+            result.setThreatLevel("MEDIUM");
+        } else {
+            result.setConfidenceScore(0.3);
+            result.setThreatLevel("LOW");
+        }
+
+        result.setAnalysisSummary(text.length() > SUMMARY_LIMIT ? text.substring(0, SUMMARY_LIMIT) + "..." : text);
+        result.getSafetyRecommendations().add("Follow standard emergency protocols based on AI analysis.");
+        return result;
+    }
+}
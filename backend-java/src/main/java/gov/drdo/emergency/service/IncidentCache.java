@@ -0,0 +1,426 @@
+package gov.drdo.emergency.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gov.drdo.emergency.dto.IncidentResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache of incident views for the status page lookups.
+ *
+ * A small, short-lived in-process near cache sits in front of Redis, which
+ * holds the serialized view for every node. Misses on both tiers are
+ * coalesced per key, so a burst of refreshes for one incident costs one
+ * database read per node. IncidentService and AIAnalysisService call
+ * {@link #invalidate} on every write; once the transaction commits the Redis
+ * entry is deleted and an invalidation is published on
+ * {@value #CHANNEL} so every node drops its near copy. The invalidation is
+ * repeated after {@code second-invalidation-delay-ms}, which removes values a
+ * concurrent miss read from a lagging replica and wrote back after the first
+ * pass. Loads that started before an invalidation seen on this node are
+ * returned but not cached. Without Redis the node keeps only its near cache,
+ * and other nodes' writes show up once its entries expire.
+ */
+@Component
+public class IncidentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncidentCache.class);
+
+    private static final String VALUE_KEY_PREFIX = "incident-cache:id:";
+    private static final String REF_KEY_PREFIX = "incident-cache:ref:";
+    private static final String CHANNEL = "incident-cache:invalidate";
+
+    @Value("${emergency.cache.incidents.enabled:true}")
+    private boolean enabled;
+
+    @Value("${emergency.cache.incidents.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${emergency.cache.incidents.near-max-entries:10000}")
+    private long nearMaxEntries;
+
+    @Value("${emergency.cache.incidents.near-ttl-seconds:30}")
+    private long nearTtlSeconds;
+
+    @Value("${emergency.cache.incidents.redis-ttl-seconds:600}")
+    private long redisTtlSeconds;
+
+    @Value("${emergency.cache.incidents.second-invalidation-delay-ms:5000}")
+    private long secondInvalidationDelayMillis;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Tells this node's own invalidations apart from other nodes' on the channel
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private Cache<Long, IncidentResponse> near;
+
+    // incidentId -> id; never changes once assigned, so it is never invalidated
+    private Cache<String, Long> refs;
+
+    // id -> System.nanoTime() of the last invalidation seen on this node
+    private Cache<Long, Long> invalidatedAt;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<IncidentResponse>>> inFlight =
+        new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService timer;
+
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder redisErrors = new LongAdder();
+    private final LongAdder invalidationsPublished = new LongAdder();
+    private final LongAdder invalidationsReceived = new LongAdder();
+
+    private Timer invalidationLatency;
+
+    @PostConstruct
+    public void init() {
+        near = Caffeine.newBuilder()
+            .maximumSize(nearMaxEntries)
+            .expireAfterWrite(Duration.ofSeconds(nearTtlSeconds))
+            .build();
+        refs = Caffeine.newBuilder()
+            .maximumSize(nearMaxEntries)
+            .expireAfterAccess(Duration.ofSeconds(redisTtlSeconds))
+            .build();
+        invalidatedAt = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(redisTtlSeconds))
+            .build();
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "incident-cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (enabled && redisEnabled) {
+            listenerContainer.addMessageListener(this::onInvalidation, new ChannelTopic(CHANNEL));
+        }
+
+        FunctionCounter.builder("emergency.cache.incidents.requests", nearHits, LongAdder::sum)
+            .tag("result", "near-hit").register(meterRegistry);
+        FunctionCounter.builder("emergency.cache.incidents.requests", redisHits, LongAdder::sum)
+            .tag("result", "redis-hit").register(meterRegistry);
+        FunctionCounter.builder("emergency.cache.incidents.requests", misses, LongAdder::sum)
+            .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("emergency.cache.incidents.requests", coalesced, LongAdder::sum)
+            .tag("result", "coalesced").register(meterRegistry);
+        FunctionCounter.builder("emergency.cache.incidents.redis.errors", redisErrors, LongAdder::sum)
+            .register(meterRegistry);
+        FunctionCounter.builder("emergency.cache.incidents.invalidations", invalidationsPublished, LongAdder::sum)
+            .tag("direction", "published").register(meterRegistry);
+        FunctionCounter.builder("emergency.cache.incidents.invalidations", invalidationsReceived, LongAdder::sum)
+            .tag("direction", "received").register(meterRegistry);
+
+        // near: share of all lookups answered in-process; redis: share of near misses answered by
+        // Redis; overall: share of lookups that did not reach the database themselves
+        Gauge.builder("emergency.cache.incidents.hit-ratio", this, cache -> cache.ratio(cache.nearHits.sum(), 0))
+            .tag("tier", "near").register(meterRegistry);
+        Gauge.builder("emergency.cache.incidents.hit-ratio", this,
+                cache -> cache.ratio(cache.redisHits.sum(), cache.nearHits.sum()))
+            .tag("tier", "redis").register(meterRegistry);
+        Gauge.builder("emergency.cache.incidents.hit-ratio", this,
+                cache -> cache.ratio(cache.nearHits.sum() + cache.redisHits.sum() + cache.coalesced.sum(), 0))
+            .tag("tier", "overall").register(meterRegistry);
+        Gauge.builder("emergency.cache.incidents.size", near, Cache::estimatedSize).register(meterRegistry);
+
+        invalidationLatency = Timer.builder("emergency.cache.incidents.invalidation.latency")
+            .description("Time from publishing an invalidation to a node evicting its near copy")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Incident view by database id, loading it with the given loader on a miss in both tiers
+     */
+    public Optional<IncidentResponse> getById(Long id, Function<Long, Optional<IncidentResponse>> loader) {
+        if (!enabled || id == null) {
+            return loader.apply(id);
+        }
+        IncidentResponse cached = near.getIfPresent(id);
+        if (cached != null) {
+            nearHits.increment();
+            return Optional.of(cached);
+        }
+        return coalesce(VALUE_KEY_PREFIX + id, () -> {
+            long startedAt = System.nanoTime();
+            IncidentResponse shared = readValue(id);
+            if (shared != null) {
+                redisHits.increment();
+                if (!invalidatedSince(id, startedAt)) {
+                    near.put(id, shared);
+                }
+                return Optional.of(shared);
+            }
+            misses.increment();
+            Optional<IncidentResponse> loaded = loader.apply(id);
+            loaded.ifPresent(response -> populate(response, startedAt));
+            return loaded;
+        });
+    }
+
+    /**
+     * Incident view by public incident ID. The ID-to-id mapping is cached separately;
+     * once known, the lookup continues as {@link #getById} with {@code idLoader}.
+     */
+    public Optional<IncidentResponse> getByIncidentId(String incidentId,
+                                                      Function<String, Optional<IncidentResponse>> loader,
+                                                      Function<Long, Optional<IncidentResponse>> idLoader) {
+        if (!enabled || incidentId == null) {
+            return loader.apply(incidentId);
+        }
+        Long id = refs.getIfPresent(incidentId);
+        if (id == null) {
+            id = readRef(incidentId);
+            if (id != null) {
+                refs.put(incidentId, id);
+            }
+        }
+        if (id != null) {
+            return getById(id, idLoader);
+        }
+        return coalesce(REF_KEY_PREFIX + incidentId, () -> {
+            long startedAt = System.nanoTime();
+            misses.increment();
+            Optional<IncidentResponse> loaded = loader.apply(incidentId);
+            loaded.ifPresent(response -> {
+                refs.put(incidentId, response.getId());
+                writeRef(incidentId, response.getId());
+                populate(response, startedAt);
+            });
+            return loaded;
+        });
+    }
+
+    /**
+     * Drop the cached view of an incident on every node once the current transaction commits
+     */
+    public void invalidate(Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            evict(id);
+            timer.schedule(() -> evict(id), secondInvalidationDelayMillis, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    public void invalidate(Collection<Long> ids) {
+        ids.forEach(this::invalidate);
+    }
+
+    // Private helper methods
+
+    private Optional<IncidentResponse> coalesce(String key, Supplier<Optional<IncidentResponse>> load) {
+        CompletableFuture<Optional<IncidentResponse>> call = new CompletableFuture<>();
+        CompletableFuture<Optional<IncidentResponse>> leader = inFlight.putIfAbsent(key, call);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+        try {
+            Optional<IncidentResponse> result = load.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private void populate(IncidentResponse response, long startedAt) {
+        Long id = response.getId();
+        if (invalidatedSince(id, startedAt)) {
+            return;
+        }
+        near.put(id, response);
+        writeValue(id, response);
+        // An invalidation that landed while writing may have been overtaken by the write
+        if (invalidatedSince(id, startedAt)) {
+            near.invalidate(id);
+            deleteValue(id);
+        }
+    }
+
+    private void evict(Long id) {
+        evictLocal(id);
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.delete(VALUE_KEY_PREFIX + id);
+            redisTemplate.convertAndSend(CHANNEL, id + ":" + System.currentTimeMillis() + ":" + nodeId);
+            invalidationsPublished.increment();
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.warn("Could not publish cache invalidation for incident {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void evictLocal(Long id) {
+        invalidatedAt.put(id, System.nanoTime());
+        near.invalidate(id);
+        // Later lookups must not join a load that started before the write
+        inFlight.remove(VALUE_KEY_PREFIX + id);
+    }
+
+    private void onInvalidation(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":", 3);
+        if (parts.length != 3) {
+            return;
+        }
+        try {
+            Long id = Long.valueOf(parts[0]);
+            long publishedAt = Long.parseLong(parts[1]);
+            invalidationsReceived.increment();
+            if (!nodeId.equals(parts[2])) {
+                evictLocal(id);
+            }
+            // Wall clocks of different nodes; NTP skew shows up here as well
+            invalidationLatency.record(Math.max(0, System.currentTimeMillis() - publishedAt), TimeUnit.MILLISECONDS);
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring malformed cache invalidation message");
+        }
+    }
+
+    private boolean invalidatedSince(Long id, long startedAt) {
+        Long at = invalidatedAt.getIfPresent(id);
+        return at != null && at - startedAt >= 0;
+    }
+
+    private IncidentResponse readValue(Long id) {
+        if (!redisEnabled) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(VALUE_KEY_PREFIX + id);
+            return json != null ? objectMapper.readValue(json, IncidentResponse.class) : null;
+        } catch (JsonProcessingException e) {
+            // Written by an incompatible version; reload it
+            deleteValue(id);
+            return null;
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.debug("Incident cache read failed for {}: {}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeValue(Long id, IncidentResponse response) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(VALUE_KEY_PREFIX + id, objectMapper.writeValueAsString(response),
+                Duration.ofSeconds(redisTtlSeconds));
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.debug("Incident cache write failed for {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void deleteValue(Long id) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.delete(VALUE_KEY_PREFIX + id);
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.debug("Incident cache delete failed for {}: {}", id, e.getMessage());
+        }
+    }
+
+    private Long readRef(String incidentId) {
+        if (!redisEnabled) {
+            return null;
+        }
+        try {
+            String id = redisTemplate.opsForValue().get(REF_KEY_PREFIX + incidentId);
+            return id != null ? Long.valueOf(id) : null;
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.debug("Incident cache read failed for {}: {}", incidentId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRef(String incidentId, Long id) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(REF_KEY_PREFIX + incidentId, id.toString(),
+                Duration.ofSeconds(redisTtlSeconds));
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.debug("Incident cache write failed for {}: {}", incidentId, e.getMessage());
+        }
+    }
+
+    private double ratio(long hits, long excluded) {
+        long lookups = nearHits.sum() + redisHits.sum() + misses.sum() + coalesced.sum() - excluded;
+        return lookups > 0 ? (double) hits / lookups : 0.0;
+    }
+
+    private Optional<IncidentResponse> await(CompletableFuture<Optional<IncidentResponse>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
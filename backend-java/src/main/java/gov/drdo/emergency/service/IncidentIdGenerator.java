@@ -0,0 +1,12 @@
+package gov.drdo.emergency.service;
+
+/**
+ * Strategy for generating public incident identifiers of the form INC-YYYY-XXXXXXXX
+ */
+public interface IncidentIdGenerator {
+    
+    /**
+     * Generate the next incident ID; must be unique across all backend instances
+     */
+    String nextIncidentId();
+}
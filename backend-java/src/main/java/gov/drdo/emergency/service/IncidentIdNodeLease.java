@@ -0,0 +1,217 @@
+package gov.drdo.emergency.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Exclusive claim on a Snowflake node ID, and the last second it may issue IDs for.
+ *
+ * One row per node ID in incident_id_nodes records the instance holding it,
+ * its last heartbeat and reserved_until, the highest second the holder may
+ * have used. Claiming a node ID that another instance heartbeated within
+ * {@code lease-ttl-ms} fails, so two instances configured with the same node
+ * ID cannot both issue IDs; a restart resumes after the previous holder's
+ * reserved_until, so IDs borrowed from future seconds are never issued again.
+ * Without a configured node ID, an instance takes the lowest node ID nobody
+ * holds.
+ * Reservations are written in their own transaction so a rolled-back incident
+ * insert cannot roll them back.
+ */
+@Component
+public class IncidentIdNodeLease {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncidentIdNodeLease.class);
+
+    // Takes the row when it is free or its holder stopped heartbeating; no row returned means it is held
+    private static final String CLAIM_SQL =
+        "INSERT INTO incident_id_nodes (node_id, instance, heartbeat_at, reserved_until) VALUES (?, ?, now(), 0) " +
+        "ON CONFLICT (node_id) DO UPDATE SET instance = EXCLUDED.instance, heartbeat_at = now() " +
+        "WHERE incident_id_nodes.instance IS NULL " +
+        "OR incident_id_nodes.heartbeat_at < now() - (? * INTERVAL '1 millisecond') " +
+        "RETURNING reserved_until";
+
+    @Value("${emergency.incident-id.lease-ttl-ms:60000}")
+    private long leaseTtlMs;
+
+    @Value("${emergency.incident-id.reserve-seconds:60}")
+    private long reserveSeconds;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final String instance = hostName() + "/" + UUID.randomUUID();
+
+    private volatile int nodeId = -1;
+    private volatile boolean held;
+    private volatile long reservedUntil;
+
+    /**
+     * Claim the node ID, waiting out only what is left of the holder's lease in case it is a crashed previous
+     * run; returns the last second the previous holder may have used
+     */
+    public synchronized long acquire(int nodeId) {
+        this.nodeId = nodeId;
+        Long previous = tryClaim();
+        if (previous == null) {
+            long remaining = remainingLeaseMs();
+            logger.warn("Incident ID node {} is held by {}; waiting {} ms for its lease to expire",
+                nodeId, holder(), remaining);
+            try {
+                Thread.sleep(remaining + 250);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for incident ID node " + nodeId, e);
+            }
+            previous = tryClaim();
+        }
+        if (previous == null) {
+            throw new IllegalStateException("emergency.incident-id.node-id " + nodeId
+                + " is in use by live instance " + holder() + "; every backend instance needs its own node ID");
+        }
+        return claimed(previous);
+    }
+
+    /**
+     * Claim the lowest node ID up to maxNodeId that no live instance holds, without waiting; returns the last
+     * second its previous holder may have used
+     */
+    public synchronized long acquireAny(int maxNodeId) {
+        for (int candidate = 0; candidate <= maxNodeId; candidate++) {
+            this.nodeId = candidate;
+            Long previous = tryClaim();
+            if (previous != null) {
+                return claimed(previous);
+            }
+        }
+        throw new IllegalStateException("All incident ID nodes 0-" + maxNodeId + " are held by live instances; "
+            + "stop an instance or wait " + leaseTtlMs + " ms for a crashed one's lease to expire");
+    }
+
+    /**
+     * Record that seconds up to the given one may be used, ahead of using them
+     */
+    public synchronized void reserve(long second) {
+        if (second <= reservedUntil) {
+            return;
+        }
+        long target = second + reserveSeconds;
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Integer updated = template.execute(status -> jdbcTemplate.update(
+            "UPDATE incident_id_nodes SET reserved_until = GREATEST(reserved_until, ?), heartbeat_at = now() " +
+            "WHERE node_id = ? AND instance = ?", target, nodeId, instance));
+        if (updated == null || updated == 0) {
+            held = false;
+            throw new IllegalStateException("Lost the lease on incident ID node " + nodeId);
+        }
+        reservedUntil = target;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public long getReservedUntil() {
+        return reservedUntil;
+    }
+
+    public boolean isHeld() {
+        return held;
+    }
+
+    /**
+     * Keep the lease alive and the reservation ahead of the clock, so the generator rarely waits for the database
+     */
+    @Scheduled(fixedDelayString = "${emergency.incident-id.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!held) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis() / 1000;
+            if (reservedUntil - now < reserveSeconds / 2) {
+                reserve(now);
+                return;
+            }
+            int updated = jdbcTemplate.update(
+                "UPDATE incident_id_nodes SET heartbeat_at = now() WHERE node_id = ? AND instance = ?",
+                nodeId, instance);
+            if (updated == 0) {
+                held = false;
+                logger.error("Lost the lease on incident ID node {}; incident creation stops until restart", nodeId);
+            }
+        } catch (IllegalStateException e) {
+            logger.error("{}; incident creation stops until restart", e.getMessage());
+        } catch (DataAccessException e) {
+            logger.warn("Incident ID node {} heartbeat failed: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        if (!held) {
+            return;
+        }
+        held = false;
+        try {
+            jdbcTemplate.update("UPDATE incident_id_nodes SET instance = NULL WHERE node_id = ? AND instance = ?",
+                nodeId, instance);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to release incident ID node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    // Private helper methods
+
+    private long claimed(long previous) {
+        held = true;
+        reservedUntil = previous;
+        logger.info("Claimed incident ID node {} as {}", nodeId, instance);
+        return previous;
+    }
+
+    private Long tryClaim() {
+        List<Long> rows = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> rs.getLong(1), nodeId, instance, leaseTtlMs);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // How long until the holder's lease lapses without another heartbeat
+    private long remainingLeaseMs() {
+        List<Long> rows = jdbcTemplate.query(
+            "SELECT CAST(EXTRACT(EPOCH FROM heartbeat_at - now()) * 1000 AS BIGINT) + ? " +
+            "FROM incident_id_nodes WHERE node_id = ?",
+            (rs, rowNum) -> rs.getLong(1), leaseTtlMs, nodeId);
+        return rows.isEmpty() ? 0 : Math.max(0, Math.min(rows.get(0), leaseTtlMs));
+    }
+
+    private String holder() {
+        List<String> rows = jdbcTemplate.query("SELECT instance FROM incident_id_nodes WHERE node_id = ?",
+            (rs, rowNum) -> rs.getString(1), nodeId);
+        return rows.isEmpty() ? "unknown" : rows.get(0);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+}
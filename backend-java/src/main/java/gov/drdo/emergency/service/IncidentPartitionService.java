@@ -0,0 +1,120 @@
+package gov.drdo.emergency.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Maintains the time partitions of incidents and incident_updates.
+ *
+ * Each run makes sure the monthly hot partitions exist a few months ahead,
+ * moves RESOLVED/CLOSED incidents older than the retention window (and their
+ * updates) into the compressed yearly archive partitions in small batches, and
+ * drops hot partitions that archival has emptied. The work itself is done by
+ * the maintenance functions in database/schema.sql; they serialize on an
+ * advisory lock and archive with SKIP LOCKED, so every node may run this.
+ */
+@Service
+public class IncidentPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncidentPartitionService.class);
+
+    @Value("${emergency.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${emergency.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${emergency.partitions.archive-after-days:90}")
+    private long archiveAfterDays;
+
+    @Value("${emergency.partitions.archive-batch-size:1000}")
+    private int archiveBatchSize;
+
+    @Value("${emergency.partitions.max-batches-per-run:500}")
+    private int maxBatchesPerRun;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter archivedCounter;
+
+    @PostConstruct
+    public void init() {
+        archivedCounter = Counter.builder("emergency.partitions.archived")
+            .description("Incidents moved to the archive partitions")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Make sure the current and upcoming partitions exist before traffic arrives
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitions() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Integer created = jdbcTemplate.queryForObject("SELECT create_incident_partitions(?)",
+                Integer.class, monthsAhead);
+            if (created != null && created > 0) {
+                logger.info("Created {} incident partitions", created);
+            }
+        } catch (DataAccessException e) {
+            logger.error("Failed to create incident partitions", e);
+        }
+    }
+
+    /**
+     * Nightly rotation: create partitions ahead, archive old closed incidents, drop emptied partitions
+     */
+    @Scheduled(cron = "${emergency.partitions.maintenance-cron:0 30 2 * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        ensurePartitions();
+
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(Duration.ofDays(archiveAfterDays)));
+        long archived = 0;
+        try {
+            // One short transaction per batch so row locks and WAL bursts stay small
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                Integer moved = jdbcTemplate.queryForObject("SELECT archive_closed_incidents(?, ?)",
+                    Integer.class, cutoff, archiveBatchSize);
+                if (moved == null || moved == 0) {
+                    break;
+                }
+                archived += moved;
+                archivedCounter.increment(moved);
+                if (moved < archiveBatchSize) {
+                    break;
+                }
+            }
+
+            Integer dropped = jdbcTemplate.queryForObject("SELECT drop_empty_hot_partitions(?::interval)",
+                Integer.class, archiveAfterDays + " days");
+            logger.info("Partition maintenance archived {} incidents and dropped {} empty hot partitions",
+                archived, dropped);
+        } catch (DataAccessException e) {
+            logger.error("Partition maintenance failed after archiving {} incidents", archived, e);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.entity.IncidentOutboxEvent;
+import gov.drdo.emergency.repository.IncidentOutboxRepository;
+import gov.drdo.emergency.repository.IncidentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Post-commit pipeline for incident side effects (notifications, real-time
+ * broadcast and AI analysis).
+ *
+ * Outbox rows are written in the caller's transaction and handed to bounded,
+ * per-stage worker pools only after that transaction commits, so intake latency
+ * is bounded by the incident insert rather than by the slowest downstream.
+ * Events that cannot be queued (stage saturated, node restart) stay PENDING in
+ * the outbox and are picked up by the relay sweep; events already sitting in
+ * a stage queue on this node are skipped by the relay until a worker has tried
+ * to claim them. Claims held on this node, including AI analysis waiting in
+ * the priority scheduler, are renewed on every relay pass, so only a dead
+ * node's claims go stale. A failed event is retried with exponential backoff,
+ * so a downstream outage does not use up its attempts within a few relay passes.
+ */
+@Service
+public class IncidentPipelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncidentPipelineService.class);
+
+    @Autowired
+    private IncidentOutboxRepository outboxRepository;
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private AIAnalysisService aiAnalysisService;
+
+    @Value("${emergency.pipeline.notify.workers:4}")
+    private int notifyWorkers;
+
+    @Value("${emergency.pipeline.notify.queue-capacity:1000}")
+    private int notifyQueueCapacity;
+
+    @Value("${emergency.pipeline.broadcast.workers:2}")
+    private int broadcastWorkers;
+
+    @Value("${emergency.pipeline.broadcast.queue-capacity:2000}")
+    private int broadcastQueueCapacity;
+
+    @Value("${emergency.pipeline.ai.workers:2}")
+    private int aiWorkers;
+
+    @Value("${emergency.pipeline.ai.queue-capacity:500}")
+    private int aiQueueCapacity;
+
+    @Value("${emergency.pipeline.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${emergency.pipeline.relay-delay-ms:5000}")
+    private long relayDelayMs;
+
+    @Value("${emergency.pipeline.claim-timeout-ms:900000}")
+    private long claimTimeoutMs;
+
+    @Value("${emergency.pipeline.retry-backoff-ms:10000}")
+    private long retryBackoffMs;
+
+    @Value("${emergency.pipeline.max-retry-backoff-ms:600000}")
+    private long maxRetryBackoffMs;
+
+    private final Map<IncidentOutboxEvent.Stage, ThreadPoolExecutor> stageExecutors =
+        new EnumMap<>(IncidentOutboxEvent.Stage.class);
+
+    // Events handed to a stage executor on this node whose worker has not attempted the claim yet
+    private final Set<Long> queuedEventIds = ConcurrentHashMap.newKeySet();
+
+    // Events claimed on this node and not finished yet; their claims are renewed by the relay
+    private final Set<Long> claimedEventIds = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        stageExecutors.put(IncidentOutboxEvent.Stage.NOTIFY,
+            createStageExecutor("notify", notifyWorkers, notifyQueueCapacity));
+        stageExecutors.put(IncidentOutboxEvent.Stage.BROADCAST,
+            createStageExecutor("broadcast", broadcastWorkers, broadcastQueueCapacity));
+        stageExecutors.put(IncidentOutboxEvent.Stage.AI_ANALYSIS,
+            createStageExecutor("ai", aiWorkers, aiQueueCapacity));
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Anything still queued remains PENDING in the outbox and is relayed on the next start
+        stageExecutors.values().forEach(ThreadPoolExecutor::shutdownNow);
+    }
+
+    /**
+     * Record the post-commit work for a newly created incident.
+     * Must be called inside the transaction that saved the incident.
+     */
+    public void recordIncidentCreated(Incident incident, boolean analysisRequired) {
+        recordIncidentsCreated(List.of(incident), ignored -> analysisRequired);
+    }
+
+    /**
+     * Record the post-commit work for a batch of newly created incidents;
+     * analysisRequired is the threat pre-screen verdict per incident
+     */
+    public void recordIncidentsCreated(List<Incident> incidents, Predicate<Incident> analysisRequired) {
+        List<IncidentOutboxEvent> events = new ArrayList<>(incidents.size() * 3);
+        for (Incident incident : incidents) {
+            events.add(new IncidentOutboxEvent(incident.getId(), IncidentOutboxEvent.Stage.NOTIFY));
+            events.add(new IncidentOutboxEvent(incident.getId(), IncidentOutboxEvent.Stage.BROADCAST));
+
+            // AI analysis is only worthwhile when the citizen attached media and the pre-screen was not conclusive
+            if (incident.getMediaFiles() != null && incident.getMediaFiles().length > 0
+                    && analysisRequired.test(incident)) {
+                events.add(new IncidentOutboxEvent(incident.getId(), IncidentOutboxEvent.Stage.AI_ANALYSIS));
+            }
+        }
+
+        List<IncidentOutboxEvent> saved = outboxRepository.saveAll(events);
+        TransactionHooks.afterCommit(() -> saved.forEach(this::submit));
+    }
+
+    /**
+     * Current queue depth per stage
+     */
+    public Map<IncidentOutboxEvent.Stage, Integer> getStageBacklog() {
+        Map<IncidentOutboxEvent.Stage, Integer> backlog = new EnumMap<>(IncidentOutboxEvent.Stage.class);
+        stageExecutors.forEach((stage, executor) -> backlog.put(stage, executor.getQueue().size()));
+        return backlog;
+    }
+
+    /**
+     * Re-submit outbox events that were never queued or whose worker died
+     */
+    @Scheduled(fixedDelayString = "${emergency.pipeline.relay-delay-ms:5000}")
+    public void relayPendingEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!claimedEventIds.isEmpty()) {
+            outboxRepository.renewClaims(List.copyOf(claimedEventIds), now);
+        }
+        outboxRepository.releaseStaleClaims(now.minusNanos(claimTimeoutMs * 1_000_000L));
+
+        List<IncidentOutboxEvent> pending = outboxRepository.findRelayable(
+            now.minusNanos(relayDelayMs * 1_000_000L), now, PageRequest.of(0, 500));
+        pending.forEach(this::submit);
+    }
+
+    // Private helper methods
+
+    private void submit(IncidentOutboxEvent event) {
+        ThreadPoolExecutor executor = stageExecutors.get(event.getStage());
+        Long eventId = event.getId();
+        if (!queuedEventIds.add(eventId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> process(eventId));
+        } catch (RejectedExecutionException e) {
+            // Stage saturated: the row stays PENDING and the relay retries it
+            queuedEventIds.remove(eventId);
+            logger.warn("Pipeline stage {} saturated, deferring outbox event {}", event.getStage(), eventId);
+        }
+    }
+
+    private void process(Long eventId) {
+        int claimed;
+        try {
+            claimed = outboxRepository.claim(eventId, LocalDateTime.now());
+        } finally {
+            // Once claimed the row is IN_PROGRESS and invisible to the relay; if not, another worker owns it
+            queuedEventIds.remove(eventId);
+        }
+        if (claimed == 0) {
+            return;
+        }
+        claimedEventIds.add(eventId);
+
+        IncidentOutboxEvent event = outboxRepository.findById(eventId).orElse(null);
+        if (event == null) {
+            claimedEventIds.remove(eventId);
+            return;
+        }
+
+        try {
+            Incident incident = incidentRepository.findById(event.getIncidentId())
+                .orElseThrow(() -> new RuntimeException("Incident not found with ID: " + event.getIncidentId()));
+
+            switch (event.getStage()) {
+                case NOTIFY:
+                    notificationService.sendIncidentAlert(incident);
+                    break;
+                case BROADCAST:
+                    webSocketService.broadcastIncidentUpdate(incident);
+                    break;
+                case AI_ANALYSIS:
+                    // Hand over to the priority-ordered analysis scheduler; the row completes with it
+                    aiAnalysisService.analyzeIncidentAsync(incident)
+                        .whenComplete((ignored, error) -> finish(event, error));
+                    return;
+            }
+
+            finish(event, null);
+
+        } catch (Exception e) {
+            finish(event, e);
+        }
+    }
+
+    private void finish(IncidentOutboxEvent event, Throwable error) {
+        claimedEventIds.remove(event.getId());
+        if (error == null) {
+            outboxRepository.markCompleted(event.getId(), LocalDateTime.now());
+            return;
+        }
+
+        IncidentOutboxEvent.OutboxStatus next = event.getAttempts() >= maxAttempts
+            ? IncidentOutboxEvent.OutboxStatus.FAILED
+            : IncidentOutboxEvent.OutboxStatus.PENDING;
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.markFailed(event.getId(), next, error.getMessage(), now,
+            now.plusNanos(retryBackoff(event.getAttempts()) * 1_000_000L));
+        logger.error("Pipeline stage {} failed for incident {} (attempt {})",
+            event.getStage(), event.getIncidentId(), event.getAttempts(), error);
+    }
+
+    // Base delay doubled per attempt already made, capped; jittered so events failed by one outage spread out
+    private long retryBackoff(int attempts) {
+        long delay = retryBackoffMs << Math.min(Math.max(attempts - 1, 0), 20);
+        delay = Math.min(delay > 0 ? delay : maxRetryBackoffMs, maxRetryBackoffMs);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private ThreadPoolExecutor createStageExecutor(String name, int workers, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(
+            workers, workers, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "incident-pipeline-" + name + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,364 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.IncidentRollupPoint;
+import gov.drdo.emergency.entity.Incident;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Continuously maintained incident rollups for dashboards.
+ *
+ * Rows in incident_rollups count incidents by the minute they were created and
+ * their current type, severity, status and region, so a status change moves
+ * one count between two rows of the incident's creation minute. Changes are
+ * recorded at the same points as {@link IncidentStatisticsService}, summed in
+ * memory after commit and upserted as one batch every few seconds, so write
+ * cost follows the number of changed keys, not history. compact_incident_rollups()
+ * folds old minute rows into hourly and then daily rows; queries sum across all
+ * three tiers, so resolution is per minute for recent data and coarser beyond
+ * that. An hourly reconciliation rebuilds the current day from incidents to
+ * correct deltas lost in a crash or written outside the services.
+ */
+@Service
+public class IncidentRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncidentRollupService.class);
+
+    /**
+     * Region of incidents without a location
+     */
+    public static final String UNKNOWN_REGION = "UNKNOWN";
+
+    private static final long MAX_BUCKETS = 10_000;
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO incident_rollups (granularity, bucket_start, type, severity, status, region, " +
+        "incident_count, critical_count, response_time_sum, response_time_count) " +
+        "VALUES ('MINUTE', ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (granularity, bucket_start, type, severity, status, region) DO UPDATE SET " +
+        "incident_count = incident_rollups.incident_count + EXCLUDED.incident_count, " +
+        "critical_count = incident_rollups.critical_count + EXCLUDED.critical_count, " +
+        "response_time_sum = incident_rollups.response_time_sum + EXCLUDED.response_time_sum, " +
+        "response_time_count = incident_rollups.response_time_count + EXCLUDED.response_time_count";
+
+    public enum Granularity {
+        MINUTE, HOUR, DAY
+    }
+
+    public enum Dimension {
+        TYPE("type"), SEVERITY("severity"), STATUS("status"), REGION("region");
+
+        private final String column;
+
+        Dimension(String column) {
+            this.column = column;
+        }
+    }
+
+    @Value("${emergency.rollups.minute-retention-hours:6}")
+    private long minuteRetentionHours;
+
+    @Value("${emergency.rollups.hour-retention-days:14}")
+    private long hourRetentionDays;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Committed deltas not yet written, per rollup row: count, critical, response time sum and count
+    private final ConcurrentHashMap<Key, long[]> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Capture an incident's rollup contribution before changing it; pass the result to {@link #recordChange}
+     */
+    public Contribution capture(Incident incident) {
+        return Contribution.of(incident);
+    }
+
+    public void recordCreated(Incident incident) {
+        Contribution contribution = Contribution.of(incident);
+        TransactionHooks.afterCommit(() -> add(contribution, 1));
+    }
+
+    public void recordCreated(List<Incident> incidents) {
+        List<Contribution> contributions = incidents.stream().map(Contribution::of).collect(Collectors.toList());
+        TransactionHooks.afterCommit(() -> contributions.forEach(contribution -> add(contribution, 1)));
+    }
+
+    /**
+     * Move an incident's contribution from what {@link #capture} saw to its current state
+     */
+    public void recordChange(Contribution before, Incident incident) {
+        Contribution after = Contribution.of(incident);
+        if (after.equals(before)) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            add(before, -1);
+            add(after, 1);
+        });
+    }
+
+    /**
+     * Write pending deltas in one batch; keys are sorted so concurrent nodes lock rows in the same order
+     */
+    @Scheduled(fixedDelayString = "${emergency.rollups.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        List<Key> keys = new ArrayList<>(pending.keySet());
+        keys.sort(Comparator.naturalOrder());
+        for (Key key : keys) {
+            long[] drained = pending.remove(key);
+            if (drained == null || (drained[0] == 0 && drained[1] == 0 && drained[2] == 0 && drained[3] == 0)) {
+                continue;
+            }
+            rows.add(new Object[]{Timestamp.valueOf(key.bucket), key.type, key.severity, key.status, key.region,
+                drained[0], drained[1], drained[2], drained[3]});
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        } catch (DataAccessException e) {
+            logger.warn("Could not write {} incident rollup rows, retrying next flush: {}", rows.size(), e.getMessage());
+            for (Object[] row : rows) {
+                Key key = new Key(((Timestamp) row[0]).toLocalDateTime(), (String) row[1], (String) row[2],
+                    (String) row[3], (String) row[4]);
+                pending.merge(key, new long[]{(Long) row[5], (Long) row[6], (Long) row[7], (Long) row[8]},
+                    IncidentRollupService::sum);
+            }
+        }
+    }
+
+    /**
+     * Fold minute rows into hours and hour rows into days once they leave their retention window
+     */
+    @Scheduled(fixedDelayString = "${emergency.rollups.compact-interval-ms:300000}")
+    public void compact() {
+        try {
+            jdbcTemplate.queryForObject("SELECT compact_incident_rollups(?::interval, ?::interval)", Integer.class,
+                minuteRetentionHours + " hours", hourRetentionDays + " days");
+        } catch (DataAccessException e) {
+            logger.error("Failed to compact incident rollups", e);
+        }
+    }
+
+    /**
+     * Rebuild today's rows from incidents
+     */
+    @Scheduled(cron = "${emergency.rollups.reconcile-cron:0 5 * * * *}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        rebuild(today, today.plusDays(1));
+    }
+
+    /**
+     * Replace the rollup rows for incidents created in [from, to) with fresh aggregates
+     */
+    public synchronized void rebuild(LocalDate from, LocalDate to) {
+        // Deltas recorded before the rebuild snapshot must not be added on top of it
+        flush();
+        try {
+            Integer rows = jdbcTemplate.queryForObject("SELECT rebuild_incident_rollups(?, ?)", Integer.class,
+                Date.valueOf(from), Date.valueOf(to));
+            logger.debug("Rebuilt {} incident rollup rows for {} to {}", rows, from, to);
+        } catch (DataAccessException e) {
+            logger.error("Failed to rebuild incident rollups for {} to {}", from, to, e);
+        }
+    }
+
+    /**
+     * Incident counts per bucket in [from, to), grouped by the given dimensions (all others summed).
+     * Rows already compacted past the requested granularity are reported at their own bucket start.
+     */
+    public List<IncidentRollupPoint> getSeries(Granularity granularity, LocalDateTime from, LocalDateTime to,
+                                               Set<Dimension> groupBy) {
+        Objects.requireNonNull(granularity, "granularity");
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        Set<Dimension> dimensions = groupBy == null || groupBy.isEmpty()
+            ? EnumSet.noneOf(Dimension.class) : EnumSet.copyOf(groupBy);
+        if (bucketsBetween(granularity, from, to) > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range too large for " + granularity + " granularity");
+        }
+
+        StringBuilder columns = new StringBuilder();
+        for (Dimension dimension : Dimension.values()) {
+            columns.append(", ").append(dimensions.contains(dimension) ? dimension.column : "NULL");
+        }
+        StringBuilder grouping = new StringBuilder("1");
+        int position = 2;
+        for (Dimension dimension : Dimension.values()) {
+            if (dimensions.contains(dimension)) {
+                grouping.append(", ").append(position);
+            }
+            position++;
+        }
+
+        String sql = "SELECT date_trunc(?, bucket_start)" + columns +
+            ", SUM(incident_count), SUM(critical_count), SUM(response_time_sum), SUM(response_time_count) " +
+            "FROM incident_rollups WHERE bucket_start >= ? AND bucket_start < ? " +
+            "GROUP BY " + grouping + " HAVING SUM(incident_count) <> 0 ORDER BY " + grouping;
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            long responseTimeCount = rs.getLong(9);
+            return new IncidentRollupPoint(
+                rs.getTimestamp(1).toLocalDateTime(),
+                rs.getString(2) != null ? Incident.IncidentType.valueOf(rs.getString(2)) : null,
+                rs.getString(3) != null ? Incident.SeverityLevel.valueOf(rs.getString(3)) : null,
+                rs.getString(4) != null ? Incident.IncidentStatus.valueOf(rs.getString(4)) : null,
+                rs.getString(5),
+                rs.getLong(6),
+                rs.getLong(7),
+                responseTimeCount > 0 ? (double) rs.getLong(8) / responseTimeCount : null);
+        }, granularity.name().toLowerCase(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Region of an incident: its 1-degree lat:lon cell (floor of each); must match
+     * rebuild_incident_rollups() in database/schema.sql
+     */
+    public static String regionOf(Incident incident) {
+        if (incident.getLocationPoint() == null) {
+            return UNKNOWN_REGION;
+        }
+        return (int) Math.floor(incident.getLocationPoint().getY()) + ":"
+            + (int) Math.floor(incident.getLocationPoint().getX());
+    }
+
+    // Private helper methods
+
+    private void add(Contribution contribution, int sign) {
+        long[] delta = {
+            sign,
+            contribution.critical ? sign : 0,
+            contribution.responseTime != null ? (long) sign * contribution.responseTime : 0,
+            contribution.responseTime != null ? sign : 0
+        };
+        // merge is atomic per key, so flush's remove never loses a concurrent delta
+        pending.merge(contribution.key, delta, IncidentRollupService::sum);
+    }
+
+    private static long[] sum(long[] a, long[] b) {
+        return new long[]{a[0] + b[0], a[1] + b[1], a[2] + b[2], a[3] + b[3]};
+    }
+
+    private static long bucketsBetween(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        Duration range = Duration.between(from, to);
+        switch (granularity) {
+            case MINUTE:
+                return range.toMinutes() + 1;
+            case HOUR:
+                return range.toHours() + 1;
+            default:
+                return range.toDays() + 1;
+        }
+    }
+
+    /**
+     * What one incident adds to the rollups: one count in its row, plus its critical flag and response time
+     */
+    public static final class Contribution {
+        private final Key key;
+        private final boolean critical;
+        private final Integer responseTime;
+
+        private Contribution(Key key, boolean critical, Integer responseTime) {
+            this.key = key;
+            this.critical = critical;
+            this.responseTime = responseTime;
+        }
+
+        static Contribution of(Incident incident) {
+            LocalDateTime createdAt = incident.getCreatedAt() != null ? incident.getCreatedAt() : LocalDateTime.now();
+            Incident.IncidentStatus status = incident.getStatus() != null
+                ? incident.getStatus() : Incident.IncidentStatus.REPORTED;
+            Key key = new Key(createdAt.truncatedTo(ChronoUnit.MINUTES), incident.getType().name(),
+                incident.getSeverity().name(), status.name(), regionOf(incident));
+            return new Contribution(key, Boolean.TRUE.equals(incident.getIsCritical()), incident.getActualResponseTime());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Contribution)) {
+                return false;
+            }
+            Contribution that = (Contribution) o;
+            return critical == that.critical && key.equals(that.key) && Objects.equals(responseTime, that.responseTime);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, critical, responseTime);
+        }
+    }
+
+    private static final class Key implements Comparable<Key> {
+        private static final Comparator<Key> ORDER = Comparator.<Key, LocalDateTime>comparing(k -> k.bucket)
+            .thenComparing(k -> k.type).thenComparing(k -> k.severity)
+            .thenComparing(k -> k.status).thenComparing(k -> k.region);
+
+        private final LocalDateTime bucket;
+        private final String type;
+        private final String severity;
+        private final String status;
+        private final String region;
+
+        Key(LocalDateTime bucket, String type, String severity, String status, String region) {
+            this.bucket = bucket;
+            this.type = type;
+            this.severity = severity;
+            this.status = status;
+            this.region = region;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return bucket.equals(that.bucket) && type.equals(that.type) && severity.equals(that.severity)
+                && status.equals(that.status) && region.equals(that.region);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucket, type, severity, status, region);
+        }
+    }
+}
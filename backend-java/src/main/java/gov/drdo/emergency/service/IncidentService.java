@@ -1,20 +1,37 @@
 package gov.drdo.emergency.service;
 
+import gov.drdo.emergency.dto.IncidentSummary;
 import gov.drdo.emergency.entity.Incident;
 import gov.drdo.emergency.entity.IncidentUpdate;
+import gov.drdo.emergency.repository.IncidentFilter;
+import gov.drdo.emergency.repository.IncidentKeyset;
 import gov.drdo.emergency.repository.IncidentRepository;
 import gov.drdo.emergency.repository.IncidentUpdateRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
 
 /**
  * Service class for incident management operations
@@ -23,6 +40,8 @@ import java.util.UUID;
 @Transactional
 public class IncidentService {
     
+    private static final Logger logger = LoggerFactory.getLogger(IncidentService.class);
+    
     @Autowired
     private IncidentRepository incidentRepository;
     
@@ -30,55 +49,127 @@ public class IncidentService {
     private IncidentUpdateRepository incidentUpdateRepository;
     
     @Autowired
-    private AIAnalysisService aiAnalysisService;
+    private IncidentPipelineService incidentPipelineService;
+    
+    @Autowired
+    private IncidentIdGenerator incidentIdGenerator;
     
     @Autowired
     private NotificationService notificationService;
     
     @Autowired
-    private FileUploadService fileUploadService;
+    private MediaStorageService mediaStorageService;
+    
+    @Autowired
+    private ThreatPrescreenService threatPrescreenService;
+    
+    @Autowired
+    private DuplicateIncidentDetector duplicateIncidentDetector;
+    
+    @Autowired
+    private IncidentStatisticsService incidentStatisticsService;
+    
+    @Autowired
+    private IncidentRollupService incidentRollupService;
+    
+    @Autowired
+    private IncidentCache incidentCache;
+    
+    @Autowired
+    private LiveLocationIndex liveLocationIndex;
     
     @Autowired
     private WebSocketService webSocketService;
     
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int jdbcBatchSize;
+    
     /**
      * Create a new incident
      */
     public Incident createIncident(Incident incident, List<MultipartFile> mediaFiles) {
         // Generate unique incident ID
-        incident.setIncidentId(generateIncidentId());
+        incident.setIncidentId(incidentIdGenerator.nextIncidentId());
         
         // Set response time target based on severity
         setResponseTimeTarget(incident);
         
-        // Upload media files if provided
+        // Lexicon pre-screen: flags obvious bomb/chemical reports and decides if the model is needed
+        ThreatPrescreenService.ThreatAssessment assessment = threatPrescreenService.prescreen(incident);
+        
+        // Link repeat reports of the same event to the first report instead of fanning out again
+        DuplicateIncidentDetector.Probe duplicate = duplicateIncidentDetector.probe(incident);
+        if (duplicate.isDuplicate()) {
+            incident.setMasterIncidentId(duplicate.getMasterIncidentId());
+        }
+        
+        // Store media files if provided (content-addressed, de-duplicated)
         if (mediaFiles != null && !mediaFiles.isEmpty()) {
-            String[] uploadedFiles = fileUploadService.uploadFiles(mediaFiles);
+            String[] uploadedFiles = mediaStorageService.storeAll(mediaFiles);
             incident.setMediaFiles(uploadedFiles);
         }
         
         // Save incident
         Incident savedIncident = incidentRepository.save(incident);
+        duplicateIncidentDetector.register(savedIncident, duplicate);
+        incidentStatisticsService.recordCreated(savedIncident);
+        incidentRollupService.recordCreated(savedIncident);
+        liveLocationIndex.updateIncident(savedIncident);
         
         // Create initial update
         createIncidentUpdate(savedIncident, "Incident Reported", 
             "New incident has been reported and is awaiting verification.", 
             IncidentUpdate.UpdateType.STATUS_CHANGE, "SYSTEM");
         
-        // Perform AI analysis if media files are present
-        if (incident.getMediaFiles() != null && incident.getMediaFiles().length > 0) {
-            performAIAnalysis(savedIncident);
+        if (duplicate.isDuplicate()) {
+            // The master incident already notified responders and ran analysis
+            incidentRepository.addDuplicates(duplicate.getMasterIncidentId(), 1);
+            incidentCache.invalidate(duplicate.getMasterIncidentId());
+            createIncidentUpdate(savedIncident, "Linked to Existing Incident", 
+                "Report matches an active incident nearby and was linked to it.", 
+                IncidentUpdate.UpdateType.STATUS_CHANGE, "SYSTEM");
+        } else {
+            // Queue notification, broadcast and AI analysis to run after commit
+            incidentPipelineService.recordIncidentCreated(savedIncident, assessment.isModelAnalysisRequired());
         }
         
-        // Send notifications
-        notificationService.sendIncidentAlert(savedIncident);
-        
-        // Broadcast real-time update
-        webSocketService.broadcastIncidentUpdate(savedIncident);
-        
         return savedIncident;
     }
     
+    /**
+     * Create incidents in bulk using batched inserts. Each chunk of {@code jdbcBatchSize} incidents
+     * commits in its own transaction, so a database error loses only that chunk; the returned list
+     * matches the input position for position, with {@code null} for incidents that were not stored.
+     * {@code source} (the submitting partner) is recorded as the author of each initial update.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Incident> createIncidentsBulk(List<Incident> incidents, String source) {
+        String reportedBy = source != null && !source.isBlank() ? source : "SYSTEM";
+        List<Incident> savedIncidents = new ArrayList<>(incidents.size());
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        
+        for (int from = 0; from < incidents.size(); from += jdbcBatchSize) {
+            List<Incident> chunk = incidents.subList(from, Math.min(from + jdbcBatchSize, incidents.size()));
+            try {
+                savedIncidents.addAll(template.execute(status -> saveChunk(chunk, reportedBy)));
+            } catch (RuntimeException e) {
+                // The chunk rolled back; after-commit work (stats, cache, pipeline) never ran for it
+                logger.error("Bulk intake from {} failed for items {}-{}, chunk rolled back",
+                    reportedBy, from, from + chunk.size() - 1, e);
+                entityManager.clear();
+                savedIncidents.addAll(Collections.nCopies(chunk.size(), null));
+            }
+        }
+        
+        return savedIncidents;
+    }
+    
     /**
      * Update incident status
      */
@@ -90,6 +181,9 @@ public class IncidentService {
         
         Incident incident = optionalIncident.get();
         Incident.IncidentStatus oldStatus = incident.getStatus();
+        Boolean wasCritical = incident.getIsCritical();
+        Integer oldResponseTime = incident.getActualResponseTime();
+        IncidentRollupService.Contribution rollupBefore = incidentRollupService.capture(incident);
         incident.setStatus(newStatus);
         
         // Set resolved time if status is RESOLVED
@@ -99,6 +193,15 @@ public class IncidentService {
         }
         
         Incident updatedIncident = incidentRepository.save(incident);
+        incidentStatisticsService.recordTransition(updatedIncident, oldStatus, wasCritical, oldResponseTime);
+        incidentRollupService.recordChange(rollupBefore, updatedIncident);
+        incidentCache.invalidate(updatedIncident.getId());
+        liveLocationIndex.updateIncident(updatedIncident);
+        
+        // Inactive incidents no longer absorb new reports
+        if (!IncidentFilter.ACTIVE_STATUSES.contains(newStatus)) {
+            duplicateIncidentDetector.remove(incidentId);
+        }
         
         // Create status update
         createIncidentUpdate(updatedIncident, "Status Update", 
@@ -122,6 +225,22 @@ public class IncidentService {
         return incidentRepository.findById(id);
     }
     
+    /**
+     * Get incident with its update timeline loaded
+     */
+    @Transactional(readOnly = true)
+    public Optional<Incident> getIncidentTimeline(Long id) {
+        return incidentRepository.findTimelineById(id);
+    }
+    
+    /**
+     * Get active incidents with their responder assignments loaded, for the dispatch board
+     */
+    @Transactional(readOnly = true)
+    public List<Incident> getDispatchBoard() {
+        return incidentRepository.findDispatchBoard();
+    }
+    
     /**
      * Get incident by incident ID
      */
@@ -142,38 +261,40 @@ public class IncidentService {
      * Get incidents by filters
      */
     @Transactional(readOnly = true)
-    public Page<Incident> getIncidentsByFilters(
-            Incident.IncidentType type,
-            Incident.SeverityLevel severity,
-            Incident.IncidentStatus status,
-            Boolean isCritical,
-            LocalDateTime createdAfter,
-            Pageable pageable) {
-        return incidentRepository.findIncidentsByFilters(type, severity, status, isCritical, createdAfter, pageable);
+    public Page<IncidentSummary> getIncidentsByFilters(IncidentFilter filter, Pageable pageable) {
+        return incidentRepository.findSummaryPage(filter, pageable);
     }
     
     /**
      * Get active incidents
      */
     @Transactional(readOnly = true)
-    public List<Incident> getActiveIncidents() {
-        return incidentRepository.findActiveIncidents();
+    public List<IncidentSummary> getActiveIncidents() {
+        return incidentRepository.findActiveSummaries();
     }
     
     /**
      * Get critical incidents
      */
     @Transactional(readOnly = true)
-    public List<Incident> getCriticalIncidents() {
-        return incidentRepository.findByIsCriticalTrue();
+    public List<IncidentSummary> getCriticalIncidents() {
+        return incidentRepository.findCriticalSummaries();
     }
     
     /**
-     * Get recent incidents for dashboard
+     * Get incidents by filters, one keyset page at a time (no count query)
      */
     @Transactional(readOnly = true)
-    public Page<Incident> getRecentIncidents(Pageable pageable) {
-        return incidentRepository.findRecentIncidents(pageable);
+    public Slice<IncidentSummary> getIncidentSlice(IncidentFilter filter, IncidentKeyset keyset) {
+        return incidentRepository.findSummarySlice(filter, keyset);
+    }
+    
+    /**
+     * Get recent incidents for dashboard, newest first
+     */
+    @Transactional(readOnly = true)
+    public Slice<IncidentSummary> getRecentIncidents(IncidentKeyset keyset) {
+        return incidentRepository.findSummarySlice(new IncidentFilter(), keyset);
     }
     
     /**
@@ -186,6 +307,9 @@ public class IncidentService {
         }
         
         Incident incident = optionalIncident.get();
+        Incident.IncidentStatus oldStatus = incident.getStatus();
+        Boolean wasCritical = incident.getIsCritical();
+        IncidentRollupService.Contribution rollupBefore = incidentRollupService.capture(incident);
         incident.setIsVerified(isVerified);
         
         if (isVerified) {
@@ -193,6 +317,11 @@ public class IncidentService {
         }
         
         Incident updatedIncident = incidentRepository.save(incident);
+        incidentStatisticsService.recordTransition(updatedIncident, oldStatus, wasCritical,
+            updatedIncident.getActualResponseTime());
+        incidentRollupService.recordChange(rollupBefore, updatedIncident);
+        incidentCache.invalidate(updatedIncident.getId());
+        liveLocationIndex.updateIncident(updatedIncident);
         
         // Create verification update
         createIncidentUpdate(updatedIncident, "Incident Verification", 
@@ -215,6 +344,9 @@ public class IncidentService {
         }
         
         Incident incident = optionalIncident.get();
+        Incident.IncidentStatus oldStatus = incident.getStatus();
+        Boolean wasCritical = incident.getIsCritical();
+        IncidentRollupService.Contribution rollupBefore = incidentRollupService.capture(incident);
         incident.setEscalationLevel(incident.getEscalationLevel() + 1);
         
         // Increase severity if not already critical
@@ -223,6 +355,11 @@ public class IncidentService {
         }
         
         Incident updatedIncident = incidentRepository.save(incident);
+        incidentStatisticsService.recordTransition(updatedIncident, oldStatus, wasCritical,
+            updatedIncident.getActualResponseTime());
+        incidentRollupService.recordChange(rollupBefore, updatedIncident);
+        incidentCache.invalidate(updatedIncident.getId());
+        liveLocationIndex.updateIncident(updatedIncident);
         
         // Create escalation update
         createIncidentUpdate(updatedIncident, "Incident Escalated", 
@@ -243,52 +380,28 @@ public class IncidentService {
      * Get incidents requiring escalation
      */
     @Transactional(readOnly = true)
-    public List<Incident> getIncidentsRequiringEscalation() {
+    public List<IncidentSummary> getIncidentsRequiringEscalation() {
         LocalDateTime threshold = LocalDateTime.now().minusMinutes(30); // 30 minutes threshold
-        return incidentRepository.findIncidentsRequiringEscalation(threshold);
+        return incidentRepository.findSummariesRequiringEscalation(threshold);
     }
     
     /**
      * Get overdue incidents
      */
     @Transactional(readOnly = true)
-    public List<Incident> getOverdueIncidents() {
-        return incidentRepository.findOverdueIncidents();
+    public List<IncidentSummary> getOverdueIncidents() {
+        return incidentRepository.findOverdueSummaries();
     }
     
     /**
-     * Get incident statistics
+     * Get incident statistics (maintained incrementally, see IncidentStatisticsService)
      */
-    @Transactional(readOnly = true)
     public IncidentStatistics getIncidentStatistics() {
-        IncidentStatistics stats = new IncidentStatistics();
-        
-        // Basic counts
-        stats.setTotalIncidents(incidentRepository.count());
-        stats.setActiveIncidents(incidentRepository.findActiveIncidents().size());
-        stats.setCriticalIncidents(incidentRepository.countByIsCriticalTrue());
-        stats.setIncidentsToday(incidentRepository.countIncidentsCreatedToday());
-        
-        // Status distribution
-        stats.setStatusDistribution(incidentRepository.getIncidentStatsByStatus());
-        
-        // Type distribution
-        stats.setTypeDistribution(incidentRepository.getIncidentStatsByType());
-        
-        // Average response time
-        stats.setAverageResponseTime(incidentRepository.getAverageResponseTime());
-        
-        return stats;
+        return incidentStatisticsService.getStatistics();
     }
     
     // Private helper methods
     
-    private String generateIncidentId() {
-        String prefix = "INC-" + LocalDateTime.now().getYear() + "-";
-        String suffix = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return prefix + suffix;
-    }
-    
     private void setResponseTimeTarget(Incident incident) {
         switch (incident.getSeverity()) {
             case CRITICAL:
@@ -332,6 +445,57 @@ public class IncidentService {
     
     private void createIncidentUpdate(Incident incident, String title, String updateText, 
                                     IncidentUpdate.UpdateType type, String updatedBy) {
+        incidentUpdateRepository.save(buildIncidentUpdate(incident, title, updateText, type, updatedBy));
+    }
+    
+    private List<Incident> saveChunk(List<Incident> chunk, String reportedBy) {
+        List<IncidentUpdate> updates = new ArrayList<>(chunk.size());
+        List<Incident> savedChunk = new ArrayList<>(chunk.size());
+        List<Incident> masters = new ArrayList<>(chunk.size());
+        Set<Incident> needingAnalysis = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Long, Integer> duplicatesByMaster = new HashMap<>();
+        
+        for (Incident incident : chunk) {
+            incident.setIncidentId(incidentIdGenerator.nextIncidentId());
+            setResponseTimeTarget(incident);
+            if (threatPrescreenService.prescreen(incident).isModelAnalysisRequired()) {
+                needingAnalysis.add(incident);
+            }
+            DuplicateIncidentDetector.Probe duplicate = duplicateIncidentDetector.probe(incident);
+            if (duplicate.isDuplicate()) {
+                incident.setMasterIncidentId(duplicate.getMasterIncidentId());
+                duplicatesByMaster.merge(duplicate.getMasterIncidentId(), 1, Integer::sum);
+            }
+            
+            // Sequence-assigned IDs let Hibernate defer and batch the inserts, and let
+            // later reports in the same chunk link to this one
+            Incident savedIncident = incidentRepository.save(incident);
+            duplicateIncidentDetector.register(savedIncident, duplicate);
+            savedChunk.add(savedIncident);
+            if (!duplicate.isDuplicate()) {
+                masters.add(savedIncident);
+            }
+            updates.add(buildIncidentUpdate(savedIncident, "Incident Reported", 
+                "New incident has been reported and is awaiting verification.", 
+                IncidentUpdate.UpdateType.STATUS_CHANGE, reportedBy));
+        }
+        
+        incidentUpdateRepository.saveAll(updates);
+        incidentStatisticsService.recordCreated(savedChunk);
+        incidentRollupService.recordCreated(savedChunk);
+        liveLocationIndex.updateIncidents(savedChunk);
+        incidentPipelineService.recordIncidentsCreated(masters, needingAnalysis::contains);
+        duplicatesByMaster.forEach(incidentRepository::addDuplicates);
+        incidentCache.invalidate(duplicatesByMaster.keySet());
+        
+        // Flush the batch and keep the persistence context small
+        entityManager.flush();
+        entityManager.clear();
+        return savedChunk;
+    }
+    
+    private IncidentUpdate buildIncidentUpdate(Incident incident, String title, String updateText, 
+                                             IncidentUpdate.UpdateType type, String updatedBy) {
         IncidentUpdate update = new IncidentUpdate();
         update.setIncident(incident);
         update.setTitle(title);
@@ -339,8 +503,7 @@ public class IncidentService {
         update.setType(type);
         update.setUpdatedBy(updatedBy);
         update.setIsPublic(shouldUpdateBePublic(type));
-        
-        incidentUpdateRepository.save(update);
+        return update;
     }
     
     private boolean shouldUpdateBePublic(IncidentUpdate.UpdateType type) {
@@ -348,11 +511,6 @@ public class IncidentService {
                type == IncidentUpdate.UpdateType.RESOLUTION;
     }
     
-    private void performAIAnalysis(Incident incident) {
-        // Perform AI analysis asynchronously
-        aiAnalysisService.analyzeIncidentAsync(incident);
-    }
-    
     // Inner class for statistics
     public static class IncidentStatistics {
         private long totalIncidents;
@@ -0,0 +1,352 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.repository.IncidentFilter;
+import gov.drdo.emergency.repository.IncidentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incrementally maintained incident statistics for the dashboard.
+ *
+ * Every create/status/verify/escalate transition records a counter delta once
+ * its transaction commits. Deltas are flushed every second into time-bucketed
+ * Redis hashes shared by all backend nodes (HINCRBY, so concurrent nodes merge
+ * without coordination); each node then rebuilds one snapshot from its last
+ * database baseline plus every bucket since, and requests just return that
+ * snapshot. A periodic reconciliation re-reads the aggregates from the
+ * database and moves the baseline forward, which also corrects drift from
+ * writes that bypass IncidentService. Without Redis the node merges only its
+ * own deltas until the next reconciliation.
+ */
+@Service
+public class IncidentStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncidentStatisticsService.class);
+
+    private static final String BUCKET_KEY_PREFIX = "incident-stats:delta:";
+    private static final String TOTAL = "total";
+    private static final String CRITICAL = "critical";
+    private static final String RESPONSE_TIME_SUM = "response-time:sum";
+    private static final String RESPONSE_TIME_COUNT = "response-time:count";
+    private static final String DAY_PREFIX = "day:";
+
+    private static final String[] STATUS_FIELDS = fieldNames("status:", Incident.IncidentStatus.values());
+    private static final String[] TYPE_FIELDS = fieldNames("type:", Incident.IncidentType.values());
+
+    @Value("${emergency.statistics.bucket-ms:10000}")
+    private long bucketMillis;
+
+    @Value("${emergency.statistics.reconcile-interval-ms:300000}")
+    private long reconcileIntervalMillis;
+
+    @Value("${emergency.statistics.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Deltas committed on this node and not yet flushed
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Deltas that could not be shared through Redis, by bucket start
+    private final ConcurrentSkipListMap<Long, Map<String, Long>> localBuckets = new ConcurrentSkipListMap<>();
+
+    private volatile Baseline baseline;
+    private volatile IncidentService.IncidentStatistics snapshot;
+
+    /**
+     * Build the first baseline once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+    }
+
+    /**
+     * Current statistics; served from the last snapshot without touching the database
+     */
+    public IncidentService.IncidentStatistics getStatistics() {
+        IncidentService.IncidentStatistics current = snapshot;
+        if (current == null) {
+            reconcile();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    public void recordCreated(Incident incident) {
+        Map<String, Long> delta = new HashMap<>();
+        delta.put(TOTAL, 1L);
+        delta.put(STATUS_FIELDS[statusOf(incident).ordinal()], 1L);
+        if (incident.getType() != null) {
+            delta.put(TYPE_FIELDS[incident.getType().ordinal()], 1L);
+        }
+        if (Boolean.TRUE.equals(incident.getIsCritical())) {
+            delta.put(CRITICAL, 1L);
+        }
+        LocalDate day = incident.getCreatedAt() != null ? incident.getCreatedAt().toLocalDate() : LocalDate.now();
+        delta.put(DAY_PREFIX + day, 1L);
+        TransactionHooks.afterCommit(() -> apply(delta));
+    }
+
+    public void recordCreated(List<Incident> incidents) {
+        incidents.forEach(this::recordCreated);
+    }
+
+    /**
+     * Record a transition; pass the incident's status, critical flag and response
+     * time as they were before the change
+     */
+    public void recordTransition(Incident incident, Incident.IncidentStatus oldStatus, Boolean wasCritical,
+                                 Integer oldResponseTime) {
+        Map<String, Long> delta = new HashMap<>();
+        Incident.IncidentStatus newStatus = statusOf(incident);
+        if (oldStatus != null && oldStatus != newStatus) {
+            delta.put(STATUS_FIELDS[oldStatus.ordinal()], -1L);
+            delta.put(STATUS_FIELDS[newStatus.ordinal()], 1L);
+        }
+
+        boolean critical = Boolean.TRUE.equals(incident.getIsCritical());
+        if (critical != Boolean.TRUE.equals(wasCritical)) {
+            delta.put(CRITICAL, critical ? 1L : -1L);
+        }
+
+        Integer newResponseTime = incident.getActualResponseTime();
+        if (oldResponseTime != null) {
+            delta.merge(RESPONSE_TIME_SUM, -(long) oldResponseTime, Long::sum);
+            delta.merge(RESPONSE_TIME_COUNT, -1L, Long::sum);
+        }
+        if (newResponseTime != null) {
+            delta.merge(RESPONSE_TIME_SUM, (long) newResponseTime, Long::sum);
+            delta.merge(RESPONSE_TIME_COUNT, 1L, Long::sum);
+        }
+
+        delta.values().removeIf(value -> value == 0L);
+        if (!delta.isEmpty()) {
+            TransactionHooks.afterCommit(() -> apply(delta));
+        }
+    }
+
+    /**
+     * Share this node's deltas and rebuild the snapshot
+     */
+    @Scheduled(fixedDelayString = "${emergency.statistics.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Baseline base = baseline;
+        if (base == null) {
+            return;
+        }
+
+        Map<String, Long> drained = drainPending();
+        long now = System.currentTimeMillis();
+        long bucket = now - Math.floorMod(now, bucketMillis);
+        if (!drained.isEmpty() && !(redisEnabled && publish(bucket, drained))) {
+            mergeInto(localBuckets.computeIfAbsent(bucket, ignored -> new HashMap<>()), drained);
+        }
+
+        Map<String, Long> merged = new HashMap<>(base.counters);
+        if (redisEnabled) {
+            readShared(base.bucket, bucket).forEach(delta -> mergeInto(merged, delta));
+        }
+        localBuckets.tailMap(base.bucket, true).values().forEach(delta -> mergeInto(merged, delta));
+        snapshot = toStatistics(merged);
+    }
+
+    /**
+     * Replace the baseline with fresh aggregates from the database
+     */
+    @Scheduled(fixedDelayString = "${emergency.statistics.reconcile-interval-ms:300000}",
+               initialDelayString = "${emergency.statistics.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        try {
+            long now = System.currentTimeMillis();
+            long bucket = now - Math.floorMod(now, bucketMillis);
+
+            // Read all aggregates from one consistent snapshot of the table
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+            template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            Map<String, Long> counters = template.execute(status -> loadCounters());
+
+            // Deltas in the current bucket may already be in the baseline; the error is
+            // bounded by one bucket of traffic and corrected at the next reconciliation
+            baseline = new Baseline(bucket, counters);
+            localBuckets.headMap(bucket, false).clear();
+            flush();
+        } catch (Exception e) {
+            logger.error("Failed to reconcile incident statistics with the database", e);
+        }
+    }
+
+    // Private helper methods
+
+    private Map<String, Long> loadCounters() {
+        Map<String, Long> counters = new HashMap<>();
+        counters.put(TOTAL, incidentRepository.count());
+        counters.put(CRITICAL, incidentRepository.countByIsCriticalTrue());
+        LocalDate today = LocalDate.now();
+        counters.put(DAY_PREFIX + today, incidentRepository.countIncidentsCreatedSince(today.atStartOfDay()));
+        for (Object[] row : incidentRepository.getIncidentStatsByStatus()) {
+            if (row[0] != null) {
+                counters.put(STATUS_FIELDS[((Incident.IncidentStatus) row[0]).ordinal()], (Long) row[1]);
+            }
+        }
+        for (Object[] row : incidentRepository.getIncidentStatsByType()) {
+            if (row[0] != null) {
+                counters.put(TYPE_FIELDS[((Incident.IncidentType) row[0]).ordinal()], (Long) row[1]);
+            }
+        }
+        for (Object[] row : incidentRepository.getResponseTimeTotals()) {
+            counters.put(RESPONSE_TIME_SUM, ((Number) row[0]).longValue());
+            counters.put(RESPONSE_TIME_COUNT, ((Number) row[1]).longValue());
+        }
+        return counters;
+    }
+
+    private void apply(Map<String, Long> delta) {
+        delta.forEach((field, value) -> pending.computeIfAbsent(field, ignored -> new LongAdder()).add(value));
+    }
+
+    private Map<String, Long> drainPending() {
+        Map<String, Long> drained = new HashMap<>();
+        pending.forEach((field, adder) -> {
+            long value = adder.sumThenReset();
+            if (value != 0L) {
+                drained.put(field, value);
+            }
+        });
+        return drained;
+    }
+
+    private boolean publish(long bucket, Map<String, Long> delta) {
+        byte[] key = (BUCKET_KEY_PREFIX + bucket).getBytes(StandardCharsets.UTF_8);
+        long ttlSeconds = Duration.ofMillis(reconcileIntervalMillis * 2 + bucketMillis).getSeconds();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                delta.forEach((field, value) ->
+                    connection.hashCommands().hIncrBy(key, field.getBytes(StandardCharsets.UTF_8), value));
+                connection.keyCommands().expire(key, ttlSeconds);
+                return null;
+            });
+            return true;
+        } catch (Exception e) {
+            logger.warn("Could not publish incident statistics delta to Redis: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private List<Map<String, Long>> readShared(long fromBucket, long toBucket) {
+        List<String> keys = new ArrayList<>();
+        for (long bucket = fromBucket; bucket <= toBucket; bucket += bucketMillis) {
+            keys.add(BUCKET_KEY_PREFIX + bucket);
+        }
+        List<Map<String, Long>> deltas = new ArrayList<>(keys.size());
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                keys.forEach(key -> connection.hashCommands().hGetAll(key.getBytes(StandardCharsets.UTF_8)));
+                return null;
+            });
+            for (Object result : results) {
+                if (result instanceof Map<?, ?> hash && !hash.isEmpty()) {
+                    Map<String, Long> delta = new HashMap<>();
+                    hash.forEach((field, value) -> delta.put(field.toString(), Long.parseLong(value.toString())));
+                    deltas.add(delta);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read incident statistics deltas from Redis: {}", e.getMessage());
+        }
+        return deltas;
+    }
+
+    private static void mergeInto(Map<String, Long> target, Map<String, Long> delta) {
+        delta.forEach((field, value) -> target.merge(field, value, Long::sum));
+    }
+
+    private static IncidentService.IncidentStatistics toStatistics(Map<String, Long> counters) {
+        IncidentService.IncidentStatistics stats = new IncidentService.IncidentStatistics();
+        stats.setTotalIncidents(counters.getOrDefault(TOTAL, 0L));
+        stats.setCriticalIncidents(counters.getOrDefault(CRITICAL, 0L));
+        stats.setIncidentsToday(counters.getOrDefault(DAY_PREFIX + LocalDate.now(), 0L));
+
+        long active = 0;
+        List<Object[]> statusDistribution = new ArrayList<>();
+        for (Incident.IncidentStatus status : Incident.IncidentStatus.values()) {
+            long count = counters.getOrDefault(STATUS_FIELDS[status.ordinal()], 0L);
+            if (count > 0) {
+                statusDistribution.add(new Object[]{status, count});
+            }
+            if (IncidentFilter.ACTIVE_STATUSES.contains(status)) {
+                active += count;
+            }
+        }
+        stats.setActiveIncidents(active);
+        stats.setStatusDistribution(statusDistribution);
+
+        List<Object[]> typeDistribution = new ArrayList<>();
+        for (Incident.IncidentType type : Incident.IncidentType.values()) {
+            long count = counters.getOrDefault(TYPE_FIELDS[type.ordinal()], 0L);
+            if (count > 0) {
+                typeDistribution.add(new Object[]{type, count});
+            }
+        }
+        stats.setTypeDistribution(typeDistribution);
+
+        long responseTimeCount = counters.getOrDefault(RESPONSE_TIME_COUNT, 0L);
+        stats.setAverageResponseTime(responseTimeCount > 0
+            ? (double) counters.getOrDefault(RESPONSE_TIME_SUM, 0L) / responseTimeCount
+            : null);
+        return stats;
+    }
+
+    private static Incident.IncidentStatus statusOf(Incident incident) {
+        return incident.getStatus() != null ? incident.getStatus() : Incident.IncidentStatus.REPORTED;
+    }
+
+    private static String[] fieldNames(String prefix, Enum<?>[] values) {
+        String[] names = new String[values.length];
+        for (Enum<?> value : values) {
+            names[value.ordinal()] = prefix + value.name();
+        }
+        return names;
+    }
+
+    private static class Baseline {
+        private final long bucket;
+        private final Map<String, Long> counters;
+
+        Baseline(long bucket, Map<String, Long> counters) {
+            this.bucket = bucket;
+            this.counters = counters;
+        }
+    }
+}
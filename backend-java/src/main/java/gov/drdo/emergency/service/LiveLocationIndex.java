@@ -0,0 +1,409 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.IncidentSummary;
+import gov.drdo.emergency.dto.ResponderLocation;
+import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.entity.Responder;
+import gov.drdo.emergency.repository.IncidentFilter;
+import gov.drdo.emergency.repository.IncidentRepository;
+import gov.drdo.emergency.repository.ResponderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * In-memory spatial index of active incidents and on-duty responders for map and dispatch lookups.
+ *
+ * Both layers live in a {@link SpatialGrid} and answer radius and
+ * bounding-box queries with great-circle distances in meters, without a
+ * PostGIS round trip. IncidentService and AIAnalysisService push their
+ * changes once the transaction commits and ResponderTrackingService moves
+ * responders as their pings are drained; every
+ * {@code emergency.spatial.sync-interval-ms} the index also reads rows whose
+ * updated_at or last_location_update moved, which brings in writes made on
+ * other nodes or outside this service, and it is rebuilt from the database
+ * every {@code rebuild-interval-ms}. A change older than the one already
+ * applied for the same id is ignored, and a responder keeps a position newer
+ * than the row read, so a sync reading from a lagging replica cannot undo a
+ * newer local write. On-duty responders are also kept in a
+ * {@link ResponderCapabilityIndex} for type, status and capability matching.
+ */
+@Service
+public class LiveLocationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveLocationIndex.class);
+
+    @Value("${emergency.spatial.cell-meters:2000}")
+    private double cellMeters;
+
+    @Value("${emergency.spatial.sync-overlap-ms:10000}")
+    private long syncOverlapMillis;
+
+    @Value("${emergency.spatial.max-results:2000}")
+    private int maxResults;
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private ResponderRepository responderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SpatialGrid<IncidentSummary> incidents;
+    private SpatialGrid<ResponderLocation> responders;
+    private ResponderCapabilityIndex capabilities;
+
+    // Last applied updatedAt per id, kept for removed entries too; guarded by this
+    private final Map<Long, LocalDateTime> incidentVersions = new HashMap<>();
+    private final Map<Long, LocalDateTime> responderVersions = new HashMap<>();
+
+    private volatile LocalDateTime incidentsSyncedTo;
+    private volatile LocalDateTime respondersSyncedTo;
+    private volatile boolean loaded;
+
+    private Timer radiusTimer;
+    private Timer boxTimer;
+    private Timer nearestTimer;
+    private Timer capabilityTimer;
+
+    @PostConstruct
+    public void init() {
+        incidents = new SpatialGrid<>(cellMeters);
+        responders = new SpatialGrid<>(cellMeters);
+        capabilities = new ResponderCapabilityIndex();
+
+        radiusTimer = Timer.builder("emergency.spatial.query")
+            .tag("kind", "radius")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        boxTimer = Timer.builder("emergency.spatial.query")
+            .tag("kind", "box")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        nearestTimer = Timer.builder("emergency.spatial.query")
+            .tag("kind", "nearest")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        capabilityTimer = Timer.builder("emergency.spatial.query")
+            .tag("kind", "capability")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("emergency.spatial.capabilities", capabilities, ResponderCapabilityIndex::dictionarySize)
+            .description("Distinct responder attribute values in the capability dictionary")
+            .register(meterRegistry);
+        Gauge.builder("emergency.spatial.size", incidents, SpatialGrid::size)
+            .tag("layer", "incidents").register(meterRegistry);
+        Gauge.builder("emergency.spatial.size", responders, SpatialGrid::size)
+            .tag("layer", "responders").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * Reload both layers from the database; also corrects anything the incremental sync missed
+     */
+    @Scheduled(fixedDelayString = "${emergency.spatial.rebuild-interval-ms:300000}",
+               initialDelayString = "${emergency.spatial.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            List<IncidentSummary> activeIncidents = incidentRepository.findActiveLocatedSummaries();
+            List<ResponderLocation> onDuty = responderRepository.findOnDutyLocations();
+
+            List<SpatialGrid.Point<IncidentSummary>> incidentPoints = new ArrayList<>(activeIncidents.size());
+            for (IncidentSummary incident : activeIncidents) {
+                incidentPoints.add(new SpatialGrid.Point<>(incident.getId(), incident.getLatitude(),
+                    incident.getLongitude(), incident));
+            }
+            List<SpatialGrid.Point<ResponderLocation>> responderPoints = new ArrayList<>(onDuty.size());
+            for (ResponderLocation responder : onDuty) {
+                responderPoints.add(new SpatialGrid.Point<>(responder.getId(), responder.getLatitude(),
+                    responder.getLongitude(), responder));
+            }
+
+            synchronized (this) {
+                incidents.replaceAll(incidentPoints);
+                responders.replaceAll(responderPoints);
+                capabilities.replaceAll(onDuty);
+                incidentVersions.clear();
+                responderVersions.clear();
+                activeIncidents.forEach(incident -> recordVersion(incidentVersions, incident.getId(), incident.getUpdatedAt()));
+                onDuty.forEach(responder -> recordVersion(responderVersions, responder.getId(), responder.getUpdatedAt()));
+            }
+            LocalDateTime syncFrom = startedAt.minus(Duration.ofMillis(syncOverlapMillis));
+            incidentsSyncedTo = syncFrom;
+            respondersSyncedTo = syncFrom;
+            loaded = true;
+            logger.debug("Live location index rebuilt with {} incidents and {} responders",
+                activeIncidents.size(), onDuty.size());
+        } catch (DataAccessException e) {
+            logger.error("Failed to rebuild live location index", e);
+            return;
+        }
+        // Pick up writes committed while the layers were loading
+        sync();
+    }
+
+    /**
+     * Apply rows changed since the last sync, including those written by other nodes
+     */
+    @Scheduled(fixedDelayString = "${emergency.spatial.sync-interval-ms:2000}")
+    public void sync() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            LocalDateTime incidentsSince = incidentsSyncedTo;
+            LocalDateTime newestIncident = incidentsSince;
+            for (IncidentSummary incident : incidentRepository.findSummariesUpdatedSince(incidentsSince)) {
+                applyIncident(incident);
+                newestIncident = later(newestIncident, incident.getUpdatedAt());
+            }
+            // Re-read an overlap window: updated_at is the transaction start, which can commit late
+            incidentsSyncedTo = later(incidentsSince, newestIncident.minus(Duration.ofMillis(syncOverlapMillis)));
+
+            LocalDateTime respondersSince = respondersSyncedTo;
+            LocalDateTime newestResponder = respondersSince;
+            for (ResponderLocation responder : responderRepository.findLocationsUpdatedSince(respondersSince)) {
+                applyResponder(responder);
+                newestResponder = later(later(newestResponder, responder.getUpdatedAt()),
+                    responder.getLastLocationUpdate());
+            }
+            respondersSyncedTo = later(respondersSince, newestResponder.minus(Duration.ofMillis(syncOverlapMillis)));
+        } catch (DataAccessException e) {
+            logger.warn("Live location index sync failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reflect a saved incident in the index once the current transaction commits
+     */
+    public void updateIncident(Incident incident) {
+        // Read the entity after commit, when the flush has set its final updatedAt
+        TransactionHooks.afterCommit(() -> applyIncident(IncidentSummary.of(incident)));
+    }
+
+    public void updateIncidents(List<Incident> savedIncidents) {
+        TransactionHooks.afterCommit(() ->
+            savedIncidents.forEach(incident -> applyIncident(IncidentSummary.of(incident))));
+    }
+
+    /**
+     * Reflect a saved responder (position, duty or availability) once the current transaction commits
+     */
+    public void updateResponder(Responder responder) {
+        TransactionHooks.afterCommit(() -> applyResponder(ResponderLocation.of(responder)));
+    }
+
+    /**
+     * Move an indexed responder to a reported position; responders not in the index (off duty) are left to the sync
+     */
+    public synchronized void updateResponderPosition(Long id, double latitude, double longitude, LocalDateTime at) {
+        ResponderLocation current = responders.get(id);
+        if (current == null || isBefore(at, current.getLastLocationUpdate())) {
+            return;
+        }
+        responders.put(id, latitude, longitude, current.withPosition(latitude, longitude, at));
+    }
+
+    /**
+     * Active incidents within radiusMeters of a position, nearest first
+     */
+    public List<IncidentSummary> findIncidentsWithin(double latitude, double longitude, double radiusMeters) {
+        ensureLoaded();
+        long start = System.nanoTime();
+        List<SpatialGrid.Hit<IncidentSummary>> hits = incidents.withinRadius(latitude, longitude, radiusMeters,
+            incident -> true);
+        List<IncidentSummary> result = new ArrayList<>(Math.min(hits.size(), maxResults));
+        for (int i = 0; i < hits.size() && i < maxResults; i++) {
+            result.add(hits.get(i).getValue());
+        }
+        radiusTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Active incidents inside a map viewport
+     */
+    public List<IncidentSummary> findIncidentsInBox(double south, double west, double north, double east) {
+        ensureLoaded();
+        long start = System.nanoTime();
+        List<IncidentSummary> result = limit(incidents.withinBox(south, west, north, east, incident -> true));
+        boxTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * On-duty responders inside a map viewport
+     */
+    public List<ResponderLocation> findRespondersInBox(double south, double west, double north, double east) {
+        ensureLoaded();
+        long start = System.nanoTime();
+        List<ResponderLocation> result = limit(responders.withinBox(south, west, north, east, responder -> true));
+        boxTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Dispatchable responders within radiusMeters of a position, nearest first; types may be empty for any type
+     */
+    public List<SpatialGrid.Hit<ResponderLocation>> findDispatchableRespondersWithin(
+            double latitude, double longitude, double radiusMeters, Set<Responder.ResponderType> types) {
+        ensureLoaded();
+        long start = System.nanoTime();
+        List<SpatialGrid.Hit<ResponderLocation>> hits = responders.withinRadius(latitude, longitude, radiusMeters,
+            responder -> responder.isDispatchable() && (types == null || types.isEmpty() || types.contains(responder.getType())));
+        List<SpatialGrid.Hit<ResponderLocation>> result = hits.size() > maxResults ? hits.subList(0, maxResults) : hits;
+        radiusTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Up to k responders matching the filter with the lowest cost, cheapest first (see {@link SpatialGrid#nearest})
+     */
+    public List<SpatialGrid.Hit<ResponderLocation>> findNearestResponders(
+            double latitude, double longitude, int k, double maxRadiusMeters, Predicate<ResponderLocation> filter,
+            SpatialGrid.CostFunction<ResponderLocation> cost, double minCostPerMeter) {
+        ensureLoaded();
+        long start = System.nanoTime();
+        List<SpatialGrid.Hit<ResponderLocation>> hits = responders.nearest(latitude, longitude, k, maxRadiusMeters,
+            filter, cost, minCostPerMeter);
+        nearestTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return hits;
+    }
+
+    /**
+     * On-duty responders with every attribute the query requires, as a set to filter other lookups with
+     */
+    public ResponderCapabilityIndex.Matches matchResponders(ResponderCapabilityIndex.Query query) {
+        ensureLoaded();
+        long start = System.nanoTime();
+        ResponderCapabilityIndex.Matches matches = capabilities.match(query);
+        capabilityTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    /**
+     * On-duty responders with every attribute the query requires, at most limit (capped at max-results)
+     */
+    public List<ResponderLocation> findRespondersMatching(ResponderCapabilityIndex.Query query, int limit) {
+        ResponderCapabilityIndex.Matches matches = matchResponders(query);
+        List<ResponderLocation> result = new ArrayList<>();
+        for (Long id : matches.ids(Math.min(limit, maxResults))) {
+            ResponderLocation responder = responders.get(id);
+            if (responder != null) {
+                result.add(responder);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The indexed summary of an active, located incident
+     */
+    public Optional<IncidentSummary> getIncident(Long id) {
+        ensureLoaded();
+        return Optional.ofNullable(incidents.get(id));
+    }
+
+    // Private helper methods
+
+    private synchronized void applyIncident(IncidentSummary incident) {
+        Long id = incident.getId();
+        if (id == null || isStale(incidentVersions, id, incident.getUpdatedAt())) {
+            return;
+        }
+        boolean live = incident.getStatus() != null && IncidentFilter.ACTIVE_STATUSES.contains(incident.getStatus())
+            && incident.getLatitude() != null && incident.getLongitude() != null;
+        if (live) {
+            incidents.put(id, incident.getLatitude(), incident.getLongitude(), incident);
+            recordVersion(incidentVersions, id, incident.getUpdatedAt());
+        } else if (incidentVersions.containsKey(id) || incidents.get(id) != null) {
+            incidents.remove(id);
+            recordVersion(incidentVersions, id, incident.getUpdatedAt());
+        }
+    }
+
+    private synchronized void applyResponder(ResponderLocation responder) {
+        Long id = responder.getId();
+        if (id == null || isStale(responderVersions, id, responder.getUpdatedAt())) {
+            return;
+        }
+        boolean live = Boolean.TRUE.equals(responder.getIsOnDuty())
+            && responder.getLatitude() != null && responder.getLongitude() != null;
+        if (live) {
+            ResponderLocation current = responders.get(id);
+            if (current != null && isBefore(responder.getLastLocationUpdate(), current.getLastLocationUpdate())) {
+                // Pings applied here are ahead of the database until the next tracking flush
+                responder = responder.withPosition(current.getLatitude(), current.getLongitude(),
+                    current.getLastLocationUpdate());
+            }
+            responders.put(id, responder.getLatitude(), responder.getLongitude(), responder);
+            capabilities.put(responder);
+            recordVersion(responderVersions, id, responder.getUpdatedAt());
+        } else if (responderVersions.containsKey(id) || responders.get(id) != null) {
+            responders.remove(id);
+            capabilities.remove(id);
+            recordVersion(responderVersions, id, responder.getUpdatedAt());
+        }
+    }
+
+    private static boolean isStale(Map<Long, LocalDateTime> versions, Long id, LocalDateTime updatedAt) {
+        LocalDateTime applied = versions.get(id);
+        return applied != null && updatedAt != null && updatedAt.isBefore(applied);
+    }
+
+    private static boolean isBefore(LocalDateTime a, LocalDateTime b) {
+        return b != null && (a == null || a.isBefore(b));
+    }
+
+    private static void recordVersion(Map<Long, LocalDateTime> versions, Long id, LocalDateTime updatedAt) {
+        if (updatedAt != null) {
+            versions.put(id, updatedAt);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private <T> List<T> limit(List<T> values) {
+        return values.size() > maxResults ? values.subList(0, maxResults) : values;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return b != null && b.isAfter(a) ? b : a;
+    }
+}
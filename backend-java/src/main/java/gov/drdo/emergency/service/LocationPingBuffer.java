@@ -0,0 +1,128 @@
+package gov.drdo.emergency.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring of responder location pings, many producers and one consumer.
+ *
+ * Fields are kept in parallel primitive arrays so a ping costs no allocation.
+ * A producer claims a slot by advancing the tail with a CAS, writes the fields
+ * and then publishes the slot by setting its sequence; the consumer only reads
+ * slots whose sequence shows them published and hands each slot back for the
+ * next lap when done. When the ring is full {@link #offer} fails instead of
+ * waiting, so request threads are never blocked by a slow consumer.
+ */
+public class LocationPingBuffer {
+
+    /**
+     * Receives drained pings on the consumer thread
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void accept(long responderId, double latitude, double longitude, double speed, long recordedAtMillis,
+                    long receivedAtMillis);
+    }
+
+    private final int capacity;
+    private final int mask;
+
+    // Slot i is free for position p when sequences[i] == p and holds a published ping when it is p + 1
+    private final AtomicLongArray sequences;
+    private final long[] responderIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] speeds;
+    private final long[] recordedAt;
+    private final long[] receivedAt;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    // Only advanced by the consumer thread; volatile so size() can be read from elsewhere
+    private volatile long head;
+
+    public LocationPingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2: " + requestedCapacity);
+        }
+        // Round up to a power of two so the slot index is a mask
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.responderIds = new long[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.speeds = new double[capacity];
+        this.recordedAt = new long[capacity];
+        this.receivedAt = new long[capacity];
+    }
+
+    /**
+     * Append a ping (speed in m/s, NaN when not reported); false when the ring is full
+     */
+    public boolean offer(long responderId, double latitude, double longitude, double speed, long recordedAtMillis,
+                         long receivedAtMillis) {
+        long position;
+        int slot;
+        while (true) {
+            position = tail.get();
+            slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                // The consumer has not released this slot from the previous lap
+                return false;
+            }
+            // Otherwise another producer claimed the position first; read the tail again
+        }
+        responderIds[slot] = responderId;
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        speeds[slot] = speed;
+        recordedAt[slot] = recordedAtMillis;
+        receivedAt[slot] = receivedAtMillis;
+        // Release: the fields above are visible to a consumer that reads this sequence
+        sequences.lazySet(slot, position + 1);
+        return true;
+    }
+
+    /**
+     * Pass up to max published pings to the sink in arrival order; consumer thread only
+     */
+    public int drain(Sink sink, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) (position & mask);
+            if (sequences.get(slot) != position + 1) {
+                // Empty, or the producer that claimed this slot has not published it yet
+                break;
+            }
+            sink.accept(responderIds[slot], latitudes[slot], longitudes[slot], speeds[slot], recordedAt[slot],
+                receivedAt[slot]);
+            sequences.lazySet(slot, position + capacity);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * Approximate number of pings waiting to be drained
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,302 @@
+package gov.drdo.emergency.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for incident media.
+ *
+ * Uploads are written once into a staging file on the same filesystem as the
+ * object store, hashed (SHA-256) on the way, and then renamed into place under
+ * objects/{first two hash chars}/{hash}.{ext}. Identical photos sent by many
+ * citizens therefore occupy disk space once. Public references have the form
+ * /uploads/{hash}.{ext} and are served by MediaController. Allowed types
+ * without a well-known extension get one derived from their subtype
+ * (image/webp -> webp); startup fails if that is not possible.
+ */
+@Service
+public class MediaStorageService {
+
+    private static final String PUBLIC_PREFIX = "/uploads/";
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final Pattern OBJECT_NAME = Pattern.compile("^[0-9a-f]{64}\\.[a-z0-9]{2,5}$");
+    private static final Pattern EXTENSION = Pattern.compile("^[a-z0-9]{2,5}$");
+
+    private static final Map<String, String> KNOWN_EXTENSIONS = Map.of(
+        "image/jpeg", "jpg",
+        "image/png", "png",
+        "image/gif", "gif",
+        "video/mp4", "mp4",
+        "video/mpeg", "mpeg"
+    );
+
+    @Value("${file.upload-dir:./uploads}")
+    private String uploadDir;
+
+    @Value("${file.max-size:52428800}")
+    private long maxFileSize;
+
+    @Value("${file.allowed-types:image/jpeg,image/png,image/gif,video/mp4,video/mpeg}")
+    private String[] allowedTypes;
+
+    @Value("${spring.servlet.multipart.file-size-threshold:0B}")
+    private DataSize multipartThreshold;
+
+    private Path objectsRoot;
+    private Path stagingRoot;
+
+    // Built from allowedTypes at startup: content type -> extension and back
+    private final Map<String, String> extensions = new HashMap<>();
+    private final Map<String, String> contentTypes = new HashMap<>();
+
+    private final AtomicLong storedObjects = new AtomicLong();
+    private final AtomicLong deduplicatedObjects = new AtomicLong();
+    private final AtomicLong deduplicatedBytes = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (String type : allowedTypes) {
+            String contentType = type.trim().toLowerCase(Locale.ROOT);
+            String extension = extensionOf(contentType);
+            extensions.put(contentType, extension);
+            contentTypes.putIfAbsent(extension, contentType);
+        }
+
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        objectsRoot = Files.createDirectories(root.resolve("objects"));
+        stagingRoot = Files.createDirectories(stagingDirectory(uploadDir));
+    }
+
+    /**
+     * Absolute staging directory under the upload directory; multipart parts are spooled here as well, so they
+     * are on the object store's filesystem
+     */
+    public static Path stagingDirectory(String uploadDir) {
+        return Paths.get(uploadDir).toAbsolutePath().normalize().resolve("staging");
+    }
+
+    /**
+     * Store a batch of uploads and return their public references
+     */
+    public String[] storeAll(List<MultipartFile> files) {
+        return files.stream()
+            .filter(file -> file != null && !file.isEmpty())
+            .map(this::store)
+            .map(StoredMedia::getReference)
+            .toArray(String[]::new);
+    }
+
+    /**
+     * Store a single upload, de-duplicating by content hash
+     */
+    public StoredMedia store(MultipartFile file) {
+        String contentType = file.getContentType() != null ? file.getContentType().toLowerCase(Locale.ROOT) : null;
+        String extension = contentType != null ? extensions.get(contentType) : null;
+        if (extension == null) {
+            throw new RuntimeException("Unsupported media type: " + file.getContentType());
+        }
+        if (file.getSize() > maxFileSize) {
+            throw new RuntimeException("File exceeds maximum size of " + maxFileSize + " bytes");
+        }
+
+        Path staging = null;
+        try {
+            staging = stagingRoot.resolve("upload-" + UUID.randomUUID() + ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            long size;
+            if (file.getSize() > multipartThreshold.toBytes()) {
+                // Part is already spooled to the staging directory: transferTo(File) has the container rename it
+                // (transferTo(Path) would copy the stream), then hash via mmap
+                file.transferTo(staging.toFile());
+                size = digestFile(staging, digest);
+            } else {
+                size = streamToFile(file, staging, digest);
+            }
+
+            String name = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+            Path target = objectPath(name);
+
+            if (Files.exists(target)) {
+                Files.delete(staging);
+                deduplicatedObjects.incrementAndGet();
+                deduplicatedBytes.addAndGet(size);
+            } else {
+                Files.createDirectories(target.getParent());
+                // Concurrent identical uploads race harmlessly: the content is the same
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                storedObjects.incrementAndGet();
+            }
+
+            return new StoredMedia(PUBLIC_PREFIX + name, contentType, size);
+
+        } catch (IOException | NoSuchAlgorithmException e) {
+            deleteQuietly(staging);
+            throw new RuntimeException("Failed to store media file " + file.getOriginalFilename(), e);
+        }
+    }
+
+    /**
+     * Resolve a public object name (hash.ext) to its file, if present
+     */
+    public Optional<Path> resolve(String name) {
+        if (name == null || !OBJECT_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path path = objectPath(name);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Content type for a stored object name
+     */
+    public String contentTypeOf(String name) {
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        return contentTypes.getOrDefault(extension, "application/octet-stream");
+    }
+
+    public long getStoredObjects() { return storedObjects.get(); }
+    public long getDeduplicatedObjects() { return deduplicatedObjects.get(); }
+    public long getDeduplicatedBytes() { return deduplicatedBytes.get(); }
+
+    // Private helper methods
+
+    // Well-known extension, else the subtype without vendor prefix or structured suffix (image/x-icon -> icon)
+    private static String extensionOf(String contentType) {
+        String known = KNOWN_EXTENSIONS.get(contentType);
+        if (known != null) {
+            return known;
+        }
+        String subtype = contentType.substring(contentType.indexOf('/') + 1);
+        subtype = subtype.split("[;+]", 2)[0].trim();
+        if (subtype.startsWith("x-")) {
+            subtype = subtype.substring(2);
+        }
+        if (!EXTENSION.matcher(subtype).matches()) {
+            throw new IllegalStateException("file.allowed-types: no file extension known for " + contentType
+                + " and none can be derived from it");
+        }
+        return subtype;
+    }
+
+    private Path objectPath(String name) {
+        return objectsRoot.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    private long streamToFile(MultipartFile file, Path staging, MessageDigest digest) throws IOException {
+        try (ReadableByteChannel source = new DigestingChannel(Channels.newChannel(file.getInputStream()), digest);
+             FileChannel target = FileChannel.open(staging, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+                if (position > maxFileSize) {
+                    throw new IOException("File exceeds maximum size of " + maxFileSize + " bytes");
+                }
+            }
+            return position;
+        }
+    }
+
+    private long digestFile(Path path, MessageDigest digest) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += TRANSFER_CHUNK) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(TRANSFER_CHUNK, size - position));
+                digest.update(region);
+            }
+            return size;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Stale staging files are harmless
+        }
+    }
+
+    /**
+     * Channel decorator that feeds every byte read into a message digest
+     */
+    private static class DigestingChannel implements ReadableByteChannel {
+        private final ReadableByteChannel delegate;
+        private final MessageDigest digest;
+
+        DigestingChannel(ReadableByteChannel delegate, MessageDigest digest) {
+            this.delegate = delegate;
+            this.digest = digest;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int start = dst.position();
+            int read = delegate.read(dst);
+            if (read > 0) {
+                ByteBuffer view = dst.duplicate();
+                view.limit(start + read);
+                view.position(start);
+                digest.update(view);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    // Inner class for storage results
+    public static class StoredMedia {
+        private final String reference;
+        private final String contentType;
+        private final long size;
+
+        public StoredMedia(String reference, String contentType, long size) {
+            this.reference = reference;
+            this.contentType = contentType;
+            this.size = size;
+        }
+
+        public String getReference() { return reference; }
+        public String getContentType() { return contentType; }
+        public long getSize() { return size; }
+    }
+}
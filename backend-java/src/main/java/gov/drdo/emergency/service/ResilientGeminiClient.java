@@ -0,0 +1,499 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resilience layer around GeminiClient.
+ *
+ * Every logical call gets a deadline derived from {@code ai.analysis.timeout}
+ * and the incident severity. Within that budget failed attempts are retried up
+ * to {@code ai.max.retries} times with full-jitter exponential backoff, and an
+ * attempt that is slower than the observed latency percentile gets a hedged
+ * second request (first answer wins). A count-based circuit breaker fails
+ * calls fast while the upstream is unhealthy so callers can fall back to the
+ * local classifier.
+ */
+@Component
+public class ResilientGeminiClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilientGeminiClient.class);
+
+    @Value("${ai.analysis.timeout:10000}")
+    private long baseBudgetMs;
+
+    @Value("${ai.max.retries:3}")
+    private int maxRetries;
+
+    @Value("${ai.resilience.backoff-base-ms:200}")
+    private long backoffBaseMs;
+
+    @Value("${ai.resilience.backoff-max-ms:2000}")
+    private long backoffMaxMs;
+
+    @Value("${ai.resilience.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+
+    @Value("${ai.resilience.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${ai.resilience.hedge.min-samples:50}")
+    private int hedgeMinSamples;
+
+    @Value("${ai.resilience.circuit.window-size:50}")
+    private int circuitWindowSize;
+
+    @Value("${ai.resilience.circuit.min-calls:20}")
+    private int circuitMinCalls;
+
+    @Value("${ai.resilience.circuit.failure-rate-threshold:0.5}")
+    private double circuitFailureRateThreshold;
+
+    @Value("${ai.resilience.circuit.open-ms:30000}")
+    private long circuitOpenMs;
+
+    @Value("${ai.resilience.circuit.half-open-calls:3}")
+    private int circuitHalfOpenCalls;
+
+    @Autowired
+    private GeminiClient geminiClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ScheduledExecutorService timer;
+    private CircuitBreaker circuitBreaker;
+    private LatencyWindow latencyWindow;
+
+    private Timer callLatency;
+    private Counter hedgeCounter;
+    private Counter retryCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gemini-resilience-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        circuitBreaker = new CircuitBreaker(circuitWindowSize, circuitMinCalls, circuitFailureRateThreshold,
+            TimeUnit.MILLISECONDS.toNanos(circuitOpenMs), circuitHalfOpenCalls);
+        latencyWindow = new LatencyWindow(512);
+
+        callLatency = Timer.builder("ai.gemini.call.latency")
+            .description("Latency of individual Gemini HTTP calls")
+            .publishPercentileHistogram()
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        hedgeCounter = Counter.builder("ai.gemini.hedged").register(meterRegistry);
+        retryCounter = Counter.builder("ai.gemini.retries").register(meterRegistry);
+        rejectedCounter = Counter.builder("ai.gemini.circuit.rejected").register(meterRegistry);
+        Gauge.builder("ai.gemini.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+            .description("0 = closed, 1 = open, 2 = half-open")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Call generateContent within the deadline budget for the given severity
+     */
+    public CompletableFuture<byte[]> generateContentAsync(String model, Map<String, Object> requestBody,
+                                                          Incident.SeverityLevel severity) {
+        long deadline = System.nanoTime() + budgetFor(severity).toNanos();
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        attempt(model, requestBody, deadline, 0, result);
+        return result;
+    }
+
+    /**
+     * Deadline budget for a call; urgent incidents fail over to the local classifier sooner
+     */
+    public Duration budgetFor(Incident.SeverityLevel severity) {
+        double factor;
+        if (severity == null) {
+            factor = 1.0;
+        } else {
+            switch (severity) {
+                case CRITICAL:
+                    factor = 0.5;
+                    break;
+                case HIGH:
+                    factor = 0.75;
+                    break;
+                case LOW:
+                    factor = 1.5;
+                    break;
+                default:
+                    factor = 1.0;
+            }
+        }
+        return Duration.ofMillis((long) (baseBudgetMs * factor));
+    }
+
+    public ResilienceStatistics getStatistics() {
+        long hedgeDelay = hedgeDelayNanos();
+        return new ResilienceStatistics(circuitBreaker.getState().name(), circuitBreaker.getFailureRate(),
+            hedgeDelay > 0 ? TimeUnit.NANOSECONDS.toMillis(hedgeDelay) : null,
+            (long) hedgeCounter.count(), (long) retryCounter.count(), (long) rejectedCounter.count());
+    }
+
+    // Private helper methods
+
+    private void attempt(String model, Map<String, Object> requestBody, long deadline, int attempt,
+                         CompletableFuture<byte[]> result) {
+        if (deadline - System.nanoTime() <= 0) {
+            result.completeExceptionally(new TimeoutException("AI analysis deadline exceeded"));
+            return;
+        }
+
+        long permit = circuitBreaker.tryAcquire(System.nanoTime());
+        if (permit < 0) {
+            rejectedCounter.increment();
+            result.completeExceptionally(new CircuitOpenException());
+            return;
+        }
+
+        hedgedCall(model, requestBody, deadline).whenComplete((response, error) -> {
+            if (error == null) {
+                circuitBreaker.onSuccess(permit);
+                result.complete(response);
+                return;
+            }
+
+            Throwable cause = unwrap(error);
+            if (isUpstreamFailure(cause)) {
+                circuitBreaker.onFailure(permit, System.nanoTime());
+            } else {
+                circuitBreaker.onIgnored(permit);
+            }
+
+            long backoffMs = backoffFor(attempt);
+            if (attempt >= maxRetries || !isRetryable(cause)
+                    || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs) >= deadline) {
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            retryCounter.increment();
+            timer.schedule(() -> attempt(model, requestBody, deadline, attempt + 1, result),
+                backoffMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private CompletableFuture<byte[]> hedgedCall(String model, Map<String, Object> requestBody, long deadline) {
+        CompletableFuture<byte[]> primary = call(model, requestBody, deadline);
+
+        long hedgeDelay = hedgeDelayNanos();
+        if (hedgeDelay <= 0 || System.nanoTime() + hedgeDelay >= deadline
+                || circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            return primary;
+        }
+
+        CompletableFuture<byte[]> winner = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        primary.whenComplete((response, error) -> settle(winner, outstanding, response, error));
+
+        ScheduledFuture<?> hedge = timer.schedule(() -> {
+            if (winner.isDone()) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            hedgeCounter.increment();
+            call(model, requestBody, deadline).whenComplete((response, error) -> settle(winner, outstanding, response, error));
+        }, hedgeDelay, TimeUnit.NANOSECONDS);
+
+        winner.whenComplete((response, error) -> hedge.cancel(false));
+        return winner;
+    }
+
+    private void settle(CompletableFuture<byte[]> winner, AtomicInteger outstanding, byte[] response, Throwable error) {
+        if (error == null) {
+            winner.complete(response);
+        } else if (outstanding.decrementAndGet() == 0) {
+            winner.completeExceptionally(error);
+        }
+    }
+
+    private CompletableFuture<byte[]> call(String model, Map<String, Object> requestBody, long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return CompletableFuture.failedFuture(new TimeoutException("AI analysis deadline exceeded"));
+        }
+        long start = System.nanoTime();
+        return geminiClient.generateContentAsync(model, requestBody, Duration.ofNanos(remaining))
+            .orTimeout(remaining, TimeUnit.NANOSECONDS)
+            .whenComplete((response, error) -> {
+                long elapsed = System.nanoTime() - start;
+                callLatency.record(elapsed, TimeUnit.NANOSECONDS);
+                if (error == null) {
+                    latencyWindow.record(elapsed);
+                }
+            });
+    }
+
+    private long hedgeDelayNanos() {
+        if (!hedgeEnabled) {
+            return -1;
+        }
+        return latencyWindow.percentile(hedgePercentile, hedgeMinSamples);
+    }
+
+    private long backoffFor(int attempt) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof GeminiClient.GeminiApiException) {
+            int status = ((GeminiClient.GeminiApiException) error).getStatusCode();
+            return status == 408 || status == 429 || status >= 500;
+        }
+        return error instanceof TimeoutException || error instanceof IOException
+            || error instanceof RejectedExecutionException;
+    }
+
+    private static boolean isUpstreamFailure(Throwable error) {
+        // Local queue overflow says nothing about the upstream's health
+        return isRetryable(error) && !(error instanceof RejectedExecutionException);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Count-based circuit breaker over the last N attempt outcomes.
+     *
+     * Permits carry the breaker generation they were issued in, so outcomes of
+     * attempts started before a state change do not disturb the new state.
+     */
+    static class CircuitBreaker {
+
+        enum State { CLOSED, OPEN, HALF_OPEN }
+
+        private final boolean[] outcomes;
+        private final int minCalls;
+        private final double failureRateThreshold;
+        private final long openNanos;
+        private final int halfOpenCalls;
+
+        // Guarded by this
+        private State state = State.CLOSED;
+        private long generation;
+        private int recorded;
+        private int next;
+        private int failures;
+        private long openedAt;
+        private int halfOpenInFlight;
+        private int halfOpenSuccesses;
+
+        CircuitBreaker(int windowSize, int minCalls, double failureRateThreshold, long openNanos, int halfOpenCalls) {
+            this.outcomes = new boolean[windowSize];
+            this.minCalls = minCalls;
+            this.failureRateThreshold = failureRateThreshold;
+            this.openNanos = openNanos;
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        /**
+         * Returns a permit (the current generation) or -1 when the call must not be made
+         */
+        synchronized long tryAcquire(long now) {
+            if (state == State.OPEN) {
+                if (now - openedAt < openNanos) {
+                    return -1;
+                }
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenInFlight >= halfOpenCalls) {
+                    return -1;
+                }
+                halfOpenInFlight++;
+            }
+            return generation;
+        }
+
+        synchronized void onSuccess(long permit) {
+            if (permit != generation) {
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                halfOpenInFlight--;
+                if (++halfOpenSuccesses >= halfOpenCalls) {
+                    transition(State.CLOSED);
+                }
+            } else {
+                record(false);
+            }
+        }
+
+        synchronized void onFailure(long permit, long now) {
+            if (permit != generation) {
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                open(now);
+                return;
+            }
+            record(true);
+            if (recorded >= minCalls && (double) failures / recorded >= failureRateThreshold) {
+                open(now);
+            }
+        }
+
+        synchronized void onIgnored(long permit) {
+            if (permit == generation && state == State.HALF_OPEN) {
+                halfOpenInFlight--;
+            }
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+
+        synchronized double getFailureRate() {
+            return recorded == 0 ? 0.0 : (double) failures / recorded;
+        }
+
+        private void record(boolean failure) {
+            if (recorded == outcomes.length) {
+                if (outcomes[next]) {
+                    failures--;
+                }
+            } else {
+                recorded++;
+            }
+            outcomes[next] = failure;
+            if (failure) {
+                failures++;
+            }
+            next = (next + 1) % outcomes.length;
+        }
+
+        private void open(long now) {
+            openedAt = now;
+            transition(State.OPEN);
+        }
+
+        private void transition(State target) {
+            logger.warn("Gemini circuit breaker {} -> {}", state, target);
+            state = target;
+            generation++;
+            halfOpenInFlight = 0;
+            halfOpenSuccesses = 0;
+            if (target == State.CLOSED) {
+                Arrays.fill(outcomes, false);
+                recorded = 0;
+                next = 0;
+                failures = 0;
+            }
+        }
+    }
+
+    /**
+     * Ring buffer of recent successful call latencies used to pick the hedge delay
+     */
+    static class LatencyWindow {
+        private final long[] samples;
+        private int count;
+        private int next;
+        private long cachedPercentile = -1;
+        private int sinceRefresh;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+            sinceRefresh++;
+        }
+
+        /**
+         * Percentile of the window in nanoseconds, or -1 with too few samples; refreshed every 32 samples
+         */
+        synchronized long percentile(double quantile, int minSamples) {
+            if (count < minSamples) {
+                return -1;
+            }
+            if (cachedPercentile < 0 || sinceRefresh >= 32) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                cachedPercentile = sorted[Math.min(count - 1, (int) Math.ceil(quantile * count) - 1)];
+                sinceRefresh = 0;
+            }
+            return cachedPercentile;
+        }
+    }
+
+    /**
+     * Raised without calling the upstream while the circuit is open
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException() {
+            super("Gemini circuit breaker is open");
+        }
+    }
+
+    // Inner class for resilience statistics
+    public static class ResilienceStatistics {
+        private final String circuitState;
+        private final double failureRate;
+        private final Long hedgeDelayMs;
+        private final long hedgedCalls;
+        private final long retries;
+        private final long rejectedCalls;
+
+        public ResilienceStatistics(String circuitState, double failureRate, Long hedgeDelayMs,
+                                    long hedgedCalls, long retries, long rejectedCalls) {
+            this.circuitState = circuitState;
+            this.failureRate = failureRate;
+            this.hedgeDelayMs = hedgeDelayMs;
+            this.hedgedCalls = hedgedCalls;
+            this.retries = retries;
+            this.rejectedCalls = rejectedCalls;
+        }
+
+        public String getCircuitState() { return circuitState; }
+        public double getFailureRate() { return failureRate; }
+        public Long getHedgeDelayMs() { return hedgeDelayMs; }
+        public long getHedgedCalls() { return hedgedCalls; }
+        public long getRetries() { return retries; }
+        public long getRejectedCalls() { return rejectedCalls; }
+    }
+}
@@ -0,0 +1,349 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.ResponderLocation;
+import gov.drdo.emergency.entity.Responder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index of responder attributes for multi-criteria capability matching.
+ *
+ * A dictionary gives every attribute value a bit position: type, status,
+ * vehicle type, the on-duty and available flags, and each specialization and
+ * piece of equipment (case-insensitive). Each bit position owns a bitmap over
+ * responder slots, so "available BOMB_DISPOSAL with robot and bomb suit" is a
+ * few word-wise ANDs over responders / 64 longs instead of string comparisons
+ * per responder. Slots are numbered densely and not reused until
+ * {@link #replaceAll} starts over, which keeps the bitmaps plain long arrays
+ * and lets a {@link Matches} stay valid while later updates come in. Reads
+ * share a lock; writes are exclusive.
+ */
+public class ResponderCapabilityIndex {
+
+    private static final String TYPE = "type:";
+    private static final String STATUS = "status:";
+    private static final String VEHICLE = "vehicle:";
+    private static final String SPECIALIZATION = "specialization:";
+    private static final String EQUIPMENT = "equipment:";
+    private static final String ON_DUTY = "on-duty";
+    private static final String AVAILABLE = "available";
+
+    private static final int[] NO_BITS = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Map<String, Integer> dictionary = new HashMap<>();
+    private List<long[]> postings = new ArrayList<>();
+    private long[] live = new long[1];
+    private long[] idsBySlot = new long[64];
+    private int[][] bitsBySlot = new int[64][];
+    private int nextSlot;
+
+    // Replaced, never cleared, by replaceAll; read without the lock by Matches
+    private Map<Long, Integer> slots = new ConcurrentHashMap<>();
+
+    /**
+     * Index or re-index a responder
+     */
+    public void put(ResponderLocation responder) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(responder.getId());
+            if (slot == null) {
+                slot = allocateSlot(responder.getId());
+            } else {
+                clear(slot);
+            }
+            int[] bits = bitsOf(responder);
+            for (int bit : bits) {
+                set(postings.get(bit), bit, slot);
+            }
+            bitsBySlot[slot] = bits;
+            live = grow(live, slot);
+            live[slot >>> 6] |= 1L << slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            if (slot != null) {
+                clear(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild from scratch, compacting slots and dropping dictionary entries no longer used
+     */
+    public void replaceAll(Collection<ResponderLocation> responders) {
+        lock.writeLock().lock();
+        try {
+            dictionary = new HashMap<>();
+            postings = new ArrayList<>();
+            live = new long[Math.max(1, (responders.size() + 63) >>> 6)];
+            idsBySlot = new long[Math.max(64, responders.size())];
+            bitsBySlot = new int[idsBySlot.length][];
+            nextSlot = 0;
+            slots = new ConcurrentHashMap<>(Math.max(16, responders.size() * 2));
+            for (ResponderLocation responder : responders) {
+                put(responder);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Responders that have every attribute the query requires
+     */
+    public Matches match(Query query) {
+        lock.readLock().lock();
+        try {
+            long[] result = Arrays.copyOf(live, live.length);
+            if (query.dispatchableOnly) {
+                and(result, ON_DUTY);
+                and(result, AVAILABLE);
+                and(result, STATUS + Responder.ResponderStatus.AVAILABLE.name());
+            }
+            andAny(result, TYPE, query.types);
+            andAny(result, VEHICLE, query.vehicleTypes);
+            for (String specialization : query.specializations) {
+                and(result, SPECIALIZATION + normalize(specialization));
+            }
+            for (String item : query.equipment) {
+                and(result, EQUIPMENT + normalize(item));
+            }
+            return new Matches(result, slots, idsBySlot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Distinct attribute values in the dictionary
+     */
+    public int dictionarySize() {
+        lock.readLock().lock();
+        try {
+            return dictionary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Private helper methods; callers hold the lock
+
+    private int allocateSlot(long id) {
+        int slot = nextSlot++;
+        if (slot >= idsBySlot.length) {
+            idsBySlot = Arrays.copyOf(idsBySlot, idsBySlot.length * 2);
+            bitsBySlot = Arrays.copyOf(bitsBySlot, bitsBySlot.length * 2);
+        }
+        idsBySlot[slot] = id;
+        slots.put(id, slot);
+        return slot;
+    }
+
+    private void clear(int slot) {
+        int[] bits = bitsBySlot[slot];
+        if (bits != null) {
+            for (int bit : bits) {
+                long[] posting = postings.get(bit);
+                if ((slot >>> 6) < posting.length) {
+                    posting[slot >>> 6] &= ~(1L << slot);
+                }
+            }
+            bitsBySlot[slot] = null;
+        }
+        if ((slot >>> 6) < live.length) {
+            live[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+
+    private int[] bitsOf(ResponderLocation responder) {
+        List<String> attributes = new ArrayList<>();
+        if (responder.getType() != null) {
+            attributes.add(TYPE + responder.getType().name());
+        }
+        if (responder.getStatus() != null) {
+            attributes.add(STATUS + responder.getStatus().name());
+        }
+        if (responder.getVehicleType() != null) {
+            attributes.add(VEHICLE + responder.getVehicleType().name());
+        }
+        if (Boolean.TRUE.equals(responder.getIsOnDuty())) {
+            attributes.add(ON_DUTY);
+        }
+        if (Boolean.TRUE.equals(responder.getIsAvailable())) {
+            attributes.add(AVAILABLE);
+        }
+        addAll(attributes, SPECIALIZATION, responder.getSpecializations());
+        addAll(attributes, EQUIPMENT, responder.getEquipment());
+        if (attributes.isEmpty()) {
+            return NO_BITS;
+        }
+        int[] bits = new int[attributes.size()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = dictionary.computeIfAbsent(attributes.get(i), ignored -> {
+                postings.add(new long[live.length]);
+                return postings.size() - 1;
+            });
+        }
+        return bits;
+    }
+
+    private static void addAll(List<String> attributes, String prefix, String[] values) {
+        if (values == null) {
+            return;
+        }
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                String attribute = prefix + normalize(value);
+                if (!attributes.contains(attribute)) {
+                    attributes.add(attribute);
+                }
+            }
+        }
+    }
+
+    private void set(long[] posting, int bit, int slot) {
+        if ((slot >>> 6) >= posting.length) {
+            posting = grow(posting, slot);
+            postings.set(bit, posting);
+        }
+        posting[slot >>> 6] |= 1L << slot;
+    }
+
+    private void and(long[] result, String attribute) {
+        Integer bit = dictionary.get(attribute);
+        if (bit == null) {
+            Arrays.fill(result, 0L);
+            return;
+        }
+        long[] posting = postings.get(bit);
+        for (int i = 0; i < result.length; i++) {
+            result[i] &= i < posting.length ? posting[i] : 0L;
+        }
+    }
+
+    // AND with the union of the postings of the given values; no values means no restriction
+    private <E extends Enum<E>> void andAny(long[] result, String prefix, Set<E> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        long[] union = new long[result.length];
+        for (E value : values) {
+            Integer bit = dictionary.get(prefix + value.name());
+            if (bit == null) {
+                continue;
+            }
+            long[] posting = postings.get(bit);
+            for (int i = 0; i < union.length && i < posting.length; i++) {
+                union[i] |= posting[i];
+            }
+        }
+        for (int i = 0; i < result.length; i++) {
+            result[i] &= union[i];
+        }
+    }
+
+    private static long[] grow(long[] words, int slot) {
+        int needed = (slot >>> 6) + 1;
+        return needed <= words.length ? words : Arrays.copyOf(words, Math.max(needed, words.length * 2));
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * What a responder must have; empty sets mean no restriction. Types and vehicle types match any listed
+     * value, specializations and equipment must all be present.
+     */
+    public static class Query {
+        private final Set<Responder.ResponderType> types;
+        private final Set<Responder.VehicleType> vehicleTypes;
+        private final Collection<String> specializations;
+        private final Collection<String> equipment;
+        private final boolean dispatchableOnly;
+
+        public Query(Set<Responder.ResponderType> types, Set<Responder.VehicleType> vehicleTypes,
+                     Collection<String> specializations, Collection<String> equipment, boolean dispatchableOnly) {
+            this.types = types != null ? types : Collections.emptySet();
+            this.vehicleTypes = vehicleTypes != null ? vehicleTypes : Collections.emptySet();
+            this.specializations = specializations != null ? specializations : Collections.emptySet();
+            this.equipment = equipment != null ? equipment : Collections.emptySet();
+            this.dispatchableOnly = dispatchableOnly;
+        }
+    }
+
+    /**
+     * Result of a {@link #match}; unaffected by later index updates
+     */
+    public static class Matches {
+        private final long[] words;
+        private final Map<Long, Integer> slots;
+        private final long[] idsBySlot;
+
+        private Matches(long[] words, Map<Long, Integer> slots, long[] idsBySlot) {
+            this.words = words;
+            this.slots = slots;
+            this.idsBySlot = idsBySlot;
+        }
+
+        public boolean contains(Long id) {
+            Integer slot = slots.get(id);
+            return slot != null && (slot >>> 6) < words.length && (words[slot >>> 6] & (1L << slot)) != 0;
+        }
+
+        public boolean isEmpty() {
+            for (long word : words) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public int size() {
+            int size = 0;
+            for (long word : words) {
+                size += Long.bitCount(word);
+            }
+            return size;
+        }
+
+        /**
+         * Ids of the matching responders, at most limit
+         */
+        public List<Long> ids(int limit) {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < words.length && ids.size() < limit; i++) {
+                long word = words[i];
+                while (word != 0 && ids.size() < limit) {
+                    int slot = (i << 6) + Long.numberOfTrailingZeros(word);
+                    ids.add(idsBySlot[slot]);
+                    word &= word - 1;
+                }
+            }
+            return ids;
+        }
+    }
+}
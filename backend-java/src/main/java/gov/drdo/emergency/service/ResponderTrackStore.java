@@ -0,0 +1,328 @@
+package gov.drdo.emergency.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only history of responder positions in compressed, memory-mapped segment files.
+ *
+ * ResponderTrackingService appends every accepted fix. Fixes are collected per
+ * responder into a {@link TrackBlock} in memory and written to the current
+ * {@link TrackSegment} when the block reaches {@code block-max-points} or has
+ * been open for {@code block-max-age-ms}; a crash loses at most that window.
+ * A new segment is started every {@code segment-duration-ms} or when the file
+ * is full, and whole segments are deleted after {@code retention-days}.
+ * Replay finds a responder's blocks through each segment's time index and
+ * decodes them straight from the mapping; only the open block is copied.
+ *
+ * History is kept per node: each node records the pings it received, so with
+ * several nodes behind a load balancer a replay from one of them is partial.
+ */
+@Service
+public class ResponderTrackStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponderTrackStore.class);
+
+    private static final String SEGMENT_PREFIX = "track-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // Responder id, time, latitude, longitude and speed as 8-byte fields: the baseline for the compression ratio
+    private static final int RAW_POINT_BYTES = 40;
+
+    @Value("${emergency.tracks.enabled:true}")
+    private boolean enabled;
+
+    @Value("${emergency.tracks.directory:./data/tracks}")
+    private String directory;
+
+    @Value("${emergency.tracks.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${emergency.tracks.segment-duration-ms:3600000}")
+    private long segmentDurationMillis;
+
+    @Value("${emergency.tracks.block-max-points:1024}")
+    private int blockMaxPoints;
+
+    @Value("${emergency.tracks.block-max-age-ms:120000}")
+    private long blockMaxAgeMillis;
+
+    @Value("${emergency.tracks.retention-days:30}")
+    private long retentionDays;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Path root;
+
+    // All guarded by this
+    private final List<TrackSegment> segments = new ArrayList<>();
+    private final Map<Long, TrackBlock.Encoder> openBlocks = new HashMap<>();
+    private TrackSegment active;
+    private long activeCreatedAt;
+
+    private final LongAdder pointsAppended = new LongAdder();
+    private final LongAdder pointsWritten = new LongAdder();
+    private final LongAdder pointsLost = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private Timer replayTimer;
+
+    @PostConstruct
+    public void init() throws IOException {
+        FunctionCounter.builder("emergency.tracks.points", pointsAppended, LongAdder::sum)
+            .tag("result", "appended").register(meterRegistry);
+        FunctionCounter.builder("emergency.tracks.points", pointsLost, LongAdder::sum)
+            .tag("result", "lost").register(meterRegistry);
+        FunctionCounter.builder("emergency.tracks.bytes.written", bytesWritten, LongAdder::sum)
+            .register(meterRegistry);
+        Gauge.builder("emergency.tracks.compression.ratio", this,
+                store -> store.bytesWritten.sum() == 0 ? 0.0
+                    : (double) store.pointsWritten.sum() * RAW_POINT_BYTES / store.bytesWritten.sum())
+            .description("Raw field bytes per stored byte for blocks written since startup")
+            .register(meterRegistry);
+        Gauge.builder("emergency.tracks.segments", this, store -> store.segmentCount())
+            .register(meterRegistry);
+        replayTimer = Timer.builder("emergency.tracks.replay")
+            .description("Time to decode one responder's track for a time range")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+
+        if (!enabled) {
+            return;
+        }
+        root = Files.createDirectories(Paths.get(directory).toAbsolutePath().normalize());
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        // Names carry the creation time, so name order is time order
+        files.sort(null);
+        for (Path file : files) {
+            try {
+                segments.add(TrackSegment.open(file));
+            } catch (IOException e) {
+                logger.error("Skipping unreadable track segment {}", file, e);
+            }
+        }
+        logger.info("Opened {} responder track segments in {}", segments.size(), root);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!enabled) {
+            return;
+        }
+        for (TrackBlock.Encoder block : openBlocks.values()) {
+            if (block.getCount() > 0) {
+                write(block);
+            }
+        }
+        openBlocks.clear();
+        if (active != null) {
+            active.seal();
+            active = null;
+        }
+    }
+
+    /**
+     * Record a fix; time must not go backwards for a responder. Speed in m/s, NaN when unknown.
+     */
+    public synchronized void append(long responderId, long time, double latitude, double longitude, double speed) {
+        if (!enabled) {
+            return;
+        }
+        TrackBlock.Encoder block = openBlocks.computeIfAbsent(responderId, TrackBlock.Encoder::new);
+        if (block.getCount() > 0 && time < block.getLastTime()) {
+            return;
+        }
+        block.append(time, latitude, longitude, speed);
+        pointsAppended.increment();
+        if (block.getCount() >= blockMaxPoints) {
+            write(block);
+        }
+    }
+
+    /**
+     * Pass a responder's fixes with from <= time < to (epoch milliseconds) to the visitor, oldest first
+     */
+    public void replay(long responderId, long from, long to, TrackBlock.Visitor visitor) {
+        long start = System.nanoTime();
+        List<TrackSegment> owners = new ArrayList<>();
+        List<long[]> refs = new ArrayList<>();
+        ByteBuffer open = null;
+        synchronized (this) {
+            for (TrackSegment segment : segments) {
+                for (long[] ref : segment.blocksOf(responderId, from, to)) {
+                    owners.add(segment);
+                    refs.add(ref);
+                }
+            }
+            TrackBlock.Encoder block = openBlocks.get(responderId);
+            if (block != null && block.getCount() > 0 && block.getFirstTime() < to && block.getLastTime() >= from) {
+                open = block.snapshot();
+            }
+        }
+        for (int i = 0; i < refs.size(); i++) {
+            owners.get(i).decode(refs.get(i), from, to, visitor);
+        }
+        if (open != null) {
+            TrackBlock.decode(open, 0, from, to, visitor);
+        }
+        replayTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Pass every fix with from <= time < to to the visitor, block by block (each responder's points in
+     * order, responders interleaved), for bulk export
+     */
+    public void scan(long from, long to, TrackBlock.Visitor visitor) {
+        List<TrackSegment> snapshot;
+        List<Integer> limits = new ArrayList<>();
+        List<ByteBuffer> open = new ArrayList<>();
+        synchronized (this) {
+            snapshot = new ArrayList<>();
+            for (TrackSegment segment : segments) {
+                if (segment.overlaps(from, to)) {
+                    snapshot.add(segment);
+                    limits.add(segment.getEnd());
+                }
+            }
+            for (TrackBlock.Encoder block : openBlocks.values()) {
+                if (block.getCount() > 0 && block.getFirstTime() < to && block.getLastTime() >= from) {
+                    open.add(block.snapshot());
+                }
+            }
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            TrackSegment segment = snapshot.get(i);
+            segment.forEachBlock(limits.get(i), from, to, ref -> segment.decode(ref, from, to, visitor));
+        }
+        for (ByteBuffer block : open) {
+            TrackBlock.decode(block, 0, from, to, visitor);
+        }
+    }
+
+    /**
+     * Write blocks open longer than block-max-age-ms, drop idle responders' buffers and flush the active segment
+     */
+    @Scheduled(fixedDelayString = "${emergency.tracks.seal-interval-ms:10000}")
+    public synchronized void sealIdle() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<TrackBlock.Encoder> blocks = openBlocks.values().iterator();
+        while (blocks.hasNext()) {
+            TrackBlock.Encoder block = blocks.next();
+            if (block.getCount() == 0) {
+                // Nothing since the last write; the next fix starts a fresh encoder
+                blocks.remove();
+            } else if (now - block.getOpenedAt() >= blockMaxAgeMillis) {
+                write(block);
+            }
+        }
+        if (active != null) {
+            if (now - activeCreatedAt >= segmentDurationMillis) {
+                active.seal();
+                active = null;
+            } else {
+                active.force();
+            }
+        }
+    }
+
+    /**
+     * Delete segments whose newest fix is older than the retention period
+     */
+    @Scheduled(cron = "${emergency.tracks.retention-cron:0 15 3 * * *}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - Duration.ofDays(retentionDays).toMillis();
+        List<TrackSegment> expired = new ArrayList<>();
+        synchronized (this) {
+            Iterator<TrackSegment> iterator = segments.iterator();
+            while (iterator.hasNext()) {
+                TrackSegment segment = iterator.next();
+                if (segment != active && segment.getPoints() > 0 && segment.getLastTime() < cutoff) {
+                    iterator.remove();
+                    expired.add(segment);
+                }
+            }
+        }
+        for (TrackSegment segment : expired) {
+            try {
+                segment.delete();
+                logger.info("Deleted expired track segment {}", segment.getPath());
+            } catch (IOException e) {
+                logger.warn("Could not delete track segment {}: {}", segment.getPath(), e.getMessage());
+            }
+        }
+    }
+
+    // Private helper methods
+
+    private synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    // Caller holds this
+    private void write(TrackBlock.Encoder block) {
+        int size = block.encodedSize();
+        long now = System.currentTimeMillis();
+        try {
+            if (active == null || !active.fits(size) || now - activeCreatedAt >= segmentDurationMillis) {
+                roll(now, size);
+            }
+            active.append(block);
+            pointsWritten.add(block.getCount());
+            bytesWritten.add(size);
+        } catch (IOException | IllegalStateException e) {
+            pointsLost.add(block.getCount());
+            logger.error("Could not write track block for responder {}: {}", block.getResponderId(), e.getMessage());
+        }
+        block.reset();
+    }
+
+    private void roll(long now, int minBytes) throws IOException {
+        if (active != null) {
+            active.seal();
+        }
+        active = null;
+        long stamp = now;
+        Path file;
+        do {
+            file = root.resolve(String.format("%s%013d%s", SEGMENT_PREFIX, stamp++, SEGMENT_SUFFIX));
+        } while (Files.exists(file));
+        active = TrackSegment.create(file, Math.max(segmentBytes, minBytes + 64));
+        activeCreatedAt = now;
+        segments.add(active);
+    }
+}
@@ -0,0 +1,365 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.LocationIngestResponse;
+import gov.drdo.emergency.dto.LocationPing;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * High-rate ingestion of responder GPS pings with write-behind to the responders table.
+ *
+ * Request threads (HTTP batches and STOMP messages) only validate a ping and
+ * append it to a {@link LocationPingBuffer}. One drain thread keeps the newest
+ * fix per responder, drops fixes older than one already seen, appends each
+ * fix to the {@link ResponderTrackStore} history, moves the responder in
+ * {@link LiveLocationIndex} once per drain pass and marks it pending. Every
+ * {@code emergency.tracking.flush-interval-ms} the pending fixes are written
+ * as one batch of single-row UPDATEs sorted by id, so the database sees at
+ * most one write per responder per interval however often a unit reports.
+ * The UPDATE only sets current_location and last_location_update and skips
+ * rows that already hold a newer fix from another node; the responders
+ * trigger leaves updated_at alone for such position-only updates. Fixes
+ * are ordered by their recorded time everywhere: in the drain, in
+ * {@link LiveLocationIndex} and in the stored last_location_update. A fix
+ * flushed more than the index's sync overlap after it was recorded (a unit
+ * replaying its backlog) reaches other nodes with their next rebuild.
+ */
+@Service
+public class ResponderTrackingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponderTrackingService.class);
+
+    private static final String UPDATE_SQL =
+        "UPDATE responders SET current_location = ST_SetSRID(ST_MakePoint(?, ?), 4326), last_location_update = ? " +
+        "WHERE id = ? AND (last_location_update IS NULL OR last_location_update < ?)";
+
+    private static final int DRAIN_BATCH = 4096;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    public enum Outcome {
+        ACCEPTED, REJECTED, DROPPED
+    }
+
+    @Value("${emergency.tracking.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${emergency.tracking.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    @Value("${emergency.tracking.max-ping-age-ms:300000}")
+    private long maxPingAgeMillis;
+
+    @Value("${emergency.tracking.retain-ms:900000}")
+    private long retainMillis;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LiveLocationIndex liveLocationIndex;
+
+    @Autowired
+    private ResponderTrackStore responderTrackStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private LocationPingBuffer buffer;
+    private ExecutorService drainer;
+    private volatile boolean running;
+
+    // Newest fix per responder and those moved in the current drain pass; drain thread only
+    private final Map<Long, Fix> latest = new HashMap<>();
+    private final Map<Long, Fix> moved = new HashMap<>();
+    private final LocationPingBuffer.Sink sink = this::accept;
+    private long nextPurgeAt;
+
+    // Newest fix per responder not yet written to the database
+    private final ConcurrentHashMap<Long, Fix> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder outOfOrder = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder flushErrors = new LongAdder();
+
+    private Timer flushTimer;
+    private DistributionSummary flushBatch;
+
+    @PostConstruct
+    public void init() {
+        buffer = new LocationPingBuffer(bufferCapacity);
+
+        FunctionCounter.builder("emergency.tracking.pings", accepted, LongAdder::sum)
+            .tag("result", "accepted").register(meterRegistry);
+        FunctionCounter.builder("emergency.tracking.pings", rejected, LongAdder::sum)
+            .tag("result", "rejected").register(meterRegistry);
+        FunctionCounter.builder("emergency.tracking.pings", dropped, LongAdder::sum)
+            .tag("result", "dropped").register(meterRegistry);
+        FunctionCounter.builder("emergency.tracking.pings", outOfOrder, LongAdder::sum)
+            .tag("result", "out-of-order").register(meterRegistry);
+        FunctionCounter.builder("emergency.tracking.rows.written", written, LongAdder::sum)
+            .register(meterRegistry);
+        FunctionCounter.builder("emergency.tracking.flush.errors", flushErrors, LongAdder::sum)
+            .register(meterRegistry);
+        Gauge.builder("emergency.tracking.buffer.size", buffer, LocationPingBuffer::size)
+            .register(meterRegistry);
+        Gauge.builder("emergency.tracking.pending", pending, Map::size)
+            .register(meterRegistry);
+        flushTimer = Timer.builder("emergency.tracking.flush")
+            .description("Time to write one flush of coalesced responder positions")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        flushBatch = DistributionSummary.builder("emergency.tracking.flush.rows")
+            .description("Responder positions written per flush")
+            .register(meterRegistry);
+
+        running = true;
+        drainer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "responder-location-drain");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.execute(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        drainer.shutdown();
+        try {
+            drainer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Write what was drained before stopping; pings still in the ring are lost, the units will report again
+        flush();
+    }
+
+    /**
+     * Queue one ping; never blocks
+     */
+    public Outcome ingest(LocationPing ping) {
+        long receivedAt = System.currentTimeMillis();
+        if (!isValid(ping)) {
+            rejected.increment();
+            return Outcome.REJECTED;
+        }
+        // Device clocks run ahead as often as behind; never record a fix later than its arrival
+        long recordedAt = ping.getRecordedAt() != null ? Math.min(ping.getRecordedAt(), receivedAt) : receivedAt;
+        if (receivedAt - recordedAt > maxPingAgeMillis) {
+            rejected.increment();
+            return Outcome.REJECTED;
+        }
+        double speed = ping.getSpeed() != null && ping.getSpeed() >= 0 ? ping.getSpeed() : Double.NaN;
+        if (!buffer.offer(ping.getResponderId(), ping.getLatitude(), ping.getLongitude(), speed, recordedAt,
+                receivedAt)) {
+            dropped.increment();
+            return Outcome.DROPPED;
+        }
+        accepted.increment();
+        return Outcome.ACCEPTED;
+    }
+
+    /**
+     * Queue one ping from a field unit that may only report its own position; others are rejected
+     */
+    public Outcome ingest(LocationPing ping, Long ownResponderId) {
+        if (ownResponderId != null && !ownResponderId.equals(ping.getResponderId())) {
+            rejected.increment();
+            return Outcome.REJECTED;
+        }
+        return ingest(ping);
+    }
+
+    /**
+     * Queue a batch of pings, counting each outcome
+     */
+    public LocationIngestResponse ingest(List<LocationPing> pings) {
+        return ingest(pings, null);
+    }
+
+    /**
+     * Queue a batch of pings, counting each outcome; with ownResponderId set, pings for any other responder
+     * are rejected
+     */
+    public LocationIngestResponse ingest(List<LocationPing> pings, Long ownResponderId) {
+        LocationIngestResponse response = new LocationIngestResponse();
+        for (LocationPing ping : pings) {
+            switch (ingest(ping, ownResponderId)) {
+                case ACCEPTED:
+                    response.addAccepted();
+                    break;
+                case REJECTED:
+                    response.addRejected();
+                    break;
+                default:
+                    response.addDropped();
+                    break;
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Write pending positions in batches; ids are sorted so concurrent nodes lock rows in the same order
+     */
+    @Scheduled(fixedDelayString = "${emergency.tracking.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pending.keySet());
+        Collections.sort(ids);
+        List<Fix> fixes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Fix fix = pending.remove(id);
+            if (fix != null) {
+                fixes.add(fix);
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int from = 0; from < fixes.size(); from += flushBatchSize) {
+            List<Fix> chunk = fixes.subList(from, Math.min(from + flushBatchSize, fixes.size()));
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (Fix fix : chunk) {
+                Timestamp at = new Timestamp(fix.recordedAt);
+                rows.add(new Object[]{fix.longitude, fix.latitude, at, fix.responderId, at});
+            }
+            try {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+                written.add(chunk.size());
+            } catch (DataAccessException e) {
+                flushErrors.increment();
+                logger.warn("Could not write {} responder positions, retrying next flush: {}",
+                    fixes.size() - from, e.getMessage());
+                // Keep whichever fix is newer if the unit reported again meanwhile
+                for (Fix fix : fixes.subList(from, fixes.size())) {
+                    pending.merge(fix.responderId, fix, Fix::newer);
+                }
+                break;
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        flushBatch.record(fixes.size());
+    }
+
+    // Private helper methods
+
+    private static boolean isValid(LocationPing ping) {
+        return ping != null && ping.getResponderId() != null
+            && ping.getLatitude() != null && ping.getLongitude() != null
+            && ping.getLatitude() >= -90 && ping.getLatitude() <= 90
+            && ping.getLongitude() >= -180 && ping.getLongitude() <= 180;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                int drained = buffer.drain(sink, DRAIN_BATCH);
+                if (!moved.isEmpty()) {
+                    for (Fix fix : moved.values()) {
+                        liveLocationIndex.updateResponderPosition(fix.responderId, fix.latitude, fix.longitude,
+                            toLocalDateTime(fix.recordedAt));
+                    }
+                    moved.clear();
+                }
+                if (drained == 0) {
+                    purgeIdle();
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException e) {
+                moved.clear();
+                logger.error("Failed to apply responder location pings", e);
+            }
+        }
+    }
+
+    private void accept(long responderId, double latitude, double longitude, double speed, long recordedAt,
+                        long receivedAt) {
+        Fix previous = latest.get(responderId);
+        if (previous != null && recordedAt < previous.recordedAt) {
+            outOfOrder.increment();
+            return;
+        }
+        if (Double.isNaN(speed) && previous != null && recordedAt > previous.recordedAt) {
+            speed = SpatialGrid.distanceMeters(previous.latitude, previous.longitude, latitude, longitude)
+                * 1000.0 / (recordedAt - previous.recordedAt);
+        }
+        responderTrackStore.append(responderId, recordedAt, latitude, longitude, speed);
+        Fix fix = new Fix(responderId, latitude, longitude, recordedAt, receivedAt);
+        latest.put(responderId, fix);
+        moved.put(responderId, fix);
+        pending.merge(responderId, fix, Fix::newer);
+    }
+
+    // Forget units that stopped reporting so the map does not keep every id ever seen
+    private void purgeIdle() {
+        long now = System.currentTimeMillis();
+        if (now < nextPurgeAt) {
+            return;
+        }
+        nextPurgeAt = now + PURGE_INTERVAL_MILLIS;
+        long cutoff = now - retainMillis;
+        latest.values().removeIf(fix -> fix.receivedAt < cutoff);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * A responder's position at one moment
+     */
+    private static final class Fix {
+        private final long responderId;
+        private final double latitude;
+        private final double longitude;
+        private final long recordedAt;
+        private final long receivedAt;
+
+        private Fix(long responderId, double latitude, double longitude, long recordedAt, long receivedAt) {
+            this.responderId = responderId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.recordedAt = recordedAt;
+            this.receivedAt = receivedAt;
+        }
+
+        private static Fix newer(Fix a, Fix b) {
+            return b.recordedAt >= a.recordedAt ? b : a;
+        }
+    }
+}
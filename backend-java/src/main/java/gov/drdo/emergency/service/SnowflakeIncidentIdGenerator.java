@@ -0,0 +1,151 @@
+package gov.drdo.emergency.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneId;
+
+/**
+ * Snowflake-style incident ID generator.
+ *
+ * The 8 character suffix is 40 bits written in Crockford base32:
+ * 25 bits of seconds since the start of the year, 5 bits of node ID and
+ * 10 bits of per-second sequence. IDs are strictly increasing per node; when a
+ * node issues more than 1024 IDs in one second it borrows the next second
+ * rather than waiting, and a clock that steps backwards is ignored.
+ *
+ * The node ID is configured per instance, or "auto" to take the lowest free
+ * one; {@link IncidentIdNodeLease} makes sure no other live instance uses it
+ * and persists the highest second issued, so a restart never reuses seconds
+ * that were borrowed ahead of the clock.
+ */
+@Service
+public class SnowflakeIncidentIdGenerator implements IncidentIdGenerator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeIncidentIdGenerator.class);
+    
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    
+    static final int NODE_BITS = 5;
+    static final int SEQUENCE_BITS = 10;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    
+    private static final int PREFIX_LENGTH = 9;  // "INC-YYYY-"
+    private static final int SUFFIX_LENGTH = 8;
+    
+    @Value("${emergency.incident-id.node-id:auto}")
+    private String configuredNodeId;
+    
+    @Value("${emergency.incident-id.zone:Asia/Kolkata}")
+    private String zone;
+    
+    @Autowired
+    private IncidentIdNodeLease nodeLease;
+    
+    private long nodeId;
+    private ZoneId zoneId;
+    
+    // Guarded by this
+    private final char[] buffer = new char[PREFIX_LENGTH + SUFFIX_LENGTH];
+    private long yearStartSecond = Long.MAX_VALUE;
+    private long yearEndSecond = Long.MIN_VALUE;
+    private long lastSecond = -1;
+    private long sequence;
+    
+    @PostConstruct
+    public void init() {
+        zoneId = ZoneId.of(zone);
+        
+        // Resume strictly after the last second the previous holder of this node ID reserved
+        long highWater;
+        if ("auto".equalsIgnoreCase(configuredNodeId.trim())) {
+            highWater = nodeLease.acquireAny((int) MAX_NODE_ID);
+            nodeId = nodeLease.getNodeId();
+        } else {
+            nodeId = parseNodeId(configuredNodeId);
+            highWater = nodeLease.acquire((int) nodeId);
+        }
+        if (highWater > 0) {
+            lastSecond = highWater;
+            sequence = MAX_SEQUENCE;
+            logger.info("Incident ID node {} resumes after second {}", nodeId, highWater);
+        }
+        nodeLease.reserve(Math.max(highWater + 1, System.currentTimeMillis() / 1000));
+        
+        buffer[0] = 'I';
+        buffer[1] = 'N';
+        buffer[2] = 'C';
+        buffer[3] = '-';
+        buffer[8] = '-';
+    }
+    
+    @Override
+    public synchronized String nextIncidentId() {
+        long now = System.currentTimeMillis() / 1000;
+        
+        if (now > lastSecond) {
+            lastSecond = now;
+            sequence = 0;
+        } else if (++sequence > MAX_SEQUENCE) {
+            // Sequence exhausted (or clock stepped back): borrow the next second
+            lastSecond++;
+            sequence = 0;
+        }
+        
+        if (lastSecond > nodeLease.getReservedUntil()) {
+            // Only reached when borrowing outruns the heartbeat's reservation
+            nodeLease.reserve(lastSecond);
+        }
+        if (!nodeLease.isHeld()) {
+            throw new IllegalStateException("Incident ID node " + nodeId + " is no longer held by this instance");
+        }
+        
+        if (lastSecond >= yearEndSecond || lastSecond < yearStartSecond) {
+            rollYear(lastSecond);
+        }
+        
+        long value = ((lastSecond - yearStartSecond) << (NODE_BITS + SEQUENCE_BITS))
+            | (nodeId << SEQUENCE_BITS)
+            | sequence;
+        
+        for (int i = PREFIX_LENGTH + SUFFIX_LENGTH - 1; i >= PREFIX_LENGTH; i--) {
+            buffer[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        
+        return new String(buffer);
+    }
+    
+    // Private helper methods
+    
+    private static long parseNodeId(String value) {
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed >= 0 && parsed <= MAX_NODE_ID) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalStateException("emergency.incident-id.node-id (INCIDENT_ID_NODE) must be \"auto\" or a "
+            + "value between 0 and " + MAX_NODE_ID + ", unique per backend instance; got \"" + value + "\"");
+    }
+    
+    private void rollYear(long epochSecond) {
+        int year = Instant.ofEpochSecond(epochSecond).atZone(zoneId).getYear();
+        yearStartSecond = Year.of(year).atDay(1).atStartOfDay(zoneId).toEpochSecond();
+        yearEndSecond = Year.of(year + 1).atDay(1).atStartOfDay(zoneId).toEpochSecond();
+        
+        for (int i = 7; i >= 4; i--) {
+            buffer[i] = (char) ('0' + year % 10);
+            year /= 10;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package gov.drdo.emergency.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Uniform lat/lon grid of points keyed by id, for radius and bounding-box lookups in memory.
+ *
+ * Cells are square in degrees and sized from {@code cellMeters} at the
+ * equator; a radius lookup widens its column span by 1/cos(latitude) so cells
+ * narrowing towards the poles are still covered, then filters candidates by
+ * great-circle distance. Nearest-neighbour lookups visit cells in rings of
+ * growing size and stop once no unvisited cell can hold a better match.
+ * Reads share a lock and run concurrently; writes are exclusive. Longitudes
+ * are not wrapped at the antimeridian.
+ */
+public class SpatialGrid<T> {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+
+    private final double cellDegrees;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Map<Long, Entry<T>> entries = new HashMap<>();
+    private Map<Long, List<Entry<T>>> cells = new HashMap<>();
+
+    // Rows and columns ever occupied since the last replaceAll; bounds the ring search
+    private final long[] extent = emptyExtent();
+
+    public SpatialGrid(double cellMeters) {
+        this.cellDegrees = cellMeters / METERS_PER_DEGREE;
+    }
+
+    /**
+     * Insert or move a point
+     */
+    public void put(long id, double latitude, double longitude, T value) {
+        Entry<T> entry = new Entry<>(latitude, longitude, value, cellKey(latitude, longitude));
+        lock.writeLock().lock();
+        try {
+            Entry<T> previous = entries.put(id, entry);
+            if (previous != null) {
+                removeFromCell(cells, previous);
+            }
+            cells.computeIfAbsent(entry.cellKey, ignored -> new ArrayList<>()).add(entry);
+            widen(extent, cellIndex(latitude), cellIndex(longitude));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Entry<T> previous = entries.remove(id);
+            if (previous != null) {
+                removeFromCell(cells, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole content, e.g. after reloading it from the database; built outside the lock
+     */
+    public void replaceAll(List<Point<T>> points) {
+        Map<Long, Entry<T>> newEntries = new HashMap<>(points.size() * 2);
+        Map<Long, List<Entry<T>>> newCells = new HashMap<>();
+        long[] newExtent = emptyExtent();
+        for (Point<T> point : points) {
+            Entry<T> entry = new Entry<>(point.latitude, point.longitude, point.value,
+                cellKey(point.latitude, point.longitude));
+            Entry<T> previous = newEntries.put(point.id, entry);
+            if (previous != null) {
+                removeFromCell(newCells, previous);
+            }
+            newCells.computeIfAbsent(entry.cellKey, ignored -> new ArrayList<>()).add(entry);
+            widen(newExtent, cellIndex(point.latitude), cellIndex(point.longitude));
+        }
+        lock.writeLock().lock();
+        try {
+            entries = newEntries;
+            cells = newCells;
+            System.arraycopy(newExtent, 0, extent, 0, extent.length);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public T get(long id) {
+        lock.readLock().lock();
+        try {
+            Entry<T> entry = entries.get(id);
+            return entry != null ? entry.value : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Points within radiusMeters of the given position that match the filter, nearest first
+     */
+    public List<Hit<T>> withinRadius(double latitude, double longitude, double radiusMeters, Predicate<T> filter) {
+        double latRadius = radiusMeters / METERS_PER_DEGREE;
+        double farthestLat = Math.min(90.0, Math.abs(latitude) + latRadius);
+        double lonRadius = latRadius / Math.max(0.01, Math.cos(Math.toRadians(farthestLat)));
+
+        List<Hit<T>> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            scan(latitude - latRadius, longitude - lonRadius, latitude + latRadius, longitude + lonRadius, entry -> {
+                if (filter.test(entry.value)) {
+                    double distance = distanceMeters(latitude, longitude, entry.latitude, entry.longitude);
+                    if (distance <= radiusMeters) {
+                        hits.add(new Hit<>(entry.value, distance, distance));
+                    }
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparingDouble(Hit::getDistanceMeters));
+        return hits;
+    }
+
+    /**
+     * Points inside the box that match the filter, in no particular order
+     */
+    public List<T> withinBox(double south, double west, double north, double east, Predicate<T> filter) {
+        List<T> values = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            scan(south, west, north, east, entry -> {
+                if (entry.latitude >= south && entry.latitude <= north
+                        && entry.longitude >= west && entry.longitude <= east && filter.test(entry.value)) {
+                    values.add(entry.value);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return values;
+    }
+
+    /**
+     * Up to k points matching the filter with the lowest cost, cheapest first.
+     *
+     * {@code minCostPerMeter} must be a lower bound of cost / distance over all
+     * points (e.g. 1 / the fastest speed when the cost is a travel time); the
+     * search uses it to stop as soon as the next ring cannot beat the k-th best.
+     */
+    public List<Hit<T>> nearest(double latitude, double longitude, int k, double maxRadiusMeters,
+                                Predicate<T> filter, CostFunction<T> cost, double minCostPerMeter) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        // Max-heap on cost holding the best k so far
+        PriorityQueue<Hit<T>> best = new PriorityQueue<>(k + 1,
+            Comparator.comparingDouble((Hit<T> hit) -> hit.cost).reversed());
+        Consumer<Entry<T>> consider = entry -> {
+            if (!filter.test(entry.value)) {
+                return;
+            }
+            double distance = distanceMeters(latitude, longitude, entry.latitude, entry.longitude);
+            if (distance > maxRadiusMeters) {
+                return;
+            }
+            double entryCost = cost.cost(entry.value, distance);
+            if (best.size() < k) {
+                best.add(new Hit<>(entry.value, distance, entryCost));
+            } else if (entryCost < best.peek().cost) {
+                best.poll();
+                best.add(new Hit<>(entry.value, distance, entryCost));
+            }
+        };
+
+        lock.readLock().lock();
+        try {
+            if (entries.isEmpty()) {
+                return new ArrayList<>();
+            }
+            long row = cellIndex(latitude);
+            long column = cellIndex(longitude);
+            long lastRing = Math.max(Math.max(Math.abs(row - extent[0]), Math.abs(extent[1] - row)),
+                Math.max(Math.abs(column - extent[2]), Math.abs(extent[3] - column)));
+            long probed = 0;
+            for (long ring = 0; ring <= lastRing; ring++) {
+                double ringMeters = ringLowerBoundMeters(latitude, ring);
+                if (ringMeters > maxRadiusMeters
+                        || (best.size() == k && ringMeters * minCostPerMeter >= best.peek().cost)) {
+                    break;
+                }
+                // Sparse data far from the position: one pass over all entries is cheaper
+                if (probed > entries.size()) {
+                    best.clear();
+                    entries.values().forEach(consider);
+                    break;
+                }
+                probed += visitRing(row, column, ring, consider);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit<T>> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Hit::getCost));
+        return result;
+    }
+
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+
+    // Private helper methods
+
+    // Caller holds the read lock
+    private void scan(double south, double west, double north, double east, Consumer<Entry<T>> visitor) {
+        long minRow = cellIndex(south);
+        long maxRow = cellIndex(north);
+        long minColumn = cellIndex(west);
+        long maxColumn = cellIndex(east);
+        long cellCount = (maxRow - minRow + 1) * (maxColumn - minColumn + 1);
+
+        // Large areas (country-wide map views): walking every entry beats probing empty cells
+        if (cellCount > cells.size()) {
+            for (Entry<T> entry : entries.values()) {
+                visitor.accept(entry);
+            }
+            return;
+        }
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long column = minColumn; column <= maxColumn; column++) {
+                List<Entry<T>> cell = cells.get(cellKey(row, column));
+                if (cell != null) {
+                    for (Entry<T> entry : cell) {
+                        visitor.accept(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    // Caller holds the read lock; returns the number of cells probed
+    private int visitRing(long row, long column, long ring, Consumer<Entry<T>> visitor) {
+        if (ring == 0) {
+            visitCell(row, column, visitor);
+            return 1;
+        }
+        int probed = 0;
+        for (long dx = -ring; dx <= ring; dx++) {
+            visitCell(row - ring, column + dx, visitor);
+            visitCell(row + ring, column + dx, visitor);
+            probed += 2;
+        }
+        for (long dy = -ring + 1; dy <= ring - 1; dy++) {
+            visitCell(row + dy, column - ring, visitor);
+            visitCell(row + dy, column + ring, visitor);
+            probed += 2;
+        }
+        return probed;
+    }
+
+    private void visitCell(long row, long column, Consumer<Entry<T>> visitor) {
+        List<Entry<T>> cell = cells.get(cellKey(row, column));
+        if (cell != null) {
+            for (Entry<T> entry : cell) {
+                visitor.accept(entry);
+            }
+        }
+    }
+
+    /**
+     * Closest any point in the given ring of cells can be: at least ring - 1 whole cells away,
+     * measured along a longitude band at the ring's most poleward latitude
+     */
+    private double ringLowerBoundMeters(double latitude, long ring) {
+        if (ring <= 1) {
+            return 0.0;
+        }
+        double farthestLat = Math.min(90.0, Math.abs(latitude) + (ring + 1) * cellDegrees);
+        return (ring - 1) * cellDegrees * METERS_PER_DEGREE * Math.cos(Math.toRadians(farthestLat));
+    }
+
+    private static long[] emptyExtent() {
+        return new long[]{Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+    }
+
+    private static void widen(long[] extent, long row, long column) {
+        extent[0] = Math.min(extent[0], row);
+        extent[1] = Math.max(extent[1], row);
+        extent[2] = Math.min(extent[2], column);
+        extent[3] = Math.max(extent[3], column);
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return cellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(long row, long column) {
+        return (row << 32) ^ (column & 0xFFFFFFFFL);
+    }
+
+    private static <T> void removeFromCell(Map<Long, List<Entry<T>>> cells, Entry<T> entry) {
+        List<Entry<T>> cell = cells.get(entry.cellKey);
+        if (cell != null) {
+            cell.remove(entry);
+            if (cell.isEmpty()) {
+                cells.remove(entry.cellKey);
+            }
+        }
+    }
+
+    private static class Entry<T> {
+        private final double latitude;
+        private final double longitude;
+        private final T value;
+        private final long cellKey;
+
+        Entry(double latitude, double longitude, T value, long cellKey) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.value = value;
+            this.cellKey = cellKey;
+        }
+    }
+
+    /**
+     * A point to load with replaceAll
+     */
+    public static class Point<T> {
+        private final long id;
+        private final double latitude;
+        private final double longitude;
+        private final T value;
+
+        public Point(long id, double latitude, double longitude, T value) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Ranking cost of a candidate for nearest(); never below distanceMeters * minCostPerMeter
+     */
+    @FunctionalInterface
+    public interface CostFunction<T> {
+        double cost(T value, double distanceMeters);
+    }
+
+    /**
+     * A lookup result with its great-circle distance and ranking cost (the distance for radius lookups)
+     */
+    public static class Hit<T> {
+        private final T value;
+        private final double distanceMeters;
+        private final double cost;
+
+        Hit(T value, double distanceMeters, double cost) {
+            this.value = value;
+            this.distanceMeters = distanceMeters;
+            this.cost = cost;
+        }
+
+        public T getValue() { return value; }
+        public double getDistanceMeters() { return distanceMeters; }
+        public double getCost() { return cost; }
+    }
+}
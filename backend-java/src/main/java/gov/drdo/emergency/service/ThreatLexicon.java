@@ -0,0 +1,341 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiled threat keyword dictionary (Aho-Corasick automaton).
+ *
+ * Text is normalized on the fly while scanning: letters are lower-cased, every
+ * run of non-word characters collapses to a single space and the stream is
+ * framed by spaces, so matching whole words needs no look-ahead and no copy
+ * of the input. Combining marks count as word characters, which keeps
+ * Devanagari matras inside a word. Instances are immutable and safe to share.
+ */
+public final class ThreatLexicon {
+
+    private static final int ROOT = 0;
+    private static final int NO_STATE = -1;
+    private static final double EMPTY_SLOT_LOAD = 0.5;
+
+    private final Term[] terms;
+    private final int[] termAt;
+    private final int[] outputLink;
+    private final int[] fail;
+
+    // Open-addressing table of goto transitions keyed by (state, char)
+    private final long[] edgeKeys;
+    private final int[] edgeTargets;
+    private final int edgeMask;
+    private final int[] rootEdges = new int[128];
+
+    private ThreatLexicon(List<Term> termList) {
+        this.terms = termList.toArray(new Term[0]);
+
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        children.add(new HashMap<>());
+        List<Integer> termAtStates = new ArrayList<>();
+        termAtStates.add(-1);
+
+        for (int index = 0; index < terms.length; index++) {
+            String framed = " " + terms[index].getText() + " ";
+            int state = ROOT;
+            for (int i = 0; i < framed.length(); i++) {
+                Integer next = children.get(state).get(framed.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(framed.charAt(i), next);
+                    children.add(new HashMap<>());
+                    termAtStates.add(-1);
+                }
+                state = next;
+            }
+            termAtStates.set(state, index);
+        }
+
+        int stateCount = children.size();
+        termAt = new int[stateCount];
+        outputLink = new int[stateCount];
+        fail = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            termAt[state] = termAtStates.get(state);
+        }
+
+        int edgeCount = stateCount - 1;
+        int capacity = Integer.highestOneBit(Math.max(2, (int) (edgeCount / EMPTY_SLOT_LOAD)) - 1) << 1;
+        edgeKeys = new long[capacity];
+        edgeTargets = new int[capacity];
+        edgeMask = capacity - 1;
+        Arrays.fill(edgeKeys, -1L);
+        Arrays.fill(rootEdges, NO_STATE);
+        for (int state = 0; state < stateCount; state++) {
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                putEdge(state, edge.getKey(), edge.getValue());
+            }
+        }
+
+        // Breadth-first construction of failure and dictionary-suffix links
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        fail[ROOT] = ROOT;
+        outputLink[ROOT] = NO_STATE;
+        for (int child : children.get(ROOT).values()) {
+            fail[child] = ROOT;
+            outputLink[child] = NO_STATE;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                int child = edge.getValue();
+                int fallback = fail[state];
+                while (fallback != ROOT && edge(fallback, edge.getKey()) == NO_STATE) {
+                    fallback = fail[fallback];
+                }
+                int target = edge(fallback, edge.getKey());
+                fail[child] = target != NO_STATE && target != child ? target : ROOT;
+                outputLink[child] = termAt[fail[child]] >= 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Compile a lexicon from terms; term text is normalized the same way as scanned text
+     */
+    public static ThreatLexicon compile(List<Term> terms) {
+        Map<String, Term> unique = new LinkedHashMap<>();
+        for (Term term : terms) {
+            String normalized = normalize(term.getText());
+            if (!normalized.isEmpty()) {
+                unique.put(normalized, new Term(normalized, term.getCategory(), term.getWeight()));
+            }
+        }
+        return new ThreatLexicon(new ArrayList<>(unique.values()));
+    }
+
+    /**
+     * Read tab-separated {@code term, category, weight} lines; '#' starts a comment
+     */
+    public static ThreatLexicon read(BufferedReader reader) throws IOException {
+        List<Term> terms = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] fields = trimmed.split("\t");
+            if (fields.length != 3) {
+                throw new IOException("Malformed lexicon line " + lineNumber + ": " + line);
+            }
+            try {
+                terms.add(new Term(fields[0].trim(),
+                    Incident.IncidentType.valueOf(fields[1].trim().toUpperCase(Locale.ROOT)),
+                    Double.parseDouble(fields[2].trim())));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed lexicon line " + lineNumber + ": " + line, e);
+            }
+        }
+        return compile(terms);
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    /**
+     * Scan text in a single pass and collect the distinct terms it contains
+     */
+    public Matches scan(CharSequence... texts) {
+        Matches matches = new Matches(terms.length);
+        int state = step(ROOT, ' ');
+        boolean lastWasSpace = true;
+        for (CharSequence text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (int i = 0, length = text.length(); i < length; i++) {
+                char c = text.charAt(i);
+                char normalized = isWordChar(c) ? Character.toLowerCase(c) : ' ';
+                if (normalized == ' ' && lastWasSpace) {
+                    continue;
+                }
+                lastWasSpace = normalized == ' ';
+                state = step(state, normalized);
+                collect(state, matches);
+            }
+            // Separate consecutive fields so a term cannot span them
+            if (!lastWasSpace) {
+                collect(step(state, ' '), matches);
+                lastWasSpace = true;
+            }
+            state = step(ROOT, ' ');
+        }
+        return matches;
+    }
+
+    // Private helper methods
+
+    private int step(int state, char c) {
+        while (true) {
+            int next = edge(state, c);
+            if (next != NO_STATE) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private void collect(int state, Matches matches) {
+        int output = termAt[state] >= 0 ? state : outputLink[state];
+        while (output != NO_STATE) {
+            matches.add(terms[termAt[output]], termAt[output]);
+            output = outputLink[output];
+        }
+    }
+
+    private int edge(int state, char c) {
+        if (state == ROOT && c < 128) {
+            return rootEdges[c];
+        }
+        long key = ((long) state << 16) | c;
+        int slot = mix(key) & edgeMask;
+        while (edgeKeys[slot] != -1L) {
+            if (edgeKeys[slot] == key) {
+                return edgeTargets[slot];
+            }
+            slot = (slot + 1) & edgeMask;
+        }
+        return NO_STATE;
+    }
+
+    private void putEdge(int state, char c, int target) {
+        if (state == ROOT && c < 128) {
+            rootEdges[c] = target;
+        }
+        long key = ((long) state << 16) | c;
+        int slot = mix(key) & edgeMask;
+        while (edgeKeys[slot] != -1L) {
+            slot = (slot + 1) & edgeMask;
+        }
+        edgeKeys[slot] = key;
+        edgeTargets[slot] = target;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static boolean isWordChar(char c) {
+        if (Character.isLetterOrDigit(c)) {
+            return true;
+        }
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean lastWasSpace = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            char mapped = isWordChar(c) ? Character.toLowerCase(c) : ' ';
+            if (mapped == ' ' && lastWasSpace) {
+                continue;
+            }
+            lastWasSpace = mapped == ' ';
+            normalized.append(mapped);
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * A dictionary entry: its category and how strongly a match indicates that threat (0-1)
+     */
+    public static final class Term {
+        private final String text;
+        private final Incident.IncidentType category;
+        private final double weight;
+
+        public Term(String text, Incident.IncidentType category, double weight) {
+            this.text = text;
+            this.category = category;
+            this.weight = Math.max(0.0, Math.min(1.0, weight));
+        }
+
+        public String getText() { return text; }
+        public Incident.IncidentType getCategory() { return category; }
+        public double getWeight() { return weight; }
+    }
+
+    /**
+     * Distinct terms found by a scan with noisy-or scores per category
+     */
+    public static final class Matches {
+        private final boolean[] seen;
+        private final List<Term> terms = new ArrayList<>();
+        private final double[] clear = new double[Incident.IncidentType.values().length];
+
+        Matches(int termCount) {
+            this.seen = new boolean[termCount];
+            Arrays.fill(clear, 1.0);
+        }
+
+        void add(Term term, int index) {
+            if (!seen[index]) {
+                seen[index] = true;
+                terms.add(term);
+                clear[term.getCategory().ordinal()] *= 1.0 - term.getWeight();
+            }
+        }
+
+        public List<Term> getTerms() { return terms; }
+
+        public boolean isEmpty() { return terms.isEmpty(); }
+
+        public double scoreOf(Incident.IncidentType category) {
+            return 1.0 - clear[category.ordinal()];
+        }
+
+        /**
+         * Category with the highest score, or null when nothing matched
+         */
+        public Incident.IncidentType getTopCategory() {
+            Incident.IncidentType top = null;
+            double best = 0.0;
+            for (Incident.IncidentType category : Incident.IncidentType.values()) {
+                double score = scoreOf(category);
+                if (score > best) {
+                    best = score;
+                    top = category;
+                }
+            }
+            return top;
+        }
+
+        public double getTopScore() {
+            Incident.IncidentType top = getTopCategory();
+            return top != null ? scoreOf(top) : 0.0;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Intake-time threat pre-screen backed by the threat lexicon.
+ *
+ * Scores the title and description of a report in a single automaton pass,
+ * flags reports that very likely describe a bomb or chemical threat as
+ * critical before any model call, and decides whether the report needs model
+ * analysis at all. The lexicon is read from {@code ai.prescreen.lexicon-path}
+ * when set (and reloaded when that file changes), otherwise from the bundled
+ * threat-lexicon.tsv.
+ */
+@Service
+public class ThreatPrescreenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreatPrescreenService.class);
+
+    private static final String BUNDLED_LEXICON = "threat-lexicon.tsv";
+
+    @Value("${ai.prescreen.lexicon-path:}")
+    private String lexiconPath;
+
+    @Value("${ai.prescreen.critical-threshold:0.85}")
+    private double criticalThreshold;
+
+    @Value("${ai.prescreen.model-threshold:0.15}")
+    private double modelThreshold;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile ThreatLexicon lexicon;
+    private volatile long lexiconModifiedAt;
+
+    private Timer scanTimer;
+
+    @PostConstruct
+    public void init() throws IOException {
+        scanTimer = Timer.builder("ai.prescreen.scan")
+            .description("Threat lexicon scan time per report")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        reload();
+    }
+
+    /**
+     * Reload the lexicon when the external dictionary file has changed
+     */
+    @Scheduled(fixedDelayString = "${ai.prescreen.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        if (lexiconPath == null || lexiconPath.isBlank()) {
+            return;
+        }
+        try {
+            Path path = Paths.get(lexiconPath);
+            if (Files.exists(path) && Files.getLastModifiedTime(path).toMillis() != lexiconModifiedAt) {
+                reload();
+            }
+        } catch (IOException e) {
+            // Keep serving the previous dictionary
+            logger.error("Failed to reload threat lexicon from {}", lexiconPath, e);
+        }
+    }
+
+    /**
+     * Compile the dictionary and swap it in atomically; returns the number of terms
+     */
+    public synchronized int reload() throws IOException {
+        ThreatLexicon compiled;
+        long modifiedAt = 0;
+        if (lexiconPath != null && !lexiconPath.isBlank()) {
+            Path path = Paths.get(lexiconPath);
+            modifiedAt = Files.getLastModifiedTime(path).toMillis();
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                compiled = ThreatLexicon.read(reader);
+            }
+        } else {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new ClassPathResource(BUNDLED_LEXICON).getInputStream(), StandardCharsets.UTF_8))) {
+                compiled = ThreatLexicon.read(reader);
+            }
+        }
+
+        lexicon = compiled;
+        lexiconModifiedAt = modifiedAt;
+        logger.info("Loaded threat lexicon with {} terms", compiled.size());
+        return compiled.size();
+    }
+
+    /**
+     * Score a report without changing it
+     */
+    public ThreatAssessment assess(String title, String description, Incident.IncidentType type,
+                                   Incident.SeverityLevel severity) {
+        long start = System.nanoTime();
+        ThreatLexicon.Matches matches = lexicon.scan(title, description);
+        scanTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        double explosiveOrChemical = Math.max(matches.scoreOf(Incident.IncidentType.BOMB_THREAT),
+            matches.scoreOf(Incident.IncidentType.CHEMICAL_HAZARD));
+        boolean critical = explosiveOrChemical >= criticalThreshold;
+        boolean modelAnalysisRequired = critical
+            || matches.getTopScore() >= modelThreshold
+            || isHighRiskType(type)
+            || severity == Incident.SeverityLevel.HIGH
+            || severity == Incident.SeverityLevel.CRITICAL;
+
+        List<String> terms = matches.getTerms().stream()
+            .map(ThreatLexicon.Term::getText)
+            .collect(Collectors.toList());
+        return new ThreatAssessment(matches.getTopScore(), matches.getTopCategory(), terms, critical,
+            modelAnalysisRequired);
+    }
+
+    /**
+     * Score a new incident and apply the outcome: critical flag, and a pre-screen
+     * verdict when no model analysis is needed
+     */
+    public ThreatAssessment prescreen(Incident incident) {
+        ThreatAssessment assessment = assess(incident.getTitle(), incident.getDescription(),
+            incident.getType(), incident.getSeverity());
+
+        if (assessment.isCritical()) {
+            incident.setIsCritical(true);
+        }
+        if (!assessment.isModelAnalysisRequired() && incident.getAiAnalysis() == null) {
+            incident.setAiConfidenceScore(assessment.getScore());
+            incident.setAiAnalysis("Threat pre-screen found no significant threat indicators; "
+                + "model analysis not required.");
+        }
+        return assessment;
+    }
+
+    public int getLexiconSize() {
+        return lexicon.size();
+    }
+
+    // Private helper methods
+
+    private static boolean isHighRiskType(Incident.IncidentType type) {
+        return type == Incident.IncidentType.BOMB_THREAT
+            || type == Incident.IncidentType.SUSPICIOUS_OBJECT
+            || type == Incident.IncidentType.CHEMICAL_HAZARD
+            || type == Incident.IncidentType.BIOLOGICAL_HAZARD
+            || type == Incident.IncidentType.TERRORIST_ACTIVITY;
+    }
+
+    // Inner class for pre-screen results
+    public static class ThreatAssessment {
+        private final double score;
+        private final Incident.IncidentType category;
+        private final List<String> matchedTerms;
+        private final boolean critical;
+        private final boolean modelAnalysisRequired;
+
+        public ThreatAssessment(double score, Incident.IncidentType category, List<String> matchedTerms,
+                                boolean critical, boolean modelAnalysisRequired) {
+            this.score = score;
+            this.category = category;
+            this.matchedTerms = matchedTerms;
+            this.critical = critical;
+            this.modelAnalysisRequired = modelAnalysisRequired;
+        }
+
+        public double getScore() { return score; }
+        public Incident.IncidentType getCategory() { return category; }
+        public List<String> getMatchedTerms() { return matchedTerms; }
+        public boolean isCritical() { return critical; }
+        public boolean isModelAnalysisRequired() { return modelAnalysisRequired; }
+    }
+}
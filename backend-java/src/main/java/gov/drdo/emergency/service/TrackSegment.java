@@ -0,0 +1,193 @@
+package gov.drdo.emergency.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * One memory-mapped file of {@link TrackBlock}s, appended to until full or too old, then read-only.
+ *
+ * The file is created at its full size (sparse on Linux filesystems) and
+ * mapped once. Its header holds a magic number, a format version and the end
+ * of the last complete block, which is advanced only after the block is
+ * written. The time index (first and last time of the segment, and the blocks
+ * of each responder with their time range) is kept in memory and rebuilt from
+ * the block headers when an existing file is opened.
+ *
+ * Not thread-safe for writing; readers must see the blocks they decode
+ * through the same lock the writer appends under.
+ */
+public class TrackSegment {
+
+    private static final int MAGIC = 0x54524B31; // "TRK1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private boolean writable;
+    private int end;
+    private long firstTime = Long.MAX_VALUE;
+    private long lastTime = Long.MIN_VALUE;
+    private long points;
+    private final Map<Long, List<long[]>> blocks = new HashMap<>();
+
+    private TrackSegment(Path path, MappedByteBuffer buffer, boolean writable, int end) {
+        this.path = path;
+        this.buffer = buffer;
+        this.writable = writable;
+        this.end = end;
+    }
+
+    /**
+     * Create a new segment of the given size for appending
+     */
+    public static TrackSegment create(Path path, int sizeBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, HEADER_BYTES);
+            return new TrackSegment(path, buffer, true, HEADER_BYTES);
+        }
+    }
+
+    /**
+     * Open an existing segment read-only and index its blocks; a torn or corrupt tail is ignored
+     */
+    public static TrackSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a track segment: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a track segment: " + path);
+            }
+            int limit = (int) Math.min(buffer.getLong(8), size);
+            TrackSegment segment = new TrackSegment(path, buffer, false, HEADER_BYTES);
+            int offset = HEADER_BYTES;
+            while (TrackBlock.isValid(buffer, offset, limit)) {
+                segment.index(offset);
+                offset += TrackBlock.length(buffer, offset);
+            }
+            segment.end = offset;
+            return segment;
+        }
+    }
+
+    /**
+     * Whether a block of this many bytes still fits
+     */
+    public boolean fits(int blockBytes) {
+        return writable && (long) end + blockBytes <= buffer.capacity();
+    }
+
+    /**
+     * Write the encoder's block at the end of the segment
+     */
+    public void append(TrackBlock.Encoder encoder) {
+        if (!fits(encoder.encodedSize())) {
+            throw new IllegalStateException("Track segment full: " + path);
+        }
+        int offset = end;
+        end += encoder.writeTo(buffer, offset);
+        // Publish the block only once it is complete, so a crash mid-write leaves it past the recorded end
+        buffer.putLong(8, end);
+        index(offset);
+    }
+
+    /**
+     * Flush written pages to disk
+     */
+    public void force() {
+        if (writable) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Flush and stop appending; the segment stays readable
+     */
+    public void seal() {
+        force();
+        writable = false;
+    }
+
+    /**
+     * Blocks of a responder that overlap [from, to), as {offset, first time, last time}
+     */
+    public List<long[]> blocksOf(long responderId, long from, long to) {
+        List<long[]> refs = blocks.get(responderId);
+        if (refs == null || !overlaps(from, to)) {
+            return Collections.emptyList();
+        }
+        List<long[]> result = new ArrayList<>();
+        for (long[] ref : refs) {
+            if (ref[1] < to && ref[2] >= from) {
+                result.add(ref);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Every block before limit (a value of {@link #getEnd} read under the writer's lock) that overlaps
+     * [from, to), in file order
+     */
+    public void forEachBlock(int limit, long from, long to, Consumer<long[]> action) {
+        for (int offset = HEADER_BYTES; offset < limit; offset += TrackBlock.length(buffer, offset)) {
+            long first = TrackBlock.firstTime(buffer, offset);
+            long last = TrackBlock.lastTime(buffer, offset);
+            if (first < to && last >= from) {
+                action.accept(new long[]{offset, first, last});
+            }
+        }
+    }
+
+    /**
+     * Decode one block found through {@link #blocksOf} or {@link #forEachBlock}
+     */
+    public void decode(long[] ref, long from, long to, TrackBlock.Visitor visitor) {
+        TrackBlock.decode(buffer, (int) ref[0], from, to, visitor);
+    }
+
+    public boolean overlaps(long from, long to) {
+        return points > 0 && firstTime < to && lastTime >= from;
+    }
+
+    /**
+     * Remove the file; the mapping stays readable until it is garbage collected
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    public Path getPath() { return path; }
+    public int getEnd() { return end; }
+    public long getFirstTime() { return firstTime; }
+    public long getLastTime() { return lastTime; }
+    public long getPoints() { return points; }
+    public boolean isWritable() { return writable; }
+
+    private void index(int offset) {
+        long first = TrackBlock.firstTime(buffer, offset);
+        long last = TrackBlock.lastTime(buffer, offset);
+        blocks.computeIfAbsent(TrackBlock.responderId(buffer, offset), id -> new ArrayList<>())
+            .add(new long[]{offset, first, last});
+        firstTime = Math.min(firstTime, first);
+        lastTime = Math.max(lastTime, last);
+        points += TrackBlock.count(buffer, offset);
+    }
+}
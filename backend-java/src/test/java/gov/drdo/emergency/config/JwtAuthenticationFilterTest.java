@@ -0,0 +1,95 @@
+package gov.drdo.emergency.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scope of JwtAuthenticationFilter: bearer tokens are read on the responder endpoints only, and every other
+ * request passes through untouched, whatever its Authorization header holds.
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "test-secret-of-at-least-thirty-two-bytes!";
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        JwtTokenVerifier verifier = new JwtTokenVerifier();
+        ReflectionTestUtils.setField(verifier, "secret", SECRET);
+        verifier.init();
+        filter = new JwtAuthenticationFilter(verifier, new AntPathRequestMatcher("/api/responders/**"));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenOnAResponderEndpointAuthenticates() throws Exception {
+        Authentication[] seen = new Authentication[1];
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/responders/locations", "Bearer " + token("unit-7")), response,
+            (req, res) -> seen[0] = SecurityContextHolder.getContext().getAuthentication());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(seen[0].getName()).isEqualTo("unit-7");
+    }
+
+    @Test
+    void badTokenOnAResponderEndpointIsRefused() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/responders/locations", "Bearer not-a-token"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void otherEndpointsIgnoreTheAuthorizationHeader() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/incidents/42", "Bearer not-a-token"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    // Helper methods
+
+    private static MockHttpServletRequest request(String path, String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+
+    private static String token(String subject) {
+        return Jwts.builder()
+            .setSubject(subject)
+            .claim("roles", List.of("RESPONDER"))
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+    }
+}
@@ -0,0 +1,168 @@
+package gov.drdo.emergency.config;
+
+import gov.drdo.emergency.dto.DispatchBoardEntry;
+import gov.drdo.emergency.dto.ResponderAssignmentEntry;
+import gov.drdo.emergency.dto.TimelineEntry;
+import gov.drdo.emergency.repository.IncidentRepository;
+import gov.drdo.emergency.repository.ResponderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The timeline, dispatch board and responder detail fetch plans load everything their views touch in one
+ * statement, and with QUERY_BUDGET_FAIL=true the statement that crosses the budget fails. Views are mapped
+ * outside any transaction, as the controllers do, so a missing fetch shows up as a lazy loading failure.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(QueryBudgetInspector.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class QueryBudgetInspectorTest {
+
+    private static final int INCIDENTS = 30;
+    private static final int UPDATES_PER_INCIDENT = 5;
+    private static final int ASSIGNMENTS_PER_INCIDENT = 3;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+
+    private static final List<Long> incidentIds = new ArrayList<>();
+    private static Long responderId;
+
+    @Autowired
+    private QueryBudgetInspector inspector;
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private ResponderRepository responderRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("QUERY_BUDGET_FAIL", () -> "true");
+    }
+
+    @BeforeAll
+    static void loadSchemaAndData() throws Exception {
+        try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(Files.readString(Path.of("..", "database", "schema.sql"), StandardCharsets.UTF_8));
+            statement.execute("""
+                INSERT INTO responders (responder_id, name, email, phone, type, rank)
+                SELECT 'BUDGET-' || g, 'Responder ' || g, 'responder' || g || '@example.test', '+91000000' || g,
+                       'BOMB_DISPOSAL', 'MAJOR'
+                FROM generate_series(1, %1$d) AS g;
+
+                INSERT INTO incidents (incident_id, title, type, severity, status)
+                SELECT 'INC-BUDGET-' || g, 'Budget incident ' || g, 'FIRE_EMERGENCY', 'HIGH', 'REPORTED'
+                FROM generate_series(1, %1$d) AS g;
+
+                INSERT INTO incident_updates (incident_id, title, update_text, type, updated_by)
+                SELECT i.id, 'Update ' || g, 'Progress report ' || g, 'STATUS_CHANGE', 'SYSTEM'
+                FROM incidents i, generate_series(1, %2$d) AS g;
+
+                -- Every incident has %3$d responders and every responder %3$d incidents
+                INSERT INTO responder_assignments (incident_id, responder_id, priority)
+                SELECT i.id, r.id, 'HIGH'
+                FROM (SELECT id, row_number() OVER (ORDER BY id) AS n FROM incidents) i
+                JOIN (SELECT id, row_number() OVER (ORDER BY id) AS n FROM responders) r
+                  ON r.n %% %4$d = i.n %% %4$d;
+                """.formatted(INCIDENTS, UPDATES_PER_INCIDENT, ASSIGNMENTS_PER_INCIDENT,
+                    INCIDENTS / ASSIGNMENTS_PER_INCIDENT));
+            try (ResultSet rs = statement.executeQuery("SELECT id FROM incidents ORDER BY id")) {
+                while (rs.next()) {
+                    incidentIds.add(rs.getLong(1));
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT MIN(id) FROM responders")) {
+                rs.next();
+                responderId = rs.getLong(1);
+            }
+        }
+    }
+
+    @AfterEach
+    void stopCounting() {
+        inspector.end();
+    }
+
+    @Test
+    void timelineLoadsInOneStatement() {
+        inspector.begin();
+        List<TimelineEntry> timeline = incidentRepository.findTimelineById(incidentIds.get(0)).orElseThrow()
+            .getUpdates().stream().map(TimelineEntry::of).toList();
+
+        assertThat(inspector.end()).isEqualTo(1);
+        assertThat(timeline).hasSize(UPDATES_PER_INCIDENT);
+    }
+
+    @Test
+    void dispatchBoardLoadsInOneStatement() {
+        inspector.begin();
+        List<DispatchBoardEntry> board = incidentRepository.findDispatchBoard().stream()
+            .map(DispatchBoardEntry::of).toList();
+
+        assertThat(inspector.end()).isEqualTo(1);
+        assertThat(board).hasSize(INCIDENTS)
+            .allSatisfy(entry -> assertThat(entry.getAssignments()).hasSize(ASSIGNMENTS_PER_INCIDENT));
+    }
+
+    @Test
+    void responderDetailLoadsInOneStatement() {
+        inspector.begin();
+        List<ResponderAssignmentEntry> assignments = responderRepository.findDetailById(responderId).orElseThrow()
+            .getAssignments().stream().map(ResponderAssignmentEntry::of).toList();
+
+        assertThat(inspector.end()).isEqualTo(1);
+        assertThat(assignments).hasSize(ASSIGNMENTS_PER_INCIDENT)
+            .allSatisfy(entry -> assertThat(entry.getIncidentTitle()).startsWith("Budget incident"));
+    }
+
+    @Test
+    void statementOverTheBudgetFails() {
+        int budget = inspector.getMaxStatements();
+        assertThat(incidentIds).hasSizeGreaterThan(budget);
+
+        inspector.begin();
+        for (int i = 0; i < budget; i++) {
+            incidentRepository.findById(incidentIds.get(i));
+        }
+
+        assertThatThrownBy(() -> incidentRepository.findById(incidentIds.get(budget)))
+            .hasStackTraceContaining("Query budget of " + budget + " statements per request exceeded");
+    }
+}
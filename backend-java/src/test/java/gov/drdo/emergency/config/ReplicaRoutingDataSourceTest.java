@@ -0,0 +1,220 @@
+package gov.drdo.emergency.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing against a real streaming replica: a stock postgres primary and a standby cloned from it with
+ * pg_basebackup. Replay is paused and the WAL receiver cut off on the standby to make it fall behind.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReplicaRoutingDataSourceTest {
+
+    private static final long MAX_LAG_MS = 500;
+    private static final Network NETWORK = Network.newNetwork();
+
+    @Container
+    private static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>("postgres:16")
+        .withNetwork(NETWORK)
+        .withNetworkAliases("primary")
+        .withCopyToContainer(Transferable.of(
+            "echo 'host replication all all scram-sha-256' >> \"$PGDATA/pg_hba.conf\"\n"),
+            "/docker-entrypoint-initdb.d/replication.sh");
+
+    @Container
+    private static final GenericContainer<?> REPLICA = new GenericContainer<>("postgres:16")
+        .withNetwork(NETWORK)
+        .withEnv("PGPASSWORD", "test")
+        .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres"))
+        .withCommand("bash", "-c",
+            "until pg_basebackup -h primary -U test -D /tmp/replica -R -X stream; do sleep 1; done; "
+                + "chmod 700 /tmp/replica; exec postgres -D /tmp/replica")
+        .withExposedPorts(5432)
+        .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1))
+        .dependsOn(PRIMARY);
+
+    private static DataSource primary;
+    private static DataSource replica;
+
+    private ReplicaRoutingDataSource routing;
+    private TransactionTemplate transactions;
+    private JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void createTable() {
+        primary = new DriverManagerDataSource(PRIMARY.getJdbcUrl(), PRIMARY.getUsername(), PRIMARY.getPassword());
+        replica = new DriverManagerDataSource("jdbc:postgresql://" + REPLICA.getHost() + ":"
+            + REPLICA.getMappedPort(5432) + "/" + PRIMARY.getDatabaseName(), PRIMARY.getUsername(),
+            PRIMARY.getPassword());
+        new JdbcTemplate(primary).execute("CREATE TABLE pings (id SERIAL PRIMARY KEY, at TIMESTAMPTZ DEFAULT now())");
+    }
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), MAX_LAG_MS, 60_000, 60_000,
+            new SimpleMeterRegistry());
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToACaughtUpReplica() {
+        assertThat(server(true)).as("lag unknown before the first check").isEqualTo("primary");
+
+        awaitCaughtUp();
+
+        assertThat(server(true)).isEqualTo("replica");
+        assertThat(server(false)).isEqualTo("primary");
+    }
+
+    @Test
+    void idlePrimaryIsNotLag() throws Exception {
+        awaitCaughtUp();
+        Thread.sleep(MAX_LAG_MS * 2);
+
+        awaitCaughtUp();
+        assertThat(server(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaBehindTheLagCutoffIsBypassed() throws Exception {
+        awaitCaughtUp();
+        JdbcTemplate standby = new JdbcTemplate(replica);
+        standby.execute("SELECT pg_wal_replay_pause()");
+        try {
+            new JdbcTemplate(primary).update("INSERT INTO pings DEFAULT VALUES");
+            Thread.sleep(MAX_LAG_MS * 2);
+
+            routing.checkReplicaLag();
+            assertThat(server(true)).isEqualTo("primary");
+        } finally {
+            standby.execute("SELECT pg_wal_replay_resume()");
+        }
+
+        awaitCaughtUp();
+        assertThat(server(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaWithoutAWalReceiverIsBypassed() throws Exception {
+        awaitCaughtUp();
+        JdbcTemplate standby = new JdbcTemplate(replica);
+        String conninfo = standby.queryForObject("SHOW primary_conninfo", String.class);
+        standby.execute("ALTER SYSTEM SET primary_conninfo = ''");
+        standby.execute("SELECT pg_reload_conf()");
+        try {
+            for (int i = 0; i < 100 && standby.queryForObject("SELECT count(*) FROM pg_stat_wal_receiver "
+                    + "WHERE pid IS NOT NULL", Integer.class) > 0; i++) {
+                Thread.sleep(100);
+            }
+            // Replayed everything it received, but the primary idles too: only the receiver gives it away
+            routing.checkReplicaLag();
+            assertThat(server(true)).isEqualTo("primary");
+        } finally {
+            standby.execute(standby.queryForObject("SELECT format('ALTER SYSTEM SET primary_conninfo = %L', ?)",
+                String.class, conninfo));
+            standby.execute("SELECT pg_reload_conf()");
+        }
+
+        awaitCaughtUp();
+        assertThat(server(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void callerReadsItsOwnWritesFromThePrimary() {
+        awaitCaughtUp();
+        authenticate("alice");
+        assertThat(server(true)).isEqualTo("replica");
+
+        transactions.executeWithoutResult(status -> jdbc.update("INSERT INTO pings DEFAULT VALUES"));
+
+        assertThat(server(true)).isEqualTo("primary");
+        authenticate("bob");
+        assertThat(server(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void anonymousCallersArePinnedBySessionNotByAddress() {
+        awaitCaughtUp();
+        request("10.0.0.1");
+        transactions.executeWithoutResult(status -> jdbc.update("INSERT INTO pings DEFAULT VALUES"));
+        assertThat(server(true)).as("write without a session is not tracked").isEqualTo("replica");
+
+        request("10.0.0.1").getSession(true);
+        transactions.executeWithoutResult(status -> jdbc.update("INSERT INTO pings DEFAULT VALUES"));
+        assertThat(server(true)).isEqualTo("primary");
+
+        // Another client behind the same proxy address
+        request("10.0.0.1");
+        assertThat(server(true)).isEqualTo("replica");
+    }
+
+    // Helper methods
+
+    private String server(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactions.getTransactionManager());
+        template.setReadOnly(readOnly);
+        Boolean standby = template.execute(status -> jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class));
+        return Boolean.TRUE.equals(standby) ? "replica" : "primary";
+    }
+
+    private void awaitCaughtUp() {
+        for (int i = 0; i < 100; i++) {
+            routing.checkReplicaLag();
+            if (server(true).equals("replica")) {
+                return;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext()
+            .setAuthentication(new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
@@ -0,0 +1,132 @@
+package gov.drdo.emergency.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class StompAuthenticationInterceptorTest {
+
+    private static final String SECRET = "test-secret-of-at-least-thirty-two-bytes!";
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private StompAuthenticationInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        JwtTokenVerifier verifier = new JwtTokenVerifier();
+        ReflectionTestUtils.setField(verifier, "secret", SECRET);
+        verifier.init();
+        interceptor = new StompAuthenticationInterceptor(verifier);
+    }
+
+    @Test
+    void connectWithAValidTokenAuthenticatesTheSession() {
+        StompHeaderAccessor accessor = connect("Bearer " + token(SECRET, "unit-7", 7L, "RESPONDER"));
+
+        interceptor.preSend(message(accessor), channel);
+
+        Authentication user = (Authentication) accessor.getUser();
+        assertThat(user.getName()).isEqualTo("unit-7");
+        assertThat(AuthenticatedUser.responderIdOf(user)).isEqualTo(7L);
+        assertThat(AuthorityUtils.authorityListToSet(user.getAuthorities())).containsExactly("ROLE_RESPONDER");
+    }
+
+    @Test
+    void connectWithABadTokenIsRefused() {
+        StompHeaderAccessor forged = connect("Bearer " + token("another-secret-of-at-least-thirty-two-bytes", "unit-7",
+            7L, "ADMIN"));
+        StompHeaderAccessor garbage = connect("Bearer not-a-token");
+
+        assertThatThrownBy(() -> interceptor.preSend(message(forged), channel))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> interceptor.preSend(message(garbage), channel))
+            .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void expiredTokenIsRefused() {
+        String expired = Jwts.builder()
+            .setSubject("unit-7")
+            .claim("roles", List.of("RESPONDER"))
+            .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+
+        assertThatThrownBy(() -> interceptor.preSend(message(connect("Bearer " + expired)), channel))
+            .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void anonymousSessionMaySubscribeButNotSendToTheApplication() {
+        interceptor.preSend(message(connect(null)), channel);
+        StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        subscribe.setDestination("/topic/incidents");
+
+        interceptor.preSend(message(subscribe), channel);
+        assertThatThrownBy(() -> interceptor.preSend(message(send("/app/responders/location", null)), channel))
+            .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void authenticatedSessionMaySend() {
+        StompHeaderAccessor connect = connect("Bearer " + token(SECRET, "unit-7", 7L, "RESPONDER"));
+        interceptor.preSend(message(connect), channel);
+
+        Message<?> sent = interceptor.preSend(message(send("/app/responders/location", connect.getUser())), channel);
+
+        assertThat(sent).isNotNull();
+    }
+
+    // Helper methods
+
+    private static String token(String secret, String subject, Long responderId, String role) {
+        return Jwts.builder()
+            .setSubject(subject)
+            .claim("roles", List.of(role))
+            .claim("responder_id", responderId)
+            .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+            .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+    }
+
+    private static StompHeaderAccessor connect(String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return accessor;
+    }
+
+    private static StompHeaderAccessor send(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return accessor;
+    }
+
+    private static Message<byte[]> message(StompHeaderAccessor accessor) {
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
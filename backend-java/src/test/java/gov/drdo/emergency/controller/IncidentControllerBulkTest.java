@@ -0,0 +1,160 @@
+package gov.drdo.emergency.controller;
+
+import gov.drdo.emergency.dto.BulkIncidentCreateRequest;
+import gov.drdo.emergency.dto.BulkIncidentCreateResponse;
+import gov.drdo.emergency.dto.BulkIncidentCreateResponse.ItemResult;
+import gov.drdo.emergency.dto.BulkIncidentCreateResponse.ItemStatus;
+import gov.drdo.emergency.dto.IncidentCreateRequest;
+import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.service.IncidentService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk intake reports every submitted item by its index: accepted, rejected by validation, or failed
+ * because the chunk holding it could not be stored
+ */
+class IncidentControllerBulkTest {
+
+    private final IncidentService incidentService = mock(IncidentService.class);
+    private final IncidentController controller = new IncidentController();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "incidentService", incidentService);
+        ReflectionTestUtils.setField(controller, "validator",
+            Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @Test
+    void mixedBatchReportsAcceptedAndRejectedIndexes() {
+        IncidentCreateRequest noTitle = valid("Gas leak");
+        noTitle.setTitle(" ");
+        IncidentCreateRequest badPhone = valid("Fire in godown");
+        badPhone.setReporterPhone("12ab");
+        BulkIncidentCreateRequest request = request(valid("Unattended bag"), noTitle, null, valid("Smoke"), badPhone);
+        storeAll();
+
+        ResponseEntity<BulkIncidentCreateResponse> response = controller.createIncidentsBulk(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        BulkIncidentCreateResponse body = response.getBody();
+        assertThat(body.getAccepted()).isEqualTo(2);
+        assertThat(body.getRejected()).isEqualTo(3);
+        assertThat(body.getFailed()).isZero();
+        assertThat(indexes(body, ItemStatus.ACCEPTED)).containsExactly(0, 3);
+        assertThat(indexes(body, ItemStatus.REJECTED)).containsExactly(1, 2, 4);
+        assertThat(body.getResults()).extracting(ItemResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+
+        // Accepted items carry what the service stored, in submission order
+        assertThat(body.getResults().get(0).getIncidentId()).isEqualTo("INC-Unattended bag");
+        assertThat(body.getResults().get(3).getIncidentId()).isEqualTo("INC-Smoke");
+        assertThat(body.getResults().get(1).getErrors()).anyMatch(error -> error.startsWith("title"));
+        assertThat(body.getResults().get(2).getErrors()).containsExactly("Incident payload is required");
+        assertThat(body.getResults().get(4).getErrors()).anyMatch(error -> error.startsWith("reporterPhone"));
+
+        // Only the valid items reach the service, with the partner recorded as their source
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Incident>> stored = ArgumentCaptor.forClass(List.class);
+        verify(incidentService).createIncidentsBulk(stored.capture(), eq("kiosk-17"));
+        assertThat(stored.getValue()).extracting(Incident::getTitle).containsExactly("Unattended bag", "Smoke");
+    }
+
+    @Test
+    void itemsOfAChunkThatWasNotStoredAreReportedAsFailed() {
+        BulkIncidentCreateRequest request = request(valid("A"), valid("B"), null, valid("C"), valid("D"));
+        // The service stored the first chunk (A, B) and lost the second (C, D)
+        when(incidentService.createIncidentsBulk(anyList(), eq("kiosk-17"))).thenAnswer(invocation -> {
+            List<Incident> incidents = invocation.getArgument(0);
+            return Arrays.asList(stored(incidents.get(0), 1L), stored(incidents.get(1), 2L), null, null);
+        });
+
+        ResponseEntity<BulkIncidentCreateResponse> response = controller.createIncidentsBulk(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        BulkIncidentCreateResponse body = response.getBody();
+        assertThat(indexes(body, ItemStatus.ACCEPTED)).containsExactly(0, 1);
+        assertThat(indexes(body, ItemStatus.REJECTED)).containsExactly(2);
+        assertThat(indexes(body, ItemStatus.FAILED)).containsExactly(3, 4);
+        assertThat(body.getFailed()).isEqualTo(2);
+        assertThat(body.getResults().get(3).getId()).isNull();
+        assertThat(body.getResults().get(3).getErrors()).isNotEmpty();
+    }
+
+    @Test
+    void batchWithNothingStoredIsNotReportedAsCreated() {
+        when(incidentService.createIncidentsBulk(anyList(), eq("kiosk-17")))
+            .thenAnswer(invocation -> Arrays.asList(new Incident[((List<?>) invocation.getArgument(0)).size()]));
+
+        ResponseEntity<BulkIncidentCreateResponse> failed = controller.createIncidentsBulk(request(valid("A"), null));
+        ResponseEntity<BulkIncidentCreateResponse> invalid = controller.createIncidentsBulk(request(null, null));
+
+        assertThat(failed.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(indexes(failed.getBody(), ItemStatus.FAILED)).containsExactly(0);
+        assertThat(indexes(failed.getBody(), ItemStatus.REJECTED)).containsExactly(1);
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(invalid.getBody().getRejected()).isEqualTo(2);
+    }
+
+    // Helper methods
+
+    private void storeAll() {
+        when(incidentService.createIncidentsBulk(anyList(), eq("kiosk-17"))).thenAnswer(invocation -> {
+            List<Incident> incidents = invocation.getArgument(0);
+            List<Incident> saved = new ArrayList<>();
+            for (int i = 0; i < incidents.size(); i++) {
+                saved.add(stored(incidents.get(i), 100L + i));
+            }
+            return saved;
+        });
+    }
+
+    private static Incident stored(Incident incident, long id) {
+        incident.setId(id);
+        incident.setIncidentId("INC-" + incident.getTitle());
+        return incident;
+    }
+
+    private static BulkIncidentCreateRequest request(IncidentCreateRequest... items) {
+        BulkIncidentCreateRequest request = new BulkIncidentCreateRequest();
+        request.setIncidents(Arrays.asList(items));
+        request.setSource("kiosk-17");
+        return request;
+    }
+
+    private static IncidentCreateRequest valid(String title) {
+        IncidentCreateRequest item = new IncidentCreateRequest();
+        item.setTitle(title);
+        item.setDescription("Reported at the east gate");
+        item.setType(Incident.IncidentType.SUSPICIOUS_OBJECT);
+        item.setSeverity(Incident.SeverityLevel.HIGH);
+        item.setReporterName("Gate kiosk");
+        item.setReporterPhone("+919876543210");
+        item.setLatitude(28.6139);
+        item.setLongitude(77.2090);
+        return item;
+    }
+
+    private static List<Integer> indexes(BulkIncidentCreateResponse response, ItemStatus status) {
+        return response.getResults().stream()
+            .filter(result -> result.getStatus() == status)
+            .map(ItemResult::getIndex)
+            .toList();
+    }
+}
@@ -0,0 +1,81 @@
+package gov.drdo.emergency.controller;
+
+import gov.drdo.emergency.config.AuthenticatedUser;
+import gov.drdo.emergency.dto.LocationPing;
+import gov.drdo.emergency.dto.LocationPingBatchRequest;
+import gov.drdo.emergency.service.ResponderTrackingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Field units may only report their own position, over HTTP and STOMP alike; operators and admins any unit's
+ */
+class ResponderLocationControllerTest {
+
+    private final ResponderTrackingService trackingService = mock(ResponderTrackingService.class);
+    private final ResponderLocationController controller = new ResponderLocationController();
+    private final LocationPing ping = new LocationPing(7L, 28.6, 77.2, null);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "responderTrackingService", trackingService);
+    }
+
+    @Test
+    void responderReportsAreRestrictedToItsOwnUnit() {
+        Authentication unit = caller("unit-9", 9L, "ROLE_RESPONDER");
+        LocationPingBatchRequest request = new LocationPingBatchRequest();
+        request.setPings(List.of(ping));
+
+        controller.reportLocations(request, unit);
+        controller.receiveLocation(ping, unit);
+        controller.receiveLocations(List.of(ping), unit);
+
+        verify(trackingService, times(2)).ingest(anyList(), eq(9L));
+        verify(trackingService).ingest(any(LocationPing.class), eq(9L));
+    }
+
+    @Test
+    void operatorsReportForAnyUnit() {
+        controller.receiveLocation(ping, caller("operator", null, "ROLE_OPERATOR"));
+        controller.receiveLocations(List.of(ping), caller("admin", null, "ROLE_ADMIN"));
+
+        verify(trackingService).ingest(any(LocationPing.class), isNull());
+        verify(trackingService).ingest(anyList(), isNull());
+    }
+
+    @Test
+    void callersWithoutAUnitCannotReport() {
+        assertThatThrownBy(() -> controller.receiveLocation(ping, null))
+            .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> controller.receiveLocation(ping, caller("unit-x", null, "ROLE_RESPONDER")))
+            .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> controller.receiveLocation(ping, caller("viewer", 7L, "ROLE_VIEWER")))
+            .isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(trackingService);
+    }
+
+    // Helper methods
+
+    private static Authentication caller(String username, Long responderId, String role) {
+        return new UsernamePasswordAuthenticationToken(new AuthenticatedUser(username, responderId), null,
+            AuthorityUtils.createAuthorityList(role));
+    }
+}
@@ -0,0 +1,391 @@
+package gov.drdo.emergency.repository;
+
+import gov.drdo.emergency.entity.Incident;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan regression check for the SQL that IncidentSpecifications, IncidentRepositoryCustomImpl and the
+ * active-incident queries in IncidentRepository actually send, against database/schema.sql with synthetic
+ * data: every filter shape must use the index designed for it (or its per-partition copies), and active-only
+ * shapes must stay in the hot tier, also under the generic plans PostgreSQL switches to for prepared
+ * statements. Statements are captured with their bind values below the connection pool and replayed under
+ * EXPLAIN, with the values bound (custom plan) or as $n placeholders (EXPLAIN (GENERIC_PLAN)).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class IncidentFilterPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+
+    private static Connection connection;
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private StatementCapture statements;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @BeforeAll
+    static void loadSchemaAndData() throws Exception {
+        connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(Files.readString(Path.of("..", "database", "schema.sql"), StandardCharsets.UTF_8));
+            statement.execute("""
+                INSERT INTO incidents (incident_id, title, type, severity, status, location_point,
+                                       is_critical, is_verified, created_at, updated_at)
+                SELECT 'PLAN-' || g,
+                       'Synthetic incident ' || g,
+                       (ARRAY['BOMB_THREAT', 'SUSPICIOUS_OBJECT', 'CHEMICAL_HAZARD', 'BIOLOGICAL_HAZARD', 'FIRE_EMERGENCY',
+                              'MEDICAL_EMERGENCY', 'SECURITY_BREACH', 'TERRORIST_ACTIVITY', 'NATURAL_DISASTER', 'OTHER'])[1 + g % 10],
+                       (ARRAY['LOW', 'MEDIUM', 'HIGH', 'CRITICAL'])[1 + g % 4],
+                       CASE WHEN g % 50 = 0 THEN (ARRAY['REPORTED', 'VERIFIED', 'ASSIGNED', 'IN_PROGRESS'])[1 + g % 4]
+                            ELSE (ARRAY['RESOLVED', 'CLOSED', 'FALSE_ALARM'])[1 + g % 3] END,
+                       ST_SetSRID(ST_MakePoint(68 + random() * 29, 8 + random() * 29), 4326),
+                       g % 97 = 0,
+                       g % 3 = 0,
+                       now() - (g || ' minutes')::interval,
+                       now() - (g || ' minutes')::interval
+                FROM generate_series(1, 200000) AS g""");
+            statement.execute("SELECT archive_closed_incidents(now() - interval '30 days', 1000000)");
+            statement.execute("ANALYZE incidents");
+        }
+    }
+
+    @Test
+    void keysetPagesUseTheSortKeyIndexes() throws SQLException {
+        IncidentKeyset newest = IncidentKeyset.first(IncidentKeyset.SortKey.CREATED_AT, Sort.Direction.DESC, 20);
+        assertUsesIndex(plan(query(() -> incidentRepository.findSummarySlice(new IncidentFilter(), newest))),
+            "idx_incidents_created_at_id");
+        assertUsesIndex(plan(query(() -> incidentRepository.findSummarySlice(new IncidentFilter(),
+            newest.after(LocalDateTime.now().minusDays(4), 5000L)))), "idx_incidents_created_at_id");
+        assertUsesIndex(plan(query(() -> incidentRepository.findSummarySlice(new IncidentFilter(),
+            IncidentKeyset.first(IncidentKeyset.SortKey.UPDATED_AT, Sort.Direction.DESC, 20)))),
+            "idx_incidents_updated_at_id");
+    }
+
+    @Test
+    void singleAttributeFiltersUseTheirCompositeIndexes() throws SQLException {
+        IncidentFilter reported = new IncidentFilter();
+        reported.setStatuses(EnumSet.of(Incident.IncidentStatus.REPORTED));
+        assertUsesIndex(plan(query(() -> incidentRepository.findSummarySlice(reported, newestFirst()))),
+            "idx_incidents_status_created");
+
+        IncidentFilter typesInRange = new IncidentFilter();
+        typesInRange.setTypes(EnumSet.of(Incident.IncidentType.BOMB_THREAT, Incident.IncidentType.CHEMICAL_HAZARD));
+        typesInRange.setCreatedFrom(LocalDateTime.now().minusDays(2));
+        typesInRange.setCreatedTo(LocalDateTime.now().minusDays(1));
+        assertUsesIndex(plan(query(() -> incidentRepository.findSummaryPage(typesInRange, unsorted()))),
+            "idx_incidents_type_created");
+
+        IncidentFilter critical = new IncidentFilter();
+        critical.setSeverities(EnumSet.of(Incident.SeverityLevel.CRITICAL));
+        assertUsesIndex(plan(query(() -> incidentRepository.findSummarySlice(critical, newestFirst()))),
+            "idx_incidents_severity_created");
+
+        assertUsesIndex(plan(query(() -> incidentRepository.findSummaryPage(inDelhi(new IncidentFilter()), unsorted()))),
+            "idx_incidents_location");
+    }
+
+    @Test
+    void activeShapesUseThePartialIndexesInCustomPlans() throws SQLException {
+        List<String> newestActive = plan(query(() -> incidentRepository.findSummarySlice(active(), newestFirst())));
+        assertUsesIndex(newestActive, "idx_incidents_active_created");
+        assertHotOnly(newestActive);
+
+        assertUsesIndex(plan(query(() -> incidentRepository.findSummaryPage(activeThreats(), unsorted()))),
+            "idx_incidents_active_type_severity");
+
+        assertUsesIndex(plan(query(() -> incidentRepository.findSummarySlice(activeCritical(), newestFirst()))),
+            "idx_incidents_active_critical");
+
+        List<String> activeInBox = plan(query(() -> incidentRepository.findSummaryPage(inDelhi(active()), unsorted())));
+        assertUsesIndex(activeInBox, "idx_incidents_active_location");
+        assertHotOnly(activeInBox);
+    }
+
+    @Test
+    void inlinedActiveStatusesKeepThePartialIndexesInGenericPlans() throws SQLException {
+        List<String> critical = genericPlan(query(() -> incidentRepository.findSummarySlice(activeCritical(), newestFirst())));
+        assertUsesIndex(critical, "idx_incidents_active_critical");
+        assertHotOnly(critical);
+
+        assertUsesIndex(genericPlan(query(() -> incidentRepository.findSummaryPage(activeThreats(), unsorted()))),
+            "idx_incidents_active_type_severity");
+
+        // A status subset still implies the partial index predicate because its values are literals
+        IncidentFilter subset = new IncidentFilter();
+        subset.setStatuses(EnumSet.of(Incident.IncidentStatus.VERIFIED, Incident.IncidentStatus.ASSIGNED));
+        subset.setCreatedTo(LocalDateTime.now());
+        assertUsesIndex(genericPlan(query(() -> incidentRepository.findSummarySlice(subset, newestFirst()))),
+            "idx_incidents_active_created", "idx_incidents_status_created");
+    }
+
+    @Test
+    void activeRepositoryQueriesUseTheActivePartialIndexes() throws SQLException {
+        List<StatementCapture.Captured> queries = List.of(
+            query(incidentRepository::findActiveSummaries),
+            query(incidentRepository::findDispatchBoard),
+            query(incidentRepository::findOverdueSummaries));
+
+        for (StatementCapture.Captured query : queries) {
+            List<String> plan = genericPlan(query);
+            assertUsesIndex(plan, "idx_incidents_active_created", "idx_incidents_active_critical",
+                "idx_incidents_active_type_severity", "idx_incidents_active_location");
+            assertHotOnly(plan);
+        }
+    }
+
+    // Helper methods
+
+    // The first statement a repository call sends
+    private StatementCapture.Captured query(Runnable call) {
+        statements.clear();
+        call.run();
+        return statements.first();
+    }
+
+    private static IncidentKeyset newestFirst() {
+        return IncidentKeyset.first(IncidentKeyset.SortKey.CREATED_AT, Sort.Direction.DESC, 20);
+    }
+
+    private static IncidentFilter active() {
+        IncidentFilter filter = new IncidentFilter();
+        filter.setActiveOnly(true);
+        return filter;
+    }
+
+    // Large enough that the total is known from the page itself, so no count query follows
+    private static PageRequest unsorted() {
+        return PageRequest.of(0, 5000);
+    }
+
+    private static IncidentFilter activeThreats() {
+        IncidentFilter filter = active();
+        filter.setTypes(EnumSet.of(Incident.IncidentType.BOMB_THREAT, Incident.IncidentType.SUSPICIOUS_OBJECT));
+        filter.setSeverities(EnumSet.of(Incident.SeverityLevel.HIGH, Incident.SeverityLevel.CRITICAL));
+        return filter;
+    }
+
+    private static IncidentFilter activeCritical() {
+        IncidentFilter filter = active();
+        filter.setIsCritical(true);
+        return filter;
+    }
+
+    private static IncidentFilter inDelhi(IncidentFilter filter) {
+        filter.setMinLongitude(77.0);
+        filter.setMinLatitude(28.4);
+        filter.setMaxLongitude(77.4);
+        filter.setMaxLatitude(28.8);
+        return filter;
+    }
+
+    // Custom plan: the statement as sent, with its captured bind values
+    private static List<String> plan(StatementCapture.Captured query) throws SQLException {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + query.sql())) {
+            query.bind(explain);
+            return lines(explain.executeQuery());
+        }
+    }
+
+    // Generic plan: the statement as PostgreSQL plans it once a prepared statement stops re-planning per call
+    private static List<String> genericPlan(StatementCapture.Captured query) throws SQLException {
+        try (Statement explain = connection.createStatement()) {
+            return lines(explain.executeQuery("EXPLAIN (GENERIC_PLAN) " + numberedPlaceholders(query.sql())));
+        }
+    }
+
+    private static List<String> lines(ResultSet rs) throws SQLException {
+        List<String> lines = new ArrayList<>();
+        try (rs) {
+            while (rs.next()) {
+                lines.add(rs.getString(1));
+            }
+        }
+        return lines;
+    }
+
+    // JDBC ? placeholders to $1, $2, ... outside string literals
+    private static String numberedPlaceholders(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        boolean quoted = false;
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    // On the partitioned table the plan names the per-partition copies of the index
+    private static void assertUsesIndex(List<String> plan, String... indexes) throws SQLException {
+        List<String> leaves = new ArrayList<>();
+        for (String index : indexes) {
+            leaves.addAll(leavesOf(index));
+        }
+        assertThat(leaves).as("plan uses one of %s:%n%s", List.of(indexes), String.join("\n", plan))
+            .anyMatch(leaf -> mentions(plan, leaf));
+    }
+
+    private static void assertHotOnly(List<String> plan) {
+        assertThat(mentions(plan, "incidents_archive")).as("plan reads archive partitions:%n%s",
+            String.join("\n", plan)).isFalse();
+    }
+
+    private static List<String> leavesOf(String index) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return lines(statement.executeQuery(
+                "SELECT relid::regclass::text FROM pg_partition_tree('" + index + "'::regclass)"));
+        }
+    }
+
+    private static boolean mentions(List<String> plan, String name) {
+        return plan.stream().anyMatch(line -> line.contains(name));
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        static StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+    }
+
+    /**
+     * Records every query the application executes, with its bind calls, by wrapping the pooled DataSource
+     */
+    static class StatementCapture implements BeanPostProcessor {
+
+        private final List<Captured> captured = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return proxy(DataSource.class, dataSource, (method, args, result) ->
+                "getConnection".equals(method.getName()) ? connection((Connection) result) : result);
+        }
+
+        void clear() {
+            captured.clear();
+        }
+
+        Captured first() {
+            assertThat(captured).as("captured statements").isNotEmpty();
+            return captured.get(0);
+        }
+
+        private Connection connection(Connection connection) {
+            return proxy(Connection.class, connection, (method, args, result) -> {
+                if ("prepareStatement".equals(method.getName()) && args[0] instanceof String sql) {
+                    return statement((PreparedStatement) result, sql);
+                }
+                return result;
+            });
+        }
+
+        private PreparedStatement statement(PreparedStatement statement, String sql) {
+            List<Object[]> binds = new ArrayList<>();
+            return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+                if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    binds.add(new Object[] {method, args});
+                } else if ("executeQuery".equals(method.getName()) && args == null) {
+                    captured.add(new Captured(sql, List.copyOf(binds)));
+                } else if ("clearParameters".equals(method.getName())) {
+                    binds.clear();
+                }
+                return result;
+            });
+        }
+
+        @FunctionalInterface
+        private interface AfterCall {
+            Object apply(Method method, Object[] args, Object result) throws Exception;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, AfterCall afterCall) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                try {
+                    return afterCall.apply(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+        }
+
+        /**
+         * One executed query and the setter calls that bound its parameters
+         */
+        record Captured(String sql, List<Object[]> binds) {
+
+            void bind(PreparedStatement statement) throws SQLException {
+                for (Object[] bind : binds) {
+                    try {
+                        ((Method) bind[0]).invoke(statement, (Object[]) bind[1]);
+                    } catch (ReflectiveOperationException e) {
+                        throw new SQLException("Cannot replay " + ((Method) bind[0]).getName(), e);
+                    }
+                }
+            }
+        }
+    }
+}
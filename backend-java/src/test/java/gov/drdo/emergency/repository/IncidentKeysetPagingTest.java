@@ -0,0 +1,174 @@
+package gov.drdo.emergency.repository;
+
+import gov.drdo.emergency.dto.IncidentSummary;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset paging through IncidentRepositoryCustomImpl.findSummarySlice against database/schema.sql, with sort
+ * values that repeat many times and ids that do not follow them: walking every page by cursor, as the
+ * controller does, returns each row exactly once and in (sort key, id) order, also when a page ends in the
+ * middle of a run of equal values.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class IncidentKeysetPagingTest {
+
+    private static final int INCIDENTS = 203;
+    private static final int PAGE_SIZE = 9;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @BeforeAll
+    static void loadSchemaAndData() throws Exception {
+        try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(Files.readString(Path.of("..", "database", "schema.sql"), StandardCharsets.UTF_8));
+            // 20 distinct creation times and 7 distinct update times, spread over ids out of order
+            statement.execute("""
+                INSERT INTO incidents (incident_id, title, type, severity, status, created_at, updated_at)
+                SELECT 'PAGE-' || g, 'Paged incident ' || g, 'OTHER', 'LOW',
+                       (ARRAY['REPORTED', 'VERIFIED', 'RESOLVED'])[1 + g % 3],
+                       date_trunc('second', now()) - ((g * 37) % 20 || ' minutes')::interval,
+                       date_trunc('second', now()) - ((g * 13) % 7 || ' hours')::interval
+                FROM generate_series(1, %d) AS g""".formatted(INCIDENTS));
+        }
+    }
+
+    @Test
+    void everyOrderReturnsEachRowOnceAcrossPages() {
+        for (IncidentKeyset.SortKey sortKey : IncidentKeyset.SortKey.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                List<Long> paged = pageThrough(new IncidentFilter(), sortKey, direction);
+
+                assertThat(paged).as("%s %s", sortKey, direction)
+                    .hasSize(INCIDENTS)
+                    .doesNotHaveDuplicates()
+                    .containsExactlyElementsOf(expectedOrder("TRUE", sortKey, direction));
+            }
+        }
+    }
+
+    @Test
+    void equalSortValuesAreOrderedByIdAcrossPageBoundaries() {
+        List<IncidentSummary> rows = new ArrayList<>();
+        IncidentKeyset keyset = IncidentKeyset.first(IncidentKeyset.SortKey.CREATED_AT, Sort.Direction.DESC, PAGE_SIZE);
+        int splitRuns = 0;
+        while (keyset != null) {
+            Slice<IncidentSummary> page = incidentRepository.findSummarySlice(new IncidentFilter(), keyset);
+            if (!rows.isEmpty() && !page.isEmpty()
+                    && rows.get(rows.size() - 1).getCreatedAt().equals(page.getContent().get(0).getCreatedAt())) {
+                splitRuns++;
+            }
+            rows.addAll(page.getContent());
+            keyset = next(page, keyset);
+        }
+
+        // About ten rows share each creation time, so pages of nine must end inside runs
+        assertThat(splitRuns).isPositive();
+        for (int i = 1; i < rows.size(); i++) {
+            IncidentSummary previous = rows.get(i - 1);
+            IncidentSummary current = rows.get(i);
+            assertThat(current.getCreatedAt()).isBeforeOrEqualTo(previous.getCreatedAt());
+            if (current.getCreatedAt().equals(previous.getCreatedAt())) {
+                assertThat(current.getId()).isLessThan(previous.getId());
+            }
+        }
+    }
+
+    @Test
+    void filteredPagesKeepTheirOrderToo() {
+        IncidentFilter active = new IncidentFilter();
+        active.setActiveOnly(true);
+
+        for (IncidentKeyset.SortKey sortKey : IncidentKeyset.SortKey.values()) {
+            List<Long> paged = pageThrough(active, sortKey, Sort.Direction.ASC);
+
+            assertThat(paged).as("%s", sortKey)
+                .doesNotHaveDuplicates()
+                .containsExactlyElementsOf(expectedOrder("status IN ('REPORTED', 'VERIFIED')", sortKey, Sort.Direction.ASC));
+        }
+    }
+
+    // Helper methods
+
+    private List<Long> pageThrough(IncidentFilter filter, IncidentKeyset.SortKey sortKey, Sort.Direction direction) {
+        List<Long> ids = new ArrayList<>();
+        IncidentKeyset keyset = IncidentKeyset.first(sortKey, direction, PAGE_SIZE);
+        int pages = 0;
+        while (keyset != null) {
+            Slice<IncidentSummary> page = incidentRepository.findSummarySlice(filter, keyset);
+            assertThat(page.getContent()).hasSizeLessThanOrEqualTo(PAGE_SIZE);
+            page.forEach(row -> ids.add(row.getId()));
+            keyset = next(page, keyset);
+            assertThat(++pages).as("pages").isLessThanOrEqualTo(INCIDENTS);
+        }
+        return ids;
+    }
+
+    // The next page's position, built and passed through a cursor the way IncidentController does
+    private static IncidentKeyset next(Slice<IncidentSummary> page, IncidentKeyset keyset) {
+        if (!page.hasNext()) {
+            return null;
+        }
+        IncidentSummary last = page.getContent().get(page.getContent().size() - 1);
+        LocalDateTime lastValue = switch (keyset.getSortKey()) {
+            case CREATED_AT -> last.getCreatedAt();
+            case UPDATED_AT -> last.getUpdatedAt();
+            case ID -> null;
+        };
+        return IncidentKeyset.decode(keyset.after(lastValue, last.getId()).encode(), keyset.getSize());
+    }
+
+    private List<Long> expectedOrder(String condition, IncidentKeyset.SortKey sortKey, Sort.Direction direction) {
+        String column = switch (sortKey) {
+            case CREATED_AT -> "created_at " + direction.name() + ", ";
+            case UPDATED_AT -> "updated_at " + direction.name() + ", ";
+            case ID -> "";
+        };
+        return jdbcTemplate.queryForList("SELECT id FROM incidents WHERE " + condition
+            + " ORDER BY " + column + "id " + direction.name(), Long.class);
+    }
+}
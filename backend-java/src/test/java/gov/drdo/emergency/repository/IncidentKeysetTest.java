@@ -0,0 +1,102 @@
+package gov.drdo.emergency.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cursor encoding of IncidentKeyset: cursors decode to the position they were made from, stay URL-safe, and
+ * anything that is not a cursor this class wrote is rejected with IllegalArgumentException (a 400 from the
+ * controller). Paging itself, with repeated sort values, is covered by IncidentKeysetPagingTest.
+ */
+class IncidentKeysetTest {
+
+    private static final LocalDateTime LAST = LocalDateTime.of(2024, 3, 9, 14, 5, 17, 123_456_000);
+
+    @Test
+    void cursorRoundTripsEverySortKeyAndDirection() {
+        for (IncidentKeyset.SortKey sortKey : IncidentKeyset.SortKey.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                LocalDateTime value = sortKey == IncidentKeyset.SortKey.ID ? null : LAST;
+                IncidentKeyset position = IncidentKeyset.first(sortKey, direction, 25).after(value, 9_007_199_254_740_993L);
+
+                IncidentKeyset decoded = IncidentKeyset.decode(position.encode(), 25);
+
+                assertThat(decoded.isFirst()).isFalse();
+                assertThat(decoded.getSortKey()).isEqualTo(sortKey);
+                assertThat(decoded.getDirection()).isEqualTo(direction);
+                assertThat(decoded.getLastValue()).isEqualTo(value);
+                assertThat(decoded.getLastId()).isEqualTo(9_007_199_254_740_993L);
+                assertThat(decoded.encode()).isEqualTo(position.encode());
+            }
+        }
+    }
+
+    @Test
+    void cursorKeepsSubMicrosecondValuesAndIsUrlSafe() {
+        LocalDateTime nanos = LAST.withNano(999_999_999);
+        String cursor = IncidentKeyset.first(IncidentKeyset.SortKey.UPDATED_AT, Sort.Direction.ASC, 10)
+            .after(nanos, 1L).encode();
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(IncidentKeyset.decode(cursor, 10).getLastValue()).isEqualTo(nanos);
+    }
+
+    @Test
+    void pageSizeComesFromTheRequestAndIsClamped() {
+        String cursor = IncidentKeyset.first(IncidentKeyset.SortKey.CREATED_AT, Sort.Direction.DESC, 50)
+            .after(LAST, 7L).encode();
+
+        assertThat(IncidentKeyset.decode(cursor, 10).getSize()).isEqualTo(10);
+        assertThat(IncidentKeyset.decode(cursor, 0).getSize()).isEqualTo(1);
+        assertThat(IncidentKeyset.decode(cursor, 10_000).getSize()).isEqualTo(IncidentKeyset.MAX_PAGE_SIZE);
+        assertThat(IncidentKeyset.first(IncidentKeyset.SortKey.ID, Sort.Direction.ASC, -3).getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidCursorsAreRejected() {
+        assertInvalid("");
+        assertInvalid("not a cursor!");
+        assertInvalid("%%%%");
+        // Valid Base64 that is not UTF-8 text in the cursor layout
+        assertInvalid(Base64.getUrlEncoder().encodeToString(new byte[] {(byte) 0xff, (byte) 0xfe, 0x00}));
+        // A first-page position has no row to continue after
+        assertInvalid(IncidentKeyset.first(IncidentKeyset.SortKey.CREATED_AT, Sort.Direction.DESC, 20).encode());
+    }
+
+    @Test
+    void tamperedCursorsAreRejected() {
+        assertInvalid(raw("CREATED_AT|DESC|2024-03-09T14:05:17.123456"));
+        assertInvalid(raw("CREATED_AT|DESC|2024-03-09T14:05:17.123456|42|extra"));
+        assertInvalid(raw("TITLE|DESC|2024-03-09T14:05:17.123456|42"));
+        assertInvalid(raw("createdAt|DESC|2024-03-09T14:05:17.123456|42"));
+        assertInvalid(raw("CREATED_AT|SIDEWAYS|2024-03-09T14:05:17.123456|42"));
+        assertInvalid(raw("CREATED_AT|DESC|yesterday|42"));
+        assertInvalid(raw("CREATED_AT|DESC|2024-03-09T14:05:17.123456|42 OR 1=1"));
+        assertInvalid(raw("CREATED_AT|DESC|2024-03-09T14:05:17.123456|"));
+        assertInvalid(raw("ID|ASC|2024-03-09T14:05:17.123456|42"));
+
+        // A byte flipped in transit
+        String cursor = IncidentKeyset.first(IncidentKeyset.SortKey.CREATED_AT, Sort.Direction.DESC, 20)
+            .after(LAST, 42L).encode();
+        assertInvalid(cursor.substring(0, 2) + (cursor.charAt(2) == 'Q' ? 'R' : 'Q') + cursor.substring(3));
+    }
+
+    // Helper methods
+
+    private static String raw(String content) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(String cursor) {
+        assertThatThrownBy(() -> IncidentKeyset.decode(cursor, 20))
+            .as("cursor %s", cursor)
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,333 @@
+package gov.drdo.emergency.repository;
+
+import gov.drdo.emergency.entity.Incident;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The partition maintenance functions and incident_keys in database/schema.sql: create_incident_partitions
+ * builds the hot and archive partitions, archive_closed_incidents moves old closed incidents and their updates
+ * into the archive tier without losing children, drop_empty_hot_partitions drops only old empty months,
+ * incident_id and id stay unique across all partitions, and lookups by either ID execute against the one
+ * partition that holds the incident. Each test runs in a transaction that is rolled back, partitions included.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IncidentFilterPlanTest.StatementCaptureConfig.class)
+@Testcontainers(disabledWithoutDocker = true)
+class IncidentPartitionTest {
+
+    private static final Pattern EXECUTED_PARTITION = Pattern.compile(
+        " on (incidents_(?:hot_\\d{6}|archive_\\d{4}|hot_default|archive_default))\\b");
+
+    private static final String OLD_HOT_PARTITIONS = """
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent IN ('incidents_hot'::regclass, 'incident_updates_hot'::regclass)
+          AND c.relname ~ '_hot_[0-9]{6}$'
+          AND to_date(right(c.relname, 6), 'YYYYMM') + INTERVAL '1 month' <= CURRENT_TIMESTAMP - INTERVAL '3 months'
+        ORDER BY c.relname""";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IncidentFilterPlanTest.StatementCapture statements;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @BeforeAll
+    static void loadSchema() throws Exception {
+        try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(Files.readString(Path.of("..", "database", "schema.sql"), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void createIncidentPartitionsAddsMissingMonthsAndTheirArchiveYears() {
+        // schema.sql already covered the last year and the next three months
+        assertThat(partitionOf(insert("CREATE-1", "REPORTED", "0 days"))).matches("incidents_hot_\\d{6}");
+        assertThat(createPartitions(3, "CURRENT_DATE - INTERVAL '12 months'")).isZero();
+
+        int hot = partitions("incidents_hot") + partitions("incident_updates_hot");
+        int archive = partitions("incidents_archive") + partitions("incident_updates_archive");
+        int created = createPartitions(5, "CURRENT_DATE");
+
+        int newHot = partitions("incidents_hot") + partitions("incident_updates_hot") - hot;
+        int newArchive = partitions("incidents_archive") + partitions("incident_updates_archive") - archive;
+        assertThat(newHot).isEqualTo(4);
+        assertThat(created).isEqualTo(newHot + newArchive);
+        assertThat(createPartitions(5, "CURRENT_DATE")).isZero();
+
+        // Archive partitions are packed full, with their text columns compressed with lz4
+        String archivePartition = jdbcTemplate.queryForObject(
+            "SELECT min(c.relname) FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'incidents_archive'::regclass AND c.relname ~ '_[0-9]{4}$'", String.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT array_to_string(reloptions, ',') FROM pg_class WHERE relname = ?",
+            String.class, archivePartition)).contains("fillfactor=100", "toast_tuple_target=128");
+        assertThat(jdbcTemplate.queryForObject("SELECT attcompression::text FROM pg_attribute " +
+            "WHERE attrelid = ?::regclass AND attname = 'title'", String.class, archivePartition)).isEqualTo("l");
+    }
+
+    @Test
+    void createIncidentPartitionsSkipsMonthsWithRowsInTheDefaultPartition() {
+        long stray = insert("STRAY-1", "REPORTED", "-8 months");
+        assertThat(partitionOf(stray)).isEqualTo("incidents_hot_default");
+        String strayMonth = jdbcTemplate.queryForObject(
+            "SELECT 'incidents_hot_' || to_char(created_at, 'YYYYMM') FROM incidents WHERE id = ?", String.class, stray);
+
+        int created = createPartitions(9, "CURRENT_DATE");
+
+        // The month holding the stray row is left to an operator, the others are created
+        assertThat(created).isPositive();
+        assertThat(exists(strayMonth)).isFalse();
+        assertThat(partitionOf(stray)).isEqualTo("incidents_hot_default");
+        assertThat(incidentRepository.findById(stray)).isPresent();
+    }
+
+    @Test
+    void archiveMovesOldClosedIncidentsWithTheirChildren() {
+        long closed = insert("ARCH-1", "CLOSED", "200 days");
+        long resolved = insert("ARCH-2", "RESOLVED", "150 days");
+        long stillOpen = insert("ARCH-3", "IN_PROGRESS", "200 days");
+        long recentlyClosed = insert("ARCH-4", "CLOSED", "10 days");
+        long update = insertUpdate(closed, "200 days");
+        jdbcTemplate.update("INSERT INTO incident_details (id, description) VALUES (?, 'Abandoned trolley bag')", closed);
+
+        // Batches of one: the caller repeats until a batch comes back short
+        assertThat(archive(1)).isEqualTo(1);
+        assertThat(archive(1)).isEqualTo(1);
+        assertThat(archive(1)).isZero();
+
+        assertThat(partitionOf(closed)).matches("incidents_archive_\\d{4}");
+        assertThat(partitionOf(resolved)).matches("incidents_archive_\\d{4}");
+        assertThat(partitionOf(stillOpen)).matches("incidents_hot_\\d{6}");
+        assertThat(partitionOf(recentlyClosed)).matches("incidents_hot_\\d{6}");
+        assertThat(jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM incident_updates WHERE id = ?",
+            String.class, update)).matches("incident_updates_archive_\\d{4}");
+        assertThat(count("SELECT count(*) FROM incident_details WHERE id = ?", closed)).isEqualTo(1L);
+
+        // The key follows the row, so lookups and reference checks still find it
+        assertThat(jdbcTemplate.queryForObject("SELECT archived FROM incident_keys WHERE id = ?", Boolean.class, closed))
+            .isTrue();
+        assertThat(incidentRepository.findByIncidentId("ARCH-1")).map(Incident::getArchived).contains(true);
+        assertThat(incidentRepository.findTimelineById(closed).orElseThrow().getUpdates()).hasSize(1);
+        insertUpdate(closed, "0 days");
+
+        // Deleting an archived incident still deletes its children and frees its key
+        jdbcTemplate.update("DELETE FROM incidents WHERE id = ?", closed);
+        assertThat(count("SELECT count(*) FROM incident_updates WHERE incident_id = ?", closed)).isZero();
+        assertThat(count("SELECT count(*) FROM incident_details WHERE id = ?", closed)).isZero();
+        assertThat(count("SELECT count(*) FROM incident_keys WHERE id = ?", closed)).isZero();
+        assertThat(count("SELECT count(*) FROM incident_keys")).isEqualTo(count("SELECT count(*) FROM incidents"));
+    }
+
+    @Test
+    void dropEmptyHotPartitionsDropsOnlyOldEmptyMonths() {
+        long archived = insert("DROP-1", "CLOSED", "200 days");
+        insertUpdate(archived, "200 days");
+        long open = insert("DROP-2", "REPORTED", "250 days");
+        long openUpdate = insertUpdate(open, "250 days");
+        String emptied = partitionOf(archived);
+        String occupied = partitionOf(open);
+        String occupiedUpdates = jdbcTemplate.queryForObject(
+            "SELECT tableoid::regclass::text FROM incident_updates WHERE id = ?", String.class, openUpdate);
+        assertThat(archive(1000)).isEqualTo(1);
+        List<String> old = jdbcTemplate.queryForList(OLD_HOT_PARTITIONS, String.class);
+        int hot = partitions("incidents_hot") + partitions("incident_updates_hot");
+
+        int dropped = jdbcTemplate.queryForObject("SELECT drop_empty_hot_partitions(INTERVAL '3 months')", Integer.class);
+
+        // Every old month went except the two still holding the open incident and its update
+        assertThat(old).contains(emptied, occupied, occupiedUpdates);
+        assertThat(jdbcTemplate.queryForList(OLD_HOT_PARTITIONS, String.class))
+            .containsExactlyInAnyOrder(occupied, occupiedUpdates);
+        assertThat(dropped).isEqualTo(old.size() - 2);
+        assertThat(exists(emptied)).isFalse();
+
+        // Recent and upcoming months stay even when empty, and nothing that was stored is lost
+        assertThat(partitions("incidents_hot") + partitions("incident_updates_hot")).isEqualTo(hot - dropped);
+        assertThat(incidentRepository.findById(archived)).isPresent();
+        assertThat(incidentRepository.findById(open)).isPresent();
+        assertThat(count("SELECT count(*) FROM incident_updates WHERE incident_id IN (?, ?)", archived, open))
+            .isEqualTo(2L);
+    }
+
+    @Test
+    void incidentIdsAreUniqueAcrossPartitions() {
+        long current = insert("DUP-1", "REPORTED", "0 days");
+        long old = insert("DUP-2", "CLOSED", "200 days");
+
+        assertRejected(() -> insert("DUP-1", "REPORTED", "200 days"));
+        assertRejected(() -> jdbcTemplate.update("INSERT INTO incidents (incident_id, title, type, severity, " +
+            "status, archived, created_at) VALUES ('DUP-1', 'Copy', 'OTHER', 'LOW', 'CLOSED', TRUE, now())"));
+        assertRejected(() -> jdbcTemplate.update("UPDATE incidents SET incident_id = 'DUP-1' WHERE id = ?", old));
+        // The same surrogate id in another partition is refused as well
+        assertRejected(() -> jdbcTemplate.update("INSERT INTO incidents (id, incident_id, title, type, severity, " +
+            "created_at) VALUES (?, 'DUP-3', 'Copy', 'OTHER', 'LOW', now() - INTERVAL '200 days')", current));
+
+        // Archival moves a row without tripping the check, and the archived incident keeps its ID
+        assertThat(archive(1000)).isEqualTo(1);
+        assertRejected(() -> insert("DUP-2", "REPORTED", "0 days"));
+
+        // A deleted incident's ID can be used again
+        jdbcTemplate.update("DELETE FROM incidents WHERE id = ?", current);
+        long reused = insert("DUP-1", "REPORTED", "0 days");
+        assertThat(incidentRepository.findByIncidentId("DUP-1")).map(Incident::getId).contains(reused);
+    }
+
+    @Test
+    void lookupsByEitherIdExecuteAgainstOnePartition() throws Exception {
+        jdbcTemplate.update("""
+            INSERT INTO incidents (incident_id, title, type, severity, status, created_at, updated_at, resolved_at)
+            SELECT 'SPREAD-' || g, 'Synthetic incident ' || g, 'OTHER', 'LOW',
+                   CASE WHEN g % 4 = 0 THEN 'REPORTED' ELSE 'CLOSED' END,
+                   now() - (g % 300 || ' days')::interval, now() - (g % 300 || ' days')::interval,
+                   CASE WHEN g % 4 <> 0 THEN now() - (g % 300 || ' days')::interval END
+            FROM generate_series(1, 3000) AS g""");
+        archive(10_000);
+        jdbcTemplate.execute("ANALYZE incidents");
+
+        long hot = insert("LOOKUP-HOT", "REPORTED", "40 days");
+        long cold = insert("LOOKUP-COLD", "CLOSED", "200 days");
+        insertUpdate(cold, "200 days");
+        archive(10_000);
+        assertThat(partitionOf(cold)).matches("incidents_archive_\\d{4}");
+
+        for (long id : List.of(hot, cold)) {
+            String incidentId = id == hot ? "LOOKUP-HOT" : "LOOKUP-COLD";
+            assertOnePartition(id, () -> incidentRepository.findById(id).orElseThrow().getIncidentId(), incidentId);
+            assertOnePartition(id, () -> incidentRepository.findByIncidentId(incidentId).orElseThrow().getId(), id);
+            assertOnePartition(id, () -> incidentRepository.findTimelineById(id).orElseThrow().getId(), id);
+            assertOnePartition(id, () -> incidentRepository.lockById(id).orElseThrow(), id);
+        }
+        assertThat(incidentRepository.findById(-1L)).isEmpty();
+        assertThat(incidentRepository.findByIncidentId("SPREAD-0")).isEmpty();
+    }
+
+    // Helper methods
+
+    private long insert(String incidentId, String status, String age) {
+        return jdbcTemplate.queryForObject("""
+            INSERT INTO incidents (incident_id, title, type, severity, status, created_at, updated_at, resolved_at)
+            VALUES (?, 'Partition test ' || ?, 'SUSPICIOUS_OBJECT', 'MEDIUM', ?,
+                    now() - CAST(? AS interval), now() - CAST(? AS interval),
+                    CASE WHEN ? IN ('RESOLVED', 'CLOSED') THEN now() - CAST(? AS interval) END)
+            RETURNING id""", Long.class, incidentId, incidentId, status, age, age, status, age);
+    }
+
+    private long insertUpdate(long incidentId, String age) {
+        return jdbcTemplate.queryForObject("""
+            INSERT INTO incident_updates (incident_id, title, type, updated_by, created_at)
+            VALUES (?, 'Status updated', 'STATUS_CHANGE', 'partition-test', now() - CAST(? AS interval))
+            RETURNING id""", Long.class, incidentId, age);
+    }
+
+    private int archive(int batchSize) {
+        return jdbcTemplate.queryForObject("SELECT archive_closed_incidents(now() - INTERVAL '30 days', ?)",
+            Integer.class, batchSize);
+    }
+
+    private int createPartitions(int monthsAhead, String from) {
+        return jdbcTemplate.queryForObject("SELECT create_incident_partitions(?, (" + from + ")::date)",
+            Integer.class, monthsAhead);
+    }
+
+    private int partitions(String parent) {
+        return count("SELECT count(*) FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = ?::regclass AND c.relname !~ '_default$'", parent).intValue();
+    }
+
+    private boolean exists(String table) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+    }
+
+    private String partitionOf(long id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM incidents WHERE id = ?",
+            String.class, id);
+    }
+
+    private Long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    // Runs in a savepoint so the test transaction stays usable after the expected failure
+    private void assertRejected(Runnable write) {
+        TransactionTemplate nested = new TransactionTemplate(transactionManager);
+        nested.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        assertThatThrownBy(() -> nested.executeWithoutResult(status -> write.run()))
+            .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    // The lookup returns the expected value, and its statement, replayed under EXPLAIN ANALYZE,
+    // executes only the partition holding the incident
+    private void assertOnePartition(long id, Supplier<Object> lookup, Object expected) throws Exception {
+        statements.clear();
+        assertThat(lookup.get()).isEqualTo(expected);
+        IncidentFilterPlanTest.StatementCapture.Captured query = statements.first();
+
+        List<String> plan = jdbcTemplate.query(connection -> {
+            PreparedStatement explain = connection.prepareStatement(
+                "EXPLAIN (ANALYZE, COSTS OFF, TIMING OFF, SUMMARY OFF) " + query.sql());
+            query.bind(explain);
+            return explain;
+        }, (rs, row) -> rs.getString(1));
+
+        List<String> executed = plan.stream()
+            .filter(line -> !line.contains("never executed"))
+            .map(EXECUTED_PARTITION::matcher)
+            .filter(Matcher::find)
+            .map(matcher -> matcher.group(1))
+            .distinct()
+            .toList();
+        assertThat(executed).as("partitions executed:%n%s", String.join("\n", plan))
+            .containsExactly(partitionOf(id));
+    }
+}
@@ -0,0 +1,79 @@
+package gov.drdo.emergency.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisResultCacheTest {
+
+    @Test
+    void servesAModelResultFromTheCache() {
+        AnalysisResultCache cache = cache();
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.getOrCompute("hoax", () -> result(calls, false));
+        AIAnalysisService.AIAnalysisResult second = cache.getOrCompute("hoax", () -> result(calls, false));
+
+        assertThat(calls).hasValue(1);
+        assertThat(second.isFallback()).isFalse();
+        assertThat(cache.getStatistics().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCacheFallbackResults() {
+        AnalysisResultCache cache = cache();
+        AtomicInteger calls = new AtomicInteger();
+
+        AIAnalysisService.AIAnalysisResult degraded = cache.getOrCompute("hoax", () -> result(calls, true));
+        AIAnalysisService.AIAnalysisResult recovered = cache.getOrCompute("hoax", () -> result(calls, false));
+
+        assertThat(degraded.isFallback()).isTrue();
+        assertThat(recovered.isFallback()).isFalse();
+        assertThat(calls).hasValue(2);
+        assertThat(cache.getStatistics().getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void coalescesConcurrentMisses() {
+        AnalysisResultCache cache = cache();
+        CompletableFuture<AIAnalysisService.AIAnalysisResult> model = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<AIAnalysisService.AIAnalysisResult> first = cache.getOrComputeAsync("hoax", () -> {
+            calls.incrementAndGet();
+            return model;
+        });
+        CompletableFuture<AIAnalysisService.AIAnalysisResult> second = cache.getOrComputeAsync("hoax", () -> {
+            calls.incrementAndGet();
+            return model;
+        });
+        model.complete(new AIAnalysisService.AIAnalysisResult());
+
+        assertThat(first.join()).isSameAs(second.join());
+        assertThat(calls).hasValue(1);
+        assertThat(cache.getStatistics().getCoalesced()).isEqualTo(1);
+    }
+
+    // Helper methods
+
+    private static AnalysisResultCache cache() {
+        AnalysisResultCache cache = new AnalysisResultCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 900L);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+        return cache;
+    }
+
+    private static AIAnalysisService.AIAnalysisResult result(AtomicInteger calls, boolean fallback) {
+        calls.incrementAndGet();
+        AIAnalysisService.AIAnalysisResult result = new AIAnalysisService.AIAnalysisResult();
+        result.setFallback(fallback);
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AnalysisScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void criticalWorkOvertakesAGrowingLowPriorityBacklog() throws Exception {
+        scheduler = scheduler(1, 100_000);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        for (int backlog : new int[] {10, 1_000, 10_000}) {
+            order.clear();
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Void> blocker = scheduler.schedule(incident(Incident.SeverityLevel.LOW, Incident.IncidentType.OTHER),
+                () -> await(release));
+            waitUntilQueueIsEmpty();
+
+            List<CompletableFuture<Void>> low = new ArrayList<>();
+            for (int i = 0; i < backlog; i++) {
+                low.add(scheduler.schedule(incident(Incident.SeverityLevel.LOW, Incident.IncidentType.OTHER),
+                    () -> order.add("low")));
+            }
+            CompletableFuture<Void> critical = scheduler.schedule(
+                incident(Incident.SeverityLevel.CRITICAL, Incident.IncidentType.BOMB_THREAT), () -> order.add("critical"));
+
+            release.countDown();
+            critical.get(5, TimeUnit.SECONDS);
+            CompletableFuture.allOf(low.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            blocker.get(5, TimeUnit.SECONDS);
+
+            assertThat(order.get(0)).as("backlog of %d", backlog).isEqualTo("critical");
+        }
+    }
+
+    @Test
+    void publishesQueueWaitPerPriorityBand() throws Exception {
+        scheduler = scheduler(2, 100);
+
+        scheduler.schedule(incident(Incident.SeverityLevel.CRITICAL, Incident.IncidentType.BOMB_THREAT), () -> { })
+            .get(5, TimeUnit.SECONDS);
+        scheduler.schedule(incident(Incident.SeverityLevel.LOW, Incident.IncidentType.OTHER), () -> { })
+            .get(5, TimeUnit.SECONDS);
+
+        Timer critical = meterRegistry.get("ai.scheduler.wait").tag("severity", "CRITICAL").tag("risk", "high").timer();
+        Timer low = meterRegistry.get("ai.scheduler.wait").tag("severity", "LOW").tag("risk", "routine").timer();
+        assertThat(critical.count()).isEqualTo(1);
+        assertThat(low.count()).isEqualTo(1);
+        assertThat(meterRegistry.get("ai.scheduler.wait").timers())
+            .hasSize(Incident.SeverityLevel.values().length * 3);
+    }
+
+    // Helper methods
+
+    private AnalysisScheduler scheduler(int workers, int capacity) {
+        AnalysisScheduler scheduler = new AnalysisScheduler();
+        ReflectionTestUtils.setField(scheduler, "maxConcurrency", workers);
+        ReflectionTestUtils.setField(scheduler, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(scheduler, "maxWaitMs", 600_000L);
+        ReflectionTestUtils.setField(scheduler, "agedShare", 8);
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", meterRegistry);
+        scheduler.start();
+        return scheduler;
+    }
+
+    private void waitUntilQueueIsEmpty() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getQueuedCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Incident incident(Incident.SeverityLevel severity, Incident.IncidentType type) {
+        Incident incident = new Incident();
+        incident.setSeverity(severity);
+        incident.setType(type);
+        return incident;
+    }
+}
@@ -0,0 +1,212 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.repository.IncidentRepository;
+import gov.drdo.emergency.repository.IncidentUpdateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk intake through IncidentService against database/schema.sql: each chunk commits on its own, so a
+ * database error loses only the chunk it happened in, and sustained intake keeps up with the 10,000
+ * incidents a minute partner call centres can send. The services that only act after commit (statistics,
+ * rollups, cache, live map, pipeline) are mocks; ID generation, the pre-screen, duplicate detection and
+ * the batched inserts are the real ones.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkIncidentIntakeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIncidentIntakeTest.class);
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+    private static final int TARGET_PER_MINUTE = 10_000;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private IncidentUpdateRepository incidentUpdateRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private IncidentService incidentService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @BeforeAll
+    static void loadSchema() throws Exception {
+        try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(Files.readString(Path.of("..", "database", "schema.sql"), StandardCharsets.UTF_8));
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jdbcTemplate.execute("TRUNCATE incidents, incident_keys, incident_updates CASCADE");
+        incidentService = service(100);
+    }
+
+    @Test
+    void databaseErrorLosesOnlyItsChunk() {
+        List<Incident> incidents = reports(250);
+        // Longer than the title column: the second chunk fails when it is flushed
+        incidents.get(150).setTitle("x".repeat(600));
+
+        List<Incident> saved = incidentService.createIncidentsBulk(incidents, "kiosk-17");
+
+        assertThat(saved).hasSize(250);
+        assertThat(saved.subList(0, 100)).allMatch(Objects::nonNull);
+        assertThat(saved.subList(100, 200)).allMatch(Objects::isNull);
+        assertThat(saved.subList(200, 250)).allMatch(Objects::nonNull);
+        assertThat(count("SELECT count(*) FROM incidents")).isEqualTo(150);
+        assertThat(count("SELECT count(*) FROM incident_updates WHERE updated_by = 'kiosk-17'")).isEqualTo(150);
+        assertThat(incidentRepository.findById(saved.get(0).getId())).isPresent();
+        assertThat(incidentRepository.findById(saved.get(249).getId())).isPresent();
+    }
+
+    @Test
+    void sustainedIntakeMeetsTheTarget() {
+        // One request to warm up the JIT and the connection pool
+        incidentService.createIncidentsBulk(reports(1000), "warm-up");
+        jdbcTemplate.execute("TRUNCATE incidents, incident_keys, incident_updates CASCADE");
+
+        int requests = 10;
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            assertThat(incidentService.createIncidentsBulk(reports(1000), "load")).allMatch(Objects::nonNull);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double perMinute = requests * 1000 / seconds * 60;
+
+        logger.info("Bulk intake: {} incidents in {} s, {} per minute (target {})",
+            requests * 1000, String.format("%.2f", seconds), Math.round(perMinute), TARGET_PER_MINUTE);
+        assertThat(count("SELECT count(*) FROM incidents")).isEqualTo(requests * 1000L);
+        assertThat(perMinute).isGreaterThanOrEqualTo(TARGET_PER_MINUTE);
+    }
+
+    // Helper methods
+
+    private IncidentService service(int batchSize) throws IOException {
+        IncidentIdGenerator idGenerator = mock(IncidentIdGenerator.class);
+        when(idGenerator.nextIncidentId()).thenAnswer(invocation -> "BULK-" + sequence.incrementAndGet());
+
+        ThreatPrescreenService prescreen = new ThreatPrescreenService();
+        ReflectionTestUtils.setField(prescreen, "lexiconPath", "");
+        ReflectionTestUtils.setField(prescreen, "criticalThreshold", 0.85);
+        ReflectionTestUtils.setField(prescreen, "modelThreshold", 0.15);
+        ReflectionTestUtils.setField(prescreen, "meterRegistry", new SimpleMeterRegistry());
+        prescreen.init();
+
+        DuplicateIncidentDetector detector = new DuplicateIncidentDetector();
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "windowMinutes", 60L);
+        ReflectionTestUtils.setField(detector, "radiusMeters", 1000.0);
+        ReflectionTestUtils.setField(detector, "nearbySimilarity", 0.3);
+        ReflectionTestUtils.setField(detector, "textOnlySimilarity", 0.7);
+        ReflectionTestUtils.setField(detector, "maxEntries", 50_000);
+        ReflectionTestUtils.setField(detector, "redisEnabled", false);
+        ReflectionTestUtils.setField(detector, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(detector, "meterRegistry", new SimpleMeterRegistry());
+        detector.init();
+
+        IncidentService service = new IncidentService();
+        ReflectionTestUtils.setField(service, "incidentRepository", incidentRepository);
+        ReflectionTestUtils.setField(service, "incidentUpdateRepository", incidentUpdateRepository);
+        ReflectionTestUtils.setField(service, "incidentIdGenerator", idGenerator);
+        ReflectionTestUtils.setField(service, "threatPrescreenService", prescreen);
+        ReflectionTestUtils.setField(service, "duplicateIncidentDetector", detector);
+        ReflectionTestUtils.setField(service, "incidentPipelineService", mock(IncidentPipelineService.class));
+        ReflectionTestUtils.setField(service, "incidentStatisticsService", mock(IncidentStatisticsService.class));
+        ReflectionTestUtils.setField(service, "incidentRollupService", mock(IncidentRollupService.class));
+        ReflectionTestUtils.setField(service, "incidentCache", mock(IncidentCache.class));
+        ReflectionTestUtils.setField(service, "liveLocationIndex", mock(LiveLocationIndex.class));
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        ReflectionTestUtils.setField(service, "jdbcBatchSize", batchSize);
+        return service;
+    }
+
+    // Reports spread over a grid of about 11 km cells, so none of them is a duplicate of another
+    private List<Incident> reports(int count) {
+        List<Incident> incidents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long n = sequence.get() + i;
+            Incident incident = new Incident();
+            incident.setTitle("Suspicious package report " + n);
+            incident.setDescription("Unattended bag near platform " + (n % 12) + ", caller " + n);
+            incident.setType(Incident.IncidentType.SUSPICIOUS_OBJECT);
+            incident.setSeverity(Incident.SeverityLevel.MEDIUM);
+            incident.setReporterName("Caller " + n);
+            incident.setReporterPhone("+91980000" + String.format("%04d", n % 10_000));
+            incident.setLocationPoint(GEOMETRY_FACTORY.createPoint(
+                new Coordinate(68 + (n / 250 % 250) * 0.1, 8 + (n % 250) * 0.1)));
+            incidents.add(incident);
+        }
+        return incidents;
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,86 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.DispatchRecommendation;
+import gov.drdo.emergency.dto.ResponderLocation;
+import gov.drdo.emergency.entity.Responder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one dispatch recommendation (k = 10) with 50k on-duty responders
+ * spread over a 150 km square around Delhi; the target is under 1 ms. Covers
+ * no criteria, a vehicle type, a helicopter-only search and a specialization
+ * held by about a third of responders. Each call uses the next of 1024
+ * precomputed incident positions so the grid is not probed at one spot only.
+ * Run with the test classpath, e.g. from the IDE via {@link #main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchRecommendationBenchmark {
+
+    private static final int POSITIONS = 1024;
+
+    @Param({"50000"})
+    public int responders;
+
+    @Param({"ANY", "AMBULANCE", "HELICOPTER", "SPECIALIZATION"})
+    public String criteria;
+
+    private DispatchRecommendationService service;
+    private DispatchRecommendationService.DispatchCriteria dispatchCriteria;
+    private final double[] latitudes = new double[POSITIONS];
+    private final double[] longitudes = new double[POSITIONS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        List<ResponderLocation> locations = DispatchRecommendationServiceTest.randomResponders(random, responders,
+            75_000);
+        service = DispatchRecommendationServiceTest.service(locations);
+        dispatchCriteria = switch (criteria) {
+            case "AMBULANCE" -> new DispatchRecommendationService.DispatchCriteria(null, null, null,
+                Set.of(Responder.VehicleType.AMBULANCE), null);
+            case "HELICOPTER" -> new DispatchRecommendationService.DispatchCriteria(null, null, null,
+                Set.of(Responder.VehicleType.HELICOPTER), null);
+            case "SPECIALIZATION" -> new DispatchRecommendationService.DispatchCriteria(null, Set.of("ied"), null,
+                null, null);
+            default -> new DispatchRecommendationService.DispatchCriteria(null, null, null, null, null);
+        };
+        for (int i = 0; i < POSITIONS; i++) {
+            latitudes[i] = DispatchRecommendationServiceTest.LATITUDE + (random.nextDouble() - 0.5) * 1.2;
+            longitudes[i] = DispatchRecommendationServiceTest.LONGITUDE + (random.nextDouble() - 0.5) * 1.2;
+        }
+    }
+
+    @Benchmark
+    public List<DispatchRecommendation> recommendTen() {
+        int i = next++ & (POSITIONS - 1);
+        return service.recommend(latitudes[i], longitudes[i], dispatchCriteria, 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DispatchRecommendationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,301 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.DispatchRecommendation;
+import gov.drdo.emergency.dto.ResponderLocation;
+import gov.drdo.emergency.entity.Responder;
+import gov.drdo.emergency.repository.IncidentRepository;
+import gov.drdo.emergency.repository.ResponderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rankings from the grid search against a brute-force pass over every responder with the same travel-time
+ * estimate, plus the edge cases the search handles separately.
+ */
+class DispatchRecommendationServiceTest {
+
+    static final double LATITUDE = 28.6139;
+    static final double LONGITUDE = 77.2090;
+    static final double MAX_RADIUS_METERS = 100_000;
+    static final int MAX_RECOMMENDATIONS = 50;
+
+    private static final double ROUTE_FACTOR = 1.4;
+    private static final double DEFAULT_SPEED_KMH = 30;
+    private static final GeometryFactory GEOMETRY = new GeometryFactory(new PrecisionModel(), 4326);
+    private static final String[] SPECIALIZATIONS = {"IED", "Chemical", "Rescue", "Negotiation"};
+    private static final String[] EQUIPMENT = {"Robot", "Bomb Suit", "Breathing Apparatus", "Drone"};
+
+    private long nextId = 1;
+
+    @Test
+    void matchesBruteForceRanking() {
+        Random random = new Random(42);
+        List<ResponderLocation> responders = randomResponders(random, 3_000, 60_000);
+        DispatchRecommendationService service = service(responders);
+
+        for (int trial = 0; trial < 300; trial++) {
+            DispatchRecommendationService.DispatchCriteria criteria = randomCriteria(random);
+            double latitude = LATITUDE + (random.nextDouble() - 0.5) * 0.5;
+            double longitude = LONGITUDE + (random.nextDouble() - 0.5) * 0.5;
+            int k = 1 + random.nextInt(MAX_RECOMMENDATIONS);
+
+            assertThat(ids(service.recommend(latitude, longitude, criteria, k)))
+                .as("trial %d", trial)
+                .isEqualTo(bruteForce(responders, latitude, longitude, criteria, k));
+        }
+    }
+
+    @Test
+    void distantHelicopterOutranksNearbyGroundUnits() {
+        ResponderLocation helicopter = responder(Responder.ResponderType.PARAMEDIC, Responder.VehicleType.HELICOPTER,
+            20_000, 0);
+        ResponderLocation ambulance = responder(Responder.ResponderType.PARAMEDIC, Responder.VehicleType.AMBULANCE,
+            6_000, 90);
+        ResponderLocation car = responder(Responder.ResponderType.POLICE, Responder.VehicleType.PATROL_CAR,
+            1_000, 180);
+        DispatchRecommendationService service = service(List.of(helicopter, ambulance, car));
+
+        List<DispatchRecommendation> ranked = service.recommend(LATITUDE, LONGITUDE, criteria(null, null), 3);
+
+        // 20 km at 200 km/h straight is 360 s; 6 km at 45 km/h by road is 672 s
+        assertThat(ids(ranked)).containsExactly(car.getId(), helicopter.getId(), ambulance.getId());
+        assertThat(ranked.get(1).getEtaSeconds()).isCloseTo(360, offset(2L));
+        assertThat(ids(service.recommend(LATITUDE, LONGITUDE,
+            criteria(null, Set.of(Responder.VehicleType.AMBULANCE)), 3))).containsExactly(ambulance.getId());
+    }
+
+    @Test
+    void responderWithoutAVehicleUsesTheDefaultSpeedAndOnlyMatchesWithoutAVehicleRequirement() {
+        ResponderLocation onFoot = responder(Responder.ResponderType.POLICE, null, 3_000, 45);
+        ResponderLocation car = responder(Responder.ResponderType.POLICE, Responder.VehicleType.PATROL_CAR, 4_000, 225);
+        DispatchRecommendationService service = service(List.of(onFoot, car));
+
+        List<DispatchRecommendation> ranked = service.recommend(LATITUDE, LONGITUDE, criteria(null, null), 5);
+
+        // 3 km at 30 km/h by road is 504 s; 4 km at 50 km/h is 403 s
+        assertThat(ids(ranked)).containsExactly(car.getId(), onFoot.getId());
+        assertThat(ranked.get(1).getEtaSeconds()).isCloseTo(504, offset(2L));
+        assertThat(ids(service.recommend(LATITUDE, LONGITUDE,
+            criteria(null, Set.of(Responder.VehicleType.PATROL_CAR)), 5))).containsExactly(car.getId());
+    }
+
+    @Test
+    void radiusCapsTheSearchForAirAndGroundAlike() {
+        ResponderLocation near = responder(Responder.ResponderType.POLICE, Responder.VehicleType.PATROL_CAR, 4_000, 0);
+        ResponderLocation farCar = responder(Responder.ResponderType.POLICE, Responder.VehicleType.PATROL_CAR,
+            6_000, 90);
+        ResponderLocation farHelicopter = responder(Responder.ResponderType.POLICE, Responder.VehicleType.HELICOPTER,
+            6_000, 270);
+        ResponderLocation beyondService = responder(Responder.ResponderType.POLICE, Responder.VehicleType.HELICOPTER,
+            MAX_RADIUS_METERS + 5_000, 0);
+        DispatchRecommendationService service = service(List.of(near, farCar, farHelicopter, beyondService));
+
+        assertThat(ids(service.recommend(LATITUDE, LONGITUDE, criteria(5_000.0, null), 10)))
+            .containsExactly(near.getId());
+        assertThat(ids(service.recommend(LATITUDE, LONGITUDE, criteria(MAX_RADIUS_METERS * 10, null), 10)))
+            .as("capped at the configured maximum")
+            .doesNotContain(beyondService.getId())
+            .hasSize(3);
+    }
+
+    @Test
+    void returnsEveryMatchWhenKExceedsThem() {
+        List<ResponderLocation> responders = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            responders.add(responder(Responder.ResponderType.FIRE_FIGHTER,
+                i % 3 == 0 ? Responder.VehicleType.HELICOPTER : Responder.VehicleType.FIRE_TRUCK, 1_000 + i * 5_000,
+                i * 40));
+        }
+        responders.add(responder(Responder.ResponderType.POLICE, Responder.VehicleType.PATROL_CAR, 500, 0));
+        DispatchRecommendationService service = service(responders);
+
+        List<DispatchRecommendation> ranked = service.recommend(LATITUDE, LONGITUDE,
+            new DispatchRecommendationService.DispatchCriteria(Set.of(Responder.ResponderType.FIRE_FIGHTER),
+                null, null, null, null), MAX_RECOMMENDATIONS);
+
+        assertThat(ranked).hasSize(7);
+        assertThat(ranked).isSortedAccordingTo(Comparator.comparingLong(DispatchRecommendation::getEtaSeconds));
+    }
+
+    // Helper methods
+
+    /**
+     * A service over a live location index loaded with the given on-duty responders
+     */
+    static DispatchRecommendationService service(List<ResponderLocation> responders) {
+        LiveLocationIndex index = liveLocationIndex(responders);
+        DispatchRecommendationService service = new DispatchRecommendationService();
+        ReflectionTestUtils.setField(service, "defaultSpeedKmh", DEFAULT_SPEED_KMH);
+        ReflectionTestUtils.setField(service, "routeFactor", ROUTE_FACTOR);
+        ReflectionTestUtils.setField(service, "maxRadiusMeters", MAX_RADIUS_METERS);
+        ReflectionTestUtils.setField(service, "maxRecommendations", MAX_RECOMMENDATIONS);
+        ReflectionTestUtils.setField(service, "maxSearchResults", 1_000);
+        ReflectionTestUtils.setField(service, "liveLocationIndex", index);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        service.init();
+        return service;
+    }
+
+    /**
+     * A live location index loaded with the given on-duty responders from mocked repositories
+     */
+    static LiveLocationIndex liveLocationIndex(List<ResponderLocation> responders) {
+        IncidentRepository incidentRepository = mock(IncidentRepository.class);
+        ResponderRepository responderRepository = mock(ResponderRepository.class);
+        when(incidentRepository.findActiveLocatedSummaries()).thenReturn(List.of());
+        when(incidentRepository.findSummariesUpdatedSince(any())).thenReturn(List.of());
+        when(responderRepository.findOnDutyLocations()).thenReturn(responders);
+        when(responderRepository.findLocationsUpdatedSince(any())).thenReturn(List.of());
+
+        LiveLocationIndex index = new LiveLocationIndex();
+        ReflectionTestUtils.setField(index, "cellMeters", 2_000.0);
+        ReflectionTestUtils.setField(index, "syncOverlapMillis", 10_000L);
+        ReflectionTestUtils.setField(index, "maxResults", 2_000);
+        ReflectionTestUtils.setField(index, "incidentRepository", incidentRepository);
+        ReflectionTestUtils.setField(index, "responderRepository", responderRepository);
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        index.init();
+        index.rebuild();
+        return index;
+    }
+
+    /**
+     * Responders scattered uniformly within spreadMeters of the reference point; about a third not dispatchable
+     */
+    static List<ResponderLocation> randomResponders(Random random, int count, double spreadMeters) {
+        Responder.ResponderType[] types = Responder.ResponderType.values();
+        Responder.VehicleType[] vehicles = Responder.VehicleType.values();
+        Responder.ResponderStatus[] statuses = Responder.ResponderStatus.values();
+        List<ResponderLocation> responders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Responder.VehicleType vehicle = random.nextInt(10) == 0 ? null : vehicles[random.nextInt(vehicles.length)];
+            Responder.ResponderStatus status = random.nextInt(4) == 0
+                ? statuses[random.nextInt(statuses.length)] : Responder.ResponderStatus.AVAILABLE;
+            double latitude = LATITUDE + (random.nextDouble() * 2 - 1) * spreadMeters / 111_320.0;
+            double longitude = LONGITUDE + (random.nextDouble() * 2 - 1) * spreadMeters / 111_320.0
+                / Math.cos(Math.toRadians(LATITUDE));
+            responders.add(new ResponderLocation((long) i + 1, "R-" + i, "Responder " + i,
+                types[random.nextInt(types.length)], Responder.ResponderRank.INSPECTOR, status, vehicle,
+                GEOMETRY.createPoint(new Coordinate(longitude, latitude)), pick(random, SPECIALIZATIONS),
+                pick(random, EQUIPMENT), true, random.nextInt(8) != 0, LocalDateTime.now(), LocalDateTime.now()));
+        }
+        return responders;
+    }
+
+    static DispatchRecommendationService.DispatchCriteria randomCriteria(Random random) {
+        Responder.ResponderType[] types = Responder.ResponderType.values();
+        Responder.VehicleType[] vehicles = Responder.VehicleType.values();
+        Set<Responder.ResponderType> wantedTypes = random.nextBoolean() ? null
+            : EnumSet.of(types[random.nextInt(types.length)], types[random.nextInt(types.length)]);
+        Set<Responder.VehicleType> wantedVehicles = switch (random.nextInt(3)) {
+            case 0 -> null;
+            case 1 -> Set.of(Responder.VehicleType.HELICOPTER);
+            default -> Set.of(vehicles[random.nextInt(vehicles.length)]);
+        };
+        Set<String> specializations = random.nextInt(4) == 0
+            ? Set.of(SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)].toLowerCase(Locale.ROOT)) : null;
+        Set<String> equipment = random.nextInt(4) == 0
+            ? Set.of(EQUIPMENT[random.nextInt(EQUIPMENT.length)].toUpperCase(Locale.ROOT)) : null;
+        Double radius = random.nextBoolean() ? null : 1_000 + random.nextDouble() * 40_000;
+        return new DispatchRecommendationService.DispatchCriteria(wantedTypes, specializations, equipment,
+            wantedVehicles, radius);
+    }
+
+    // The same travel-time estimate over every responder, without the grid or the capability index
+    private static List<Long> bruteForce(List<ResponderLocation> responders, double latitude, double longitude,
+                                         DispatchRecommendationService.DispatchCriteria criteria, int k) {
+        double radius = criteria.getMaxRadiusMeters() != null
+            ? Math.min(criteria.getMaxRadiusMeters(), MAX_RADIUS_METERS) : MAX_RADIUS_METERS;
+        record Ranked(long id, double seconds) { }
+        List<Ranked> ranked = new ArrayList<>();
+        for (ResponderLocation responder : responders) {
+            if (!responder.isDispatchable() || !matches(responder, criteria)) {
+                continue;
+            }
+            double distance = SpatialGrid.distanceMeters(latitude, longitude, responder.getLatitude(),
+                responder.getLongitude());
+            if (distance <= radius) {
+                ranked.add(new Ranked(responder.getId(), distance * secondsPerMeter(responder.getVehicleType())));
+            }
+        }
+        ranked.sort(Comparator.comparingDouble(Ranked::seconds));
+        return ranked.stream().limit(Math.min(k, MAX_RECOMMENDATIONS)).map(Ranked::id).toList();
+    }
+
+    private static boolean matches(ResponderLocation responder,
+                                   DispatchRecommendationService.DispatchCriteria criteria) {
+        if (!criteria.getTypes().isEmpty() && !criteria.getTypes().contains(responder.getType())) {
+            return false;
+        }
+        if (!criteria.getVehicleTypes().isEmpty() && !criteria.getVehicleTypes().contains(responder.getVehicleType())) {
+            return false;
+        }
+        return containsAll(responder.getSpecializations(), criteria.getSpecializations())
+            && containsAll(responder.getEquipment(), criteria.getEquipment());
+    }
+
+    private static boolean containsAll(String[] values, Set<String> wanted) {
+        Set<String> have = Arrays.stream(values).map(value -> value.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        return wanted.stream().allMatch(value -> have.contains(value.toLowerCase(Locale.ROOT)));
+    }
+
+    private static double secondsPerMeter(Responder.VehicleType vehicle) {
+        if (vehicle == null) {
+            return ROUTE_FACTOR * 3.6 / DEFAULT_SPEED_KMH;
+        }
+        return switch (vehicle) {
+            case HELICOPTER -> 3.6 / 200;
+            case PATROL_CAR -> ROUTE_FACTOR * 3.6 / 50;
+            case AMBULANCE, MOTORCYCLE, K9_UNIT_VEHICLE -> ROUTE_FACTOR * 3.6 / 45;
+            case FIRE_TRUCK, BOMB_DISPOSAL_UNIT -> ROUTE_FACTOR * 3.6 / 40;
+            case MOBILE_COMMAND_CENTER, HAZMAT_VEHICLE -> ROUTE_FACTOR * 3.6 / 35;
+        };
+    }
+
+    private static String[] pick(Random random, String[] values) {
+        return Arrays.stream(values).filter(value -> random.nextInt(3) == 0).toArray(String[]::new);
+    }
+
+    private static List<Long> ids(List<DispatchRecommendation> recommendations) {
+        return recommendations.stream().map(recommendation -> recommendation.getResponder().getId()).toList();
+    }
+
+    private DispatchRecommendationService.DispatchCriteria criteria(Double radius,
+                                                                    Set<Responder.VehicleType> vehicles) {
+        return new DispatchRecommendationService.DispatchCriteria(null, null, null, vehicles, radius);
+    }
+
+    // A dispatchable responder distanceMeters from the reference point along the given bearing
+    private ResponderLocation responder(Responder.ResponderType type, Responder.VehicleType vehicle,
+                                        double distanceMeters, double bearingDegrees) {
+        double bearing = Math.toRadians(bearingDegrees);
+        double latitude = LATITUDE + distanceMeters * Math.cos(bearing) / 111_320.0;
+        double longitude = LONGITUDE + distanceMeters * Math.sin(bearing) / 111_320.0
+            / Math.cos(Math.toRadians(LATITUDE));
+        long id = nextId++;
+        return new ResponderLocation(id, "R-" + id, "Responder " + id, type, Responder.ResponderRank.INSPECTOR,
+            Responder.ResponderStatus.AVAILABLE, vehicle, GEOMETRY.createPoint(new Coordinate(longitude, latitude)),
+            new String[0], new String[0], true, true, LocalDateTime.now(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,316 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DuplicateIncidentDetectorTest {
+
+    private static final String TITLE = "Gas cylinder leak at Sector 5 market";
+    private static final String DESCRIPTION = "Strong smell of cooking gas near the vegetable stalls, people moving away";
+    // Shares roughly 0.4 of the MinHash signature with TITLE/DESCRIPTION: enough nearby, not enough on text alone
+    private static final String REWORDED_TITLE = "Gas leak reported near Sector 5 market";
+    private static final String REWORDED_DESCRIPTION = "Smell of gas, people moving away from the stalls";
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private DuplicateIncidentDetector detector;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // The database the nodes share; every incident is open unless a test says otherwise
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of("REPORTED"));
+        detector = detector(null, null);
+        register(1L, Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.HIGH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(detector);
+    }
+
+    @Test
+    void linksARepeatReportOfTheSameEvent() {
+        DuplicateIncidentDetector.Probe probe = detector.probe(
+            report(Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.MEDIUM));
+
+        assertThat(probe.isDuplicate()).isTrue();
+        assertThat(probe.getMasterIncidentId()).isEqualTo(1L);
+    }
+
+    @Test
+    void doesNotLinkAcrossTypes() {
+        assertThat(detector.probe(report(Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.MEDIUM)).isDuplicate())
+            .isFalse();
+    }
+
+    @Test
+    void doesNotLinkAReportMoreSevereThanTheMaster() {
+        assertThat(detector.probe(report(Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.CRITICAL))
+            .isDuplicate()).isFalse();
+    }
+
+    @Test
+    void neverLinksAReportThePrescreenFlaggedCritical() {
+        Incident report = report(Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.LOW);
+        report.setIsCritical(true);
+
+        assertThat(detector.probe(report).isDuplicate()).isFalse();
+    }
+
+    // Location grid
+
+    @Test
+    void linksANearbyReportWithModeratelySimilarText() {
+        registerAt(10L, 28.6139, 77.2090);
+
+        // About 300 m away
+        DuplicateIncidentDetector.Probe probe = detector.probe(rewordedAt(28.6160, 77.2110));
+
+        assertThat(probe.isDuplicate()).isTrue();
+        assertThat(probe.getMasterIncidentId()).isEqualTo(10L);
+    }
+
+    @Test
+    void doesNotLinkModeratelySimilarTextOutsideTheRadius() {
+        registerAt(10L, 28.6139, 77.2090);
+
+        // About 5 km north
+        assertThat(detector.probe(rewordedAt(28.6600, 77.2090)).isDuplicate()).isFalse();
+    }
+
+    @Test
+    void moderatelySimilarTextWithoutALocationNeedsTheTextOnlyThreshold() {
+        registerAt(10L, 28.6139, 77.2090);
+        Incident unlocated = new Incident(REWORDED_TITLE, REWORDED_DESCRIPTION,
+            Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.MEDIUM);
+
+        assertThat(detector.probe(unlocated).isDuplicate()).isFalse();
+    }
+
+    // Closed masters
+
+    @Test
+    void neverLinksToAMasterResolvedOnAnotherNode() {
+        // Node B resolved incident 1; this node never heard about it
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(1L))).thenReturn(List.of("RESOLVED"));
+
+        DuplicateIncidentDetector.Probe probe = detector.probe(
+            report(Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.MEDIUM));
+
+        assertThat(probe.isDuplicate()).isFalse();
+        assertThat(detector.getWindowSize()).as("closed master dropped").isZero();
+        assertThat(detector.probe(report(Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.MEDIUM))
+            .isDuplicate()).isFalse();
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(String.class), eq(1L));
+    }
+
+    @Test
+    void dropsReportsLinkedToAClosedMasterAndLinksToNothingClosed() {
+        register(2L, Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.MEDIUM);
+        assertThat(detector.getWindowSize()).isEqualTo(2);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(1L))).thenReturn(List.of("CLOSED"));
+
+        assertThat(detector.probe(report(Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.LOW))
+            .isDuplicate()).isFalse();
+        assertThat(detector.getWindowSize()).isZero();
+    }
+
+    @Test
+    void doesNotLinkWhenTheMasterStatusCannotBeRead() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(1L)))
+            .thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThat(detector.probe(report(Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.MEDIUM))
+            .isDuplicate()).isFalse();
+    }
+
+    @Test
+    void masterRegisteredInTheSameTransactionIsLinkedWithoutAStatusCheck() {
+        TransactionSynchronizationManager.initSynchronization();
+        register(2L, Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.HIGH);
+
+        assertThat(detector.probe(report(Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.MEDIUM))
+            .getMasterIncidentId()).isEqualTo(2L);
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), eq(2L));
+    }
+
+    @Test
+    void removalReachesEveryNodeAfterCommit() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        RedisMessageListenerContainer containerA = mock(RedisMessageListenerContainer.class);
+        RedisMessageListenerContainer containerB = mock(RedisMessageListenerContainer.class);
+        DuplicateIncidentDetector nodeA = detector(redis, containerA);
+        DuplicateIncidentDetector nodeB = detector(redis, containerB);
+        registerOn(nodeA, 1L);
+        registerOn(nodeB, 1L);
+
+        // Node A resolves incident 1
+        TransactionSynchronizationManager.initSynchronization();
+        nodeA.remove(1L);
+        assertThat(nodeA.getWindowSize()).as("before commit").isEqualTo(1);
+        verify(redis, never()).convertAndSend(anyString(), anyString());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(redis).convertAndSend(eq("dedup:remove"), body.capture());
+        assertThat(nodeA.getWindowSize()).isZero();
+        assertThat(nodeB.getWindowSize()).isEqualTo(1);
+
+        deliver(containerB, "dedup:remove", body.getValue());
+
+        assertThat(nodeB.getWindowSize()).isZero();
+        assertThat(nodeB.probe(report(Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.MEDIUM))
+            .isDuplicate()).isFalse();
+    }
+
+    @Test
+    void rolledBackStatusChangeKeepsTheMaster() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        DuplicateIncidentDetector node = detector(redis, mock(RedisMessageListenerContainer.class));
+        registerOn(node, 1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        node.remove(1L);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(node.getWindowSize()).isEqualTo(1);
+        verify(redis, never()).convertAndSend(anyString(), anyString());
+    }
+
+    // Transactions
+
+    @Test
+    void reportIsVisibleToOtherTransactionsOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        register(2L, Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.HIGH);
+
+        assertThat(detector.probe(report(Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.MEDIUM))
+            .getMasterIncidentId()).as("same transaction").isEqualTo(2L);
+        assertThat(probeElsewhere(Incident.IncidentType.FIRE_EMERGENCY).isDuplicate()).as("before commit").isFalse();
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(probeElsewhere(Incident.IncidentType.FIRE_EMERGENCY).getMasterIncidentId())
+            .as("after commit").isEqualTo(2L);
+    }
+
+    @Test
+    void rolledBackReportLeavesTheWindow() {
+        TransactionSynchronizationManager.initSynchronization();
+        register(2L, Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.HIGH);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(detector.getWindowSize()).isEqualTo(1);
+        assertThat(detector.probe(report(Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.MEDIUM))
+            .isDuplicate()).isFalse();
+    }
+
+    // Helper methods
+
+    // A node sharing the mocked database; publishes and subscribes removals when given Redis
+    private DuplicateIncidentDetector detector(StringRedisTemplate redis, RedisMessageListenerContainer container) {
+        DuplicateIncidentDetector node = new DuplicateIncidentDetector();
+        ReflectionTestUtils.setField(node, "enabled", true);
+        ReflectionTestUtils.setField(node, "windowMinutes", 60L);
+        ReflectionTestUtils.setField(node, "radiusMeters", 1000.0);
+        ReflectionTestUtils.setField(node, "nearbySimilarity", 0.3);
+        ReflectionTestUtils.setField(node, "textOnlySimilarity", 0.7);
+        ReflectionTestUtils.setField(node, "maxEntries", 1000);
+        ReflectionTestUtils.setField(node, "redisEnabled", redis != null);
+        ReflectionTestUtils.setField(node, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(node, "redisTemplate", redis);
+        ReflectionTestUtils.setField(node, "listenerContainer", container);
+        ReflectionTestUtils.setField(node, "meterRegistry", new SimpleMeterRegistry());
+        node.init();
+        return node;
+    }
+
+    private static void registerOn(DuplicateIncidentDetector node, Long id) {
+        Incident incident = report(Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.HIGH);
+        incident.setId(id);
+        node.register(incident, node.probe(incident));
+    }
+
+    // What Redis does with a message published on the channel the container subscribed
+    private static void deliver(RedisMessageListenerContainer container, String channel, String body) {
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(container).addMessageListener(listener.capture(), any(Topic.class));
+        listener.getValue().onMessage(new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private void registerAt(Long id, double latitude, double longitude) {
+        Incident incident = report(Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.HIGH);
+        incident.setId(id);
+        incident.setLocationPoint(GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude)));
+        detector.register(incident, detector.probe(incident));
+    }
+
+    private static Incident rewordedAt(double latitude, double longitude) {
+        Incident incident = new Incident(REWORDED_TITLE, REWORDED_DESCRIPTION,
+            Incident.IncidentType.CHEMICAL_HAZARD, Incident.SeverityLevel.MEDIUM);
+        incident.setLocationPoint(GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude)));
+        return incident;
+    }
+
+    // Probe from another thread, i.e. outside the current transaction
+    private DuplicateIncidentDetector.Probe probeElsewhere(Incident.IncidentType type) {
+        return CompletableFuture.supplyAsync(() -> detector.probe(report(type, Incident.SeverityLevel.MEDIUM))).join();
+    }
+
+    // What the transaction manager does once the transaction ends
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private void register(Long id, Incident.IncidentType type, Incident.SeverityLevel severity) {
+        Incident incident = report(type, severity);
+        incident.setId(id);
+        detector.register(incident, detector.probe(incident));
+    }
+
+    private static Incident report(Incident.IncidentType type, Incident.SeverityLevel severity) {
+        return new Incident(TITLE, DESCRIPTION, type, severity);
+    }
+}
@@ -0,0 +1,114 @@
+package gov.drdo.emergency.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-loop load against GeminiStubController: calls are offered at a fixed rate through a real GeminiClient,
+ * whatever the upstream latency, and the run reports completed, rejected and failed calls, end-to-end latency
+ * percentiles (queueing included), the deepest queue seen and the JVM's peak thread count. With the stub's
+ * default 1.5-2 s latency, max-in-flight 64 serves about 35 calls/s; offering more should fill the queue and
+ * then reject, while the thread count stays flat because no thread waits on a call in flight.
+ *
+ * Start the backend with the gemini-stub profile (it serves /stub/gemini/v1beta), then run {@link #main} with
+ * the test classpath. Settings are system properties: harness.base-url
+ * (default http://localhost:8080/stub/gemini/v1beta), harness.rate (calls/s, 100), harness.seconds (30),
+ * harness.max-in-flight (64), harness.max-queued (1000), harness.io-threads (4).
+ */
+public class GeminiClientLoadHarness {
+
+    private static final Map<String, Object> REQUEST = Map.of("contents", List.of(Map.of("parts",
+        List.of(Map.of("text", "Unattended bag on platform 3, wires visible")))));
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("harness.base-url", "http://localhost:8080/stub/gemini/v1beta");
+        int rate = Integer.getInteger("harness.rate", 100);
+        int seconds = Integer.getInteger("harness.seconds", 30);
+
+        GeminiClient client = new GeminiClient();
+        ReflectionTestUtils.setField(client, "apiKey", "stub");
+        ReflectionTestUtils.setField(client, "baseUrl", baseUrl);
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(client, "requestTimeoutMs", 30_000L);
+        ReflectionTestUtils.setField(client, "maxInFlight", Integer.getInteger("harness.max-in-flight", 64));
+        ReflectionTestUtils.setField(client, "maxQueued", Integer.getInteger("harness.max-queued", 1000));
+        ReflectionTestUtils.setField(client, "ioThreads", Integer.getInteger("harness.io-threads", 4));
+        ReflectionTestUtils.setField(client, "objectMapper", new ObjectMapper());
+        client.init();
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        int threadsBefore = threads.getThreadCount();
+
+        LongAdder completed = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder failed = new LongAdder();
+        AtomicInteger deepestQueue = new AtomicInteger();
+        ConcurrentLinkedQueue<Long> latenciesMicros = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<?>> calls = Collections.synchronizedList(new ArrayList<>());
+
+        ScheduledExecutorService offer = Executors.newSingleThreadScheduledExecutor();
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        offer.scheduleAtFixedRate(() -> {
+            long sent = System.nanoTime();
+            calls.add(client.generateContentAsync("gemini-1.5-flash", REQUEST).whenComplete((body, error) -> {
+                if (error == null) {
+                    completed.increment();
+                    latenciesMicros.add((System.nanoTime() - sent) / 1_000);
+                } else if (unwrap(error) instanceof RejectedExecutionException) {
+                    rejected.increment();
+                } else {
+                    failed.increment();
+                }
+            }));
+            deepestQueue.accumulateAndGet(client.getQueuedCalls(), Math::max);
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        TimeUnit.SECONDS.sleep(seconds);
+        offer.shutdown();
+        offer.awaitTermination(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(calls.stream().map(call -> call.handle((body, error) -> null))
+            .toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        client.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latenciesMicros);
+        Collections.sort(sorted);
+        System.out.printf("Offered %d calls at %d/s over %ds against %s%n", calls.size(), rate, seconds, baseUrl);
+        System.out.printf("Completed %d (%.1f/s), rejected %d, failed %d%n",
+            completed.sum(), completed.sum() / elapsed, rejected.sum(), failed.sum());
+        System.out.printf("Latency ms: p50 %.0f, p95 %.0f, p99 %.0f, max %.0f%n",
+            percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 1.0));
+        System.out.printf("Deepest queue %d, threads %d before, peak %d%n",
+            deepestQueue.get(), threadsBefore, threads.getPeakThreadCount());
+    }
+
+    private static double percentile(List<Long> sortedMicros, double quantile) {
+        if (sortedMicros.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sortedMicros.size()) - 1;
+        return sortedMicros.get(Math.max(0, index)) / 1000.0;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
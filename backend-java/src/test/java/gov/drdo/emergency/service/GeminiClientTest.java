@@ -0,0 +1,200 @@
+package gov.drdo.emergency.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Permit queue of GeminiClient: at most max-in-flight calls run, up to max-queued more wait in FIFO order and
+ * the rest are rejected, each finished call hands its permit to the next waiting call, and waiting calls whose
+ * caller has given up are skipped without ever being sent. Calls are stand-ins completed by the test; the HTTP
+ * side is exercised by GeminiClientLoadHarness against the gemini-stub profile.
+ */
+class GeminiClientTest {
+
+    private final List<CompletableFuture<byte[]>> sent = new ArrayList<>();
+
+    @Test
+    void admitsUpToMaxInFlightQueuesUpToMaxQueuedAndRejectsTheRest() {
+        GeminiClient client = client(2, 2);
+
+        List<CompletableFuture<byte[]>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(client.submit(this::send));
+        }
+
+        assertThat(sent).hasSize(2);
+        assertThat(client.getActiveCalls()).isEqualTo(2);
+        assertThat(client.getQueuedCalls()).isEqualTo(2);
+        assertThat(results.subList(0, 4)).noneMatch(CompletableFuture::isDone);
+        assertThatThrownBy(() -> results.get(4).get())
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void finishedCallsHandTheirPermitToWaitingCallsInOrder() throws Exception {
+        GeminiClient client = client(2, 10);
+        List<CompletableFuture<byte[]>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(client.submit(this::send));
+        }
+
+        sent.get(0).complete(body(0));
+        assertThat(results.get(0).get()).isEqualTo(body(0));
+        assertThat(sent).hasSize(3);
+
+        sent.get(1).completeExceptionally(new GeminiClient.GeminiApiException(503, "unavailable"));
+        assertThatThrownBy(() -> results.get(1).get()).hasCauseInstanceOf(GeminiClient.GeminiApiException.class);
+        assertThat(sent).hasSize(4);
+
+        // Waiting calls went out in submission order, and the active count never rose above the limit
+        for (int i = 2; i < 5; i++) {
+            assertThat(client.getActiveCalls()).isEqualTo(2);
+            sent.get(i).complete(body(i));
+            assertThat(results.get(i).get()).isEqualTo(body(i));
+        }
+        assertThat(sent).hasSize(5);
+        assertThat(client.getActiveCalls()).isZero();
+        assertThat(client.getQueuedCalls()).isZero();
+    }
+
+    @Test
+    void waitingCallsWhoseCallerGaveUpAreSkipped() throws Exception {
+        GeminiClient client = client(1, 10);
+        CompletableFuture<byte[]> running = client.submit(this::send);
+        CompletableFuture<byte[]> cancelled = client.submit(this::send);
+        CompletableFuture<byte[]> timedOut = client.submit(this::send).orTimeout(1, TimeUnit.MILLISECONDS);
+        AtomicInteger lastCalls = new AtomicInteger();
+        CompletableFuture<byte[]> last = client.submit(() -> {
+            lastCalls.incrementAndGet();
+            return send();
+        });
+
+        cancelled.cancel(true);
+        assertThatThrownBy(() -> timedOut.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        sent.get(0).complete(body(0));
+
+        // The permit skipped both abandoned calls and went to the last one
+        assertThat(running.get()).isEqualTo(body(0));
+        assertThat(sent).hasSize(2);
+        assertThat(lastCalls).hasValue(1);
+        assertThat(client.getActiveCalls()).isEqualTo(1);
+        assertThat(client.getQueuedCalls()).isZero();
+
+        sent.get(1).complete(body(1));
+        assertThat(last.get()).isEqualTo(body(1));
+        assertThat(client.getActiveCalls()).isZero();
+    }
+
+    @Test
+    void permitIsReturnedWhenOnlyAbandonedCallsWait() {
+        GeminiClient client = client(1, 10);
+        client.submit(this::send);
+        client.submit(this::send).cancel(true);
+        client.submit(this::send).cancel(true);
+
+        sent.get(0).complete(body(0));
+
+        assertThat(sent).hasSize(1);
+        assertThat(client.getActiveCalls()).isZero();
+        assertThat(client.getQueuedCalls()).isZero();
+        // The freed permit is usable straight away
+        client.submit(this::send);
+        assertThat(sent).hasSize(2);
+    }
+
+    @Test
+    void callThatFailsToStartReleasesItsPermit() {
+        GeminiClient client = client(1, 10);
+        CompletableFuture<byte[]> broken = client.submit(() -> {
+            throw new IllegalStateException("request could not be built");
+        });
+
+        assertThatThrownBy(broken::get).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(client.getActiveCalls()).isZero();
+        client.submit(this::send);
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedMaxInFlight() throws Exception {
+        GeminiClient client = client(8, 64);
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        ExecutorService upstream = Executors.newFixedThreadPool(4);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<CompletableFuture<byte[]>> results = new ArrayList<>();
+        try {
+            List<Future<CompletableFuture<byte[]>>> submissions = new ArrayList<>();
+            for (int i = 0; i < 4_000; i++) {
+                submissions.add(callers.submit(() -> client.submit(() -> {
+                    peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(() -> {
+                        sleepMicros(ThreadLocalRandom.current().nextInt(50));
+                        inFlight.decrementAndGet();
+                        return body(1);
+                    }, upstream);
+                })));
+            }
+            for (Future<CompletableFuture<byte[]>> submission : submissions) {
+                results.add(submission.get());
+            }
+            CompletableFuture.allOf(results.stream()
+                .map(result -> result.handle((body, error) -> body))
+                .toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        } finally {
+            callers.shutdownNow();
+            upstream.shutdownNow();
+        }
+
+        long rejected = results.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+        assertThat(peak.get()).isLessThanOrEqualTo(8);
+        assertThat(rejected).isLessThan(results.size());
+        assertThat(results).allMatch(CompletableFuture::isDone);
+        assertThat(client.getActiveCalls()).isZero();
+        assertThat(client.getQueuedCalls()).isZero();
+    }
+
+    // Helper methods
+
+    private static GeminiClient client(int maxInFlight, int maxQueued) {
+        GeminiClient client = new GeminiClient();
+        ReflectionTestUtils.setField(client, "maxInFlight", maxInFlight);
+        ReflectionTestUtils.setField(client, "maxQueued", maxQueued);
+        return client;
+    }
+
+    private CompletableFuture<byte[]> send() {
+        CompletableFuture<byte[]> call = new CompletableFuture<>();
+        sent.add(call);
+        return call;
+    }
+
+    private static byte[] body(int i) {
+        return ("response " + i).getBytes();
+    }
+
+    private static void sleepMicros(int micros) {
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
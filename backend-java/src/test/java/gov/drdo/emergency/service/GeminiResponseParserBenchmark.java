@@ -0,0 +1,54 @@
+package gov.drdo.emergency.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse time per recorded Gemini response, one run per corpus shape.
+ * Run with the test classpath, e.g. from the IDE via {@link #main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeminiResponseParserBenchmark {
+
+    @Param({"clean.json", "fenced.json", "truncated.json", "freetext.json"})
+    private String response;
+
+    private GeminiResponseParser parser;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        parser = new GeminiResponseParser(new ObjectMapper());
+        body = GeminiResponseParserTest.corpus(response);
+    }
+
+    @Benchmark
+    public AIAnalysisService.AIAnalysisResult parse() {
+        return parser.parse(body);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GeminiResponseParserBenchmark.class.getSimpleName()).build()).run();
+    }
+}
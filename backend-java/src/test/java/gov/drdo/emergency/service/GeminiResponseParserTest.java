@@ -0,0 +1,115 @@
+package gov.drdo.emergency.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeminiResponseParserTest {
+
+    private final GeminiResponseParser parser = new GeminiResponseParser(new ObjectMapper());
+
+    @Test
+    void parsesCleanJsonIntoEveryField() throws IOException {
+        AIAnalysisService.AIAnalysisResult result = parser.parse(corpus("clean.json"));
+
+        assertThat(result.isFallback()).isFalse();
+        assertThat(result.getConfidenceScore()).isEqualTo(0.92);
+        assertThat(result.getThreatLevel()).isEqualTo("CRITICAL");
+        assertThat(result.getAnalysisSummary()).startsWith("Device with visible timer");
+        assertThat(result.getBombIndicators()).containsExactly("exposed wiring", "timer display", "unattended backpack");
+        assertThat(result.getSafetyRecommendations()).hasSize(2);
+        assertThat(result.getResponseProtocols()).containsExactly("BDDS deployment", "Cordon 100 m");
+        assertThat(result.getEvacuationRadius()).isEqualTo(150);
+        assertThat(result.getSpecializedUnits()).containsExactly("Bomb Disposal Squad", "K9 unit");
+        assertThat(result.getImmediateActions()).containsExactly("Clear the area", "Switch off mobile repeaters");
+    }
+
+    @Test
+    void parsesJsonInsideAMarkdownFenceAndProse() throws IOException {
+        AIAnalysisService.AIAnalysisResult result = parser.parse(corpus("fenced.json"));
+
+        assertThat(result.getConfidenceScore()).isEqualTo(0.75);
+        assertThat(result.getThreatLevel()).isEqualTo("HIGH");
+        assertThat(result.getEvacuationRadius()).isEqualTo(300);
+        assertThat(result.getSpecializedUnits()).containsExactly("CBRN response team");
+        assertThat(result.getImmediateActions()).containsExactly("Seal ventilation");
+    }
+
+    @Test
+    void keepsFieldsReadBeforeATruncation() throws IOException {
+        AIAnalysisService.AIAnalysisResult result = parser.parse(corpus("truncated.json"));
+
+        assertThat(result.getConfidenceScore()).isEqualTo(0.81);
+        assertThat(result.getThreatLevel()).isEqualTo("HIGH");
+        assertThat(result.getBombIndicators()).containsExactly("pressure cooker", "protruding wires");
+        assertThat(result.getSafetyRecommendations()).contains("Keep 200 m distance");
+        assertThat(result.getAnalysisSummary()).contains("truncated");
+        assertThat(result.isFallback()).isTrue();
+    }
+
+    @Test
+    void classifiesFreeTextByKeywords() throws IOException {
+        AIAnalysisService.AIAnalysisResult result = parser.parse(corpus("freetext.json"));
+
+        assertThat(result.getThreatLevel()).isEqualTo("MEDIUM");
+        assertThat(result.getConfidenceScore()).isEqualTo(0.6);
+        assertThat(result.getAnalysisSummary()).startsWith("Based on the description");
+        assertThat(result.isFallback()).isTrue();
+    }
+
+    @Test
+    void flagsFreeTextMentioningCriticalForReview() throws IOException {
+        AIAnalysisService.AIAnalysisResult result = parser.parse(corpus("freetext-critical.json"));
+
+        assertThat(result.getThreatLevel()).isEqualTo("HIGH");
+        assertThat(result.getConfidenceScore()).isEqualTo(0.9);
+        assertThat(result.isFallback()).isTrue();
+    }
+
+    @Test
+    void flagsAnObjectBrokenAfterItsFirstFieldsForReview() {
+        String text = "{\\\"confidence_score\\\": 0.95, \\\"threat_level\\\": \\\"CRITICAL\\\", \\\"bomb_indicators\\\": [oops]}";
+        AIAnalysisService.AIAnalysisResult result = parser.parse(
+            ("{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + text + "\"}]}}]}").getBytes());
+
+        assertThat(result.getConfidenceScore()).isEqualTo(0.95);
+        assertThat(result.isFallback()).isTrue();
+    }
+
+    @Test
+    void treatsMalformedNumbersAsMissing() {
+        String text = "{\\\"confidence_score\\\": \\\"1.2.3\\\", \\\"evacuation_radius\\\": \\\"99999999999 m\\\", "
+            + "\\\"threat_level\\\": \\\"high\\\"}";
+        AIAnalysisService.AIAnalysisResult result = parser.parse(
+            ("{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + text + "\"}]}}]}").getBytes());
+
+        assertThat(result.getConfidenceScore()).isEqualTo(0.0);
+        assertThat(result.getEvacuationRadius()).isNull();
+        assertThat(result.getThreatLevel()).isEqualTo("HIGH");
+    }
+
+    @Test
+    void doesNotFlagCleanJson() throws IOException {
+        assertThat(parser.parse(corpus("clean.json")).isFallback()).isFalse();
+        assertThat(parser.parse(corpus("fenced.json")).isFallback()).isFalse();
+    }
+
+    @Test
+    void fallsBackWhenThereIsNoCandidate() {
+        AIAnalysisService.AIAnalysisResult result = parser.parse("{\"promptFeedback\":{\"blockReason\":\"SAFETY\"}}".getBytes());
+
+        assertThat(result.isFallback()).isTrue();
+        assertThat(result.getThreatLevel()).isEqualTo("MEDIUM");
+        assertThat(result.getAnalysisSummary()).contains("Manual review");
+    }
+
+    static byte[] corpus(String name) throws IOException {
+        try (InputStream in = GeminiResponseParserTest.class.getResourceAsStream("/gemini/" + name)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.IncidentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two nodes share one Redis (a map behind mocked value operations) and one pub/sub channel (every
+ * listener a node's container registers gets every published message), and read one database (an
+ * incident title held in a reference).
+ */
+class IncidentCacheTest {
+
+    private static final long ID = 42L;
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final List<MessageListener> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicReference<String> database = new AtomicReference<>("Fire at depot");
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<IncidentCache> nodes = new ArrayList<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = sharedRedis();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        nodes.forEach(IncidentCache::shutdown);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesOnANodeLoadOnce() throws Exception {
+        IncidentCache cache = node(60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Long, Optional<IncidentResponse>> slowLoader = id -> {
+            await(release);
+            return load(id);
+        };
+
+        List<Future<Optional<IncidentResponse>>> lookups = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            lookups.add(executor.submit(() -> cache.getById(ID, slowLoader)));
+        }
+        // Hold the first load until the other fifteen have joined it
+        waitFor(() -> coalesced(cache) == 15);
+        release.countDown();
+
+        for (Future<Optional<IncidentResponse>> lookup : lookups) {
+            assertThat(lookup.get(5, TimeUnit.SECONDS)).map(IncidentResponse::getTitle).contains("Fire at depot");
+        }
+        assertThat(loads).hasValue(1);
+
+        // Now cached in both tiers: a second node gets it from Redis, this one from its near cache
+        IncidentCache other = node(60_000);
+        assertThat(other.getById(ID, this::load)).map(IncidentResponse::getTitle).contains("Fire at depot");
+        assertThat(cache.getById(ID, this::load)).isPresent();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void writeOnOneNodeEvictsTheOtherNodesNearCopy() {
+        IncidentCache first = node(60_000);
+        IncidentCache second = node(60_000);
+        first.getById(ID, this::load);
+        second.getById(ID, this::load);
+        assertThat(loads).hasValue(1);
+
+        database.set("Fire at depot, contained");
+        // Before the write commits both nodes keep serving the old view
+        TransactionSynchronizationManager.initSynchronization();
+        first.invalidate(ID);
+        assertThat(title(second)).isEqualTo("Fire at depot");
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(redis).doesNotContainKey("incident-cache:id:" + ID);
+        assertThat(title(second)).isEqualTo("Fire at depot, contained");
+        assertThat(title(first)).isEqualTo("Fire at depot, contained");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void rolledBackWriteKeepsTheCachedView() {
+        IncidentCache cache = node(60_000);
+        cache.getById(ID, this::load);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(ID);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(title(cache)).isEqualTo("Fire at depot");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void loadStartedBeforeAWriteIsReturnedButNotCached() throws Exception {
+        IncidentCache cache = node(60_000);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // A read that saw the row before the write committed, e.g. on a lagging replica
+        Future<Optional<IncidentResponse>> stale = executor.submit(() -> cache.getById(ID, id -> {
+            Optional<IncidentResponse> before = load(id);
+            reading.countDown();
+            await(release);
+            return before;
+        }));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        database.set("Fire at depot, contained");
+        cache.invalidate(ID);
+        // A lookup after the write does not join the stale load
+        assertThat(title(cache)).isEqualTo("Fire at depot, contained");
+        release.countDown();
+
+        assertThat(stale.get(5, TimeUnit.SECONDS)).map(IncidentResponse::getTitle).contains("Fire at depot");
+        assertThat(title(cache)).isEqualTo("Fire at depot, contained");
+        assertThat(title(node(60_000))).isEqualTo("Fire at depot, contained");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void secondInvalidationRemovesAStaleValueWrittenBackAfterTheFirst() {
+        IncidentCache first = node(200);
+        IncidentCache second = node(200);
+        first.getById(ID, this::load);
+        String stale = redis.get("incident-cache:id:" + ID);
+
+        database.set("Fire at depot, contained");
+        first.invalidate(ID);
+        // A node that missed just before the write read the old row and wrote it back to Redis
+        redis.put("incident-cache:id:" + ID, stale);
+        assertThat(title(second)).isEqualTo("Fire at depot");
+
+        waitFor(() -> !redis.containsKey("incident-cache:id:" + ID));
+        assertThat(title(second)).isEqualTo("Fire at depot, contained");
+        assertThat(title(first)).isEqualTo("Fire at depot, contained");
+    }
+
+    @Test
+    void incidentIdLookupsShareTheIdEntry() {
+        IncidentCache first = node(60_000);
+        IncidentCache second = node(60_000);
+        Function<String, Optional<IncidentResponse>> byIncidentId = incidentId -> load(ID);
+
+        assertThat(first.getByIncidentId("INC-1", byIncidentId, this::load)).isPresent();
+        assertThat(second.getByIncidentId("INC-1", byIncidentId, this::load)).isPresent();
+        assertThat(redis).containsEntry("incident-cache:ref:INC-1", String.valueOf(ID));
+        assertThat(loads).hasValue(1);
+
+        database.set("Fire at depot, contained");
+        first.invalidate(ID);
+
+        assertThat(second.getByIncidentId("INC-1", byIncidentId, this::load))
+            .map(IncidentResponse::getTitle).contains("Fire at depot, contained");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void withoutRedisANodeKeepsOnlyItsNearCache() {
+        IncidentCache cache = node(60_000);
+        ReflectionTestUtils.setField(cache, "redisEnabled", false);
+
+        cache.getById(ID, this::load);
+        cache.getById(ID, this::load);
+        cache.invalidate(ID);
+        cache.getById(ID, this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(redis).isEmpty();
+    }
+
+    // Helper methods
+
+    private IncidentCache node(long secondInvalidationDelayMillis) {
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        doAnswer(invocation -> subscribers.add(invocation.getArgument(0)))
+            .when(container).addMessageListener(any(MessageListener.class), any(Topic.class));
+
+        IncidentCache cache = new IncidentCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "redisEnabled", true);
+        ReflectionTestUtils.setField(cache, "nearMaxEntries", 1000L);
+        ReflectionTestUtils.setField(cache, "nearTtlSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "redisTtlSeconds", 600L);
+        ReflectionTestUtils.setField(cache, "secondInvalidationDelayMillis", secondInvalidationDelayMillis);
+        ReflectionTestUtils.setField(cache, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(cache, "listenerContainer", container);
+        ReflectionTestUtils.setField(cache, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+        nodes.add(cache);
+        return cache;
+    }
+
+    // The database read behind every miss
+    private Optional<IncidentResponse> load(Long id) {
+        loads.incrementAndGet();
+        IncidentResponse response = new IncidentResponse();
+        response.setId(id);
+        response.setIncidentId("INC-1");
+        response.setTitle(database.get());
+        return Optional.of(response);
+    }
+
+    private String title(IncidentCache cache) {
+        return cache.getById(ID, this::load).map(IncidentResponse::getTitle).orElse(null);
+    }
+
+    private static double coalesced(IncidentCache cache) {
+        SimpleMeterRegistry registry = (SimpleMeterRegistry) ReflectionTestUtils.getField(cache, "meterRegistry");
+        return registry.get("emergency.cache.incidents.requests").tag("result", "coalesced").functionCounter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private StringRedisTemplate sharedRedis() {
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(values.get(anyString())).thenAnswer(invocation -> redis.get((String) invocation.getArgument(0)));
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(values).set(anyString(), anyString(), any(Duration.class));
+
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        when(template.opsForValue()).thenReturn(values);
+        when(template.delete(anyString())).thenAnswer(invocation -> redis.remove((String) invocation.getArgument(0)) != null);
+        when(template.convertAndSend(anyString(), any())).thenAnswer(invocation -> {
+            byte[] channel = ((String) invocation.getArgument(0)).getBytes(StandardCharsets.UTF_8);
+            byte[] body = invocation.getArgument(1).toString().getBytes(StandardCharsets.UTF_8);
+            subscribers.forEach(listener -> listener.onMessage(new DefaultMessage(channel, body), null));
+            return (long) subscribers.size();
+        });
+        return template;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,102 @@
+package gov.drdo.emergency.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one incident ID: the Snowflake generator against the previous
+ * "INC-YYYY-" + first 8 characters of a random UUID scheme, single-threaded
+ * and with 8 threads sharing one generator (the bulk intake case).
+ * Run with the test classpath, e.g. from the IDE via {@link #main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncidentIdGeneratorBenchmark {
+
+    private SnowflakeIncidentIdGenerator snowflake;
+
+    @Setup
+    public void setUp() {
+        snowflake = new SnowflakeIncidentIdGenerator();
+        ReflectionTestUtils.setField(snowflake, "configuredNodeId", 1);
+        ReflectionTestUtils.setField(snowflake, "zone", "Asia/Kolkata");
+        ReflectionTestUtils.setField(snowflake, "nodeLease", new HeldLease());
+        snowflake.init();
+    }
+
+    @Benchmark
+    public String snowflake() {
+        return snowflake.nextIncidentId();
+    }
+
+    @Benchmark
+    public String uuid() {
+        return legacyIncidentId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snowflakeContended() {
+        return snowflake.nextIncidentId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidContended() {
+        return legacyIncidentId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IncidentIdGeneratorBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    // The scheme IncidentService used before SnowflakeIncidentIdGenerator
+    private static String legacyIncidentId() {
+        String prefix = "INC-" + LocalDateTime.now().getYear() + "-";
+        String suffix = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return prefix + suffix;
+    }
+
+    // Always held and never out of reservation, so no database round trip is measured
+    private static class HeldLease extends IncidentIdNodeLease {
+        @Override
+        public synchronized long acquire(int nodeId) {
+            return 0;
+        }
+
+        @Override
+        public synchronized void reserve(long second) {
+        }
+
+        @Override
+        public long getReservedUntil() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public boolean isHeld() {
+            return true;
+        }
+    }
+}
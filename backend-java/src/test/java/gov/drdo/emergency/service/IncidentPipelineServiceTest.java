@@ -0,0 +1,142 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.entity.IncidentOutboxEvent;
+import gov.drdo.emergency.repository.IncidentOutboxRepository;
+import gov.drdo.emergency.repository.IncidentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IncidentPipelineServiceTest {
+
+    private final IncidentOutboxRepository outboxRepository = mock(IncidentOutboxRepository.class);
+    private final IncidentRepository incidentRepository = mock(IncidentRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final AIAnalysisService aiAnalysisService = mock(AIAnalysisService.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private IncidentPipelineService pipeline;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        pipeline.stop();
+    }
+
+    @Test
+    void relayDoesNotQueueAnEventTwice() throws Exception {
+        IncidentOutboxEvent blocker = event(1L);
+        IncidentOutboxEvent queued = event(2L);
+        pipeline = pipeline(blocker, queued);
+
+        // The single notify worker is stuck on the first event, so the second one waits in the stage queue
+        when(outboxRepository.findRelayable(any(), any(), any(Pageable.class))).thenReturn(List.of(blocker));
+        pipeline.relayPendingEvents();
+        verify(notificationService, timeout(5000)).sendIncidentAlert(any());
+
+        when(outboxRepository.findRelayable(any(), any(), any(Pageable.class))).thenReturn(List.of(queued));
+        pipeline.relayPendingEvents();
+        pipeline.relayPendingEvents();
+        pipeline.relayPendingEvents();
+
+        assertThat(pipeline.getStageBacklog()).containsEntry(IncidentOutboxEvent.Stage.NOTIFY, 1);
+
+        release.countDown();
+        verify(outboxRepository, timeout(5000)).markCompleted(eq(2L), any());
+        verify(outboxRepository, times(1)).claim(eq(2L), any());
+    }
+
+    @Test
+    void relayRequeuesAnEventOnceItsWorkerHasRun() throws Exception {
+        IncidentOutboxEvent event = event(3L);
+        pipeline = pipeline(event);
+        release.countDown();
+        when(outboxRepository.findRelayable(any(), any(), any(Pageable.class))).thenReturn(List.of(event));
+
+        pipeline.relayPendingEvents();
+        verify(outboxRepository, timeout(5000)).markCompleted(eq(3L), any());
+        pipeline.relayPendingEvents();
+
+        verify(outboxRepository, timeout(5000).times(2)).claim(eq(3L), any());
+    }
+
+    @Test
+    void relayRenewsTheClaimOfAnalysisWaitingInTheScheduler() throws Exception {
+        IncidentOutboxEvent event = event(4L, IncidentOutboxEvent.Stage.AI_ANALYSIS);
+        pipeline = pipeline(event);
+        CompletableFuture<Void> analysis = new CompletableFuture<>();
+        when(aiAnalysisService.analyzeIncidentAsync(any())).thenReturn(analysis);
+        when(outboxRepository.findRelayable(any(), any(), any(Pageable.class))).thenReturn(List.of(event));
+
+        pipeline.relayPendingEvents();
+        verify(aiAnalysisService, timeout(5000)).analyzeIncidentAsync(any());
+
+        when(outboxRepository.findRelayable(any(), any(), any(Pageable.class))).thenReturn(List.of());
+        pipeline.relayPendingEvents();
+        verify(outboxRepository).renewClaims(eq(List.of(4L)), any());
+
+        analysis.complete(null);
+        verify(outboxRepository, timeout(5000)).markCompleted(eq(4L), any());
+        pipeline.relayPendingEvents();
+        verify(outboxRepository, times(1)).renewClaims(any(), any());
+    }
+
+    // Helper methods
+
+    private IncidentPipelineService pipeline(IncidentOutboxEvent... events) throws Exception {
+        for (IncidentOutboxEvent event : events) {
+            when(outboxRepository.findById(event.getId())).thenReturn(Optional.of(event));
+        }
+        when(outboxRepository.claim(anyLong(), any(LocalDateTime.class))).thenReturn(1);
+        when(incidentRepository.findById(anyLong())).thenReturn(Optional.of(new Incident()));
+        doAnswer(invocation -> release.await(10, TimeUnit.SECONDS))
+            .when(notificationService).sendIncidentAlert(any());
+
+        IncidentPipelineService service = new IncidentPipelineService();
+        ReflectionTestUtils.setField(service, "outboxRepository", outboxRepository);
+        ReflectionTestUtils.setField(service, "incidentRepository", incidentRepository);
+        ReflectionTestUtils.setField(service, "notificationService", notificationService);
+        ReflectionTestUtils.setField(service, "aiAnalysisService", aiAnalysisService);
+        ReflectionTestUtils.setField(service, "notifyWorkers", 1);
+        ReflectionTestUtils.setField(service, "notifyQueueCapacity", 10);
+        ReflectionTestUtils.setField(service, "broadcastWorkers", 1);
+        ReflectionTestUtils.setField(service, "broadcastQueueCapacity", 10);
+        ReflectionTestUtils.setField(service, "aiWorkers", 1);
+        ReflectionTestUtils.setField(service, "aiQueueCapacity", 10);
+        ReflectionTestUtils.setField(service, "maxAttempts", 5);
+        ReflectionTestUtils.setField(service, "claimTimeoutMs", 900_000L);
+        service.start();
+        return service;
+    }
+
+    private static IncidentOutboxEvent event(Long id) {
+        return event(id, IncidentOutboxEvent.Stage.NOTIFY);
+    }
+
+    private static IncidentOutboxEvent event(Long id, IncidentOutboxEvent.Stage stage) {
+        IncidentOutboxEvent event = new IncidentOutboxEvent(100L + id, stage);
+        event.setId(id);
+        event.setAttempts(1);
+        return event;
+    }
+}
@@ -0,0 +1,257 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.IncidentRollupPoint;
+import gov.drdo.emergency.entity.Incident;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rollup maintenance against database/schema.sql: deltas recorded by the services land in per-minute rows,
+ * compact_incident_rollups() folds them into hourly and daily rows, and series over all three tiers add
+ * up to what counting the incidents themselves gives.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class IncidentRollupServiceTest {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private IncidentRollupService service;
+
+    @BeforeAll
+    static void loadSchema() throws Exception {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+            POSTGRES.getPassword()));
+        jdbcTemplate.execute(Files.readString(Path.of("..", "database", "schema.sql"), StandardCharsets.UTF_8));
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE incident_rollups, incidents, incident_keys CASCADE");
+        service = new IncidentRollupService();
+        ReflectionTestUtils.setField(service, "minuteRetentionHours", 6L);
+        ReflectionTestUtils.setField(service, "hourRetentionDays", 14L);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void committedChangesIncrementTheirMinuteRows() {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(10);
+        Incident fire = incident(Incident.IncidentType.FIRE_EMERGENCY, minute.plusSeconds(5), 28.6, 77.2);
+        Incident bomb = incident(Incident.IncidentType.BOMB_THREAT, minute.plusSeconds(40), 28.6, 77.2);
+        Incident later = incident(Incident.IncidentType.FIRE_EMERGENCY, minute.plusMinutes(1), 19.1, 72.9);
+        service.recordCreated(List.of(fire, bomb, later));
+        service.flush();
+
+        assertThat(minuteRows(minute)).containsOnly(
+            Map.entry("FIRE_EMERGENCY/REPORTED/28:77", 1L), Map.entry("BOMB_THREAT/REPORTED/28:77", 1L));
+        assertThat(minuteRows(minute.plusMinutes(1))).containsOnly(Map.entry("FIRE_EMERGENCY/REPORTED/19:72", 1L));
+
+        // A status change moves one count between two rows of the creation minute
+        IncidentRollupService.Contribution before = service.capture(fire);
+        fire.setStatus(Incident.IncidentStatus.RESOLVED);
+        fire.setActualResponseTime(600);
+        service.recordChange(before, fire);
+        service.recordCreated(incident(Incident.IncidentType.FIRE_EMERGENCY, minute.plusSeconds(50), 28.9, 77.9));
+        service.flush();
+
+        assertThat(minuteRows(minute)).containsOnly(
+            Map.entry("FIRE_EMERGENCY/REPORTED/28:77", 1L), Map.entry("FIRE_EMERGENCY/RESOLVED/28:77", 1L),
+            Map.entry("BOMB_THREAT/REPORTED/28:77", 1L));
+        List<IncidentRollupPoint> resolved = service.getSeries(IncidentRollupService.Granularity.MINUTE,
+            minute, minute.plusMinutes(1), EnumSet.of(IncidentRollupService.Dimension.STATUS));
+        assertThat(resolved).filteredOn(point -> point.getStatus() == Incident.IncidentStatus.RESOLVED)
+            .singleElement().satisfies(point -> {
+                assertThat(point.getIncidentCount()).isEqualTo(1);
+                assertThat(point.getAverageResponseTime()).isEqualTo(600.0);
+            });
+    }
+
+    @Test
+    void changesThatCancelOutAndRolledBackChangesWriteNothing() {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(3);
+        Incident incident = incident(Incident.IncidentType.MEDICAL_EMERGENCY, minute, 28.6, 77.2);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.recordCreated(incident);
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        IncidentRollupService.Contribution before = service.capture(incident);
+        incident.setStatus(Incident.IncidentStatus.VERIFIED);
+        service.recordChange(before, incident);
+        service.recordChange(service.capture(incident), incident);
+        IncidentRollupService.Contribution verified = service.capture(incident);
+        incident.setStatus(Incident.IncidentStatus.REPORTED);
+        service.recordChange(verified, incident);
+        service.flush();
+
+        assertThat(count("SELECT count(*) FROM incident_rollups")).isZero();
+    }
+
+    @Test
+    void compactionFoldsOldRowsIntoHourlyAndDailyTiers() {
+        insertIncidents(30);
+        LocalDate today = LocalDate.now();
+        service.rebuild(today.minusDays(31), today.plusDays(1));
+        long minuteRows = count("SELECT count(*) FROM incident_rollups WHERE granularity = 'MINUTE'");
+
+        service.compact();
+
+        assertThat(count("SELECT count(*) FROM incident_rollups WHERE granularity = 'MINUTE' "
+            + "AND bucket_start < date_trunc('hour', now() - interval '6 hours')")).isZero();
+        assertThat(count("SELECT count(*) FROM incident_rollups WHERE granularity = 'HOUR' "
+            + "AND bucket_start < date_trunc('day', now() - interval '14 days')")).isZero();
+        assertThat(count("SELECT count(*) FROM incident_rollups WHERE granularity = 'HOUR'")).isPositive();
+        assertThat(count("SELECT count(*) FROM incident_rollups WHERE granularity = 'DAY'")).isPositive();
+        assertThat(count("SELECT count(*) FROM incident_rollups")).isLessThan(minuteRows);
+        // Compaction moves counts between tiers and never changes them
+        assertThat(count("SELECT sum(incident_count) FROM incident_rollups"))
+            .isEqualTo(count("SELECT count(*) FROM incidents"));
+        assertThat(count("SELECT sum(critical_count) FROM incident_rollups"))
+            .isEqualTo(count("SELECT count(*) FROM incidents WHERE is_critical"));
+        assertThat(count("SELECT sum(response_time_sum) FROM incident_rollups"))
+            .isEqualTo(count("SELECT COALESCE(sum(actual_response_time), 0) FROM incidents"));
+
+        service.compact();
+        assertThat(count("SELECT sum(incident_count) FROM incident_rollups"))
+            .isEqualTo(count("SELECT count(*) FROM incidents"));
+    }
+
+    @Test
+    void seriesAcrossTiersMatchRawCounts() {
+        insertIncidents(30);
+        LocalDate today = LocalDate.now();
+        service.rebuild(today.minusDays(31), today.plusDays(1));
+        service.compact();
+
+        // Whole days so every tier's buckets fall entirely inside or outside the range
+        LocalDateTime monthAgo = today.minusDays(30).atStartOfDay();
+        LocalDateTime weekAgo = today.minusDays(7).atStartOfDay();
+        LocalDateTime tomorrow = today.plusDays(1).atStartOfDay();
+
+        assertThat(totalsByType(IncidentRollupService.Granularity.DAY, monthAgo, tomorrow))
+            .isEqualTo(rawCountsByType(monthAgo, tomorrow));
+        assertThat(totalsByType(IncidentRollupService.Granularity.HOUR, weekAgo, tomorrow))
+            .isEqualTo(rawCountsByType(weekAgo, tomorrow));
+        assertThat(totalsByType(IncidentRollupService.Granularity.MINUTE, today.atStartOfDay(), tomorrow))
+            .isEqualTo(rawCountsByType(today.atStartOfDay(), tomorrow));
+
+        // Deltas recorded after compaction add to the recent minute rows
+        service.recordCreated(incident(Incident.IncidentType.OTHER, LocalDateTime.now().minusMinutes(1), 10.5, 70.5));
+        jdbcTemplate.update("INSERT INTO incidents (incident_id, title, type, severity, status, created_at, updated_at) "
+            + "VALUES ('ROLLUP-NEW', 'New', 'OTHER', 'LOW', 'REPORTED', now() - interval '1 minute', now())");
+        service.flush();
+        assertThat(totalsByType(IncidentRollupService.Granularity.DAY, monthAgo, tomorrow))
+            .isEqualTo(rawCountsByType(monthAgo, tomorrow));
+    }
+
+    // Helper methods
+
+    private static Incident incident(Incident.IncidentType type, LocalDateTime createdAt, double latitude,
+                                     double longitude) {
+        Incident incident = new Incident();
+        incident.setType(type);
+        incident.setSeverity(Incident.SeverityLevel.HIGH);
+        incident.setStatus(Incident.IncidentStatus.REPORTED);
+        incident.setCreatedAt(createdAt);
+        incident.setLocationPoint(GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude)));
+        return incident;
+    }
+
+    // One incident every seven minutes for the given number of days, some resolved with a response time;
+    // dimensions repeat every 60 incidents, so a day folds into fewer rows than its minutes
+    private static void insertIncidents(int days) {
+        jdbcTemplate.update("""
+            INSERT INTO incidents (incident_id, title, type, severity, status, location_point, is_critical,
+                                   actual_response_time, created_at, updated_at)
+            SELECT 'ROLLUP-' || g,
+                   'Synthetic incident ' || g,
+                   (ARRAY['BOMB_THREAT', 'FIRE_EMERGENCY', 'MEDICAL_EMERGENCY', 'OTHER'])[1 + g % 4],
+                   (ARRAY['LOW', 'MEDIUM', 'HIGH', 'CRITICAL'])[1 + g % 4],
+                   CASE WHEN g % 3 = 0 THEN 'RESOLVED' ELSE 'REPORTED' END,
+                   ST_SetSRID(ST_MakePoint(68 + g % 5, 8 + g % 5), 4326),
+                   g % 4 = 3,
+                   CASE WHEN g % 3 = 0 THEN 300 + g % 900 END,
+                   now() - (g * 7 || ' minutes')::interval,
+                   now()
+            FROM generate_series(1, ? * 24 * 60 / 7) AS g""", days);
+    }
+
+    private Map<String, Long> minuteRows(LocalDateTime minute) {
+        Map<String, Long> rows = new HashMap<>();
+        jdbcTemplate.query("SELECT type, status, region, incident_count FROM incident_rollups "
+                + "WHERE granularity = 'MINUTE' AND bucket_start = ? AND incident_count <> 0",
+            rs -> {
+                rows.put(rs.getString(1) + "/" + rs.getString(2) + "/" + rs.getString(3), rs.getLong(4));
+            }, Timestamp.valueOf(minute));
+        return rows;
+    }
+
+    private Map<Incident.IncidentType, Long> totalsByType(IncidentRollupService.Granularity granularity,
+                                                          LocalDateTime from, LocalDateTime to) {
+        Map<Incident.IncidentType, Long> totals = new HashMap<>();
+        for (IncidentRollupPoint point : service.getSeries(granularity, from, to,
+                Set.of(IncidentRollupService.Dimension.TYPE))) {
+            totals.merge(point.getType(), point.getIncidentCount(), Long::sum);
+        }
+        return totals;
+    }
+
+    private static Map<Incident.IncidentType, Long> rawCountsByType(LocalDateTime from, LocalDateTime to) {
+        Map<Incident.IncidentType, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT type, count(*) FROM incidents WHERE created_at >= ? AND created_at < ? GROUP BY type",
+            rs -> {
+                counts.put(Incident.IncidentType.valueOf(rs.getString(1)), rs.getLong(2));
+            }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return counts;
+    }
+
+    private static long count(String sql) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        return value != null ? value : 0L;
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
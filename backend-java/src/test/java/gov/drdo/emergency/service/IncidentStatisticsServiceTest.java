@@ -0,0 +1,440 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import gov.drdo.emergency.repository.IncidentFilter;
+import gov.drdo.emergency.repository.IncidentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Snapshots built from committed deltas must match the aggregates recomputed from the incidents themselves,
+ * on every node sharing the Redis buckets, and reconciliation must bring a drifted node back in line.
+ * The database is a list behind a mocked repository, Redis a map behind a mocked connection.
+ */
+class IncidentStatisticsServiceTest {
+
+    private static final long BUCKET_MILLIS = 50;
+
+    private final List<Incident> incidents = new ArrayList<>();
+    private final Map<String, Map<String, Long>> redis = new ConcurrentHashMap<>();
+    private long nextId = 1;
+
+    private IncidentRepository incidentRepository;
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        incidentRepository = database();
+        redisTemplate = sharedRedis();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void createStatusVerifyAndEscalateKeepTheSnapshotExact() {
+        IncidentStatisticsService node = node(true);
+        Incident fire = create(node, Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.HIGH, 0);
+        Incident bomb = create(node, Incident.IncidentType.BOMB_THREAT, Incident.SeverityLevel.MEDIUM, 0);
+        Incident medical = create(node, Incident.IncidentType.MEDICAL_EMERGENCY, Incident.SeverityLevel.LOW, 1);
+
+        verify(node, fire);
+        escalate(node, fire);
+        escalate(node, bomb);
+        changeStatus(node, fire, Incident.IncidentStatus.IN_PROGRESS);
+        changeStatus(node, fire, Incident.IncidentStatus.RESOLVED);
+        changeStatus(node, medical, Incident.IncidentStatus.FALSE_ALARM);
+        node.flush();
+
+        IncidentService.IncidentStatistics stats = node.getStatistics();
+        assertMatchesDatabase(stats);
+        assertThat(stats.getTotalIncidents()).isEqualTo(3);
+        assertThat(stats.getActiveIncidents()).isEqualTo(1);
+        assertThat(stats.getCriticalIncidents()).isEqualTo(1);
+        assertThat(stats.getIncidentsToday()).isEqualTo(2);
+        assertThat(stats.getAverageResponseTime()).isNotNull();
+    }
+
+    @Test
+    void randomTransitionSequencesMatchARecomputedAggregate() {
+        IncidentStatisticsService node = node(true);
+        Random random = new Random(42);
+        Incident.IncidentType[] types = Incident.IncidentType.values();
+        Incident.SeverityLevel[] severities = Incident.SeverityLevel.values();
+        Incident.IncidentStatus[] statuses = Incident.IncidentStatus.values();
+
+        for (int step = 0; step < 2000; step++) {
+            int operation = incidents.isEmpty() ? 0 : random.nextInt(4);
+            Incident incident = incidents.isEmpty() ? null : incidents.get(random.nextInt(incidents.size()));
+            switch (operation) {
+                case 0 -> create(node, types[random.nextInt(types.length)],
+                    severities[random.nextInt(severities.length)], random.nextInt(3));
+                case 1 -> changeStatus(node, incident, statuses[random.nextInt(statuses.length)]);
+                case 2 -> verify(node, incident);
+                default -> escalate(node, incident);
+            }
+            if (step % 97 == 0) {
+                node.flush();
+                assertMatchesDatabase(node.getStatistics());
+            }
+        }
+
+        node.flush();
+        assertMatchesDatabase(node.getStatistics());
+    }
+
+    @Test
+    void rolledBackTransitionsAreNotCounted() {
+        IncidentStatisticsService node = node(true);
+        Incident incident = create(node, Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.HIGH, 0);
+        Incident.IncidentStatus before = incident.getStatus();
+
+        TransactionSynchronizationManager.initSynchronization();
+        incident.setStatus(Incident.IncidentStatus.RESOLVED);
+        node.recordTransition(incident, before, incident.getIsCritical(), null);
+        node.recordCreated(newIncident(Incident.IncidentType.OTHER, Incident.SeverityLevel.LOW, 0));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        // The database never saw the change either
+        incident.setStatus(before);
+        node.flush();
+
+        assertMatchesDatabase(node.getStatistics());
+        assertThat(node.getStatistics().getActiveIncidents()).isEqualTo(1);
+    }
+
+    @Test
+    void nodesMergeEachOthersDeltasThroughRedis() {
+        IncidentStatisticsService first = node(true);
+        IncidentStatisticsService second = node(true);
+        Random random = new Random(7);
+
+        for (int step = 0; step < 600; step++) {
+            // Both nodes write to the same incidents, each recording only its own transitions
+            IncidentStatisticsService writer = random.nextBoolean() ? first : second;
+            if (incidents.isEmpty() || random.nextInt(3) == 0) {
+                create(writer, Incident.IncidentType.values()[random.nextInt(Incident.IncidentType.values().length)],
+                    Incident.SeverityLevel.values()[random.nextInt(4)], random.nextInt(2));
+            } else {
+                Incident incident = incidents.get(random.nextInt(incidents.size()));
+                switch (random.nextInt(3)) {
+                    case 0 -> changeStatus(writer, incident,
+                        Incident.IncidentStatus.values()[random.nextInt(Incident.IncidentStatus.values().length)]);
+                    case 1 -> verify(writer, incident);
+                    default -> escalate(writer, incident);
+                }
+            }
+            if (step % 50 == 0) {
+                first.flush();
+                second.flush();
+            }
+        }
+
+        // The second flush of the first node picks up what the second node published after it
+        first.flush();
+        second.flush();
+        first.flush();
+
+        assertMatchesDatabase(first.getStatistics());
+        assertMatchesDatabase(second.getStatistics());
+    }
+
+    @Test
+    void withoutRedisANodeSeesOnlyItsOwnDeltasUntilItReconciles() {
+        IncidentStatisticsService first = node(false);
+        IncidentStatisticsService second = node(false);
+
+        create(first, Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.HIGH, 0);
+        create(second, Incident.IncidentType.BOMB_THREAT, Incident.SeverityLevel.HIGH, 0);
+        first.flush();
+        second.flush();
+
+        assertThat(first.getStatistics().getTotalIncidents()).isEqualTo(1);
+        assertThat(second.getStatistics().getTotalIncidents()).isEqualTo(1);
+        assertThat(redis).isEmpty();
+
+        awaitNextBucket();
+        first.reconcile();
+        second.reconcile();
+
+        assertMatchesDatabase(first.getStatistics());
+        assertMatchesDatabase(second.getStatistics());
+    }
+
+    @Test
+    void reconcileCorrectsDriftFromWritesThatBypassTheService() {
+        IncidentStatisticsService node = node(true);
+        Incident fire = create(node, Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.HIGH, 0);
+        create(node, Incident.IncidentType.BOMB_THREAT, Incident.SeverityLevel.CRITICAL, 0);
+        changeStatus(node, fire, Incident.IncidentStatus.RESOLVED);
+        node.flush();
+        assertMatchesDatabase(node.getStatistics());
+
+        // A bulk SQL fix closes everything and a seed script adds rows, none of it through the service
+        incidents.forEach(incident -> incident.setStatus(Incident.IncidentStatus.CLOSED));
+        incidents.add(newIncident(Incident.IncidentType.OTHER, Incident.SeverityLevel.LOW, 0));
+        node.flush();
+        assertThat(node.getStatistics().getTotalIncidents()).isEqualTo(2);
+        assertThat(node.getStatistics().getActiveIncidents()).isEqualTo(1);
+
+        // Deltas published in earlier buckets are already in the fresh baseline and must not count twice
+        awaitNextBucket();
+        node.reconcile();
+        assertMatchesDatabase(node.getStatistics());
+
+        // Later deltas apply on top of the new baseline
+        Incident medical = create(node, Incident.IncidentType.MEDICAL_EMERGENCY, Incident.SeverityLevel.MEDIUM, 0);
+        escalate(node, medical);
+        node.flush();
+        assertMatchesDatabase(node.getStatistics());
+    }
+
+    @Test
+    void unreachableRedisKeepsDeltasLocally() {
+        IncidentStatisticsService node = node(true);
+        doThrow(new IllegalStateException("down")).when(redisTemplate).executePipelined(any(RedisCallback.class));
+
+        Incident incident = create(node, Incident.IncidentType.FIRE_EMERGENCY, Incident.SeverityLevel.HIGH, 0);
+        changeStatus(node, incident, Incident.IncidentStatus.ASSIGNED);
+        node.flush();
+
+        assertMatchesDatabase(node.getStatistics());
+    }
+
+    // Helper methods
+
+    private IncidentStatisticsService node(boolean redisEnabled) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        IncidentStatisticsService node = new IncidentStatisticsService();
+        ReflectionTestUtils.setField(node, "bucketMillis", BUCKET_MILLIS);
+        ReflectionTestUtils.setField(node, "reconcileIntervalMillis", 300_000L);
+        ReflectionTestUtils.setField(node, "redisEnabled", redisEnabled);
+        ReflectionTestUtils.setField(node, "incidentRepository", incidentRepository);
+        ReflectionTestUtils.setField(node, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(node, "transactionManager", transactionManager);
+        node.reconcile();
+        return node;
+    }
+
+    // What IncidentService.createIncident records
+    private Incident create(IncidentStatisticsService node, Incident.IncidentType type, Incident.SeverityLevel severity,
+                            int daysAgo) {
+        Incident incident = newIncident(type, severity, daysAgo);
+        incidents.add(incident);
+        node.recordCreated(incident);
+        return incident;
+    }
+
+    // What IncidentService.updateIncidentStatus records
+    private static void changeStatus(IncidentStatisticsService node, Incident incident,
+                                     Incident.IncidentStatus status) {
+        Incident.IncidentStatus oldStatus = incident.getStatus();
+        Boolean wasCritical = incident.getIsCritical();
+        Integer oldResponseTime = incident.getActualResponseTime();
+        incident.setStatus(status);
+        if (status == Incident.IncidentStatus.RESOLVED) {
+            incident.setResolvedAt(incident.getCreatedAt().plusMinutes(7 + incident.getId() % 30));
+            incident.setActualResponseTime((int) java.time.Duration.between(
+                incident.getCreatedAt(), incident.getResolvedAt()).getSeconds());
+        }
+        node.recordTransition(incident, oldStatus, wasCritical, oldResponseTime);
+    }
+
+    // What IncidentService.verifyIncident records
+    private static void verify(IncidentStatisticsService node, Incident incident) {
+        Incident.IncidentStatus oldStatus = incident.getStatus();
+        Boolean wasCritical = incident.getIsCritical();
+        incident.setIsVerified(true);
+        incident.setStatus(Incident.IncidentStatus.VERIFIED);
+        node.recordTransition(incident, oldStatus, wasCritical, incident.getActualResponseTime());
+    }
+
+    // What IncidentService.escalateIncident records
+    private static void escalate(IncidentStatisticsService node, Incident incident) {
+        Incident.IncidentStatus oldStatus = incident.getStatus();
+        Boolean wasCritical = incident.getIsCritical();
+        incident.setEscalationLevel(incident.getEscalationLevel() + 1);
+        switch (incident.getSeverity()) {
+            case LOW -> incident.setSeverity(Incident.SeverityLevel.MEDIUM);
+            case MEDIUM -> incident.setSeverity(Incident.SeverityLevel.HIGH);
+            case HIGH -> {
+                incident.setSeverity(Incident.SeverityLevel.CRITICAL);
+                incident.setIsCritical(true);
+            }
+            default -> { }
+        }
+        node.recordTransition(incident, oldStatus, wasCritical, incident.getActualResponseTime());
+    }
+
+    private Incident newIncident(Incident.IncidentType type, Incident.SeverityLevel severity, int daysAgo) {
+        Incident incident = new Incident();
+        incident.setId(nextId++);
+        incident.setType(type);
+        incident.setSeverity(severity);
+        incident.setIsCritical(severity == Incident.SeverityLevel.CRITICAL);
+        incident.setCreatedAt(LocalDateTime.now().minusDays(daysAgo));
+        return incident;
+    }
+
+    private void assertMatchesDatabase(IncidentService.IncidentStatistics stats) {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        Map<Incident.IncidentStatus, Long> byStatus = new EnumMap<>(Incident.IncidentStatus.class);
+        Map<Incident.IncidentType, Long> byType = new EnumMap<>(Incident.IncidentType.class);
+        long critical = 0;
+        long active = 0;
+        long createdToday = 0;
+        long responseTimeSum = 0;
+        long responseTimeCount = 0;
+        for (Incident incident : incidents) {
+            byStatus.merge(incident.getStatus(), 1L, Long::sum);
+            byType.merge(incident.getType(), 1L, Long::sum);
+            critical += Boolean.TRUE.equals(incident.getIsCritical()) ? 1 : 0;
+            active += IncidentFilter.ACTIVE_STATUSES.contains(incident.getStatus()) ? 1 : 0;
+            createdToday += incident.getCreatedAt().isBefore(today) ? 0 : 1;
+            if (incident.getActualResponseTime() != null) {
+                responseTimeSum += incident.getActualResponseTime();
+                responseTimeCount++;
+            }
+        }
+
+        assertThat(stats.getTotalIncidents()).isEqualTo(incidents.size());
+        assertThat(stats.getCriticalIncidents()).isEqualTo(critical);
+        assertThat(stats.getActiveIncidents()).isEqualTo(active);
+        assertThat(stats.getIncidentsToday()).isEqualTo(createdToday);
+        assertThat(distribution(stats.getStatusDistribution())).isEqualTo(new HashMap<>(byStatus));
+        assertThat(distribution(stats.getTypeDistribution())).isEqualTo(new HashMap<>(byType));
+        if (responseTimeCount == 0) {
+            assertThat(stats.getAverageResponseTime()).isNull();
+        } else {
+            assertThat(stats.getAverageResponseTime()).isEqualTo((double) responseTimeSum / responseTimeCount);
+        }
+    }
+
+    private static Map<Object, Long> distribution(List<Object[]> rows) {
+        Map<Object, Long> counts = new HashMap<>();
+        rows.forEach(row -> counts.put(row[0], (Long) row[1]));
+        return counts;
+    }
+
+    // The aggregate queries of IncidentRepository, answered from the incident list
+    private IncidentRepository database() {
+        IncidentRepository repository = mock(IncidentRepository.class);
+        when(repository.count()).thenAnswer(invocation -> (long) incidents.size());
+        when(repository.countByIsCriticalTrue()).thenAnswer(invocation ->
+            incidents.stream().filter(incident -> Boolean.TRUE.equals(incident.getIsCritical())).count());
+        when(repository.countIncidentsCreatedSince(any())).thenAnswer(invocation -> {
+            LocalDateTime since = invocation.getArgument(0);
+            return incidents.stream().filter(incident -> !incident.getCreatedAt().isBefore(since)).count();
+        });
+        when(repository.getIncidentStatsByStatus()).thenAnswer(invocation -> group(true));
+        when(repository.getIncidentStatsByType()).thenAnswer(invocation -> group(false));
+        when(repository.getResponseTimeTotals()).thenAnswer(invocation -> {
+            long sum = 0;
+            long count = 0;
+            for (Incident incident : incidents) {
+                if (incident.getActualResponseTime() != null) {
+                    sum += incident.getActualResponseTime();
+                    count++;
+                }
+            }
+            return List.<Object[]>of(new Object[]{sum, count});
+        });
+        return repository;
+    }
+
+    private List<Object[]> group(boolean byStatus) {
+        Map<Object, Long> counts = new HashMap<>();
+        incidents.forEach(incident -> counts.merge(byStatus ? incident.getStatus() : incident.getType(), 1L, Long::sum));
+        List<Object[]> rows = new ArrayList<>();
+        counts.forEach((key, count) -> rows.add(new Object[]{key, count}));
+        return rows;
+    }
+
+    // HINCRBY and HGETALL on one map shared by every node; pipelined replies come back deserialized
+    @SuppressWarnings("unchecked")
+    private StringRedisTemplate sharedRedis() {
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            List<Object> replies = new ArrayList<>();
+            RedisHashCommands hashCommands = mock(RedisHashCommands.class);
+            when(hashCommands.hIncrBy(any(byte[].class), any(byte[].class), anyLong())).thenAnswer(call -> {
+                Map<String, Long> hash = redis.computeIfAbsent(text(call.getArgument(0)), key -> new ConcurrentHashMap<>());
+                replies.add(hash.merge(text(call.getArgument(1)), call.getArgument(2), Long::sum));
+                return null;
+            });
+            when(hashCommands.hGetAll(any(byte[].class))).thenAnswer(call -> {
+                Map<String, String> hash = new HashMap<>();
+                redis.getOrDefault(text(call.getArgument(0)), Map.of())
+                    .forEach((field, value) -> hash.put(field, value.toString()));
+                replies.add(hash);
+                return null;
+            });
+            RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+            when(keyCommands.expire(any(byte[].class), anyLong())).thenAnswer(call -> {
+                replies.add(true);
+                return null;
+            });
+            RedisConnection connection = mock(RedisConnection.class);
+            when(connection.hashCommands()).thenReturn(hashCommands);
+            when(connection.keyCommands()).thenReturn(keyCommands);
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return replies;
+        });
+        return template;
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Reconciliation starts its baseline at the current bucket; move past the one earlier deltas went to
+    private static void awaitNextBucket() {
+        try {
+            Thread.sleep(BUCKET_MILLIS + 5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
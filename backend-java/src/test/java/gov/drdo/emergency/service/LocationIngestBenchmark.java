@@ -0,0 +1,152 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.LocationPing;
+import gov.drdo.emergency.dto.ResponderLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Sustained ingestion rate of responder pings, end to end on one node: request
+ * threads validating and queueing, and the drain thread coalescing, appending
+ * to the track store (in a temporary directory) and moving responders in the
+ * live location index. The database flush is left out (it writes one row per
+ * responder per interval, not per ping). Each operation is one burst of
+ * 20,000 pings from 5,000 units, timed until the ring is empty again, so the
+ * score reads as pings/s; the target is at least 20,000.
+ * Run with the test classpath, e.g. from the IDE via {@link #main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocationIngestBenchmark {
+
+    private static final int PINGS = 20_000;
+    private static final int RESPONDERS = 5_000;
+
+    @Param({"1", "4"})
+    public int producers;
+
+    private ResponderTrackingService service;
+    private ResponderTrackStore trackStore;
+    private LocationPingBuffer buffer;
+    private ExecutorService pool;
+    private Path directory;
+    private List<List<LocationPing>> bursts;
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("track-bench");
+        trackStore = new ResponderTrackStore();
+        ReflectionTestUtils.setField(trackStore, "enabled", true);
+        ReflectionTestUtils.setField(trackStore, "directory", directory.toString());
+        ReflectionTestUtils.setField(trackStore, "segmentBytes", 64 << 20);
+        ReflectionTestUtils.setField(trackStore, "segmentDurationMillis", 3_600_000L);
+        ReflectionTestUtils.setField(trackStore, "blockMaxPoints", 1024);
+        ReflectionTestUtils.setField(trackStore, "blockMaxAgeMillis", 120_000L);
+        ReflectionTestUtils.setField(trackStore, "retentionDays", 30L);
+        ReflectionTestUtils.setField(trackStore, "meterRegistry", new SimpleMeterRegistry());
+        trackStore.init();
+
+        Random random = new Random(3);
+        List<ResponderLocation> responders = DispatchRecommendationServiceTest.randomResponders(random, RESPONDERS,
+            50_000);
+
+        service = new ResponderTrackingService();
+        ReflectionTestUtils.setField(service, "bufferCapacity", 65_536);
+        ReflectionTestUtils.setField(service, "flushBatchSize", 1000);
+        ReflectionTestUtils.setField(service, "maxPingAgeMillis", 300_000L);
+        ReflectionTestUtils.setField(service, "retainMillis", 900_000L);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(service, "liveLocationIndex",
+            DispatchRecommendationServiceTest.liveLocationIndex(responders));
+        ReflectionTestUtils.setField(service, "responderTrackStore", trackStore);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        service.init();
+        buffer = (LocationPingBuffer) ReflectionTestUtils.getField(service, "buffer");
+
+        // Pings without a device time take the receive time, so every burst is newer than the last
+        bursts = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            List<LocationPing> burst = new ArrayList<>(PINGS / producers);
+            for (int i = 0; i < PINGS / producers; i++) {
+                ResponderLocation responder = responders.get(random.nextInt(RESPONDERS));
+                LocationPing ping = new LocationPing(responder.getId(),
+                    responder.getLatitude() + random.nextGaussian() * 1e-4,
+                    responder.getLongitude() + random.nextGaussian() * 1e-4, null);
+                burst.add(ping);
+            }
+            bursts.add(burst);
+        }
+        pool = Executors.newFixedThreadPool(producers);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        pool.shutdownNow();
+        service.shutdown();
+        trackStore.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PINGS)
+    public void ingestBurst() throws Exception {
+        List<Future<?>> futures = new ArrayList<>(producers);
+        for (List<LocationPing> burst : bursts) {
+            futures.add(pool.submit(() -> {
+                for (LocationPing ping : burst) {
+                    // A full ring pushes back on the producers instead of dropping, so drain time is measured
+                    while (service.ingest(ping) == ResponderTrackingService.Outcome.DROPPED) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        while (buffer.size() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LocationIngestBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+package gov.drdo.emergency.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocationPingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new LocationPingBuffer(2).capacity()).isEqualTo(2);
+        assertThat(new LocationPingBuffer(1000).capacity()).isEqualTo(1024);
+        assertThat(new LocationPingBuffer(1024).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> new LocationPingBuffer(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fullRingRejectsUntilDrained() {
+        LocationPingBuffer buffer = new LocationPingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i, 1, 2, 3, 10 + i, 20 + i)).isTrue();
+        }
+        assertThat(buffer.offer(9, 1, 2, 3, 4, 5)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        List<long[]> drained = new ArrayList<>();
+        assertThat(buffer.drain((id, lat, lon, speed, recordedAt, receivedAt) ->
+            drained.add(new long[]{id, recordedAt, receivedAt}), 2)).isEqualTo(2);
+        assertThat(drained).extracting(ping -> ping[0]).containsExactly(0L, 1L);
+
+        assertThat(buffer.offer(4, 1, 2, 3, 14, 24)).isTrue();
+        assertThat(buffer.offer(5, 1, 2, 3, 15, 25)).isTrue();
+        assertThat(buffer.offer(6, 1, 2, 3, 16, 26)).isFalse();
+    }
+
+    @Test
+    void fieldsSurviveManyLaps() {
+        LocationPingBuffer buffer = new LocationPingBuffer(8);
+        List<Double> speeds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            assertThat(buffer.offer(i, i * 0.5, -i * 0.25, i % 2 == 0 ? Double.NaN : i, 1000L + i, 2000L + i)).isTrue();
+            int expected = i;
+            assertThat(buffer.drain((id, lat, lon, speed, recordedAt, receivedAt) -> {
+                assertThat(id).isEqualTo(expected);
+                assertThat(lat).isEqualTo(expected * 0.5);
+                assertThat(lon).isEqualTo(-expected * 0.25);
+                assertThat(recordedAt).isEqualTo(1000L + expected);
+                assertThat(receivedAt).isEqualTo(2000L + expected);
+                speeds.add(speed);
+            }, 10)).isEqualTo(1);
+        }
+        assertThat(speeds.get(0)).isNaN();
+        assertThat(speeds.get(1)).isEqualTo(1.0);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void concurrentProducersLoseAndReorderNothing() throws Exception {
+        int producers = 8;
+        int perProducer = 200_000;
+        // Small ring so producers keep hitting the full case and the consumer keeps wrapping
+        LocationPingBuffer buffer = new LocationPingBuffer(256);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    // Every field derived from (producer, i), so a torn slot shows up as a mismatch
+                    while (!buffer.offer(producer, producer + i * 1e-6, -i * 1e-6, i, i, producer * 1_000_000L + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long[] next = new long[producers];
+        AtomicBoolean corrupt = new AtomicBoolean();
+        LocationPingBuffer.Sink sink = (id, lat, lon, speed, recordedAt, receivedAt) -> {
+            int producer = (int) id;
+            long i = recordedAt;
+            if (i != next[producer] || lat != producer + i * 1e-6 || lon != -i * 1e-6 || speed != i
+                    || receivedAt != producer * 1_000_000L + i) {
+                corrupt.set(true);
+            }
+            next[producer] = i + 1;
+        };
+        start.countDown();
+        long total = (long) producers * perProducer;
+        long drained = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (drained < total && System.nanoTime() < deadline) {
+            drained += buffer.drain(sink, 1024);
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(drained).isEqualTo(total);
+        assertThat(corrupt).isFalse();
+        assertThat(next).containsOnly(perProducer);
+        assertThat(buffer.size()).isZero();
+    }
+}
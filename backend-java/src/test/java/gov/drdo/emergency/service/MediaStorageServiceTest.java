@@ -0,0 +1,75 @@
+package gov.drdo.emergency.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MediaStorageServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storesKnownTypesUnderTheirUsualExtension() throws IOException {
+        MediaStorageService storage = storage("image/jpeg,image/png");
+
+        MediaStorageService.StoredMedia stored = storage.store(file("image/jpeg", "photo"));
+
+        assertThat(stored.getReference()).matches("/uploads/[0-9a-f]{64}\\.jpg");
+        assertThat(storage.contentTypeOf(stored.getReference().substring(9))).isEqualTo("image/jpeg");
+    }
+
+    @Test
+    void derivesAnExtensionForOtherAllowedTypes() throws IOException {
+        MediaStorageService storage = storage("image/jpeg,image/webp,image/x-icon,image/heic");
+
+        MediaStorageService.StoredMedia webp = storage.store(file("image/webp", "webp"));
+        MediaStorageService.StoredMedia icon = storage.store(file("image/x-icon", "icon"));
+
+        assertThat(webp.getReference()).endsWith(".webp");
+        assertThat(icon.getReference()).endsWith(".icon");
+        assertThat(storage.resolve(webp.getReference().substring(9))).isPresent();
+        assertThat(storage.contentTypeOf(webp.getReference().substring(9))).isEqualTo("image/webp");
+        assertThat(storage.contentTypeOf(icon.getReference().substring(9))).isEqualTo("image/x-icon");
+    }
+
+    @Test
+    void refusesToStartWithAnAllowedTypeThatHasNoUsableExtension() {
+        assertThatThrownBy(() -> storage("image/jpeg,application/vnd.openxmlformats-officedocument.wordprocessingml.document"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("file.allowed-types");
+    }
+
+    @Test
+    void rejectsTypesThatAreNotAllowed() throws IOException {
+        MediaStorageService storage = storage("image/jpeg");
+
+        assertThatThrownBy(() -> storage.store(file("image/webp", "webp")))
+            .hasMessageContaining("Unsupported media type");
+    }
+
+    // Helper methods
+
+    private MediaStorageService storage(String allowedTypes) throws IOException {
+        MediaStorageService storage = new MediaStorageService();
+        ReflectionTestUtils.setField(storage, "uploadDir", directory.toString());
+        ReflectionTestUtils.setField(storage, "maxFileSize", 1024L * 1024);
+        ReflectionTestUtils.setField(storage, "allowedTypes", allowedTypes.split(","));
+        ReflectionTestUtils.setField(storage, "multipartThreshold", DataSize.ofBytes(0));
+        storage.init();
+        return storage;
+    }
+
+    private static MockMultipartFile file(String contentType, String content) {
+        return new MockMultipartFile("file", "upload", contentType, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,242 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResilientGeminiClientTest {
+
+    private static final byte[] OK = "ok".getBytes();
+    private static final byte[] HEDGE = "hedge".getBytes();
+    private static final Map<String, Object> BODY = Map.of();
+
+    private final GeminiClient geminiClient = mock(GeminiClient.class);
+    private final Deque<Supplier<CompletableFuture<byte[]>>> responses = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private ResilientGeminiClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    // Circuit breaker
+
+    @Test
+    void breakerOpensAtTheFailureRateAndFailsFast() {
+        ResilientGeminiClient.CircuitBreaker breaker = new ResilientGeminiClient.CircuitBreaker(10, 4, 0.5, 1_000, 2);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(breaker.tryAcquire(0), 0);
+        }
+        assertThat(breaker.getState()).isEqualTo(ResilientGeminiClient.CircuitBreaker.State.CLOSED);
+        breaker.onFailure(breaker.tryAcquire(0), 10);
+
+        assertThat(breaker.getState()).isEqualTo(ResilientGeminiClient.CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire(500)).isNegative();
+    }
+
+    @Test
+    void halfOpenBreakerClosesAfterEnoughProbesSucceed() {
+        ResilientGeminiClient.CircuitBreaker breaker = openBreaker();
+
+        long first = breaker.tryAcquire(2_000);
+        long second = breaker.tryAcquire(2_000);
+        assertThat(breaker.getState()).isEqualTo(ResilientGeminiClient.CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire(2_000)).as("probe limit").isNegative();
+
+        breaker.onSuccess(first);
+        breaker.onSuccess(second);
+
+        assertThat(breaker.getState()).isEqualTo(ResilientGeminiClient.CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).isZero();
+    }
+
+    @Test
+    void halfOpenBreakerReopensOnAFailedProbeAndIgnoresStalePermits() {
+        ResilientGeminiClient.CircuitBreaker breaker = new ResilientGeminiClient.CircuitBreaker(10, 2, 0.5, 1_000, 2);
+        long stale = breaker.tryAcquire(0);
+        breaker.onFailure(breaker.tryAcquire(0), 0);
+        breaker.onFailure(breaker.tryAcquire(0), 0);
+
+        long probe = breaker.tryAcquire(2_000);
+        breaker.onSuccess(stale);
+        assertThat(breaker.getState()).isEqualTo(ResilientGeminiClient.CircuitBreaker.State.HALF_OPEN);
+
+        breaker.onFailure(probe, 2_100);
+        assertThat(breaker.getState()).isEqualTo(ResilientGeminiClient.CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire(2_500)).isNegative();
+    }
+
+    @Test
+    void openCircuitRejectsCallsWithoutReachingTheUpstream() {
+        client = client(0, 0, resilient -> ReflectionTestUtils.setField(resilient, "circuitMinCalls", 2));
+        for (int i = 0; i < 2; i++) {
+            respond(() -> CompletableFuture.failedFuture(new GeminiClient.GeminiApiException(503, "unavailable")));
+            assertThatThrownBy(() -> call(null).get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        }
+        int before = calls.get();
+
+        assertThatThrownBy(() -> call(null).get(5, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(ResilientGeminiClient.CircuitOpenException.class);
+        assertThat(calls.get()).isEqualTo(before);
+        assertThat(client.getStatistics().getRejectedCalls()).isEqualTo(1);
+    }
+
+    // Hedging
+
+    @Test
+    void hedgeWinsWhenThePrimaryIsSlowerThanThePercentile() throws Exception {
+        client = client(0, 5);
+        warmUp(5, 10);
+
+        respond(CompletableFuture::new);  // primary never answers
+        respond(() -> CompletableFuture.completedFuture(HEDGE));
+
+        assertThat(call(null).get(5, TimeUnit.SECONDS)).isEqualTo(HEDGE);
+        assertThat(client.getStatistics().getHedgedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgeIsCancelledWhenThePrimaryAnswersFirst() throws Exception {
+        client = client(0, 5);
+        warmUp(5, 200);
+
+        respond(() -> CompletableFuture.completedFuture(OK));
+        assertThat(call(null).get(5, TimeUnit.SECONDS)).isEqualTo(OK);
+        Thread.sleep(400);
+
+        assertThat(client.getStatistics().getHedgedCalls()).isZero();
+        assertThat(calls).hasValue(6);
+    }
+
+    // Retries
+
+    @Test
+    void retriesRetryableFailuresUpToTheLimit() throws Exception {
+        client = client(2, 0);
+        respond(() -> CompletableFuture.failedFuture(new GeminiClient.GeminiApiException(503, "unavailable")));
+        respond(() -> CompletableFuture.failedFuture(new GeminiClient.GeminiApiException(429, "slow down")));
+        respond(() -> CompletableFuture.completedFuture(OK));
+
+        assertThat(call(null).get(5, TimeUnit.SECONDS)).isEqualTo(OK);
+        assertThat(calls).hasValue(3);
+        assertThat(client.getStatistics().getRetries()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        client = client(3, 0);
+        respond(() -> CompletableFuture.failedFuture(new GeminiClient.GeminiApiException(400, "bad request")));
+
+        assertThatThrownBy(() -> call(null).get(5, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(GeminiClient.GeminiApiException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void retriesStopAtTheDeadline() {
+        client = client(100, 0, resilient -> ReflectionTestUtils.setField(resilient, "baseBudgetMs", 300L));
+        for (int i = 0; i < 100; i++) {
+            respond(() -> CompletableFuture.supplyAsync(() -> {
+                throw new GeminiClient.GeminiApiException(503, "unavailable");
+            }, CompletableFuture.delayedExecutor(40, TimeUnit.MILLISECONDS)));
+        }
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> call(null).get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMs).isLessThan(600);
+        assertThat(calls.get()).isBetween(2, 10);
+    }
+
+    @Test
+    void criticalIncidentsGetAShorterBudget() {
+        client = client(0, 0);
+
+        assertThat(client.budgetFor(Incident.SeverityLevel.CRITICAL))
+            .isLessThan(client.budgetFor(Incident.SeverityLevel.MEDIUM))
+            .isLessThan(client.budgetFor(Incident.SeverityLevel.LOW));
+    }
+
+    // Helper methods
+
+    private ResilientGeminiClient client(int maxRetries, int hedgeMinSamples) {
+        return client(maxRetries, hedgeMinSamples, resilient -> { });
+    }
+
+    private ResilientGeminiClient client(int maxRetries, int hedgeMinSamples, Consumer<ResilientGeminiClient> configure) {
+        when(geminiClient.generateContentAsync(anyString(), any(), any(Duration.class))).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            Supplier<CompletableFuture<byte[]>> next = responses.poll();
+            return next != null ? next.get() : CompletableFuture.completedFuture(OK);
+        });
+
+        ResilientGeminiClient resilient = new ResilientGeminiClient();
+        ReflectionTestUtils.setField(resilient, "geminiClient", geminiClient);
+        ReflectionTestUtils.setField(resilient, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(resilient, "baseBudgetMs", 2_000L);
+        ReflectionTestUtils.setField(resilient, "maxRetries", maxRetries);
+        ReflectionTestUtils.setField(resilient, "backoffBaseMs", 10L);
+        ReflectionTestUtils.setField(resilient, "backoffMaxMs", 50L);
+        ReflectionTestUtils.setField(resilient, "hedgeEnabled", hedgeMinSamples > 0);
+        ReflectionTestUtils.setField(resilient, "hedgePercentile", 0.95);
+        ReflectionTestUtils.setField(resilient, "hedgeMinSamples", Math.max(hedgeMinSamples, 1));
+        ReflectionTestUtils.setField(resilient, "circuitWindowSize", 50);
+        ReflectionTestUtils.setField(resilient, "circuitMinCalls", 20);
+        ReflectionTestUtils.setField(resilient, "circuitFailureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(resilient, "circuitOpenMs", 30_000L);
+        ReflectionTestUtils.setField(resilient, "circuitHalfOpenCalls", 3);
+        configure.accept(resilient);
+        resilient.init();
+        return resilient;
+    }
+
+    private ResilientGeminiClient.CircuitBreaker openBreaker() {
+        ResilientGeminiClient.CircuitBreaker breaker = new ResilientGeminiClient.CircuitBreaker(10, 2, 0.5, 1_000, 2);
+        breaker.onFailure(breaker.tryAcquire(0), 0);
+        breaker.onFailure(breaker.tryAcquire(0), 0);
+        assertThat(breaker.getState()).isEqualTo(ResilientGeminiClient.CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    // Successful calls of about latencyMs each, so the hedge delay settles near that latency
+    private void warmUp(int samples, long latencyMs) throws Exception {
+        for (int i = 0; i < samples; i++) {
+            respond(() -> CompletableFuture.supplyAsync(() -> OK,
+                CompletableFuture.delayedExecutor(latencyMs, TimeUnit.MILLISECONDS)));
+            assertThat(call(null).get(5, TimeUnit.SECONDS)).isEqualTo(OK);
+        }
+    }
+
+    private void respond(Supplier<CompletableFuture<byte[]>> response) {
+        responses.add(response);
+    }
+
+    private CompletableFuture<byte[]> call(Incident.SeverityLevel severity) {
+        return client.generateContentAsync("gemini-test", BODY, severity);
+    }
+}
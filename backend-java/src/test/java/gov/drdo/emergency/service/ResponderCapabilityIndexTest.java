@@ -0,0 +1,232 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.dto.ResponderLocation;
+import gov.drdo.emergency.entity.Responder;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponderCapabilityIndexTest {
+
+    @Test
+    void specializationsAndEquipmentMustAllBePresent() {
+        ResponderCapabilityIndex index = new ResponderCapabilityIndex();
+        index.put(responder(1L, Responder.ResponderType.BOMB_DISPOSAL, null, new String[]{"IED", "Urban Search"},
+            new String[]{"Robot", "Bomb Suit"}));
+        index.put(responder(2L, Responder.ResponderType.BOMB_DISPOSAL, null, new String[]{"IED"},
+            new String[]{"Robot"}));
+        index.put(responder(3L, Responder.ResponderType.BOMB_DISPOSAL, null, new String[]{"urban search"},
+            new String[]{"bomb suit"}));
+
+        // Case and surrounding whitespace are ignored
+        assertThat(ids(index, query(null, null, List.of("ied"), List.of(" ROBOT ", "bomb suit"), false)))
+            .containsExactly(1L);
+        assertThat(ids(index, query(null, null, List.of("IED"), List.of("robot"), false)))
+            .containsExactly(1L, 2L);
+        assertThat(ids(index, query(null, null, List.of("Urban Search"), null, false)))
+            .containsExactly(1L, 3L);
+        assertThat(ids(index, query(null, null, List.of("IED", "urban search"), null, false)))
+            .containsExactly(1L);
+    }
+
+    @Test
+    void typesAndVehiclesMatchAnyListedValue() {
+        ResponderCapabilityIndex index = new ResponderCapabilityIndex();
+        index.put(responder(1L, Responder.ResponderType.POLICE, Responder.VehicleType.PATROL_CAR, null, null));
+        index.put(responder(2L, Responder.ResponderType.PARAMEDIC, Responder.VehicleType.AMBULANCE, null, null));
+        index.put(responder(3L, Responder.ResponderType.PARAMEDIC, Responder.VehicleType.HELICOPTER, null, null));
+        index.put(responder(4L, Responder.ResponderType.FIRE_FIGHTER, null, null, null));
+
+        assertThat(ids(index, query(EnumSet.of(Responder.ResponderType.POLICE, Responder.ResponderType.PARAMEDIC),
+            null, null, null, false))).containsExactly(1L, 2L, 3L);
+        // OR within each set, AND between them
+        assertThat(ids(index, query(EnumSet.of(Responder.ResponderType.PARAMEDIC, Responder.ResponderType.FIRE_FIGHTER),
+            EnumSet.of(Responder.VehicleType.HELICOPTER, Responder.VehicleType.PATROL_CAR), null, null, false)))
+            .containsExactly(3L);
+        assertThat(ids(index, query(null, EnumSet.of(Responder.VehicleType.FIRE_TRUCK), null, null, false))).isEmpty();
+    }
+
+    @Test
+    void dispatchableOnlyNeedsOnDutyAvailableAndAvailableStatus() {
+        ResponderCapabilityIndex index = new ResponderCapabilityIndex();
+        index.put(responder(1L, Responder.ResponderStatus.AVAILABLE, true, true));
+        index.put(responder(2L, Responder.ResponderStatus.EN_ROUTE, true, true));
+        index.put(responder(3L, Responder.ResponderStatus.AVAILABLE, false, true));
+        index.put(responder(4L, Responder.ResponderStatus.AVAILABLE, true, false));
+        index.put(responder(5L, Responder.ResponderStatus.AVAILABLE, true, null));
+
+        assertThat(ids(index, query(null, null, null, null, true))).containsExactly(1L);
+        assertThat(ids(index, query(null, null, null, null, false))).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void unknownValuesMatchNothing() {
+        ResponderCapabilityIndex index = new ResponderCapabilityIndex();
+        index.put(responder(1L, Responder.ResponderType.POLICE, null, new String[]{"IED"}, new String[]{"Robot"}));
+
+        ResponderCapabilityIndex.Matches matches = index.match(query(null, null, List.of("IED"), List.of("drone"), false));
+
+        assertThat(matches.isEmpty()).isTrue();
+        assertThat(matches.size()).isZero();
+        assertThat(matches.contains(1L)).isFalse();
+        assertThat(index.match(query(EnumSet.of(Responder.ResponderType.HAZMAT_SPECIALIST), null, null, null, false))
+            .isEmpty()).isTrue();
+        assertThat(index.match(query(null, null, null, null, false)).contains(99L)).isFalse();
+    }
+
+    @Test
+    void removeDropsTheResponderFromEveryMatch() {
+        ResponderCapabilityIndex index = new ResponderCapabilityIndex();
+        index.put(responder(1L, Responder.ResponderType.POLICE, null, new String[]{"IED"}, new String[]{"Robot"}));
+        index.put(responder(2L, Responder.ResponderType.POLICE, null, new String[]{"IED"}, new String[]{"Robot"}));
+
+        index.remove(1L);
+        index.remove(42L);
+
+        assertThat(ids(index, query(null, null, null, null, false))).containsExactly(2L);
+        assertThat(ids(index, query(EnumSet.of(Responder.ResponderType.POLICE), null, List.of("IED"), List.of("robot"),
+            false))).containsExactly(2L);
+
+        // Putting it back reuses its slot
+        index.put(responder(1L, Responder.ResponderType.POLICE, null, null, null));
+        assertThat(ids(index, query(EnumSet.of(Responder.ResponderType.POLICE), null, null, null, false)))
+            .containsExactly(1L, 2L);
+        assertThat(ids(index, query(null, null, List.of("IED"), null, false))).containsExactly(2L);
+    }
+
+    @Test
+    void putAgainReplacesTheAttributes() {
+        ResponderCapabilityIndex index = new ResponderCapabilityIndex();
+        index.put(responder(1L, Responder.ResponderType.POLICE, Responder.VehicleType.PATROL_CAR,
+            new String[]{"IED"}, new String[]{"Robot"}));
+
+        index.put(responder(1L, Responder.ResponderType.FIRE_FIGHTER, null, new String[]{"Rescue"},
+            new String[]{"Ladder"}));
+
+        assertThat(index.match(query(null, null, null, null, false)).size()).isEqualTo(1);
+        assertThat(ids(index, query(EnumSet.of(Responder.ResponderType.POLICE), null, null, null, false))).isEmpty();
+        assertThat(ids(index, query(null, EnumSet.of(Responder.VehicleType.PATROL_CAR), null, null, false))).isEmpty();
+        assertThat(ids(index, query(null, null, List.of("IED"), null, false))).isEmpty();
+        assertThat(ids(index, query(null, null, null, List.of("robot"), false))).isEmpty();
+        assertThat(ids(index, query(EnumSet.of(Responder.ResponderType.FIRE_FIGHTER), null, List.of("rescue"),
+            List.of("ladder"), false))).containsExactly(1L);
+    }
+
+    @Test
+    void slotsGrowPastWordBoundaries() {
+        ResponderCapabilityIndex index = new ResponderCapabilityIndex();
+        List<Long> robots = new ArrayList<>();
+        List<Long> drones = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            boolean robot = id % 3 == 0 || id == 64 || id == 65 || id == 128;
+            // First seen far from slot 0, so its bitmap starts out shorter than later slots need
+            boolean drone = id >= 130 && id % 7 == 0;
+            List<String> equipment = new ArrayList<>();
+            if (robot) {
+                equipment.add("Robot");
+                robots.add(id);
+            }
+            if (drone) {
+                equipment.add("Drone");
+                drones.add(id);
+            }
+            index.put(responder(id, Responder.ResponderType.POLICE, null, null, equipment.toArray(new String[0])));
+        }
+
+        assertThat(ids(index, query(null, null, null, List.of("robot"), false))).containsExactlyElementsOf(robots);
+        assertThat(ids(index, query(null, null, null, List.of("drone"), false))).containsExactlyElementsOf(drones);
+        assertThat(ids(index, query(null, null, null, null, false))).hasSize(300);
+        assertThat(index.match(query(null, null, null, List.of("robot"), false)).ids(5))
+            .containsExactly(3L, 6L, 9L, 12L, 15L);
+
+        index.remove(64L);
+        index.remove(300L);
+        assertThat(index.match(query(null, null, null, List.of("robot"), false)).contains(64L)).isFalse();
+        assertThat(index.match(query(null, null, null, List.of("robot"), false)).contains(65L)).isTrue();
+        assertThat(index.match(query(null, null, null, null, false)).size()).isEqualTo(298);
+    }
+
+    @Test
+    void matchesStayStableAcrossLaterUpdatesAndReplaceAll() {
+        ResponderCapabilityIndex index = new ResponderCapabilityIndex();
+        for (long id = 1; id <= 100; id++) {
+            index.put(responder(id, Responder.ResponderType.POLICE, null, new String[]{"IED"}, null));
+        }
+        ResponderCapabilityIndex.Matches before = index.match(query(null, null, List.of("IED"), null, false));
+
+        index.remove(10L);
+        index.put(responder(20L, Responder.ResponderType.POLICE, null, null, null));
+        index.put(responder(500L, Responder.ResponderType.POLICE, null, new String[]{"IED"}, null));
+        List<ResponderLocation> rebuilt = new ArrayList<>();
+        for (long id = 200; id > 50; id--) {
+            rebuilt.add(responder(id, Responder.ResponderType.PARAMEDIC, null, null, null));
+        }
+        index.replaceAll(rebuilt);
+
+        assertThat(before.size()).isEqualTo(100);
+        assertThat(before.contains(10L)).isTrue();
+        assertThat(before.contains(20L)).isTrue();
+        assertThat(before.contains(500L)).isFalse();
+        assertThat(before.ids(200)).containsExactlyElementsOf(range(1, 100));
+        assertThat(ids(index, query(null, null, List.of("IED"), null, false))).isEmpty();
+        assertThat(index.match(query(EnumSet.of(Responder.ResponderType.PARAMEDIC), null, null, null, false)).size())
+            .isEqualTo(150);
+    }
+
+    @Test
+    void replaceAllDropsUnusedDictionaryEntries() {
+        ResponderCapabilityIndex index = new ResponderCapabilityIndex();
+        index.put(responder(1L, Responder.ResponderType.POLICE, Responder.VehicleType.PATROL_CAR,
+            new String[]{"IED", "Sniper"}, new String[]{"Robot"}));
+        index.put(responder(2L, Responder.ResponderType.PARAMEDIC, null, new String[]{"Trauma"}, null));
+        int before = index.dictionarySize();
+
+        index.replaceAll(List.of(responder(2L, Responder.ResponderType.PARAMEDIC, null, new String[]{"Trauma"}, null)));
+
+        assertThat(index.dictionarySize()).isLessThan(before);
+        assertThat(ids(index, query(null, null, List.of("trauma"), null, false))).containsExactly(2L);
+        assertThat(ids(index, query(null, null, List.of("sniper"), null, false))).isEmpty();
+    }
+
+    // Helper methods
+
+    private static ResponderLocation responder(long id, Responder.ResponderType type, Responder.VehicleType vehicle,
+                                               String[] specializations, String[] equipment) {
+        return new ResponderLocation(id, "R-" + id, "Responder " + id, type, Responder.ResponderRank.INSPECTOR,
+            Responder.ResponderStatus.AVAILABLE, vehicle, null, specializations, equipment, true, true,
+            LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    private static ResponderLocation responder(long id, Responder.ResponderStatus status, Boolean onDuty,
+                                               Boolean available) {
+        return new ResponderLocation(id, "R-" + id, "Responder " + id, Responder.ResponderType.POLICE,
+            Responder.ResponderRank.INSPECTOR, status, null, null, null, null, onDuty, available,
+            LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    private static ResponderCapabilityIndex.Query query(Set<Responder.ResponderType> types,
+                                                        Set<Responder.VehicleType> vehicleTypes,
+                                                        List<String> specializations, List<String> equipment,
+                                                        boolean dispatchableOnly) {
+        return new ResponderCapabilityIndex.Query(types, vehicleTypes, specializations, equipment, dispatchableOnly);
+    }
+
+    // Ids in slot order, which is insertion order until replaceAll
+    private static List<Long> ids(ResponderCapabilityIndex index, ResponderCapabilityIndex.Query query) {
+        return index.match(query).ids(Integer.MAX_VALUE);
+    }
+
+    private static List<Long> range(long first, long last) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = first; id <= last; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,200 @@
+package gov.drdo.emergency.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponderTrackStoreTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayCrossesSealedSegmentsAndTheOpenBlock() throws IOException {
+        // Ten points per block and room for two blocks per segment, so the history spans many files
+        ResponderTrackStore store = store(10, 256, 3_600_000L, 120_000L);
+        record(store);
+
+        assertThat(segmentFiles()).hasSizeGreaterThan(3);
+        // The last five fixes of responder 1 are still in its open block
+        assertThat(replay(store, 1L, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactlyElementsOf(times(0, 95));
+        assertThat(replay(store, 1L, START + 7500, START + 92_000)).containsExactlyElementsOf(times(8, 92));
+        assertThat(replay(store, 1L, START + 91_000, START + 200_000)).containsExactlyElementsOf(times(91, 95));
+        assertThat(replay(store, 2L, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactlyElementsOf(times(0, 40));
+        assertThat(replay(store, 3L, Long.MIN_VALUE, Long.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void scanReturnsEveryResponderInTimeOrder() throws IOException {
+        ResponderTrackStore store = store(10, 256, 3_600_000L, 120_000L);
+        record(store);
+
+        Map<Long, List<Long>> all = scan(store, Long.MIN_VALUE, Long.MAX_VALUE);
+        Map<Long, List<Long>> window = scan(store, START + 35_000, START + 93_000);
+
+        assertThat(all).containsOnlyKeys(1L, 2L);
+        assertThat(all.get(1L)).containsExactlyElementsOf(times(0, 95));
+        assertThat(all.get(2L)).containsExactlyElementsOf(times(0, 40));
+        assertThat(window.get(1L)).containsExactlyElementsOf(times(35, 93));
+        assertThat(window.get(2L)).containsExactlyElementsOf(times(35, 40));
+    }
+
+    @Test
+    void closeWritesOpenBlocksAndReopeningRestoresHistory() throws IOException {
+        ResponderTrackStore store = store(10, 256, 3_600_000L, 120_000L);
+        record(store);
+        store.close();
+
+        ResponderTrackStore reopened = store(10, 256, 3_600_000L, 120_000L);
+
+        assertThat(replay(reopened, 1L, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactlyElementsOf(times(0, 95));
+        assertThat(replay(reopened, 2L, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactlyElementsOf(times(0, 40));
+
+        // Appends continue in a fresh segment
+        reopened.append(1L, START + 95_000, 28.7, 77.3, 4.0);
+        assertThat(replay(reopened, 1L, START + 94_000, Long.MAX_VALUE)).containsExactly(START + 94_000, START + 95_000);
+    }
+
+    @Test
+    void sealIdleWritesBlocksPastTheirAge() throws IOException {
+        ResponderTrackStore store = store(1024, 1 << 16, 3_600_000L, 0L);
+        for (int i = 0; i < 5; i++) {
+            store.append(1L, START + i * 1000L, 28.6, 77.2, 1.0);
+        }
+        assertThat(segmentFiles()).isEmpty();
+
+        store.sealIdle();
+        store.sealIdle();
+
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(replay(store, 1L, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactlyElementsOf(times(0, 5));
+    }
+
+    @Test
+    void fixesOlderThanTheLastAreDropped() throws IOException {
+        ResponderTrackStore store = store(1024, 1 << 16, 3_600_000L, 120_000L);
+        store.append(1L, START + 2000, 28.6, 77.2, 1.0);
+        store.append(1L, START + 1000, 28.6, 77.2, 1.0);
+        store.append(1L, START + 2000, 28.6, 77.2, 1.0);
+
+        assertThat(replay(store, 1L, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactly(START + 2000, START + 2000);
+    }
+
+    @Test
+    void unknownSpeedSurvivesTheStore() throws IOException {
+        ResponderTrackStore store = store(2, 1 << 16, 3_600_000L, 120_000L);
+        store.append(1L, START, 28.6, 77.2, Double.NaN);
+        store.append(1L, START + 1000, 28.6, 77.2, 2.5);
+        store.append(1L, START + 2000, 28.6, 77.2, Double.NaN);
+
+        List<Double> speeds = new ArrayList<>();
+        store.replay(1L, Long.MIN_VALUE, Long.MAX_VALUE,
+            (responderId, time, latitude, longitude, speed) -> speeds.add(speed));
+
+        assertThat(speeds).hasSize(3);
+        assertThat(speeds.get(0)).isNaN();
+        assertThat(speeds.get(1)).isEqualTo(2.5);
+        assertThat(speeds.get(2)).isNaN();
+    }
+
+    @Test
+    void purgeDeletesOnlyExpiredSealedSegments() throws IOException {
+        // Every write starts a new segment and sealIdle seals it, so each responder ends up in its own file
+        ResponderTrackStore store = store(1024, 1 << 16, 0L, 0L);
+        long old = System.currentTimeMillis() - 10L * 24 * 3600 * 1000;
+        long recent = System.currentTimeMillis() - 60_000;
+        for (int i = 0; i < 5; i++) {
+            store.append(1L, old + i * 1000L, 28.6, 77.2, 1.0);
+            store.append(2L, recent + i * 1000L, 28.6, 77.2, 1.0);
+        }
+        store.sealIdle();
+        assertThat(segmentFiles()).hasSize(2);
+
+        store.purgeExpired();
+
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(replay(store, 1L, Long.MIN_VALUE, Long.MAX_VALUE)).isEmpty();
+        assertThat(replay(store, 2L, Long.MIN_VALUE, Long.MAX_VALUE)).hasSize(5);
+    }
+
+    @Test
+    void disabledStoreRecordsNothing() throws IOException {
+        ResponderTrackStore store = new ResponderTrackStore();
+        ReflectionTestUtils.setField(store, "enabled", false);
+        ReflectionTestUtils.setField(store, "directory", directory.resolve("disabled").toString());
+        ReflectionTestUtils.setField(store, "meterRegistry", new SimpleMeterRegistry());
+        store.init();
+
+        store.append(1L, START, 28.6, 77.2, 1.0);
+        store.close();
+
+        assertThat(replay(store, 1L, Long.MIN_VALUE, Long.MAX_VALUE)).isEmpty();
+        assertThat(directory.resolve("disabled")).doesNotExist();
+    }
+
+    // Helper methods
+
+    private ResponderTrackStore store(int blockMaxPoints, int segmentBytes, long segmentDurationMillis,
+            long blockMaxAgeMillis) throws IOException {
+        ResponderTrackStore store = new ResponderTrackStore();
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+        ReflectionTestUtils.setField(store, "segmentBytes", segmentBytes);
+        ReflectionTestUtils.setField(store, "segmentDurationMillis", segmentDurationMillis);
+        ReflectionTestUtils.setField(store, "blockMaxPoints", blockMaxPoints);
+        ReflectionTestUtils.setField(store, "blockMaxAgeMillis", blockMaxAgeMillis);
+        ReflectionTestUtils.setField(store, "retentionDays", 1L);
+        ReflectionTestUtils.setField(store, "meterRegistry", new SimpleMeterRegistry());
+        store.init();
+        return store;
+    }
+
+    // Responder 1 reports every second for 95 s, responder 2 for the first 40 s, interleaved
+    private static void record(ResponderTrackStore store) {
+        for (int i = 0; i < 95; i++) {
+            store.append(1L, START + i * 1000L, 28.6 + i * 1e-4, 77.2 + i * 1e-4, 12.0);
+            if (i < 40) {
+                store.append(2L, START + i * 1000L, 28.5 - i * 1e-4, 77.1 - i * 1e-4, 8.0);
+            }
+        }
+    }
+
+    // Times of fixes first (inclusive) to last (exclusive) of the recorded sequence
+    private static List<Long> times(int first, int last) {
+        return LongStream.range(first, last).mapToObj(i -> START + i * 1000L).toList();
+    }
+
+    private static List<Long> replay(ResponderTrackStore store, long responderId, long from, long to) {
+        List<Long> times = new ArrayList<>();
+        store.replay(responderId, from, to, (id, time, latitude, longitude, speed) -> times.add(time));
+        return times;
+    }
+
+    private static Map<Long, List<Long>> scan(ResponderTrackStore store, long from, long to) {
+        Map<Long, List<Long>> times = new HashMap<>();
+        store.scan(from, to, (id, time, latitude, longitude, speed) ->
+            times.computeIfAbsent(id, key -> new ArrayList<>()).add(time));
+        return times;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).toList();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package gov.drdo.emergency.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Year;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SnowflakeIncidentIdGeneratorTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+
+    @Test
+    void idsAreWellFormedUniqueAndIncreasing() {
+        SnowflakeIncidentIdGenerator generator = generator(3, lease(0));
+
+        String previous = null;
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            String id = generator.nextIncidentId();
+            assertThat(id).matches("INC-\\d{4}-[0-9A-HJKMNP-TV-Z]{8}");
+            assertThat(seen.add(id)).as("duplicate %s", id).isTrue();
+            if (previous != null) {
+                assertThat(id).isGreaterThan(previous);
+            }
+            assertThat(nodeOf(id)).isEqualTo(3);
+            previous = id;
+        }
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreadsAndNodes() throws Exception {
+        List<SnowflakeIncidentIdGenerator> generators = List.of(generator(1, lease(0)), generator(2, lease(0)));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                SnowflakeIncidentIdGenerator generator = generators.get(t % 2);
+                Callable<List<String>> task = () -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < 10_000; i++) {
+                        ids.add(generator.nextIncidentId());
+                    }
+                    return ids;
+                };
+                futures.add(executor.submit(task));
+            }
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                all.addAll(future.get());
+            }
+            assertThat(all).hasSize(80_000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void resumesAfterThePersistedHighWaterSecond() {
+        long highWater = System.currentTimeMillis() / 1000 + 120;
+        IncidentIdNodeLease lease = lease(highWater);
+
+        SnowflakeIncidentIdGenerator generator = generator(4, lease);
+        String id = generator.nextIncidentId();
+
+        long yearStart = Year.of(Integer.parseInt(id.substring(4, 8))).atDay(1).atStartOfDay(ZONE).toEpochSecond();
+        assertThat(secondOf(id) + yearStart).isGreaterThan(highWater);
+        verify(lease).reserve(longThat(second -> second > highWater));
+    }
+
+    @Test
+    void autoNodeIdUsesTheNodeTheLeaseClaimed() {
+        IncidentIdNodeLease lease = lease(0);
+        when(lease.acquireAny(anyInt())).thenReturn(0L);
+        when(lease.getNodeId()).thenReturn(7);
+
+        SnowflakeIncidentIdGenerator generator = generator("auto", lease);
+
+        assertThat(nodeOf(generator.nextIncidentId())).isEqualTo(7);
+        verify(lease).acquireAny((int) SnowflakeIncidentIdGenerator.MAX_NODE_ID);
+        verify(lease, never()).acquire(anyInt());
+    }
+
+    @Test
+    void refusesToStartWithAnInvalidNodeId() {
+        assertThatThrownBy(() -> generator(-1, lease(0)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("emergency.incident-id.node-id");
+        assertThatThrownBy(() -> generator(32, lease(0)))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> generator("node-1", lease(0)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("auto");
+    }
+
+    @Test
+    void stopsIssuingOnceTheLeaseIsLost() {
+        IncidentIdNodeLease lease = lease(0);
+        SnowflakeIncidentIdGenerator generator = generator(5, lease);
+        generator.nextIncidentId();
+
+        when(lease.isHeld()).thenReturn(false);
+
+        assertThatThrownBy(generator::nextIncidentId).isInstanceOf(IllegalStateException.class);
+    }
+
+    // Helper methods
+
+    private static IncidentIdNodeLease lease(long highWater) {
+        IncidentIdNodeLease lease = mock(IncidentIdNodeLease.class);
+        when(lease.acquire(anyInt())).thenReturn(highWater);
+        when(lease.getReservedUntil()).thenReturn(Long.MAX_VALUE);
+        when(lease.isHeld()).thenReturn(true);
+        return lease;
+    }
+
+    private static SnowflakeIncidentIdGenerator generator(int nodeId, IncidentIdNodeLease lease) {
+        return generator(String.valueOf(nodeId), lease);
+    }
+
+    private static SnowflakeIncidentIdGenerator generator(String nodeId, IncidentIdNodeLease lease) {
+        SnowflakeIncidentIdGenerator generator = new SnowflakeIncidentIdGenerator();
+        ReflectionTestUtils.setField(generator, "configuredNodeId", nodeId);
+        ReflectionTestUtils.setField(generator, "zone", ZONE.getId());
+        ReflectionTestUtils.setField(generator, "nodeLease", lease);
+        generator.init();
+        return generator;
+    }
+
+    private static long suffixValue(String id) {
+        long value = 0;
+        for (char c : id.substring(9).toCharArray()) {
+            value = (value << 5) | ALPHABET.indexOf(c);
+        }
+        return value;
+    }
+
+    private static long nodeOf(String id) {
+        return (suffixValue(id) >>> SnowflakeIncidentIdGenerator.SEQUENCE_BITS) & SnowflakeIncidentIdGenerator.MAX_NODE_ID;
+    }
+
+    private static long secondOf(String id) {
+        return suffixValue(id) >>> (SnowflakeIncidentIdGenerator.NODE_BITS + SnowflakeIncidentIdGenerator.SEQUENCE_BITS);
+    }
+}
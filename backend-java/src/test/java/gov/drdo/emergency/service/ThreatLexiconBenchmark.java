@@ -0,0 +1,71 @@
+package gov.drdo.emergency.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scan throughput of the bundled threat lexicon. Each operation scans 1 MB
+ * (10^6 chars) of mixed English, transliterated and Devanagari report text,
+ * so the ops/s score reads as MB/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreatLexiconBenchmark {
+
+    private static final int TEXT_CHARS = 1_000_000;
+
+    private static final String[] REPORTS = {
+        "Unattended black suitcase near platform 3, wires sticking out, passengers moved away. ",
+        "Traffic signal at the junction is not working since morning, heavy congestion. ",
+        "Station pe kisi ne bam rakha hai, log bhaag rahe hain, police ko bulao. ",
+        "Strong smell of toxic gas from the factory drain, two workers feeling dizzy. ",
+        "प्लेटफार्म पर लावारिस बैग मिला है, उसमें से टिक टिक की आवाज़ आ रही है। ",
+        "Water logging in the underpass after heavy rain, vehicles stuck. ",
+    };
+
+    private ThreatLexicon lexicon;
+    private String text;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/threat-lexicon.tsv"), StandardCharsets.UTF_8))) {
+            lexicon = ThreatLexicon.read(reader);
+        }
+        StringBuilder builder = new StringBuilder(TEXT_CHARS + 200);
+        for (int i = 0; builder.length() < TEXT_CHARS; i++) {
+            builder.append(REPORTS[i % REPORTS.length]);
+        }
+        text = builder.substring(0, TEXT_CHARS);
+    }
+
+    @Benchmark
+    public ThreatLexicon.Matches scanOneMegabyte() {
+        return lexicon.scan(text);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ThreatLexiconBenchmark.class.getSimpleName()).build()).run();
+    }
+}
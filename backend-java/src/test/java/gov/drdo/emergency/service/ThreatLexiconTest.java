@@ -0,0 +1,86 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ThreatLexiconTest {
+
+    private static final ThreatLexicon LEXICON = ThreatLexicon.compile(List.of(
+        new ThreatLexicon.Term("bomb", Incident.IncidentType.BOMB_THREAT, 0.6),
+        new ThreatLexicon.Term("Pipe Bomb", Incident.IncidentType.BOMB_THREAT, 0.85),
+        new ThreatLexicon.Term("bam rakha", Incident.IncidentType.BOMB_THREAT, 0.8),
+        new ThreatLexicon.Term("बम", Incident.IncidentType.BOMB_THREAT, 0.6),
+        new ThreatLexicon.Term("toxic gas", Incident.IncidentType.CHEMICAL_HAZARD, 0.7),
+        new ThreatLexicon.Term("gas", Incident.IncidentType.CHEMICAL_HAZARD, 0.2)));
+
+    @Test
+    void matchesWholeWordsIgnoringCaseAndPunctuation() {
+        ThreatLexicon.Matches matches = LEXICON.scan("Found a PIPE-BOMB!!  near gate 4");
+
+        assertThat(terms(matches)).containsExactlyInAnyOrder("pipe bomb", "bomb");
+        assertThat(LEXICON.scan("Bombay local train delayed").isEmpty()).isTrue();
+        assertThat(LEXICON.scan("gasoline spill").isEmpty()).isTrue();
+    }
+
+    @Test
+    void reportsOverlappingTermsOnce() {
+        ThreatLexicon.Matches matches = LEXICON.scan("toxic gas, toxic gas everywhere");
+
+        assertThat(terms(matches)).containsExactlyInAnyOrder("toxic gas", "gas");
+    }
+
+    @Test
+    void doesNotMatchAcrossFields() {
+        assertThat(terms(LEXICON.scan("pipe", "bomb"))).containsExactly("bomb");
+        assertThat(LEXICON.scan(null, "").isEmpty()).isTrue();
+    }
+
+    @Test
+    void matchesTransliterationsAndDevanagari() {
+        assertThat(terms(LEXICON.scan("Station pe kisi ne BAM RAKHA hai"))).containsExactly("bam rakha");
+        assertThat(terms(LEXICON.scan("प्लेटफार्म पर बम रखा है"))).containsExactly("बम");
+    }
+
+    @Test
+    void combinesWeightsPerCategoryWithNoisyOr() {
+        ThreatLexicon.Matches matches = LEXICON.scan("pipe bomb and toxic gas");
+
+        assertThat(matches.scoreOf(Incident.IncidentType.BOMB_THREAT)).isCloseTo(1 - 0.15 * 0.4, within(1e-9));
+        assertThat(matches.scoreOf(Incident.IncidentType.CHEMICAL_HAZARD)).isCloseTo(1 - 0.3 * 0.8, within(1e-9));
+        assertThat(matches.getTopCategory()).isEqualTo(Incident.IncidentType.BOMB_THREAT);
+    }
+
+    @Test
+    void loadsTheBundledLexicon() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/threat-lexicon.tsv"), StandardCharsets.UTF_8))) {
+            ThreatLexicon bundled = ThreatLexicon.read(reader);
+
+            assertThat(bundled.size()).isGreaterThan(50);
+            assertThat(bundled.scan("unattended bag with a detonator taped to it").getTopCategory())
+                .isEqualTo(Incident.IncidentType.BOMB_THREAT);
+        }
+    }
+
+    @Test
+    void rejectsMalformedLines() {
+        BufferedReader reader = new BufferedReader(new java.io.StringReader("bomb\tNOT_A_TYPE\t0.5\n"));
+
+        assertThatThrownBy(() -> ThreatLexicon.read(reader)).isInstanceOf(IOException.class)
+            .hasMessageContaining("line 1");
+    }
+
+    private static List<String> terms(ThreatLexicon.Matches matches) {
+        return matches.getTerms().stream().map(ThreatLexicon.Term::getText).toList();
+    }
+}
@@ -0,0 +1,84 @@
+package gov.drdo.emergency.service;
+
+import gov.drdo.emergency.entity.Incident;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThreatPrescreenServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void flagsStrongExplosiveReportsAsCritical() throws IOException {
+        ThreatPrescreenService service = service("");
+
+        ThreatPrescreenService.ThreatAssessment assessment = service.assess("Pipe bomb at bus stand",
+            "Improvised explosive device with a detonator", Incident.IncidentType.OTHER, null);
+
+        assertThat(assessment.isCritical()).isTrue();
+        assertThat(assessment.isModelAnalysisRequired()).isTrue();
+        assertThat(assessment.getCategory()).isEqualTo(Incident.IncidentType.BOMB_THREAT);
+    }
+
+    @Test
+    void skipsTheModelForBenignLowRiskReports() throws IOException {
+        ThreatPrescreenService service = service("");
+
+        ThreatPrescreenService.ThreatAssessment assessment = service.assess("Street light not working",
+            "The street light outside house 12 has been off since Monday", Incident.IncidentType.OTHER,
+            Incident.SeverityLevel.LOW);
+
+        assertThat(assessment.isCritical()).isFalse();
+        assertThat(assessment.isModelAnalysisRequired()).isFalse();
+    }
+
+    @Test
+    void reloadsAnEditedDictionary() throws IOException {
+        Path file = directory.resolve("lexicon.tsv");
+        Files.writeString(file, "bomb\tBOMB_THREAT\t0.6\n", StandardCharsets.UTF_8);
+        ThreatPrescreenService service = service(file.toString());
+        assertThat(service.getLexiconSize()).isEqualTo(1);
+        assertThat(service.assess("sutli bam", null, null, null).getMatchedTerms()).isEmpty();
+
+        Files.writeString(file, "bomb\tBOMB_THREAT\t0.6\nsutli bam\tBOMB_THREAT\t0.7\n", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+        service.reloadIfChanged();
+
+        assertThat(service.getLexiconSize()).isEqualTo(2);
+        assertThat(service.assess("sutli bam", null, null, null).getMatchedTerms()).containsExactly("sutli bam");
+    }
+
+    @Test
+    void keepsTheCurrentDictionaryWhenAReloadFails() throws IOException {
+        Path file = directory.resolve("lexicon.tsv");
+        Files.writeString(file, "bomb\tBOMB_THREAT\t0.6\n", StandardCharsets.UTF_8);
+        ThreatPrescreenService service = service(file.toString());
+
+        Files.writeString(file, "broken line without tabs\n", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+        service.reloadIfChanged();
+
+        assertThat(service.assess("bomb", null, null, null).getMatchedTerms()).containsExactly("bomb");
+    }
+
+    private static ThreatPrescreenService service(String lexiconPath) throws IOException {
+        ThreatPrescreenService service = new ThreatPrescreenService();
+        ReflectionTestUtils.setField(service, "lexiconPath", lexiconPath);
+        ReflectionTestUtils.setField(service, "criticalThreshold", 0.85);
+        ReflectionTestUtils.setField(service, "modelThreshold", 0.15);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        service.init();
+        return service;
+    }
+}
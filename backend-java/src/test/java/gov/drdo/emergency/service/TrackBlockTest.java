@@ -0,0 +1,176 @@
+package gov.drdo.emergency.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TrackBlockTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void roundTripsIrregularIntervalsAndSignChanges() {
+        // Deltas of both signs in every field, repeated times and a long gap, so zigzag and delta-of-delta both wrap
+        long[] times = {START, START + 1000, START + 2000, START + 2997, START + 4010, START + 4010, START + 64_010,
+            START + 64_011};
+        double[][] positions = {{28.613900, 77.209000}, {28.614050, 77.208870}, {28.613990, 77.209120},
+            {-33.868820, 151.209290}, {-33.868800, -151.209300}, {89.999999, -179.999999}, {-89.999999, 179.999999},
+            {0.0, 0.0}};
+        double[] speeds = {0.0, 12.3, 11.9, 120.0, 0.1, 0.0, 42.4, 3.5};
+        TrackBlock.Encoder encoder = new TrackBlock.Encoder(7L);
+        for (int i = 0; i < times.length; i++) {
+            encoder.append(times[i], positions[i][0], positions[i][1], speeds[i]);
+        }
+
+        List<double[]> points = decode(encoder.snapshot(), Long.MIN_VALUE, Long.MAX_VALUE);
+
+        assertThat(points).hasSize(times.length);
+        for (int i = 0; i < times.length; i++) {
+            double[] point = points.get(i);
+            assertThat(point[0]).isEqualTo(7.0);
+            assertThat((long) point[1]).isEqualTo(times[i]);
+            assertThat(point[2]).isCloseTo(positions[i][0], within(5e-7));
+            assertThat(point[3]).isCloseTo(positions[i][1], within(5e-7));
+            assertThat(point[4]).isCloseTo(speeds[i], within(0.05));
+        }
+    }
+
+    @Test
+    void steadyStationaryTrackTakesOneByteForEachField() {
+        TrackBlock.Encoder encoder = new TrackBlock.Encoder(1L);
+        for (int i = 0; i < 100; i++) {
+            encoder.append(START + i * 5000L, 0.0, 0.0, 0.0);
+        }
+
+        // The first point stores three one-byte fields (its time is in the header), every later one four;
+        // only the second point's time takes two bytes, as the first interval is its own delta-of-delta
+        assertThat(encoder.encodedSize()).isEqualTo(TrackBlock.HEADER_BYTES + 3 + 99 * 4 + 1);
+    }
+
+    @Test
+    void movingTrackStaysWithinSevenBytesPerPoint() {
+        // A unit at 15 m/s reporting about once a second with GPS and timing jitter
+        Random random = new Random(7);
+        TrackBlock.Encoder encoder = new TrackBlock.Encoder(1L);
+        double latitude = 28.6139;
+        double longitude = 77.2090;
+        double heading = 0.3;
+        long time = START;
+        for (int i = 0; i < 1024; i++) {
+            heading += random.nextGaussian() * 0.05;
+            latitude += 15 * Math.cos(heading) / 111_320.0;
+            longitude += 15 * Math.sin(heading) / (111_320.0 * Math.cos(Math.toRadians(latitude)));
+            encoder.append(time, latitude + random.nextGaussian() * 2e-6, longitude + random.nextGaussian() * 2e-6,
+                15 + random.nextGaussian() * 0.3);
+            time += 1000 + random.nextInt(21) - 10;
+        }
+
+        assertThat((double) encoder.encodedSize() / encoder.getCount()).isLessThanOrEqualTo(7.0);
+    }
+
+    @Test
+    void unknownSpeedDecodesAsNaN() {
+        TrackBlock.Encoder encoder = new TrackBlock.Encoder(3L);
+        encoder.append(START, 10.0, 20.0, Double.NaN);
+        encoder.append(START + 1000, 10.0, 20.0, 4.2);
+        encoder.append(START + 2000, 10.0, 20.0, -1.0);
+        encoder.append(START + 3000, 10.0, 20.0, 0.0);
+
+        List<double[]> points = decode(encoder.snapshot(), Long.MIN_VALUE, Long.MAX_VALUE);
+
+        assertThat(points).extracting(point -> point[4]).hasSize(4);
+        assertThat(points.get(0)[4]).isNaN();
+        assertThat(points.get(1)[4]).isCloseTo(4.2, within(0.05));
+        assertThat(points.get(2)[4]).isNaN();
+        assertThat(points.get(3)[4]).isZero();
+    }
+
+    @Test
+    void decodesOnlyTheRequestedTimeRange() {
+        TrackBlock.Encoder encoder = new TrackBlock.Encoder(5L);
+        for (int i = 0; i < 10; i++) {
+            encoder.append(START + i * 1000L, 1.0 + i * 1e-4, 2.0, 1.0);
+        }
+        ByteBuffer block = encoder.snapshot();
+
+        // from is inclusive, to exclusive
+        assertThat(decode(block, START + 3000, START + 6000)).extracting(point -> (long) point[1])
+            .containsExactly(START + 3000, START + 4000, START + 5000);
+        assertThat(decode(block, START + 2500, START + 3001)).extracting(point -> (long) point[1])
+            .containsExactly(START + 3000);
+        assertThat(decode(block, START + 9001, START + 20_000)).isEmpty();
+        assertThat(decode(block, START - 5000, START)).isEmpty();
+    }
+
+    @Test
+    void headerDescribesTheBlock() {
+        TrackBlock.Encoder encoder = new TrackBlock.Encoder(11L);
+        encoder.append(START, 1.0, 2.0, 3.0);
+        encoder.append(START + 1500, 1.1, 2.1, 3.1);
+        ByteBuffer target = ByteBuffer.allocate(256);
+
+        int written = encoder.writeTo(target, 100);
+
+        assertThat(written).isEqualTo(encoder.encodedSize());
+        assertThat(TrackBlock.isValid(target, 100, 100 + written)).isTrue();
+        assertThat(TrackBlock.length(target, 100)).isEqualTo(written);
+        assertThat(TrackBlock.responderId(target, 100)).isEqualTo(11L);
+        assertThat(TrackBlock.count(target, 100)).isEqualTo(2);
+        assertThat(TrackBlock.firstTime(target, 100)).isEqualTo(START);
+        assertThat(TrackBlock.lastTime(target, 100)).isEqualTo(START + 1500);
+    }
+
+    @Test
+    void truncatedOrCorruptBlocksAreInvalid() {
+        TrackBlock.Encoder encoder = new TrackBlock.Encoder(11L);
+        for (int i = 0; i < 20; i++) {
+            encoder.append(START + i * 1000L, 1.0 + i * 1e-4, 2.0, 3.0);
+        }
+        ByteBuffer block = encoder.snapshot();
+        int size = encoder.encodedSize();
+
+        assertThat(TrackBlock.isValid(block, 0, size)).isTrue();
+        assertThat(TrackBlock.isValid(block, 0, size - 1)).isFalse();
+        assertThat(TrackBlock.isValid(block, 0, TrackBlock.HEADER_BYTES - 1)).isFalse();
+
+        block.put(size - 3, (byte) (block.get(size - 3) ^ 0x10));
+        assertThat(TrackBlock.isValid(block, 0, size)).isFalse();
+
+        ByteBuffer zeroed = ByteBuffer.allocate(size);
+        assertThat(TrackBlock.isValid(zeroed, 0, size)).isFalse();
+    }
+
+    @Test
+    void resetStartsAFreshBlock() {
+        TrackBlock.Encoder encoder = new TrackBlock.Encoder(2L);
+        for (int i = 0; i < 200; i++) {
+            encoder.append(START + i * 1000L, 1.0 + i * 1e-3, 2.0 - i * 1e-3, i);
+        }
+        encoder.reset();
+        encoder.append(START + 500_000, 45.0, -45.0, 9.9);
+
+        List<double[]> points = decode(encoder.snapshot(), Long.MIN_VALUE, Long.MAX_VALUE);
+
+        assertThat(encoder.getCount()).isEqualTo(1);
+        assertThat(encoder.getFirstTime()).isEqualTo(START + 500_000);
+        assertThat(points).hasSize(1);
+        assertThat(points.get(0)[2]).isCloseTo(45.0, within(5e-7));
+        assertThat(points.get(0)[3]).isCloseTo(-45.0, within(5e-7));
+        assertThat(points.get(0)[4]).isCloseTo(9.9, within(0.05));
+    }
+
+    // Helper methods
+
+    private static List<double[]> decode(ByteBuffer block, long from, long to) {
+        List<double[]> points = new ArrayList<>();
+        TrackBlock.decode(block, 0, from, to, (responderId, time, latitude, longitude, speed) ->
+            points.add(new double[]{responderId, time, latitude, longitude, speed}));
+        return points;
+    }
+}
@@ -0,0 +1,159 @@
+package gov.drdo.emergency.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrackSegmentTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenedSegmentIndexesEveryBlock() throws IOException {
+        Path file = directory.resolve("track.seg");
+        TrackSegment segment = TrackSegment.create(file, 4096);
+        segment.append(block(1L, START, 5));
+        segment.append(block(2L, START + 2000, 3));
+        segment.append(block(1L, START + 10_000, 4));
+        int end = segment.getEnd();
+        segment.seal();
+
+        TrackSegment reopened = TrackSegment.open(file);
+
+        assertThat(reopened.isWritable()).isFalse();
+        assertThat(reopened.fits(1)).isFalse();
+        assertThat(reopened.getEnd()).isEqualTo(end);
+        assertThat(reopened.getPoints()).isEqualTo(12);
+        assertThat(reopened.getFirstTime()).isEqualTo(START);
+        assertThat(reopened.getLastTime()).isEqualTo(START + 13_000);
+        assertThat(reopened.blocksOf(1L, Long.MIN_VALUE, Long.MAX_VALUE)).hasSize(2);
+        assertThat(reopened.blocksOf(1L, START + 5000, START + 10_000)).isEmpty();
+        assertThat(reopened.blocksOf(3L, Long.MIN_VALUE, Long.MAX_VALUE)).isEmpty();
+        assertThat(times(reopened, 1L, START + 3000, START + 11_000))
+            .containsExactly(START + 3000, START + 4000, START + 10_000);
+        assertThat(times(reopened, 2L, Long.MIN_VALUE, Long.MAX_VALUE))
+            .containsExactly(START + 2000, START + 3000, START + 4000);
+    }
+
+    @Test
+    void blockWrittenButNotPublishedIsIgnored() throws IOException {
+        Path file = directory.resolve("track.seg");
+        TrackSegment segment = TrackSegment.create(file, 4096);
+        segment.append(block(1L, START, 5));
+        int published = segment.getEnd();
+        segment.seal();
+        // A crash between writing the block and advancing the recorded end
+        TrackBlock.Encoder torn = block(1L, START + 5000, 5);
+        ByteBuffer bytes = torn.snapshot();
+        write(file, published, bytes);
+
+        TrackSegment reopened = TrackSegment.open(file);
+
+        assertThat(reopened.getEnd()).isEqualTo(published);
+        assertThat(reopened.getPoints()).isEqualTo(5);
+        assertThat(times(reopened, 1L, Long.MIN_VALUE, Long.MAX_VALUE)).hasSize(5);
+    }
+
+    @Test
+    void corruptTailIsDroppedAndEarlierBlocksKept() throws IOException {
+        Path file = directory.resolve("track.seg");
+        TrackSegment segment = TrackSegment.create(file, 4096);
+        segment.append(block(1L, START, 5));
+        segment.append(block(2L, START, 5));
+        int second = segment.getEnd();
+        segment.append(block(1L, START + 5000, 5));
+        segment.seal();
+        // Flip a byte in the last block's body: its CRC no longer matches
+        flip(file, second + TrackBlock.HEADER_BYTES + 2);
+
+        TrackSegment reopened = TrackSegment.open(file);
+
+        assertThat(reopened.getEnd()).isEqualTo(second);
+        assertThat(reopened.getPoints()).isEqualTo(10);
+        assertThat(reopened.getLastTime()).isEqualTo(START + 4000);
+        assertThat(times(reopened, 1L, Long.MIN_VALUE, Long.MAX_VALUE)).hasSize(5);
+    }
+
+    @Test
+    void recordedEndPastTheFileOrAGarbageLengthStopsTheScan() throws IOException {
+        Path file = directory.resolve("track.seg");
+        TrackSegment segment = TrackSegment.create(file, 1024);
+        segment.append(block(1L, START, 5));
+        int end = segment.getEnd();
+        segment.seal();
+        // A length field pointing far past the file, and a recorded end beyond the file size
+        write(file, end, ByteBuffer.allocate(4).putInt(0, Integer.MAX_VALUE));
+        write(file, 8, ByteBuffer.allocate(8).putLong(0, 1L << 40));
+
+        TrackSegment reopened = TrackSegment.open(file);
+
+        assertThat(reopened.getEnd()).isEqualTo(end);
+        assertThat(reopened.getPoints()).isEqualTo(5);
+    }
+
+    @Test
+    void fullSegmentRefusesMoreBlocks() throws IOException {
+        TrackSegment segment = TrackSegment.create(directory.resolve("track.seg"), 128);
+        TrackBlock.Encoder block = block(1L, START, 20);
+
+        assertThat(segment.fits(block.encodedSize())).isFalse();
+        assertThatThrownBy(() -> segment.append(block)).isInstanceOf(IllegalStateException.class);
+        assertThat(segment.getPoints()).isZero();
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSegments() throws IOException {
+        Path empty = Files.write(directory.resolve("empty.seg"), new byte[4]);
+        Path other = Files.write(directory.resolve("other.seg"), new byte[64]);
+
+        assertThatThrownBy(() -> TrackSegment.open(empty)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> TrackSegment.open(other)).isInstanceOf(IOException.class);
+    }
+
+    // Helper methods
+
+    private static TrackBlock.Encoder block(long responderId, long start, int points) {
+        TrackBlock.Encoder encoder = new TrackBlock.Encoder(responderId);
+        for (int i = 0; i < points; i++) {
+            encoder.append(start + i * 1000L, 28.6 + i * 1e-4, 77.2 - i * 1e-4, 10.0);
+        }
+        return encoder;
+    }
+
+    private static List<Long> times(TrackSegment segment, long responderId, long from, long to) {
+        List<Long> times = new ArrayList<>();
+        for (long[] ref : segment.blocksOf(responderId, from, to)) {
+            segment.decode(ref, from, to, (id, time, latitude, longitude, speed) -> times.add(time));
+        }
+        return times;
+    }
+
+    private static void write(Path file, long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes.rewind(), position);
+        }
+    }
+
+    private static void flip(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            value.put(0, (byte) (value.get(0) ^ 0x10));
+            channel.write(value.rewind(), position);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- DRDO Emergency Response System - Manual review flag for fallback AI results
+-- One-off migration for databases created before fallback analyses were
+-- flagged instead of escalating incidents:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-ai-review-flag.sql
+
+BEGIN;
+
+ALTER TABLE incidents ADD COLUMN IF NOT EXISTS ai_review_required BOOLEAN NOT NULL DEFAULT FALSE;
+
+COMMIT;
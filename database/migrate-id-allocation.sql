@@ -0,0 +1,23 @@
+-- DRDO Emergency Response System - Pooled ID allocation
+-- One-off migration for databases created before incidents, incident updates and
+-- outbox events were batch-inserted. Stop every backend instance first (a node
+-- still allocating one ID at a time would collide with the new blocks), then:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-id-allocation.sql
+--
+-- Hibernate's pooled optimizer (allocationSize = 50) treats each nextval as the
+-- top of a block of 50 IDs, so the sequences must step by 50 as well. The
+-- sequences are first moved past the highest ID in use so the first block
+-- handed out cannot reach back into existing rows.
+
+BEGIN;
+
+SELECT setval('incidents_id_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM incidents), 1));
+ALTER SEQUENCE incidents_id_seq INCREMENT BY 50;
+
+SELECT setval('incident_updates_id_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM incident_updates), 1));
+ALTER SEQUENCE incident_updates_id_seq INCREMENT BY 50;
+
+SELECT setval('incident_outbox_id_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM incident_outbox), 1));
+ALTER SEQUENCE incident_outbox_id_seq INCREMENT BY 50;
+
+COMMIT;
@@ -0,0 +1,31 @@
+-- DRDO Emergency Response System - Move cold incident columns to incident_details
+-- One-off migration for databases created before incident_details existed:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-incident-details.sql
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS incident_details (
+    id BIGINT PRIMARY KEY REFERENCES incidents(id) ON DELETE CASCADE,
+    description TEXT,
+    ai_analysis TEXT,
+    ai_recommendations TEXT,
+    media_files TEXT[]
+);
+
+INSERT INTO incident_details (id, description, ai_analysis, ai_recommendations, media_files)
+SELECT id, description, ai_analysis, ai_recommendations, media_files
+FROM incidents
+WHERE description IS NOT NULL OR ai_analysis IS NOT NULL
+   OR ai_recommendations IS NOT NULL OR media_files IS NOT NULL
+ON CONFLICT (id) DO NOTHING;
+
+ALTER TABLE incidents
+    DROP COLUMN description,
+    DROP COLUMN ai_analysis,
+    DROP COLUMN ai_recommendations,
+    DROP COLUMN media_files;
+
+COMMIT;
+
+-- Rewrite incidents without the dropped columns' space (takes an exclusive lock)
+VACUUM FULL ANALYZE incidents;
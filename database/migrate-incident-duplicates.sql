@@ -0,0 +1,14 @@
+-- DRDO Emergency Response System - Duplicate report linking
+-- One-off migration for databases created before near-duplicate reports were
+-- linked to a master incident. Run it before migrate-incident-partitions.sql,
+-- which copies the incidents columns as they stand:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-incident-duplicates.sql
+
+BEGIN;
+
+ALTER TABLE incidents ADD COLUMN IF NOT EXISTS master_incident_id BIGINT;
+ALTER TABLE incidents ADD COLUMN IF NOT EXISTS duplicate_count INTEGER DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_incidents_master ON incidents (master_incident_id) WHERE master_incident_id IS NOT NULL;
+
+COMMIT;
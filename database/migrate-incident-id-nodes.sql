@@ -0,0 +1,17 @@
+-- DRDO Emergency Response System - Incident ID node leases
+-- One-off migration for databases created before SnowflakeIncidentIdGenerator
+-- claimed its node ID in the database:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-incident-id-nodes.sql
+--
+-- Every backend instance must now be started with its own INCIDENT_ID_NODE (0-31).
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS incident_id_nodes (
+    node_id SMALLINT PRIMARY KEY CHECK (node_id BETWEEN 0 AND 31),
+    instance VARCHAR(255),
+    heartbeat_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    reserved_until BIGINT NOT NULL DEFAULT 0
+);
+
+COMMIT;
@@ -0,0 +1,98 @@
+-- DRDO Emergency Response System - Incident reference checks
+-- One-off migration for databases partitioned by migrate-incident-partitions.sql,
+-- which dropped the foreign keys to incidents(id). Installs the triggers that
+-- stand in for them and moves incident_details text to lz4 compression:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-incident-integrity.sql
+--
+-- The compression setting applies to values written from now on; existing
+-- rows keep pglz until rewritten (e.g. VACUUM FULL incident_details).
+
+BEGIN;
+
+CREATE OR REPLACE FUNCTION check_incident_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- KEY SHARE holds off a concurrent delete of the incident until this transaction ends
+    PERFORM 1 FROM incidents WHERE id = NEW.incident_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'incident % referenced from % does not exist', NEW.incident_id, TG_TABLE_NAME
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION check_incident_details_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM 1 FROM incidents WHERE id = NEW.id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'incident % referenced from incident_details does not exist', NEW.id
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION delete_incident_children()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM incidents WHERE id = OLD.id) THEN
+        RETURN NULL;
+    END IF;
+    DELETE FROM responder_assignments WHERE incident_id = OLD.id;
+    DELETE FROM incident_updates WHERE incident_id = OLD.id;
+    DELETE FROM incident_outbox WHERE incident_id = OLD.id;
+    DELETE FROM incident_responses WHERE incident_id = OLD.id;
+    DELETE FROM incident_details WHERE id = OLD.id;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS check_assignment_incident ON responder_assignments;
+CREATE TRIGGER check_assignment_incident BEFORE INSERT OR UPDATE OF incident_id ON responder_assignments
+    FOR EACH ROW EXECUTE FUNCTION check_incident_reference();
+
+DROP TRIGGER IF EXISTS check_update_incident ON incident_updates;
+CREATE TRIGGER check_update_incident BEFORE INSERT OR UPDATE OF incident_id ON incident_updates
+    FOR EACH ROW EXECUTE FUNCTION check_incident_reference();
+
+DROP TRIGGER IF EXISTS check_outbox_incident ON incident_outbox;
+CREATE TRIGGER check_outbox_incident BEFORE INSERT OR UPDATE OF incident_id ON incident_outbox
+    FOR EACH ROW EXECUTE FUNCTION check_incident_reference();
+
+DROP TRIGGER IF EXISTS check_response_incident ON incident_responses;
+CREATE TRIGGER check_response_incident BEFORE INSERT OR UPDATE OF incident_id ON incident_responses
+    FOR EACH ROW EXECUTE FUNCTION check_incident_reference();
+
+DROP TRIGGER IF EXISTS check_details_incident ON incident_details;
+CREATE TRIGGER check_details_incident BEFORE INSERT OR UPDATE OF id ON incident_details
+    FOR EACH ROW EXECUTE FUNCTION check_incident_details_reference();
+
+DROP TRIGGER IF EXISTS delete_incident_children ON incidents;
+CREATE TRIGGER delete_incident_children AFTER DELETE ON incidents
+    FOR EACH ROW EXECUTE FUNCTION delete_incident_children();
+
+ALTER TABLE incident_details ALTER COLUMN description SET COMPRESSION lz4;
+ALTER TABLE incident_details ALTER COLUMN ai_analysis SET COMPRESSION lz4;
+ALTER TABLE incident_details ALTER COLUMN ai_recommendations SET COMPRESSION lz4;
+ALTER TABLE incident_details ALTER COLUMN media_files SET COMPRESSION lz4;
+
+-- Rows orphaned while no foreign key was in place; the triggers do not check existing rows
+DO $$
+DECLARE
+    orphans BIGINT;
+BEGIN
+    SELECT (SELECT count(*) FROM responder_assignments c WHERE NOT EXISTS (SELECT 1 FROM incidents i WHERE i.id = c.incident_id))
+         + (SELECT count(*) FROM incident_updates c WHERE NOT EXISTS (SELECT 1 FROM incidents i WHERE i.id = c.incident_id))
+         + (SELECT count(*) FROM incident_outbox c WHERE NOT EXISTS (SELECT 1 FROM incidents i WHERE i.id = c.incident_id))
+         + (SELECT count(*) FROM incident_responses c WHERE NOT EXISTS (SELECT 1 FROM incidents i WHERE i.id = c.incident_id))
+         + (SELECT count(*) FROM incident_details c WHERE NOT EXISTS (SELECT 1 FROM incidents i WHERE i.id = c.id))
+      INTO orphans;
+    IF orphans > 0 THEN
+        RAISE NOTICE '% rows reference incidents that no longer exist', orphans;
+    END IF;
+END;
+$$;
+
+COMMIT;
@@ -0,0 +1,133 @@
+-- DRDO Emergency Response System - Global incident keys
+-- One-off migration for databases partitioned by migrate-incident-partitions.sql
+-- and migrate-incident-integrity.sql, where incidents lost its unique
+-- constraint on incident_id (and on id alone). Adds incident_keys, which
+-- enforces both across all partitions and records the partition of each
+-- incident for single-partition lookups, and switches the incident reference
+-- triggers to it:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-incident-keys.sql
+--
+-- Fails without changing anything if incidents already holds duplicate IDs;
+-- the error lists them. Run before deploying the backend that reads incident_keys.
+
+BEGIN;
+
+-- Writers wait until the keys are backfilled and the triggers are in place
+LOCK TABLE incidents IN SHARE ROW EXCLUSIVE MODE;
+
+DO $$
+DECLARE
+    duplicates TEXT;
+BEGIN
+    SELECT string_agg(incident_id, ', ') INTO duplicates
+    FROM (SELECT incident_id FROM incidents GROUP BY incident_id HAVING count(*) > 1 LIMIT 20) d;
+    IF duplicates IS NOT NULL THEN
+        RAISE EXCEPTION 'incident_id values used more than once (resolve them first): %', duplicates;
+    END IF;
+END;
+$$;
+
+-- ddl-auto=update may already have created an empty table for IncidentKey
+CREATE TABLE IF NOT EXISTS incident_keys (
+    id BIGINT PRIMARY KEY,
+    incident_id VARCHAR(255) NOT NULL UNIQUE,
+    archived BOOLEAN NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+TRUNCATE incident_keys;
+INSERT INTO incident_keys (id, incident_id, archived, created_at)
+SELECT id, incident_id, archived, created_at FROM incidents;
+
+CREATE OR REPLACE FUNCTION check_incident_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- KEY SHARE holds off a concurrent delete of the incident until this transaction ends;
+    -- archival only updates non-key columns of the key row, so it does not wait for it
+    PERFORM 1 FROM incident_keys WHERE id = NEW.incident_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'incident % referenced from % does not exist', NEW.incident_id, TG_TABLE_NAME
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION check_incident_details_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM 1 FROM incident_keys WHERE id = NEW.id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'incident % referenced from incident_details does not exist', NEW.id
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION delete_incident_children()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM incidents WHERE id = OLD.id) THEN
+        RETURN NULL;
+    END IF;
+    -- First, so a child row being added concurrently is committed (and deleted below) before this goes on
+    DELETE FROM incident_keys WHERE id = OLD.id;
+    DELETE FROM responder_assignments WHERE incident_id = OLD.id;
+    DELETE FROM incident_updates WHERE incident_id = OLD.id;
+    DELETE FROM incident_outbox WHERE incident_id = OLD.id;
+    DELETE FROM incident_responses WHERE incident_id = OLD.id;
+    DELETE FROM incident_details WHERE id = OLD.id;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+-- A second incident with the same id or incident_id, in any partition, fails on
+-- incident_keys' unique constraints. Archival moves arrive here with the key
+-- already present and only change its partition key
+CREATE OR REPLACE FUNCTION insert_incident_key()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO incident_keys (id, incident_id, archived, created_at)
+    VALUES (NEW.id, NEW.incident_id, NEW.archived, NEW.created_at)
+    ON CONFLICT (id) DO NOTHING;
+    IF FOUND THEN
+        RETURN NULL;
+    END IF;
+    -- The id is taken: by this incident before it moved, if its old row is gone, else by another one
+    UPDATE incident_keys k SET archived = NEW.archived, created_at = NEW.created_at
+    WHERE k.id = NEW.id AND k.incident_id = NEW.incident_id
+      AND NOT EXISTS (SELECT 1 FROM incidents i
+                      WHERE i.id = k.id AND i.archived = k.archived AND i.created_at = k.created_at);
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'incident id % already exists', NEW.id
+            USING ERRCODE = 'unique_violation';
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+-- Updates that stay within a partition (a move fires the delete and insert triggers instead)
+CREATE OR REPLACE FUNCTION update_incident_key()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE incident_keys
+    SET id = NEW.id, incident_id = NEW.incident_id, archived = NEW.archived, created_at = NEW.created_at
+    WHERE id = OLD.id;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS insert_incident_key ON incidents;
+CREATE TRIGGER insert_incident_key AFTER INSERT ON incidents
+    FOR EACH ROW EXECUTE FUNCTION insert_incident_key();
+
+DROP TRIGGER IF EXISTS update_incident_key ON incidents;
+CREATE TRIGGER update_incident_key AFTER UPDATE OF id, incident_id, created_at ON incidents
+    FOR EACH ROW
+    WHEN (OLD.id <> NEW.id OR OLD.incident_id <> NEW.incident_id OR OLD.created_at <> NEW.created_at)
+    EXECUTE FUNCTION update_incident_key();
+
+COMMIT;
+
+ANALYZE incident_keys;
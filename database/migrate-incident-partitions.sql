@@ -0,0 +1,111 @@
+-- DRDO Emergency Response System - Partition incidents and incident_updates
+-- One-off migration for databases created before incidents were partitioned.
+-- First create the partition maintenance functions and
+-- update_incident_updated_at_column() from schema.sql (CREATE OR REPLACE,
+-- safe to re-run), then:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-incident-partitions.sql
+--
+-- Copies both tables into their partitioned replacements inside one
+-- transaction; writers are blocked for the duration. Old resolved incidents
+-- stay in the hot tier until IncidentPartitionService archives them.
+
+BEGIN;
+
+LOCK TABLE incidents, incident_updates IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE incidents RENAME TO incidents_legacy;
+ALTER TABLE incident_updates RENAME TO incident_updates_legacy;
+
+-- Same columns and checks, plus the tier column; the partition key joins the primary key
+CREATE TABLE incidents (
+    LIKE incidents_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    archived BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (id, archived, created_at)
+) PARTITION BY LIST (archived);
+ALTER TABLE incidents ALTER COLUMN created_at SET NOT NULL;
+ALTER SEQUENCE incidents_id_seq OWNED BY incidents.id;
+
+CREATE TABLE incidents_hot PARTITION OF incidents FOR VALUES IN (FALSE) PARTITION BY RANGE (created_at);
+CREATE TABLE incidents_archive PARTITION OF incidents FOR VALUES IN (TRUE) PARTITION BY RANGE (created_at);
+CREATE TABLE incidents_hot_default PARTITION OF incidents_hot DEFAULT;
+CREATE TABLE incidents_archive_default PARTITION OF incidents_archive DEFAULT;
+
+CREATE TABLE incident_updates (
+    LIKE incident_updates_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    archived BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (id, archived, created_at)
+) PARTITION BY LIST (archived);
+ALTER TABLE incident_updates ALTER COLUMN created_at SET NOT NULL;
+ALTER SEQUENCE incident_updates_id_seq OWNED BY incident_updates.id;
+
+CREATE TABLE incident_updates_hot PARTITION OF incident_updates FOR VALUES IN (FALSE) PARTITION BY RANGE (created_at);
+CREATE TABLE incident_updates_archive PARTITION OF incident_updates FOR VALUES IN (TRUE) PARTITION BY RANGE (created_at);
+CREATE TABLE incident_updates_hot_default PARTITION OF incident_updates_hot DEFAULT;
+CREATE TABLE incident_updates_archive_default PARTITION OF incident_updates_archive DEFAULT;
+
+-- Monthly partitions covering all existing rows
+SELECT create_incident_partitions(3, LEAST(
+    (SELECT COALESCE(min(created_at), CURRENT_TIMESTAMP) FROM incidents_legacy),
+    (SELECT COALESCE(min(created_at), CURRENT_TIMESTAMP) FROM incident_updates_legacy))::date);
+
+INSERT INTO incidents SELECT l.*, FALSE FROM incidents_legacy l;
+INSERT INTO incident_updates SELECT l.*, FALSE FROM incident_updates_legacy l;
+
+-- Foreign keys cannot reference a partitioned table by id alone
+ALTER TABLE incident_details DROP CONSTRAINT IF EXISTS incident_details_id_fkey;
+ALTER TABLE responder_assignments DROP CONSTRAINT IF EXISTS responder_assignments_incident_id_fkey;
+ALTER TABLE incident_outbox DROP CONSTRAINT IF EXISTS incident_outbox_incident_id_fkey;
+ALTER TABLE incident_responses DROP CONSTRAINT IF EXISTS incident_responses_incident_id_fkey;
+
+-- The analytics view is bound to the old table; recreated below
+DROP MATERIALIZED VIEW IF EXISTS incident_analytics;
+
+DROP TABLE incident_updates_legacy;
+DROP TABLE incidents_legacy;
+
+-- Indexes are built once, after the copy
+CREATE INDEX idx_incidents_incident_id ON incidents (incident_id);
+CREATE INDEX idx_incidents_location ON incidents USING GIST (location_point);
+CREATE INDEX idx_incidents_created_at_id ON incidents (created_at, id);
+CREATE INDEX idx_incidents_updated_at_id ON incidents (updated_at, id);
+CREATE INDEX idx_incidents_verified ON incidents (is_verified);
+CREATE INDEX idx_incidents_status_created ON incidents (status, created_at, id);
+CREATE INDEX idx_incidents_type_created ON incidents (type, created_at, id);
+CREATE INDEX idx_incidents_severity_created ON incidents (severity, created_at, id);
+CREATE INDEX idx_incidents_active_created ON incidents (created_at, id)
+    WHERE status IN ('REPORTED', 'VERIFIED', 'ASSIGNED', 'IN_PROGRESS');
+CREATE INDEX idx_incidents_active_type_severity ON incidents (type, severity, created_at)
+    WHERE status IN ('REPORTED', 'VERIFIED', 'ASSIGNED', 'IN_PROGRESS');
+CREATE INDEX idx_incidents_active_critical ON incidents (created_at, id)
+    WHERE is_critical AND status IN ('REPORTED', 'VERIFIED', 'ASSIGNED', 'IN_PROGRESS');
+CREATE INDEX idx_incidents_active_location ON incidents USING GIST (location_point)
+    WHERE status IN ('REPORTED', 'VERIFIED', 'ASSIGNED', 'IN_PROGRESS');
+CREATE INDEX idx_incidents_master ON incidents (master_incident_id) WHERE master_incident_id IS NOT NULL;
+
+CREATE INDEX idx_updates_incident ON incident_updates (incident_id);
+CREATE INDEX idx_updates_type ON incident_updates (type);
+CREATE INDEX idx_updates_created_at ON incident_updates (created_at);
+CREATE INDEX idx_updates_public ON incident_updates (is_public);
+
+CREATE TRIGGER update_incidents_updated_at BEFORE UPDATE ON incidents
+    FOR EACH ROW EXECUTE FUNCTION update_incident_updated_at_column();
+
+CREATE MATERIALIZED VIEW incident_analytics AS
+SELECT
+    DATE_TRUNC('day', created_at) as date,
+    type,
+    severity,
+    status,
+    COUNT(*) as count,
+    AVG(actual_response_time) as avg_response_time,
+    COUNT(CASE WHEN is_critical THEN 1 END) as critical_count
+FROM incidents
+WHERE created_at >= CURRENT_DATE - INTERVAL '30 days'
+GROUP BY DATE_TRUNC('day', created_at), type, severity, status;
+
+CREATE INDEX idx_analytics_date ON incident_analytics (date);
+
+COMMIT;
+
+ANALYZE incidents;
+ANALYZE incident_updates;
@@ -0,0 +1,35 @@
+-- DRDO Emergency Response System - Replace incident_analytics with rollup tables
+-- One-off migration for databases created with the incident_analytics
+-- materialized view. First create compact_incident_rollups() and
+-- rebuild_incident_rollups() from schema.sql (CREATE OR REPLACE, safe to
+-- re-run), then:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-incident-rollups.sql
+
+BEGIN;
+
+DROP MATERIALIZED VIEW IF EXISTS incident_analytics;
+DROP FUNCTION IF EXISTS refresh_incident_analytics();
+
+CREATE TABLE IF NOT EXISTS incident_rollups (
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('MINUTE', 'HOUR', 'DAY')),
+    type VARCHAR(50) NOT NULL,
+    severity VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    region VARCHAR(20) NOT NULL,
+    incident_count BIGINT NOT NULL DEFAULT 0,
+    critical_count BIGINT NOT NULL DEFAULT 0,
+    response_time_sum BIGINT NOT NULL DEFAULT 0,
+    response_time_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_start, granularity, type, severity, status, region)
+);
+
+CREATE INDEX IF NOT EXISTS idx_rollups_granularity_bucket ON incident_rollups (granularity, bucket_start);
+
+-- Backfill all history once, then fold it into the coarser tiers
+SELECT rebuild_incident_rollups(
+    (SELECT COALESCE(min(created_at), CURRENT_TIMESTAMP) FROM incidents)::date,
+    CURRENT_DATE + 1);
+SELECT compact_incident_rollups(INTERVAL '6 hours', INTERVAL '14 days');
+
+COMMIT;
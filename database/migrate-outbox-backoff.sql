@@ -0,0 +1,10 @@
+-- DRDO Emergency Response System - Outbox retry backoff
+-- One-off migration for databases created before failed outbox events were
+-- retried with backoff:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-outbox-backoff.sql
+
+BEGIN;
+
+ALTER TABLE incident_outbox ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP WITH TIME ZONE;
+
+COMMIT;
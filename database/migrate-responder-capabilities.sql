@@ -0,0 +1,14 @@
+-- DRDO Emergency Response System - Responder capability search
+-- One-off migration for databases created before capability queries used
+-- array containment (@>) on specializations and equipment; safe to re-run:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-responder-capabilities.sql
+--
+-- Without these indexes findBySpecialization, findByEquipment and
+-- findByCapabilities still work but scan every responder.
+
+BEGIN;
+
+CREATE INDEX IF NOT EXISTS idx_responders_specializations ON responders USING GIN (specializations);
+CREATE INDEX IF NOT EXISTS idx_responders_equipment ON responders USING GIN (equipment);
+
+COMMIT;
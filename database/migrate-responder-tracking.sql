@@ -0,0 +1,30 @@
+-- DRDO Emergency Response System - Write-behind responder tracking
+-- One-off migration for databases created before ResponderTrackingService;
+-- safe to re-run, e.g. to replace the earlier trigger that compared whole
+-- rows as jsonb on every position flush:
+--   psql -v ON_ERROR_STOP=1 -d drdo_emergency -f database/migrate-responder-tracking.sql
+--
+-- Position-only updates stop moving updated_at, so the live location index
+-- finds them through last_location_update instead.
+
+BEGIN;
+
+DROP TRIGGER IF EXISTS update_responders_updated_at ON responders;
+CREATE TRIGGER update_responders_updated_at BEFORE UPDATE ON responders
+    FOR EACH ROW
+    WHEN ((OLD.responder_id, OLD.name, OLD.email, OLD.phone, OLD.type, OLD.rank, OLD.status, OLD.base_location,
+           OLD.badge_number, OLD.department, OLD.specializations, OLD.equipment, OLD.vehicle_number,
+           OLD.vehicle_type, OLD.years_of_experience, OLD.is_on_duty, OLD.is_available, OLD.shift_start,
+           OLD.shift_end, OLD.created_at)
+          IS DISTINCT FROM
+          (NEW.responder_id, NEW.name, NEW.email, NEW.phone, NEW.type, NEW.rank, NEW.status, NEW.base_location,
+           NEW.badge_number, NEW.department, NEW.specializations, NEW.equipment, NEW.vehicle_number,
+           NEW.vehicle_type, NEW.years_of_experience, NEW.is_on_duty, NEW.is_available, NEW.shift_start,
+           NEW.shift_end, NEW.created_at))
+    EXECUTE FUNCTION update_updated_at_column();
+
+DROP FUNCTION IF EXISTS update_responder_updated_at_column();
+
+CREATE INDEX IF NOT EXISTS idx_responders_last_location_update ON responders (last_location_update);
+
+COMMIT;
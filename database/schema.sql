@@ -11,19 +11,34 @@ CREATE EXTENSION IF NOT EXISTS postgis;
 SET timezone = 'Asia/Kolkata';
 
 -- Drop existing tables if they exist (for development)
+DROP MATERIALIZED VIEW IF EXISTS incident_analytics;
+DROP FUNCTION IF EXISTS refresh_incident_analytics();
+DROP TABLE IF EXISTS incident_rollups CASCADE;
+DROP TABLE IF EXISTS incident_outbox CASCADE;
+DROP TABLE IF EXISTS incident_id_nodes CASCADE;
 DROP TABLE IF EXISTS responder_assignments CASCADE;
 DROP TABLE IF EXISTS incident_responses CASCADE;
 DROP TABLE IF EXISTS incident_updates CASCADE;
+DROP TABLE IF EXISTS incident_details CASCADE;
+DROP TABLE IF EXISTS incident_keys CASCADE;
 DROP TABLE IF EXISTS responders CASCADE;
 DROP TABLE IF EXISTS incidents CASCADE;
 DROP TABLE IF EXISTS users CASCADE;
 
 -- Create incidents table
+-- Partitioned by tier, then by month of created_at:
+--   incidents_hot     (archived = false)  monthly partitions incidents_hot_YYYYMM
+--   incidents_archive (archived = true)   yearly partitions incidents_archive_YYYY, lz4-compressed
+-- archive_closed_incidents() moves old RESOLVED/CLOSED incidents to the archive tier;
+-- queries with archived = false (every active-status query) only touch the hot tier.
+-- Unique constraints on a partitioned table must include the partition key, so
+-- id and incident_id are kept globally unique by incident_keys (below), and
+-- other tables cannot declare a foreign key to incidents(id); the incident
+-- reference triggers further down enforce it instead.
 CREATE TABLE incidents (
-    id BIGSERIAL PRIMARY KEY,
-    incident_id VARCHAR(255) UNIQUE NOT NULL,
+    id BIGSERIAL NOT NULL,
+    incident_id VARCHAR(255) NOT NULL,
     title VARCHAR(500) NOT NULL,
-    description TEXT,
     type VARCHAR(50) NOT NULL CHECK (type IN (
         'BOMB_THREAT', 'SUSPICIOUS_OBJECT', 'CHEMICAL_HAZARD', 
         'BIOLOGICAL_HAZARD', 'FIRE_EMERGENCY', 'MEDICAL_EMERGENCY',
@@ -44,13 +59,10 @@ CREATE TABLE incidents (
     reporter_phone VARCHAR(20),
     reporter_email VARCHAR(255),
     
-    -- AI Analysis
+    -- AI Analysis (full text lives in incident_details)
     ai_confidence_score DECIMAL(3,2) CHECK (ai_confidence_score >= 0 AND ai_confidence_score <= 1),
-    ai_analysis TEXT,
-    ai_recommendations TEXT,
-    
-    -- Media files
-    media_files TEXT[],
+    -- Last analysis came from the local fallback (or failed): an operator must assess it
+    ai_review_required BOOLEAN NOT NULL DEFAULT FALSE,
     
     -- Response metrics
     response_time_target INTEGER, -- in seconds
@@ -61,23 +73,90 @@ CREATE TABLE incidents (
     is_verified BOOLEAN DEFAULT FALSE,
     escalation_level INTEGER DEFAULT 0 CHECK (escalation_level >= 0),
     
+    -- Near-duplicate linking
+    master_incident_id BIGINT,
+    duplicate_count INTEGER DEFAULT 0,
+    
+    -- Storage tier (partition key, set only by archive_closed_incidents)
+    archived BOOLEAN NOT NULL DEFAULT FALSE,
+    
     -- Timestamps
-    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
-    resolved_at TIMESTAMP WITH TIME ZONE
+    resolved_at TIMESTAMP WITH TIME ZONE,
+    
+    PRIMARY KEY (id, archived, created_at)
+) PARTITION BY LIST (archived);
+
+CREATE TABLE incidents_hot PARTITION OF incidents FOR VALUES IN (FALSE) PARTITION BY RANGE (created_at);
+CREATE TABLE incidents_archive PARTITION OF incidents FOR VALUES IN (TRUE) PARTITION BY RANGE (created_at);
+-- Catch rows outside the managed months (back-dated imports, clock skew)
+CREATE TABLE incidents_hot_default PARTITION OF incidents_hot DEFAULT;
+CREATE TABLE incidents_archive_default PARTITION OF incidents_archive DEFAULT;
+
+-- Large, rarely listed columns, kept out of incidents so list scans read narrow rows
+-- (mapped onto Incident as a secondary table; a row exists only when one of them is set)
+CREATE TABLE incident_details (
+    id BIGINT PRIMARY KEY,
+    description TEXT,
+    ai_analysis TEXT,
+    ai_recommendations TEXT,
+    media_files TEXT[]
 );
 
+-- Not partitioned (rows are only ever read by id), so the archive tier's lz4 setting does not
+-- reach these columns; compress them here instead. Applies to values written from now on
+ALTER TABLE incident_details ALTER COLUMN description SET COMPRESSION lz4;
+ALTER TABLE incident_details ALTER COLUMN ai_analysis SET COMPRESSION lz4;
+ALTER TABLE incident_details ALTER COLUMN ai_recommendations SET COMPRESSION lz4;
+ALTER TABLE incident_details ALTER COLUMN media_files SET COMPRESSION lz4;
+
+-- Hibernate allocates incident IDs in blocks of 50 so inserts can be batched
+ALTER SEQUENCE incidents_id_seq INCREMENT BY 50;
+
+-- Per-partition lookup by public incident ID (uniqueness is enforced by incident_keys)
+CREATE INDEX idx_incidents_incident_id ON incidents (incident_id);
+
 -- Create spatial index on location
 CREATE INDEX idx_incidents_location ON incidents USING GIST (location_point);
 
 -- Create indexes for better performance
-CREATE INDEX idx_incidents_status ON incidents (status);
-CREATE INDEX idx_incidents_type ON incidents (type);
-CREATE INDEX idx_incidents_severity ON incidents (severity);
-CREATE INDEX idx_incidents_created_at ON incidents (created_at);
-CREATE INDEX idx_incidents_critical ON incidents (is_critical);
+-- Keyset pagination: one (sort key, id) index per whitelisted sort key, scanned in either direction
+CREATE INDEX idx_incidents_created_at_id ON incidents (created_at, id);
+CREATE INDEX idx_incidents_updated_at_id ON incidents (updated_at, id);
 CREATE INDEX idx_incidents_verified ON incidents (is_verified);
 
+-- Filter shapes used by the command center (see IncidentSpecifications and
+-- IncidentFilterPlanTest); each also serves newest-first paging
+CREATE INDEX idx_incidents_status_created ON incidents (status, created_at, id);
+CREATE INDEX idx_incidents_type_created ON incidents (type, created_at, id);
+CREATE INDEX idx_incidents_severity_created ON incidents (severity, created_at, id);
+
+-- Active-only partial indexes; the predicate must match IncidentFilter.ACTIVE_STATUSES
+-- and ACTIVE_CONDITION. Queries must write the statuses as literals: a bound
+-- status list cannot prove the predicate in a generic plan
+CREATE INDEX idx_incidents_active_created ON incidents (created_at, id)
+    WHERE status IN ('REPORTED', 'VERIFIED', 'ASSIGNED', 'IN_PROGRESS');
+CREATE INDEX idx_incidents_active_type_severity ON incidents (type, severity, created_at)
+    WHERE status IN ('REPORTED', 'VERIFIED', 'ASSIGNED', 'IN_PROGRESS');
+CREATE INDEX idx_incidents_active_critical ON incidents (created_at, id)
+    WHERE is_critical AND status IN ('REPORTED', 'VERIFIED', 'ASSIGNED', 'IN_PROGRESS');
+CREATE INDEX idx_incidents_active_location ON incidents USING GIST (location_point)
+    WHERE status IN ('REPORTED', 'VERIFIED', 'ASSIGNED', 'IN_PROGRESS');
+CREATE INDEX idx_incidents_master ON incidents (master_incident_id) WHERE master_incident_id IS NOT NULL;
+
+-- One row per incident, not partitioned: the global unique constraints on id and
+-- incident_id that incidents cannot declare, and the partition key of each
+-- incident, so lookups by either ID read one partition instead of probing all
+-- of them (see IncidentKey). Kept in step by the incident key triggers below;
+-- TRUNCATE does not fire them, so truncate incident_keys together with incidents.
+CREATE TABLE incident_keys (
+    id BIGINT PRIMARY KEY,
+    incident_id VARCHAR(255) NOT NULL UNIQUE,
+    archived BOOLEAN NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
 -- Create responders table
 CREATE TABLE responders (
     id BIGSERIAL PRIMARY KEY,
@@ -147,11 +226,16 @@ CREATE INDEX idx_responders_type ON responders (type);
 CREATE INDEX idx_responders_status ON responders (status);
 CREATE INDEX idx_responders_available ON responders (is_available, is_on_duty);
 CREATE INDEX idx_responders_department ON responders (department);
+CREATE INDEX idx_responders_updated_at ON responders (updated_at);
+CREATE INDEX idx_responders_last_location_update ON responders (last_location_update);
+-- Capability lookups use array containment (@>), which these serve
+CREATE INDEX idx_responders_specializations ON responders USING GIN (specializations);
+CREATE INDEX idx_responders_equipment ON responders USING GIN (equipment);
 
 -- Create responder assignments table
 CREATE TABLE responder_assignments (
     id BIGSERIAL PRIMARY KEY,
-    incident_id BIGINT NOT NULL REFERENCES incidents(id) ON DELETE CASCADE,
+    incident_id BIGINT NOT NULL,
     responder_id BIGINT NOT NULL REFERENCES responders(id) ON DELETE CASCADE,
     
     status VARCHAR(20) NOT NULL DEFAULT 'ASSIGNED' CHECK (status IN (
@@ -176,10 +260,10 @@ CREATE INDEX idx_assignments_incident ON responder_assignments (incident_id);
 CREATE INDEX idx_assignments_responder ON responder_assignments (responder_id);
 CREATE INDEX idx_assignments_status ON responder_assignments (status);
 
--- Create incident updates table
+-- Create incident updates table (partitioned like incidents; updates follow their incident to the archive)
 CREATE TABLE incident_updates (
-    id BIGSERIAL PRIMARY KEY,
-    incident_id BIGINT NOT NULL REFERENCES incidents(id) ON DELETE CASCADE,
+    id BIGSERIAL NOT NULL,
+    incident_id BIGINT NOT NULL,
     
     title VARCHAR(500) NOT NULL,
     update_text TEXT,
@@ -192,8 +276,19 @@ CREATE TABLE incident_updates (
     is_public BOOLEAN DEFAULT FALSE,
     attachments TEXT[],
     
-    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
-);
+    archived BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    PRIMARY KEY (id, archived, created_at)
+) PARTITION BY LIST (archived);
+
+CREATE TABLE incident_updates_hot PARTITION OF incident_updates FOR VALUES IN (FALSE) PARTITION BY RANGE (created_at);
+CREATE TABLE incident_updates_archive PARTITION OF incident_updates FOR VALUES IN (TRUE) PARTITION BY RANGE (created_at);
+CREATE TABLE incident_updates_hot_default PARTITION OF incident_updates_hot DEFAULT;
+CREATE TABLE incident_updates_archive_default PARTITION OF incident_updates_archive DEFAULT;
+
+-- Hibernate allocates update IDs in blocks of 50 so inserts can be batched
+ALTER SEQUENCE incident_updates_id_seq INCREMENT BY 50;
 
 -- Create indexes for updates
 CREATE INDEX idx_updates_incident ON incident_updates (incident_id);
@@ -201,10 +296,44 @@ CREATE INDEX idx_updates_type ON incident_updates (type);
 CREATE INDEX idx_updates_created_at ON incident_updates (created_at);
 CREATE INDEX idx_updates_public ON incident_updates (is_public);
 
+-- Create incident outbox table (post-commit side effects of incident writes)
+CREATE TABLE incident_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    incident_id BIGINT NOT NULL,
+    
+    stage VARCHAR(20) NOT NULL CHECK (stage IN ('NOTIFY', 'BROADCAST', 'AI_ANALYSIS')),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN (
+        'PENDING', 'IN_PROGRESS', 'COMPLETED', 'FAILED'
+    )),
+    attempts INTEGER DEFAULT 0,
+    last_error TEXT,
+    
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    claimed_at TIMESTAMP WITH TIME ZONE,
+    processed_at TIMESTAMP WITH TIME ZONE,
+    -- Retry backoff: the relay leaves a failed event alone until then
+    next_attempt_at TIMESTAMP WITH TIME ZONE
+);
+
+ALTER SEQUENCE incident_outbox_id_seq INCREMENT BY 50;
+
+-- Relay sweep only scans rows that still need work
+CREATE INDEX idx_outbox_pending ON incident_outbox (created_at) WHERE status = 'PENDING';
+CREATE INDEX idx_outbox_in_progress ON incident_outbox (claimed_at) WHERE status = 'IN_PROGRESS';
+
+-- Create incident ID node leases (one row per Snowflake node ID, see IncidentIdNodeLease)
+CREATE TABLE incident_id_nodes (
+    node_id SMALLINT PRIMARY KEY CHECK (node_id BETWEEN 0 AND 31),
+    instance VARCHAR(255),
+    heartbeat_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- Highest epoch second the holder may have issued IDs for; a restart resumes after it
+    reserved_until BIGINT NOT NULL DEFAULT 0
+);
+
 -- Create incident responses table
 CREATE TABLE incident_responses (
     id BIGSERIAL PRIMARY KEY,
-    incident_id BIGINT NOT NULL REFERENCES incidents(id) ON DELETE CASCADE,
+    incident_id BIGINT NOT NULL,
     
     action_type VARCHAR(255) NOT NULL,
     description TEXT,
@@ -262,31 +391,45 @@ BEGIN
 END;
 $$ language 'plpgsql';
 
+-- Archival only moves an incident between partitions; keep its last real update time
+CREATE OR REPLACE FUNCTION update_incident_updated_at_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.archived IS DISTINCT FROM OLD.archived THEN
+        RETURN NEW;
+    END IF;
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
 -- Apply triggers to tables with updated_at columns
 CREATE TRIGGER update_incidents_updated_at BEFORE UPDATE ON incidents
-    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+    FOR EACH ROW EXECUTE FUNCTION update_incident_updated_at_column();
 
+-- Position reports only move current_location and last_location_update; keep updated_at for
+-- real record changes so readers polling it (the live location index) are not flooded. The WHEN
+-- clause lists every other column and is checked before the function is called, so a position
+-- flush never runs it; add new responders columns to both lists
 CREATE TRIGGER update_responders_updated_at BEFORE UPDATE ON responders
-    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+    FOR EACH ROW
+    WHEN ((OLD.responder_id, OLD.name, OLD.email, OLD.phone, OLD.type, OLD.rank, OLD.status, OLD.base_location,
+           OLD.badge_number, OLD.department, OLD.specializations, OLD.equipment, OLD.vehicle_number,
+           OLD.vehicle_type, OLD.years_of_experience, OLD.is_on_duty, OLD.is_available, OLD.shift_start,
+           OLD.shift_end, OLD.created_at)
+          IS DISTINCT FROM
+          (NEW.responder_id, NEW.name, NEW.email, NEW.phone, NEW.type, NEW.rank, NEW.status, NEW.base_location,
+           NEW.badge_number, NEW.department, NEW.specializations, NEW.equipment, NEW.vehicle_number,
+           NEW.vehicle_type, NEW.years_of_experience, NEW.is_on_duty, NEW.is_available, NEW.shift_start,
+           NEW.shift_end, NEW.created_at))
+    EXECUTE FUNCTION update_updated_at_column();
 
 CREATE TRIGGER update_users_updated_at BEFORE UPDATE ON users
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
--- Create function to generate incident ID
-CREATE OR REPLACE FUNCTION generate_incident_id()
-RETURNS TRIGGER AS $$
-BEGIN
-    IF NEW.incident_id IS NULL THEN
-        NEW.incident_id = 'INC-' || EXTRACT(YEAR FROM CURRENT_TIMESTAMP) || '-' || 
-                         LPAD(nextval('incidents_id_seq')::text, 6, '0');
-    END IF;
-    RETURN NEW;
-END;
-$$ language 'plpgsql';
-
--- Apply trigger for incident ID generation
-CREATE TRIGGER generate_incident_id_trigger BEFORE INSERT ON incidents
-    FOR EACH ROW EXECUTE FUNCTION generate_incident_id();
+-- Incident IDs are generated by the backend (SnowflakeIncidentIdGenerator), no trigger needed
+DROP TRIGGER IF EXISTS generate_incident_id_trigger ON incidents;
+DROP FUNCTION IF EXISTS generate_incident_id();
 
 -- Create function to generate responder ID
 CREATE OR REPLACE FUNCTION generate_responder_id()
@@ -304,44 +447,356 @@ $$ language 'plpgsql';
 CREATE TRIGGER generate_responder_id_trigger BEFORE INSERT ON responders
     FOR EACH ROW EXECUTE FUNCTION generate_responder_id();
 
--- Grant permissions (adjust as needed for your environment)
-GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA public TO postgres;
-GRANT ALL PRIVILEGES ON ALL SEQUENCES IN SCHEMA public TO postgres;
+-- Incident references
+-- Stand-ins for the ON DELETE CASCADE foreign keys responder_assignments,
+-- incident_updates, incident_outbox and incident_responses had before
+-- incidents was partitioned
+-- (a foreign key would have to name the whole partitioned primary key), and for
+-- incident_details. Child rows must name an existing incident; deleting an
+-- incident deletes its children. Archival moves a row between partitions as a
+-- delete plus an insert, which also fires the delete trigger; the moved row is
+-- still found then, so its children and its key stay, and the insert trigger
+-- only moves the key to the new partition.
+CREATE OR REPLACE FUNCTION check_incident_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- KEY SHARE holds off a concurrent delete of the incident until this transaction ends;
+    -- archival only updates non-key columns of the key row, so it does not wait for it
+    PERFORM 1 FROM incident_keys WHERE id = NEW.incident_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'incident % referenced from % does not exist', NEW.incident_id, TG_TABLE_NAME
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION check_incident_details_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM 1 FROM incident_keys WHERE id = NEW.id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'incident % referenced from incident_details does not exist', NEW.id
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION delete_incident_children()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM incidents WHERE id = OLD.id) THEN
+        RETURN NULL;
+    END IF;
+    -- First, so a child row being added concurrently is committed (and deleted below) before this goes on
+    DELETE FROM incident_keys WHERE id = OLD.id;
+    DELETE FROM responder_assignments WHERE incident_id = OLD.id;
+    DELETE FROM incident_updates WHERE incident_id = OLD.id;
+    DELETE FROM incident_outbox WHERE incident_id = OLD.id;
+    DELETE FROM incident_responses WHERE incident_id = OLD.id;
+    DELETE FROM incident_details WHERE id = OLD.id;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+-- A second incident with the same id or incident_id, in any partition, fails on
+-- incident_keys' unique constraints. Archival moves arrive here with the key
+-- already present and only change its partition key
+CREATE OR REPLACE FUNCTION insert_incident_key()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO incident_keys (id, incident_id, archived, created_at)
+    VALUES (NEW.id, NEW.incident_id, NEW.archived, NEW.created_at)
+    ON CONFLICT (id) DO NOTHING;
+    IF FOUND THEN
+        RETURN NULL;
+    END IF;
+    -- The id is taken: by this incident before it moved, if its old row is gone, else by another one
+    UPDATE incident_keys k SET archived = NEW.archived, created_at = NEW.created_at
+    WHERE k.id = NEW.id AND k.incident_id = NEW.incident_id
+      AND NOT EXISTS (SELECT 1 FROM incidents i
+                      WHERE i.id = k.id AND i.archived = k.archived AND i.created_at = k.created_at);
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'incident id % already exists', NEW.id
+            USING ERRCODE = 'unique_violation';
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
 
--- Create materialized view for analytics
-CREATE MATERIALIZED VIEW incident_analytics AS
-SELECT 
-    DATE_TRUNC('day', created_at) as date,
-    type,
-    severity,
-    status,
-    COUNT(*) as count,
-    AVG(actual_response_time) as avg_response_time,
-    COUNT(CASE WHEN is_critical THEN 1 END) as critical_count
-FROM incidents 
-WHERE created_at >= CURRENT_DATE - INTERVAL '30 days'
-GROUP BY DATE_TRUNC('day', created_at), type, severity, status;
-
--- Create index on materialized view
-CREATE INDEX idx_analytics_date ON incident_analytics (date);
-
--- Refresh materialized view function
-CREATE OR REPLACE FUNCTION refresh_incident_analytics()
-RETURNS void AS $$
+-- Updates that stay within a partition (a move fires the delete and insert triggers instead)
+CREATE OR REPLACE FUNCTION update_incident_key()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE incident_keys
+    SET id = NEW.id, incident_id = NEW.incident_id, archived = NEW.archived, created_at = NEW.created_at
+    WHERE id = OLD.id;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER insert_incident_key AFTER INSERT ON incidents
+    FOR EACH ROW EXECUTE FUNCTION insert_incident_key();
+
+CREATE TRIGGER update_incident_key AFTER UPDATE OF id, incident_id, created_at ON incidents
+    FOR EACH ROW
+    WHEN (OLD.id <> NEW.id OR OLD.incident_id <> NEW.incident_id OR OLD.created_at <> NEW.created_at)
+    EXECUTE FUNCTION update_incident_key();
+
+CREATE TRIGGER check_assignment_incident BEFORE INSERT OR UPDATE OF incident_id ON responder_assignments
+    FOR EACH ROW EXECUTE FUNCTION check_incident_reference();
+
+CREATE TRIGGER check_update_incident BEFORE INSERT OR UPDATE OF incident_id ON incident_updates
+    FOR EACH ROW EXECUTE FUNCTION check_incident_reference();
+
+CREATE TRIGGER check_outbox_incident BEFORE INSERT OR UPDATE OF incident_id ON incident_outbox
+    FOR EACH ROW EXECUTE FUNCTION check_incident_reference();
+
+CREATE TRIGGER check_response_incident BEFORE INSERT OR UPDATE OF incident_id ON incident_responses
+    FOR EACH ROW EXECUTE FUNCTION check_incident_reference();
+
+CREATE TRIGGER check_details_incident BEFORE INSERT OR UPDATE OF id ON incident_details
+    FOR EACH ROW EXECUTE FUNCTION check_incident_details_reference();
+
+CREATE TRIGGER delete_incident_children AFTER DELETE ON incidents
+    FOR EACH ROW EXECUTE FUNCTION delete_incident_children();
+
+-- Partition maintenance (called by IncidentPartitionService; requires PostgreSQL 14+ built with lz4)
+
+-- Create the monthly hot partitions from p_from through p_months_ahead months
+-- from now, and the yearly archive partitions they roll into, for incidents
+-- and incident_updates. Returns the number of partitions created.
+CREATE OR REPLACE FUNCTION create_incident_partitions(
+    p_months_ahead INTEGER DEFAULT 3,
+    p_from DATE DEFAULT CURRENT_DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    parent TEXT;
+    month_start DATE;
+    last_month DATE := date_trunc('month', CURRENT_DATE + make_interval(months => p_months_ahead))::date;
+    year_start DATE;
+    part TEXT;
+    col TEXT;
+    created INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('incident_partitions'));
+    FOREACH parent IN ARRAY ARRAY['incidents', 'incident_updates'] LOOP
+        month_start := date_trunc('month', p_from)::date;
+        WHILE month_start <= last_month LOOP
+            part := format('%s_hot_%s', parent, to_char(month_start, 'YYYYMM'));
+            IF to_regclass(part) IS NULL THEN
+                BEGIN
+                    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                        part, parent || '_hot', month_start, (month_start + INTERVAL '1 month')::date);
+                    created := created + 1;
+                EXCEPTION WHEN OTHERS THEN
+                    -- Typically rows for this month already sit in the default partition
+                    RAISE WARNING 'Could not create partition %: %', part, SQLERRM;
+                END;
+            END IF;
+
+            year_start := date_trunc('year', month_start)::date;
+            part := format('%s_archive_%s', parent, to_char(year_start, 'YYYY'));
+            IF to_regclass(part) IS NULL THEN
+                BEGIN
+                    -- Archived rows are never updated again: pack pages full and compress text out of line early.
+                    -- The large incident texts live in incident_details, which is compressed separately
+                    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L) '
+                                   'WITH (fillfactor = 100, toast_tuple_target = 128)',
+                        part, parent || '_archive', year_start, (year_start + INTERVAL '1 year')::date);
+                    FOR col IN
+                        SELECT attname FROM pg_attribute
+                        WHERE attrelid = part::regclass AND attnum > 0 AND NOT attisdropped
+                          AND atttypid IN ('text'::regtype, 'varchar'::regtype, 'text[]'::regtype)
+                    LOOP
+                        EXECUTE format('ALTER TABLE %I ALTER COLUMN %I SET COMPRESSION lz4', part, col);
+                    END LOOP;
+                    created := created + 1;
+                EXCEPTION WHEN OTHERS THEN
+                    RAISE WARNING 'Could not create partition %: %', part, SQLERRM;
+                END;
+            END IF;
+
+            month_start := (month_start + INTERVAL '1 month')::date;
+        END LOOP;
+    END LOOP;
+    RETURN created;
+END;
+$$ language 'plpgsql';
+
+-- Move up to p_batch_size RESOLVED/CLOSED incidents created and last resolved
+-- or updated before p_cutoff, with their updates, into the archive tier.
+-- Returns the number of incidents moved; call until it returns less than the
+-- batch size. The status list must match IncidentFilter.ARCHIVABLE_STATUSES.
+CREATE OR REPLACE FUNCTION archive_closed_incidents(
+    p_cutoff TIMESTAMP WITH TIME ZONE,
+    p_batch_size INTEGER DEFAULT 1000)
+RETURNS INTEGER AS $$
+DECLARE
+    moved INTEGER;
 BEGIN
-    REFRESH MATERIALIZED VIEW incident_analytics;
+    WITH batch AS (
+        SELECT id, created_at FROM incidents
+        WHERE NOT archived
+          AND status IN ('RESOLVED', 'CLOSED')
+          AND created_at < p_cutoff
+          AND COALESCE(resolved_at, updated_at, created_at) < p_cutoff
+        ORDER BY created_at
+        LIMIT p_batch_size
+        FOR UPDATE SKIP LOCKED
+    ), moved_incidents AS (
+        UPDATE incidents i SET archived = TRUE
+        FROM batch b
+        WHERE i.id = b.id AND i.created_at = b.created_at AND NOT i.archived
+        RETURNING i.id
+    ), moved_updates AS (
+        UPDATE incident_updates u SET archived = TRUE
+        WHERE NOT u.archived AND u.incident_id IN (SELECT id FROM moved_incidents)
+        RETURNING u.id
+    )
+    SELECT count(*) INTO moved FROM moved_incidents;
+    RETURN moved;
 END;
 $$ language 'plpgsql';
 
+-- Drop hot monthly partitions that ended more than p_retention ago and are
+-- empty (everything in them has been archived). Returns the number dropped.
+CREATE OR REPLACE FUNCTION drop_empty_hot_partitions(p_retention INTERVAL)
+RETURNS INTEGER AS $$
+DECLARE
+    part RECORD;
+    is_empty BOOLEAN;
+    dropped INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('incident_partitions'));
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent IN ('incidents_hot'::regclass, 'incident_updates_hot'::regclass)
+          AND c.relname ~ '_hot_[0-9]{6}$'
+          AND to_date(right(c.relname, 6), 'YYYYMM') + INTERVAL '1 month' <= CURRENT_TIMESTAMP - p_retention
+    LOOP
+        EXECUTE format('SELECT NOT EXISTS (SELECT 1 FROM %I)', part.relname) INTO is_empty;
+        IF is_empty THEN
+            EXECUTE format('DROP TABLE %I', part.relname);
+            dropped := dropped + 1;
+        END IF;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ language 'plpgsql';
+
+-- Partitions for the last year (covers back-dated seed and import data) and the next three months
+SELECT create_incident_partitions(3, (CURRENT_DATE - INTERVAL '12 months')::date);
+
+-- Create incident rollups table (dashboard analytics, maintained by IncidentRollupService)
+-- Counts incidents by creation bucket and current type/severity/status/region;
+-- MINUTE rows are folded into HOUR and then DAY rows by compact_incident_rollups().
+-- Region is the 1-degree lat:lon cell of the location, or UNKNOWN.
+CREATE TABLE incident_rollups (
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('MINUTE', 'HOUR', 'DAY')),
+    type VARCHAR(50) NOT NULL,
+    severity VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    region VARCHAR(20) NOT NULL,
+    
+    incident_count BIGINT NOT NULL DEFAULT 0,
+    critical_count BIGINT NOT NULL DEFAULT 0,
+    response_time_sum BIGINT NOT NULL DEFAULT 0,
+    response_time_count BIGINT NOT NULL DEFAULT 0,
+    
+    PRIMARY KEY (bucket_start, granularity, type, severity, status, region)
+);
+
+-- Compaction scans one tier by age
+CREATE INDEX idx_rollups_granularity_bucket ON incident_rollups (granularity, bucket_start);
+
+-- Fold MINUTE rows older than p_minute_retention into HOUR rows, and HOUR rows
+-- older than p_hour_retention into DAY rows. Groups whose deltas cancelled out
+-- are dropped. Returns the number of coarser rows written.
+CREATE OR REPLACE FUNCTION compact_incident_rollups(
+    p_minute_retention INTERVAL,
+    p_hour_retention INTERVAL)
+RETURNS INTEGER AS $$
+DECLARE
+    tier RECORD;
+    written INTEGER;
+    total INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('incident_rollups'));
+    FOR tier IN
+        SELECT * FROM (VALUES ('MINUTE', 'HOUR', 'hour', p_minute_retention),
+                              ('HOUR', 'DAY', 'day', p_hour_retention))
+            AS t (source, target, unit, retention)
+    LOOP
+        WITH moved AS (
+            DELETE FROM incident_rollups
+            WHERE granularity = tier.source
+              AND bucket_start < date_trunc(tier.unit, CURRENT_TIMESTAMP - tier.retention)
+            RETURNING *
+        )
+        INSERT INTO incident_rollups (bucket_start, granularity, type, severity, status, region,
+                                      incident_count, critical_count, response_time_sum, response_time_count)
+        SELECT date_trunc(tier.unit, bucket_start), tier.target, type, severity, status, region,
+               SUM(incident_count), SUM(critical_count), SUM(response_time_sum), SUM(response_time_count)
+        FROM moved
+        GROUP BY 1, 3, 4, 5, 6
+        HAVING SUM(incident_count) <> 0 OR SUM(critical_count) <> 0
+            OR SUM(response_time_sum) <> 0 OR SUM(response_time_count) <> 0
+        ON CONFLICT (bucket_start, granularity, type, severity, status, region) DO UPDATE SET
+            incident_count = incident_rollups.incident_count + EXCLUDED.incident_count,
+            critical_count = incident_rollups.critical_count + EXCLUDED.critical_count,
+            response_time_sum = incident_rollups.response_time_sum + EXCLUDED.response_time_sum,
+            response_time_count = incident_rollups.response_time_count + EXCLUDED.response_time_count;
+        GET DIAGNOSTICS written = ROW_COUNT;
+        total := total + written;
+    END LOOP;
+    RETURN total;
+END;
+$$ language 'plpgsql';
+
+-- Replace the rollup rows of every tier for incidents created in [p_from, p_to)
+-- with MINUTE rows recomputed from incidents; compaction folds them again.
+-- Only reads the partitions covering the range. Returns the number of rows written.
+CREATE OR REPLACE FUNCTION rebuild_incident_rollups(p_from DATE, p_to DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    written INTEGER;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('incident_rollups'));
+    DELETE FROM incident_rollups WHERE bucket_start >= p_from AND bucket_start < p_to;
+    INSERT INTO incident_rollups (bucket_start, granularity, type, severity, status, region,
+                                  incident_count, critical_count, response_time_sum, response_time_count)
+    SELECT date_trunc('minute', created_at), 'MINUTE', type, severity, status,
+           COALESCE(floor(ST_Y(location_point))::int || ':' || floor(ST_X(location_point))::int, 'UNKNOWN'),
+           COUNT(*), COUNT(*) FILTER (WHERE is_critical),
+           COALESCE(SUM(actual_response_time), 0), COUNT(actual_response_time)
+    FROM incidents
+    WHERE created_at >= p_from AND created_at < p_to
+    GROUP BY 1, 3, 4, 5, 6;
+    GET DIAGNOSTICS written = ROW_COUNT;
+    RETURN written;
+END;
+$$ language 'plpgsql';
+
+-- Grant permissions (adjust as needed for your environment)
+GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA public TO postgres;
+GRANT ALL PRIVILEGES ON ALL SEQUENCES IN SCHEMA public TO postgres;
+
 -- Comments for documentation
-COMMENT ON TABLE incidents IS 'Main table storing emergency incident reports';
+COMMENT ON TABLE incidents IS 'Main table storing emergency incident reports, partitioned into hot and archive tiers by month';
 COMMENT ON TABLE responders IS 'Emergency response personnel and their details';
 COMMENT ON TABLE responder_assignments IS 'Assignment of responders to specific incidents';
-COMMENT ON TABLE incident_updates IS 'Timeline updates and logs for incidents';
+COMMENT ON TABLE incident_updates IS 'Timeline updates and logs for incidents, partitioned like incidents';
+COMMENT ON TABLE incident_details IS 'Large per-incident text and media columns kept out of list scans';
 COMMENT ON TABLE incident_responses IS 'Response actions taken for incidents';
+COMMENT ON TABLE incident_id_nodes IS 'Which backend instance holds each incident ID node, and the last second it reserved';
+COMMENT ON TABLE incident_outbox IS 'Transactional outbox for post-commit incident notifications, broadcasts and AI analysis';
+COMMENT ON TABLE incident_rollups IS 'Per-minute, hourly and daily incident counts for dashboards, maintained incrementally';
 COMMENT ON TABLE users IS 'System users for authentication and authorization';
 
 -- Performance optimization hints
--- Consider partitioning incidents table by date for large datasets
--- Consider archiving old resolved incidents to separate tables
 -- Regularly VACUUM and ANALYZE tables for optimal performance
@@ -101,10 +101,12 @@ INSERT INTO responders (name, email, phone, type, rank, department, badge_number
  ST_GeomFromText('POINT(77.2010 28.6060)', 4326),
  ST_GeomFromText('POINT(77.2010 28.6060)', 4326));
 
--- Insert sample incidents for testing
-INSERT INTO incidents (title, description, type, severity, location_point, location_address, 
-                      location_landmark, reporter_name, reporter_phone, reporter_email,
-                      ai_confidence_score, is_critical, status) VALUES
+-- Insert sample incidents for testing (descriptions go to incident_details)
+-- incident_id is assigned by the backend (SnowflakeIncidentIdGenerator); seed rows use the
+-- old six-digit INC-YYYY-NNNNNN form, which cannot collide with its eight-character suffixes
+WITH seed (title, description, type, severity, location_point, location_address, 
+           location_landmark, reporter_name, reporter_phone, reporter_email,
+           ai_confidence_score, is_critical, status) AS (VALUES
 
 ('Suspicious Package at Metro Station', 
  'Unattended bag found at Rajiv Chowk Metro Station. Bag appears to have wires visible.',
@@ -149,98 +151,122 @@ INSERT INTO incidents (title, description, type, severity, location_point, locat
  'Indira Gandhi International Airport, Terminal 3, New Delhi, 110037',
  'Departure Gate 15, Terminal 3',
  'Airport Staff', '+919876543224', 'emergency@dial.aero',
- 0.40, false, 'CLOSED');
+ 0.40, false, 'CLOSED')
+), inserted AS (
+    INSERT INTO incidents (incident_id, title, type, severity, location_point, location_address, 
+                          location_landmark, reporter_name, reporter_phone, reporter_email,
+                          ai_confidence_score, is_critical, status)
+    SELECT 'INC-' || to_char(CURRENT_DATE, 'YYYY') || '-' || LPAD((row_number() OVER ())::text, 6, '0'),
+           title, type, severity, location_point, location_address, 
+           location_landmark, reporter_name, reporter_phone, reporter_email,
+           ai_confidence_score, is_critical, status
+    FROM seed
+    RETURNING id, title
+)
+INSERT INTO incident_details (id, description)
+SELECT inserted.id, seed.description FROM inserted JOIN seed USING (title);
 
+-- Incident IDs step by 50 (see incidents_id_seq), so child rows look their incident up by title
 -- Insert sample incident updates
-INSERT INTO incident_updates (incident_id, title, update_text, type, updated_by, is_public) VALUES
-(1, 'Bomb Squad Dispatched', 'Bomb disposal team dispatched to location. Area being evacuated.', 'RESPONDER_UPDATE', 'operator1', true),
-(1, 'Area Secured', 'Perimeter secured. Bomb squad examining suspicious package.', 'FIELD_REPORT', 'Major Rajesh Kumar', true),
-(2, 'Red Fort Evacuation Started', 'Visitor evacuation initiated. All tours suspended.', 'STATUS_CHANGE', 'Brigadier Ravi Nair', true),
-(3, 'HAZMAT Team Arrived', 'Chemical response team on scene. Containment in progress.', 'RESPONDER_UPDATE', 'Colonel Amit Verma', false),
-(4, 'Fire Suppressed', 'Fire successfully extinguished. No casualties reported.', 'RESOLUTION', 'Fire Officer Suresh Pillai', true),
-(5, 'Patient Stabilized', 'Patient stable and transported to hospital.', 'RESOLUTION', 'Dr. Meera Joshi', true);
+INSERT INTO incident_updates (incident_id, title, update_text, type, updated_by, is_public)
+SELECT i.id, u.title, u.update_text, u.type, u.updated_by, u.is_public
+FROM (VALUES
+('Suspicious Package at Metro Station', 'Bomb Squad Dispatched', 'Bomb disposal team dispatched to location. Area being evacuated.', 'RESPONDER_UPDATE', 'operator1', true),
+('Suspicious Package at Metro Station', 'Area Secured', 'Perimeter secured. Bomb squad examining suspicious package.', 'FIELD_REPORT', 'Major Rajesh Kumar', true),
+('Bomb Threat Call at Red Fort', 'Red Fort Evacuation Started', 'Visitor evacuation initiated. All tours suspended.', 'STATUS_CHANGE', 'Brigadier Ravi Nair', true),
+('Chemical Spill at Industrial Area', 'HAZMAT Team Arrived', 'Chemical response team on scene. Containment in progress.', 'RESPONDER_UPDATE', 'Colonel Amit Verma', false),
+('Fire Emergency at Shopping Mall', 'Fire Suppressed', 'Fire successfully extinguished. No casualties reported.', 'RESOLUTION', 'Fire Officer Suresh Pillai', true),
+('Medical Emergency at Airport', 'Patient Stabilized', 'Patient stable and transported to hospital.', 'RESOLUTION', 'Dr. Meera Joshi', true)
+) AS u (incident_title, title, update_text, type, updated_by, is_public)
+JOIN incidents i ON i.title = u.incident_title;
 
 -- Insert sample responder assignments
 INSERT INTO responder_assignments (incident_id, responder_id, status, priority, assigned_by, 
-                                 estimated_arrival_time, actual_arrival_time) VALUES
-(1, 1, 'ARRIVED', 'URGENT', 'operator1', 
+                                 estimated_arrival_time, actual_arrival_time)
+SELECT i.id, a.responder_id, a.status, a.priority, a.assigned_by, a.estimated_arrival_time, a.actual_arrival_time
+FROM (VALUES
+('Suspicious Package at Metro Station', 1, 'ARRIVED', 'URGENT', 'operator1', 
     CURRENT_TIMESTAMP + INTERVAL '10 minutes', 
     CURRENT_TIMESTAMP + INTERVAL '8 minutes'),
-(1, 3, 'EN_ROUTE', 'HIGH', 'operator1', 
+('Suspicious Package at Metro Station', 3, 'EN_ROUTE', 'HIGH', 'operator1', 
     CURRENT_TIMESTAMP + INTERVAL '15 minutes', NULL),
-(2, 2, 'ASSIGNED', 'URGENT', 'operator2', 
+('Bomb Threat Call at Red Fort', 2, 'ASSIGNED', 'URGENT', 'operator2', 
     CURRENT_TIMESTAMP + INTERVAL '12 minutes', NULL),
-(2, 8, 'ACKNOWLEDGED', 'URGENT', 'operator2', 
+('Bomb Threat Call at Red Fort', 8, 'ACKNOWLEDGED', 'URGENT', 'operator2', 
     CURRENT_TIMESTAMP + INTERVAL '20 minutes', NULL),
-(3, 7, 'COMPLETED', 'HIGH', 'commander1', 
+('Chemical Spill at Industrial Area', 7, 'COMPLETED', 'HIGH', 'commander1', 
     CURRENT_TIMESTAMP - INTERVAL '30 minutes', 
     CURRENT_TIMESTAMP - INTERVAL '25 minutes'),
-(4, 5, 'COMPLETED', 'HIGH', 'operator1', 
+('Fire Emergency at Shopping Mall', 5, 'COMPLETED', 'HIGH', 'operator1', 
     CURRENT_TIMESTAMP - INTERVAL '45 minutes', 
     CURRENT_TIMESTAMP - INTERVAL '40 minutes'),
-(5, 6, 'COMPLETED', 'HIGH', 'operator2', 
+('Medical Emergency at Airport', 6, 'COMPLETED', 'HIGH', 'operator2', 
     CURRENT_TIMESTAMP - INTERVAL '60 minutes', 
-    CURRENT_TIMESTAMP - INTERVAL '55 minutes');
+    CURRENT_TIMESTAMP - INTERVAL '55 minutes')
+) AS a (incident_title, responder_id, status, priority, assigned_by, estimated_arrival_time, actual_arrival_time)
+JOIN incidents i ON i.title = a.incident_title;
 
 -- Insert sample incident responses
 INSERT INTO incident_responses (incident_id, action_type, description, response_team, 
-                              resources_deployed, status, start_time, end_time, outcome) VALUES
-(1, 'Area Evacuation', 'Evacuated 500m radius around suspicious package', 'Police & Security', 
+                              resources_deployed, status, start_time, end_time, outcome)
+SELECT i.id, r.action_type, r.description, r.response_team, r.resources_deployed, r.status,
+       r.start_time, r.end_time, r.outcome
+FROM (VALUES
+('Suspicious Package at Metro Station', 'Area Evacuation', 'Evacuated 500m radius around suspicious package', 'Police & Security', 
     '4 Police units, 2 Security teams', 'COMPLETED', 
     CURRENT_TIMESTAMP - INTERVAL '2 hours', 
     CURRENT_TIMESTAMP - INTERVAL '90 minutes', 
     'Area successfully evacuated, no injuries'),
     
-(2, 'Threat Assessment', 'Analyzing bomb threat credibility and response requirements', 'Intelligence Team', 
+('Bomb Threat Call at Red Fort', 'Threat Assessment', 'Analyzing bomb threat credibility and response requirements', 'Intelligence Team', 
     '2 Intelligence officers, 1 Threat analyst', 'IN_PROGRESS', 
     CURRENT_TIMESTAMP - INTERVAL '30 minutes', NULL, NULL),
     
-(3, 'Chemical Containment', 'Containing chemical spill and treating affected personnel', 'HAZMAT Team', 
+('Chemical Spill at Industrial Area', 'Chemical Containment', 'Containing chemical spill and treating affected personnel', 'HAZMAT Team', 
     '1 HAZMAT vehicle, 3 Specialists, 1 Medical team', 'COMPLETED', 
     CURRENT_TIMESTAMP - INTERVAL '3 hours', 
     CURRENT_TIMESTAMP - INTERVAL '1 hour', 
     'Spill contained, 2 workers treated and released'),
     
-(4, 'Fire Suppression', 'Extinguishing fire and ensuring building safety', 'Fire Department', 
+('Fire Emergency at Shopping Mall', 'Fire Suppression', 'Extinguishing fire and ensuring building safety', 'Fire Department', 
     '3 Fire trucks, 12 Firefighters, 1 Rescue team', 'COMPLETED', 
     CURRENT_TIMESTAMP - INTERVAL '4 hours', 
     CURRENT_TIMESTAMP - INTERVAL '3 hours', 
     'Fire extinguished, building cleared as safe'),
     
-(5, 'Medical Treatment', 'Providing emergency medical care to patient', 'Medical Team', 
+('Medical Emergency at Airport', 'Medical Treatment', 'Providing emergency medical care to patient', 'Medical Team', 
     '1 Ambulance, 2 Paramedics, 1 Doctor', 'COMPLETED', 
     CURRENT_TIMESTAMP - INTERVAL '5 hours', 
     CURRENT_TIMESTAMP - INTERVAL '4 hours', 
-    'Patient stabilized and transported to hospital');
+    'Patient stabilized and transported to hospital')
+) AS r (incident_title, action_type, description, response_team, resources_deployed, status, start_time, end_time, outcome)
+JOIN incidents i ON i.title = r.incident_title;
 
 -- Update some incidents with resolved status and actual response times
 UPDATE incidents SET 
     status = 'RESOLVED',
     resolved_at = CURRENT_TIMESTAMP - INTERVAL '1 hour',
     actual_response_time = 2400  -- 40 minutes
-WHERE id = 3;
+WHERE title = 'Chemical Spill at Industrial Area';
 
 UPDATE incidents SET 
     status = 'CLOSED',
     resolved_at = CURRENT_TIMESTAMP - INTERVAL '3 hours',
     actual_response_time = 1800  -- 30 minutes
-WHERE id = 4;
+WHERE title = 'Fire Emergency at Shopping Mall';
 
 UPDATE incidents SET 
     status = 'CLOSED',
     resolved_at = CURRENT_TIMESTAMP - INTERVAL '4 hours',
     actual_response_time = 900   -- 15 minutes
-WHERE id = 5;
-
--- Refresh the materialized view
-SELECT refresh_incident_analytics();
+WHERE title = 'Medical Emergency at Airport';
 
 -- Create some sample historical data for analytics (last 30 days)
-INSERT INTO incidents (title, description, type, severity, location_point, location_address, 
+INSERT INTO incidents (incident_id, title, type, severity, location_point, location_address, 
                       reporter_name, reporter_phone, status, created_at, resolved_at, actual_response_time) 
 SELECT 
+    'INC-' || to_char(CURRENT_DATE, 'YYYY') || '-' || LPAD((100 + generate_series)::text, 6, '0'),
     'Historical Incident ' || generate_series,
-    'Sample historical incident for analytics',
     (ARRAY['BOMB_THREAT', 'SUSPICIOUS_OBJECT', 'FIRE_EMERGENCY', 'MEDICAL_EMERGENCY'])[floor(random() * 4 + 1)],
     (ARRAY['LOW', 'MEDIUM', 'HIGH'])[floor(random() * 3 + 1)],
     ST_GeomFromText('POINT(' || (77.0 + random() * 0.5) || ' ' || (28.4 + random() * 0.4) || ')', 4326),
@@ -253,8 +279,12 @@ SELECT
     floor(random() * 3600 + 300)::integer  -- Random response time between 5 minutes to 1 hour
 FROM generate_series(1, 50);
 
--- Refresh analytics view again with new data
-SELECT refresh_incident_analytics();
+INSERT INTO incident_details (id, description)
+SELECT id, 'Sample historical incident for analytics' FROM incidents WHERE title LIKE 'Historical Incident %';
+
+-- Build dashboard rollups for the seeded (back-dated) incidents
+SELECT rebuild_incident_rollups(CURRENT_DATE - 31, CURRENT_DATE + 1);
+SELECT compact_incident_rollups(INTERVAL '6 hours', INTERVAL '14 days');
 
 -- Display summary of inserted data
 SELECT 'Sample Data Summary' as info;
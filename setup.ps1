@@ -306,6 +306,12 @@ function Start-AllServices {
     Write-Host "Real-time API:   http://localhost:8081"
     Write-Host "=========================================="
     Write-Host ""
+    Write-Host "The Java backend (backend-java, port 8080) is started separately. Each"
+    Write-Host "instance needs its own incident ID node: INCIDENT_ID_NODE=auto (default)"
+    Write-Host "claims a free one, or set 0-31 per instance."
+    Write-Host "Responder and STOMP tokens need JWT_SECRET of at least 32 bytes, shared"
+    Write-Host "with whatever issues the tokens (e.g. openssl rand -base64 48)."
+    Write-Host ""
     
     Show-ServiceStatus
 }
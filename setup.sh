@@ -268,6 +268,12 @@ start_all_services() {
     echo "Real-time API:   http://localhost:8081"
     echo "=========================================="
     echo ""
+    echo "The Java backend (backend-java, port 8080) is started separately. Each"
+    echo "instance needs its own incident ID node: INCIDENT_ID_NODE=auto (default)"
+    echo "claims a free one, or set 0-31 per instance."
+    echo "Responder and STOMP tokens need JWT_SECRET of at least 32 bytes, shared"
+    echo "with whatever issues the tokens (e.g. openssl rand -base64 48)."
+    echo ""
     
     show_status
 }